@@ -23,6 +23,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.apache.asterix.algebra.operators.CommitOperator;
 import org.apache.asterix.common.config.DatasetConfig.DatasetType;
@@ -165,6 +166,11 @@ public class IntroduceSecondaryIndexInsertDeleteRule implements IAlgebraicRewrit
             metaType = (ARecordType) mp.findType(dataset.getMetaItemTypeDataverseName(), dataset.getMetaItemTypeName());
         }
         List<Index> indexes = mp.getDatasetIndexes(dataset.getDataverseName(), dataset.getDatasetName());
+        if (!isBulkload && (primaryIndexModificationOp.getOperation() == Kind.INSERT
+                || primaryIndexModificationOp.getOperation() == Kind.UPSERT)) {
+            // the primary key index is maintained by the primary index insert and upsert operators
+            indexes = indexes.stream().filter(index -> !index.isPrimaryKeyIndex()).collect(Collectors.toList());
+        }
         // Set the top operator pointer to the primary IndexInsertDeleteOperator
         ILogicalOperator currentTop = primaryIndexModificationOp;
         boolean hasSecondaryIndex = false;
@@ -277,6 +283,17 @@ public class IntroduceSecondaryIndexInsertDeleteRule implements IAlgebraicRewrit
                 }
             }
 
+            // Included fields are stored after the keys but take no part in the null filter
+            for (List<String> includedField : index.getIncludedFieldNames()) {
+                IndexFieldId indexFieldId = getIncludedFieldId(includedField, recType);
+                secondaryExpressions.add(new MutableObject<ILogicalExpression>(
+                        new VariableReferenceExpression(fieldVarsForNewRecord.get(indexFieldId))));
+                if (primaryIndexModificationOp.getOperation() == Kind.UPSERT) {
+                    beforeOpSecondaryExpressions.add(new MutableObject<ILogicalExpression>(
+                            new VariableReferenceExpression(fieldVarsForBeforeOperation.get(indexFieldId))));
+                }
+            }
+
             IndexInsertDeleteUpsertOperator indexUpdate;
             if (index.getIndexType() != IndexType.RTREE) {
                 // Create an expression per key
@@ -354,6 +371,7 @@ public class IntroduceSecondaryIndexInsertDeleteRule implements IAlgebraicRewrit
                             primaryIndexModificationOp.getAdditionalNonFilteringExpressions() == null ? 0
                                     : primaryIndexModificationOp.getAdditionalNonFilteringExpressions().size());
                     indexUpdate.setAdditionalFilteringExpressions(filteringExpressions);
+                    indexUpdate.setNumberOfIncludedFields(index.getIncludedFieldNames().size());
                     replicateOutput = indexUpdate;
                     // We add the necessary expressions for upsert
                     if (primaryIndexModificationOp.getOperation() == Kind.UPSERT) {
@@ -595,12 +613,31 @@ public class IntroduceSecondaryIndexInsertDeleteRule implements IAlgebraicRewrit
                 exprs.add(new MutableObject<ILogicalExpression>(theFieldAccessFunc));
                 fieldAccessVars.put(indexFieldId, fieldVar);
             }
+            // included fields are declared fields of the main record and need no cast
+            for (List<String> includedField : index.getIncludedFieldNames()) {
+                IndexFieldId indexFieldId = getIncludedFieldId(includedField, recType);
+                if (fieldAccessVars.containsKey(indexFieldId)) {
+                    continue;
+                }
+                LogicalVariable fieldVar = context.newVar();
+                Mutable<ILogicalExpression> varRef = new MutableObject<>(new VariableReferenceExpression(recordVar));
+                int pos = includedField.size() > 1 ? -1 : recType.getFieldIndex(includedField.get(0));
+                vars.add(fieldVar);
+                exprs.add(new MutableObject<ILogicalExpression>(
+                        pos == -1 ? getOpenOrNestedFieldAccessFunction(varRef, includedField)
+                                : getClosedFieldAccessFunction(varRef, pos)));
+                fieldAccessVars.put(indexFieldId, fieldVar);
+            }
         }
         // AssignOperator assigns secondary keys to their vars
         AssignOperator castedFieldAssignOperator = new AssignOperator(vars, exprs);
         return introduceNewOp(context, currentTop, castedFieldAssignOperator, afterOp);
     }
 
+    private IndexFieldId getIncludedFieldId(List<String> fieldName, ARecordType recType) throws AlgebricksException {
+        return new IndexFieldId(Index.RECORD_INDICATOR, fieldName, recType.getSubFieldType(fieldName).getTypeTag());
+    }
+
     private static ILogicalOperator introduceNewOp(IOptimizationContext context, ILogicalOperator currentTopOp,
             ILogicalOperator newOp, boolean afterOp) throws AlgebricksException {
         if (afterOp) {
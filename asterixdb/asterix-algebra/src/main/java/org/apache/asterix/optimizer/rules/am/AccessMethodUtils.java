@@ -316,6 +316,10 @@ public class AccessMethodUtils {
         } else {
             dest.addAll(KeyFieldTypeUtil.getPartitoningKeyTypes(dataset, recordType, metaRecordType));
         }
+        // Included fields are stored after the primary keys.
+        if (!primaryKeysOnly && index.getIndexType() == IndexType.BTREE) {
+            dest.addAll(KeyFieldTypeUtil.getIncludedFieldTypes(index, recordType));
+        }
     }
 
     public static void appendSecondaryIndexOutputVars(Dataset dataset, ARecordType recordType,
@@ -330,6 +334,9 @@ public class AccessMethodUtils {
         }
         int numSecondaryKeys = KeyFieldTypeUtil.getNumSecondaryKeys(index, recordType, metaRecordType);
         int numVars = (primaryKeysOnly) ? numPrimaryKeys : numPrimaryKeys + numSecondaryKeys;
+        if (!primaryKeysOnly && index.getIndexType() == IndexType.BTREE) {
+            numVars += index.getIncludedFieldNames().size();
+        }
         for (int i = 0; i < numVars; i++) {
             dest.add(context.newVar());
         }
@@ -337,6 +344,11 @@ public class AccessMethodUtils {
 
     public static List<LogicalVariable> getPrimaryKeyVarsFromSecondaryUnnestMap(Dataset dataset,
             ILogicalOperator unnestMapOp) {
+        return getPrimaryKeyVarsFromSecondaryUnnestMap(dataset, 0, unnestMapOp);
+    }
+
+    public static List<LogicalVariable> getPrimaryKeyVarsFromSecondaryUnnestMap(Dataset dataset, int numIncludedFields,
+            ILogicalOperator unnestMapOp) {
         int numPrimaryKeys;
         if (dataset.getDatasetType() == DatasetType.EXTERNAL) {
             numPrimaryKeys = IndexingConstants
@@ -349,9 +361,9 @@ public class AccessMethodUtils {
 
         sourceVars = ((AbstractUnnestMapOperator) unnestMapOp).getVariables();
 
-        // Assumes the primary keys are located at the end.
-        int start = sourceVars.size() - numPrimaryKeys;
-        int stop = sourceVars.size();
+        // Assumes the primary keys are located at the end, only followed by the included fields.
+        int stop = sourceVars.size() - numIncludedFields;
+        int start = stop - numPrimaryKeys;
         for (int i = start; i < stop; i++) {
             primaryKeyVars.add(sourceVars.get(i));
         }
@@ -541,11 +553,11 @@ public class AccessMethodUtils {
     }
 
     public static AbstractUnnestMapOperator createPrimaryIndexUnnestMap(AbstractDataSourceOperator dataSourceOp,
-            Dataset dataset, ARecordType recordType, ARecordType metaRecordType, ILogicalOperator inputOp,
-            IOptimizationContext context, boolean sortPrimaryKeys, boolean retainInput, boolean retainNull,
-            boolean requiresBroadcast) throws AlgebricksException {
-        List<LogicalVariable> primaryKeyVars =
-                AccessMethodUtils.getPrimaryKeyVarsFromSecondaryUnnestMap(dataset, inputOp);
+            Dataset dataset, Index secondaryIndex, ARecordType recordType, ARecordType metaRecordType,
+            ILogicalOperator inputOp, IOptimizationContext context, boolean sortPrimaryKeys, boolean retainInput,
+            boolean retainNull, boolean requiresBroadcast) throws AlgebricksException {
+        List<LogicalVariable> primaryKeyVars = AccessMethodUtils.getPrimaryKeyVarsFromSecondaryUnnestMap(dataset,
+                secondaryIndex.getIncludedFieldNames().size(), inputOp);
         // Optionally add a sort on the primary-index keys before searching the primary index.
         OrderOperator order = null;
         if (sortPrimaryKeys) {
@@ -23,9 +23,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.asterix.common.annotations.SkipSecondaryIndexSearchExpressionAnnotation;
@@ -36,13 +38,16 @@ import org.apache.asterix.common.exceptions.ErrorCode;
 import org.apache.asterix.lang.common.util.FunctionUtil;
 import org.apache.asterix.metadata.entities.Dataset;
 import org.apache.asterix.metadata.entities.Index;
+import org.apache.asterix.metadata.utils.DatasetUtil;
 import org.apache.asterix.om.functions.BuiltinFunctions;
 import org.apache.asterix.om.types.ARecordType;
 import org.apache.asterix.om.types.AUnionType;
 import org.apache.asterix.om.types.IAType;
+import org.apache.asterix.om.utils.ConstantExpressionUtil;
 import org.apache.asterix.om.utils.NonTaggedFormatUtil;
 import org.apache.asterix.optimizer.rules.util.EquivalenceClassUtils;
 import org.apache.commons.lang3.mutable.Mutable;
+import org.apache.commons.lang3.mutable.MutableBoolean;
 import org.apache.commons.lang3.mutable.MutableObject;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
 import org.apache.hyracks.algebricks.common.utils.Pair;
@@ -50,6 +55,7 @@ import org.apache.hyracks.algebricks.core.algebra.base.ILogicalExpression;
 import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
 import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
 import org.apache.hyracks.algebricks.core.algebra.base.LogicalExpressionTag;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalOperatorTag;
 import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
 import org.apache.hyracks.algebricks.core.algebra.expressions.AbstractFunctionCallExpression;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IVariableTypeEnvironment;
@@ -70,6 +76,7 @@ import org.apache.hyracks.algebricks.core.algebra.operators.logical.AssignOperat
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.LeftOuterUnnestMapOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.SelectOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.UnnestMapOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.visitors.VariableUtilities;
 import org.apache.hyracks.algebricks.core.algebra.util.OperatorManipulationUtil;
 
 /**
@@ -137,6 +144,13 @@ public class BTreeAccessMethod implements IAccessMethod {
         if (primaryIndexUnnestOp == null) {
             return false;
         }
+        if (chosenIndex.hasIncludedFields()) {
+            ILogicalOperator indexOnlyOp =
+                    createIndexOnlyPlan(afterSelectRefs, select, subTree, chosenIndex, primaryIndexUnnestOp, context);
+            if (indexOnlyOp != null) {
+                primaryIndexUnnestOp = indexOnlyOp;
+            }
+        }
         Mutable<ILogicalOperator> opRef =
                 subTree.getAssignsAndUnnestsRefs().isEmpty() ? null : subTree.getAssignsAndUnnestsRefs().get(0);
         ILogicalOperator op = null;
@@ -510,8 +524,8 @@ public class BTreeAccessMethod implements IAccessMethod {
             indexSubTree.getDataSourceRef().setValue(externalDataAccessOp);
             return externalDataAccessOp;
         } else if (!isPrimaryIndex) {
-            primaryIndexUnnestOp = AccessMethodUtils.createPrimaryIndexUnnestMap(dataSourceOp, dataset, recordType,
-                    metaRecordType, secondaryIndexUnnestOp, context, true, retainInput, retainNull, false);
+            primaryIndexUnnestOp = AccessMethodUtils.createPrimaryIndexUnnestMap(dataSourceOp, dataset, chosenIndex,
+                    recordType, metaRecordType, secondaryIndexUnnestOp, context, true, retainInput, retainNull, false);
 
             // Adds equivalence classes --- one equivalent class between a primary key
             // variable and a record field-access expression.
@@ -594,6 +608,165 @@ public class BTreeAccessMethod implements IAccessMethod {
         return primaryIndexUnnestOp;
     }
 
+    /**
+     * Replaces the primary index lookup of a secondary index plan with the fields stored in the entries of the chosen
+     * index. This is only possible if the operators of the query that use the record of the dataset only access its
+     * secondary keys, primary keys and included fields.
+     *
+     * @return the operator replacing the primary index lookup, or null if the lookup is needed
+     */
+    private static ILogicalOperator createIndexOnlyPlan(List<Mutable<ILogicalOperator>> afterSelectRefs,
+            SelectOperator select, OptimizableOperatorSubTree subTree, Index chosenIndex,
+            ILogicalOperator primaryIndexUnnestOp, IOptimizationContext context) throws AlgebricksException {
+        Dataset dataset = subTree.getDataset();
+        if (!subTree.hasDataSourceScan() || dataset.hasMetaPart() || DatasetUtil.getFilterField(dataset) != null
+                || chosenIndex.isOverridingKeyFieldTypes()) {
+            return null;
+        }
+        ILogicalOperator orderOp = primaryIndexUnnestOp.getInputs().get(0).getValue();
+        if (orderOp.getOperatorTag() != LogicalOperatorTag.ORDER) {
+            return null;
+        }
+        AbstractUnnestMapOperator secondaryIndexUnnestOp =
+                (AbstractUnnestMapOperator) orderOp.getInputs().get(0).getValue();
+        // The entries of the index hold the secondary keys, the primary keys and the included fields in this order.
+        List<List<String>> entryFields = new ArrayList<>(chosenIndex.getKeyFieldNames());
+        entryFields.addAll(dataset.getPrimaryKeys());
+        entryFields.addAll(chosenIndex.getIncludedFieldNames());
+        List<LogicalVariable> entryVars = secondaryIndexUnnestOp.getVariables();
+        ARecordType recordType = subTree.getRecordType();
+        Map<String, LogicalVariable> coveredFields = new HashMap<>();
+        for (int i = 0; i < entryFields.size(); i++) {
+            List<String> field = entryFields.get(i);
+            if (field.size() == 1 && recordType.isClosedField(field.get(0))) {
+                coveredFields.putIfAbsent(field.get(0), entryVars.get(i));
+            }
+        }
+
+        List<LogicalVariable> dataSourceVars = subTree.getDataSourceVariables();
+        int numPrimaryKeys = dataset.getPrimaryKeys().size();
+        LogicalVariable recordVar = dataSourceVars.get(numPrimaryKeys);
+        List<AbstractLogicalOperator> ops = new ArrayList<>();
+        for (Mutable<ILogicalOperator> afterSelectRef : afterSelectRefs) {
+            ops.add((AbstractLogicalOperator) afterSelectRef.getValue());
+        }
+        ops.add(select);
+        ops.addAll(subTree.getAssignsAndUnnests());
+        Set<LogicalVariable> usedVars = new HashSet<>();
+        for (AbstractLogicalOperator op : ops) {
+            usedVars.clear();
+            VariableUtilities.getUsedVariables(op, usedVars);
+            if (!usedVars.contains(recordVar)) {
+                continue;
+            }
+            // the record may only be used through the expressions of the operator
+            MutableBoolean covered = new MutableBoolean(!op.hasNestedPlans());
+            MutableBoolean usedInExprs = new MutableBoolean(false);
+            op.acceptExpressionTransform(exprRef -> {
+                usedVars.clear();
+                exprRef.getValue().getUsedVariables(usedVars);
+                if (usedVars.contains(recordVar)) {
+                    usedInExprs.setTrue();
+                    if (!isCoveredUse(exprRef.getValue(), recordVar, recordType, coveredFields)) {
+                        covered.setFalse();
+                    }
+                }
+                return false;
+            });
+            if (covered.isFalse() || usedInExprs.isFalse()) {
+                return null;
+            }
+        }
+
+        for (AbstractLogicalOperator op : ops) {
+            op.acceptExpressionTransform(
+                    exprRef -> replaceCoveredFieldAccesses(exprRef, recordVar, recordType, coveredFields));
+        }
+        // The primary keys of the data source are still available to the operators above.
+        List<LogicalVariable> primaryKeyVars = new ArrayList<>();
+        List<Mutable<ILogicalExpression>> primaryKeyExprs = new ArrayList<>();
+        int numSecondaryKeys = chosenIndex.getKeyFieldNames().size();
+        for (int i = 0; i < numPrimaryKeys; i++) {
+            primaryKeyVars.add(dataSourceVars.get(i));
+            primaryKeyExprs
+                    .add(new MutableObject<>(new VariableReferenceExpression(entryVars.get(numSecondaryKeys + i))));
+        }
+        AssignOperator assignPrimaryKeys = new AssignOperator(primaryKeyVars, primaryKeyExprs);
+        assignPrimaryKeys.getInputs().add(new MutableObject<>(secondaryIndexUnnestOp));
+        assignPrimaryKeys.setExecutionMode(ExecutionMode.PARTITIONED);
+        context.computeAndSetTypeEnvironmentForOperator(assignPrimaryKeys);
+        return assignPrimaryKeys;
+    }
+
+    private static boolean isCoveredUse(ILogicalExpression expr, LogicalVariable recordVar, ARecordType recordType,
+            Map<String, LogicalVariable> coveredFields) {
+        switch (expr.getExpressionTag()) {
+            case VARIABLE:
+                return !((VariableReferenceExpression) expr).getVariableReference().equals(recordVar);
+            case FUNCTION_CALL:
+                if (getCoveredFieldVar(expr, recordVar, recordType, coveredFields) != null) {
+                    return true;
+                }
+                for (Mutable<ILogicalExpression> arg : ((AbstractFunctionCallExpression) expr).getArguments()) {
+                    if (!isCoveredUse(arg.getValue(), recordVar, recordType, coveredFields)) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    private static boolean replaceCoveredFieldAccesses(Mutable<ILogicalExpression> exprRef, LogicalVariable recordVar,
+            ARecordType recordType, Map<String, LogicalVariable> coveredFields) {
+        ILogicalExpression expr = exprRef.getValue();
+        if (expr.getExpressionTag() != LogicalExpressionTag.FUNCTION_CALL) {
+            return false;
+        }
+        LogicalVariable fieldVar = getCoveredFieldVar(expr, recordVar, recordType, coveredFields);
+        if (fieldVar != null) {
+            exprRef.setValue(new VariableReferenceExpression(fieldVar));
+            return true;
+        }
+        boolean changed = false;
+        for (Mutable<ILogicalExpression> arg : ((AbstractFunctionCallExpression) expr).getArguments()) {
+            changed |= replaceCoveredFieldAccesses(arg, recordVar, recordType, coveredFields);
+        }
+        return changed;
+    }
+
+    /**
+     * @return the variable holding the value of the field if the expression accesses a covered field of the record,
+     *         null otherwise
+     */
+    private static LogicalVariable getCoveredFieldVar(ILogicalExpression expr, LogicalVariable recordVar,
+            ARecordType recordType, Map<String, LogicalVariable> coveredFields) {
+        if (expr.getExpressionTag() != LogicalExpressionTag.FUNCTION_CALL) {
+            return null;
+        }
+        AbstractFunctionCallExpression funcExpr = (AbstractFunctionCallExpression) expr;
+        if (funcExpr.getArguments().size() != 2) {
+            return null;
+        }
+        ILogicalExpression recordExpr = funcExpr.getArguments().get(0).getValue();
+        if (recordExpr.getExpressionTag() != LogicalExpressionTag.VARIABLE
+                || !((VariableReferenceExpression) recordExpr).getVariableReference().equals(recordVar)) {
+            return null;
+        }
+        String fieldName = null;
+        FunctionIdentifier funcId = funcExpr.getFunctionIdentifier();
+        if (funcId.equals(BuiltinFunctions.FIELD_ACCESS_BY_NAME)) {
+            fieldName = ConstantExpressionUtil.getStringArgument(funcExpr, 1);
+        } else if (funcId.equals(BuiltinFunctions.FIELD_ACCESS_BY_INDEX)) {
+            Integer fieldPos = ConstantExpressionUtil.getIntArgument(funcExpr, 1);
+            if (fieldPos != null && fieldPos >= 0 && fieldPos < recordType.getFieldNames().length) {
+                fieldName = recordType.getFieldNames()[fieldPos];
+            }
+        }
+        return fieldName == null ? null : coveredFields.get(fieldName);
+    }
+
     private int createKeyVarsAndExprs(int numKeys, LimitType[] keyLimits, ILogicalExpression[] searchKeyExprs,
             ArrayList<LogicalVariable> assignKeyVarList, ArrayList<Mutable<ILogicalExpression>> assignKeyExprList,
             ArrayList<LogicalVariable> keyVarList, IOptimizationContext context, ILogicalExpression[] constExpressions,
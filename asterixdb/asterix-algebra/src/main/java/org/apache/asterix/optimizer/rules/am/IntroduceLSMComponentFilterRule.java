@@ -88,20 +88,23 @@ public class IntroduceLSMComponentFilterRule implements IAlgebraicRewriteRule {
 
         Dataset dataset = getDataset(op, context);
         List<String> filterFieldName = null;
+        List<List<String>> synopsisFieldNames = Collections.emptyList();
         ARecordType recType = null;
         if (dataset != null && dataset.getDatasetType() == DatasetType.INTERNAL) {
             filterFieldName = DatasetUtil.getFilterField(dataset);
+            synopsisFieldNames = DatasetUtil.getSynopsisFields(dataset);
             IAType itemType = ((MetadataProvider) context.getMetadataProvider())
                     .findType(dataset.getItemTypeDataverseName(), dataset.getItemTypeName());
             if (itemType.getTypeTag() == ATypeTag.OBJECT) {
                 recType = (ARecordType) itemType;
             }
         }
-        if (filterFieldName == null || recType == null) {
+        if (synopsisFieldNames.isEmpty() || recType == null) {
             return false;
         }
 
-        IAType filterType = recType.getSubFieldType(filterFieldName);
+        // the filter field, if any, is the first synopsis field
+        IAType filterType = filterFieldName == null ? null : recType.getSubFieldType(filterFieldName);
 
         typeEnvironment = context.getOutputTypeEnvironment(op);
         ILogicalExpression condExpr = ((SelectOperator) op).getCondition().getValue();
@@ -116,16 +119,19 @@ public class IntroduceLSMComponentFilterRule implements IAlgebraicRewriteRule {
             for (int i = 0; i < analysisCtx.getMatchedFuncExprs().size(); i++) {
                 IOptimizableFuncExpr optFuncExpr = analysisCtx.getMatchedFuncExpr(i);
                 boolean found = findMacthedExprFieldName(optFuncExpr, op, dataset, recType, datasetIndexes, context);
-                if (found && optFuncExpr.getFieldName(0).equals(filterFieldName)) {
+                if (found && synopsisFieldNames.contains(optFuncExpr.getFieldName(0))) {
                     optFuncExprs.add(optFuncExpr);
                 }
             }
         }
 
         if (optFuncExprs.isEmpty()) {
+            if (filterType == null) {
+                return false;
+            }
             assignFilterFromSecondaryUnnestMap(op, dataset, context, filterType);
         } else {
-            assignFilterFromQuery(optFuncExprs, op, dataset, context, filterType);
+            assignFilterFromQuery(optFuncExprs, synopsisFieldNames, op, dataset, context, filterType);
         }
 
         OperatorPropertiesUtil.typeOpRec(opRef, context);
@@ -133,32 +139,77 @@ public class IntroduceLSMComponentFilterRule implements IAlgebraicRewriteRule {
         return true;
     }
 
+    /**
+     * Assigns the constants of the predicates to the variables of the min/max filter tuples. The bounds of a field
+     * go to its position among the synopsis fields; a position without a bound gets a null variable, which leaves it
+     * unbounded, and trailing unbounded positions are dropped.
+     */
     private AssignOperator createAssignOperator(List<IOptimizableFuncExpr> optFuncExprs,
-            List<LogicalVariable> minFilterVars, List<LogicalVariable> maxFilterVars, IOptimizationContext context) {
+            List<List<String>> synopsisFieldNames, List<LogicalVariable> minFilterVars,
+            List<LogicalVariable> maxFilterVars, IOptimizationContext context) {
         List<LogicalVariable> assignKeyVarList = new ArrayList<>();
         List<Mutable<ILogicalExpression>> assignKeyExprList = new ArrayList<>();
+        LogicalVariable[] minVars = new LogicalVariable[synopsisFieldNames.size()];
+        LogicalVariable[] maxVars = new LogicalVariable[synopsisFieldNames.size()];
 
         for (IOptimizableFuncExpr optFuncExpr : optFuncExprs) {
-            ComparisonKind ck =
-                    AlgebricksBuiltinFunctions.getComparisonType(optFuncExpr.getFuncExpr().getFunctionIdentifier());
+            int position = synopsisFieldNames.indexOf(optFuncExpr.getFieldName(0));
+            ComparisonKind ck = getComparisonKind(optFuncExpr);
+            boolean lower = minVars[position] == null
+                    && (ck == ComparisonKind.GE || ck == ComparisonKind.GT || ck == ComparisonKind.EQ);
+            boolean upper = maxVars[position] == null
+                    && (ck == ComparisonKind.LE || ck == ComparisonKind.LT || ck == ComparisonKind.EQ);
+            if (!lower && !upper) {
+                continue;
+            }
             ILogicalExpression searchKeyExpr = optFuncExpr.getConstantExpr(0);
             LogicalVariable var = context.newVar();
             assignKeyExprList.add(new MutableObject<>(searchKeyExpr));
             assignKeyVarList.add(var);
-            if (ck == ComparisonKind.GE || ck == ComparisonKind.GT) {
-                minFilterVars.add(var);
-            } else if (ck == ComparisonKind.LE || ck == ComparisonKind.LT) {
-                maxFilterVars.add(var);
-            } else if (ck == ComparisonKind.EQ) {
-                minFilterVars.add(var);
-                maxFilterVars.add(var);
+            if (lower) {
+                minVars[position] = var;
+            }
+            if (upper) {
+                maxVars[position] = var;
             }
         }
+        addPositionalFilterVars(minVars, minFilterVars);
+        addPositionalFilterVars(maxVars, maxFilterVars);
         return new AssignOperator(assignKeyVarList, assignKeyExprList);
     }
 
-    private void assignFilterFromQuery(List<IOptimizableFuncExpr> optFuncExprs, AbstractLogicalOperator op,
-            Dataset dataset, IOptimizationContext context, IAType filterType) throws AlgebricksException {
+    private static ComparisonKind getComparisonKind(IOptimizableFuncExpr optFuncExpr) {
+        AbstractFunctionCallExpression funcExpr = optFuncExpr.getFuncExpr();
+        ComparisonKind ck = AlgebricksBuiltinFunctions.getComparisonType(funcExpr.getFunctionIdentifier());
+        if (funcExpr.getArguments().get(0).getValue() != optFuncExpr.getConstantExpr(0)) {
+            return ck;
+        }
+        // the constant is on the left, e.g. 5 < x bounds x from below
+        switch (ck) {
+            case GE:
+                return ComparisonKind.LE;
+            case GT:
+                return ComparisonKind.LT;
+            case LE:
+                return ComparisonKind.GE;
+            case LT:
+                return ComparisonKind.GT;
+            default:
+                return ck;
+        }
+    }
+
+    private static void addPositionalFilterVars(LogicalVariable[] vars, List<LogicalVariable> filterVars) {
+        int length = vars.length;
+        while (length > 0 && vars[length - 1] == null) {
+            length--;
+        }
+        filterVars.addAll(Arrays.asList(vars).subList(0, length));
+    }
+
+    private void assignFilterFromQuery(List<IOptimizableFuncExpr> optFuncExprs, List<List<String>> synopsisFieldNames,
+            AbstractLogicalOperator op, Dataset dataset, IOptimizationContext context, IAType filterType)
+            throws AlgebricksException {
 
         List<UnnestMapOperator> primaryUnnestMapOps = new ArrayList<>();
         boolean hasSecondaryIndexMap = false;
@@ -175,7 +226,8 @@ public class IntroduceLSMComponentFilterRule implements IAlgebraicRewriteRule {
                     List<LogicalVariable> minFilterVars = new ArrayList<>();
                     List<LogicalVariable> maxFilterVars = new ArrayList<>();
 
-                    AssignOperator assignOp = createAssignOperator(optFuncExprs, minFilterVars, maxFilterVars, context);
+                    AssignOperator assignOp = createAssignOperator(optFuncExprs, synopsisFieldNames, minFilterVars,
+                            maxFilterVars, context);
 
                     dataSourceScanOp.setMinFilterVars(minFilterVars);
                     dataSourceScanOp.setMaxFilterVars(maxFilterVars);
@@ -203,29 +255,33 @@ public class IntroduceLSMComponentFilterRule implements IAlgebraicRewriteRule {
                     AccessMethodJobGenParams jobGenParams = new AccessMethodJobGenParams();
                     jobGenParams.readFromFuncArgs(f.getArguments());
                     if (dataset.getDatasetName().compareTo(jobGenParams.datasetName) == 0) {
-                        List<LogicalVariable> minFilterVars = new ArrayList<>();
-                        List<LogicalVariable> maxFilterVars = new ArrayList<>();
-
-                        AssignOperator assignOp =
-                                createAssignOperator(optFuncExprs, minFilterVars, maxFilterVars, context);
-
-                        unnestMapOp.setMinFilterVars(minFilterVars);
-                        unnestMapOp.setMaxFilterVars(maxFilterVars);
-
-                        List<Mutable<ILogicalExpression>> additionalFilteringExpressions = new ArrayList<>();
-                        for (LogicalVariable var : assignOp.getVariables()) {
-                            additionalFilteringExpressions
-                                    .add(new MutableObject<ILogicalExpression>(new VariableReferenceExpression(var)));
-                        }
-                        unnestMapOp.setAdditionalFilteringExpressions(additionalFilteringExpressions);
-                        assignOp.getInputs().add(new MutableObject<>(unnestMapOp.getInputs().get(0).getValue()));
-                        unnestMapOp.getInputs().get(0).setValue(assignOp);
-
                         if (jobGenParams.isPrimaryIndex) {
                             primaryUnnestMapOps.add(unnestMapOp);
-                        } else {
+                        } else if (filterType != null) {
                             hasSecondaryIndexMap = true;
                         }
+                        // secondary indexes keep no synopses, only their component filters bound the filter field
+                        List<IOptimizableFuncExpr> indexFuncExprs = jobGenParams.isPrimaryIndex ? optFuncExprs
+                                : getFilterFieldFuncExprs(optFuncExprs, synopsisFieldNames, filterType);
+                        if (!indexFuncExprs.isEmpty()) {
+                            List<LogicalVariable> minFilterVars = new ArrayList<>();
+                            List<LogicalVariable> maxFilterVars = new ArrayList<>();
+
+                            AssignOperator assignOp = createAssignOperator(indexFuncExprs, synopsisFieldNames,
+                                    minFilterVars, maxFilterVars, context);
+
+                            unnestMapOp.setMinFilterVars(minFilterVars);
+                            unnestMapOp.setMaxFilterVars(maxFilterVars);
+
+                            List<Mutable<ILogicalExpression>> additionalFilteringExpressions = new ArrayList<>();
+                            for (LogicalVariable var : assignOp.getVariables()) {
+                                additionalFilteringExpressions
+                                        .add(new MutableObject<>(new VariableReferenceExpression(var)));
+                            }
+                            unnestMapOp.setAdditionalFilteringExpressions(additionalFilteringExpressions);
+                            assignOp.getInputs().add(new MutableObject<>(unnestMapOp.getInputs().get(0).getValue()));
+                            unnestMapOp.getInputs().get(0).setValue(assignOp);
+                        }
                     }
                 }
             }
@@ -236,6 +292,19 @@ public class IntroduceLSMComponentFilterRule implements IAlgebraicRewriteRule {
         }
     }
 
+    private static List<IOptimizableFuncExpr> getFilterFieldFuncExprs(List<IOptimizableFuncExpr> optFuncExprs,
+            List<List<String>> synopsisFieldNames, IAType filterType) {
+        List<IOptimizableFuncExpr> filterFuncExprs = new ArrayList<>();
+        if (filterType != null) {
+            for (IOptimizableFuncExpr optFuncExpr : optFuncExprs) {
+                if (synopsisFieldNames.indexOf(optFuncExpr.getFieldName(0)) == 0) {
+                    filterFuncExprs.add(optFuncExpr);
+                }
+            }
+        }
+        return filterFuncExprs;
+    }
+
     private void propagateFilterToPrimaryIndex(List<UnnestMapOperator> primaryUnnestMapOps, IAType filterType,
             IOptimizationContext context) throws AlgebricksException {
         for (UnnestMapOperator primaryOp : primaryUnnestMapOps) {
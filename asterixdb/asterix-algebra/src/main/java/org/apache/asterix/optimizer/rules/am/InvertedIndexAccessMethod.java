@@ -425,8 +425,8 @@ public class InvertedIndexAccessMethod implements IAccessMethod {
 
         // Generate the rest of the upstream plan which feeds the search results into the primary index.
         AbstractUnnestMapOperator primaryIndexUnnestOp =
-                AccessMethodUtils.createPrimaryIndexUnnestMap(dataSourceScan, dataset, recordType, metaRecordType,
-                        secondaryIndexUnnestOp, context, true, retainInput, retainNull, false);
+                AccessMethodUtils.createPrimaryIndexUnnestMap(dataSourceScan, dataset, chosenIndex, recordType,
+                        metaRecordType, secondaryIndexUnnestOp, context, true, retainInput, retainNull, false);
 
         return primaryIndexUnnestOp;
     }
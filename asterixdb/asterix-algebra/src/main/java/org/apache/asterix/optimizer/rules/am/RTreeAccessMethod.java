@@ -251,8 +251,8 @@ public class RTreeAccessMethod implements IAccessMethod {
         return dataset.getDatasetType() == DatasetType.EXTERNAL
                 ? AccessMethodUtils.createExternalDataLookupUnnestMap(dataSourceOp, dataset, recordType,
                         secondaryIndexUnnestOp, context, retainInput, retainNull)
-                : AccessMethodUtils.createPrimaryIndexUnnestMap(dataSourceOp, dataset, recordType, metaRecordType,
-                        secondaryIndexUnnestOp, context, true, retainInput, false, false);
+                : AccessMethodUtils.createPrimaryIndexUnnestMap(dataSourceOp, dataset, chosenIndex, recordType,
+                        metaRecordType, secondaryIndexUnnestOp, context, true, retainInput, false, false);
     }
 
     @Override
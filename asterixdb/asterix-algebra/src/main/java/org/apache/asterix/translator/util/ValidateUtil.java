@@ -19,7 +19,10 @@
 package org.apache.asterix.translator.util;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.asterix.common.config.DatasetConfig.IndexType;
 import org.apache.asterix.common.exceptions.AsterixException;
@@ -87,6 +90,27 @@ public class ValidateUtil {
         }
     }
 
+    /**
+     * Validates the fields over which the disk components of a primary index keep per-leaf synopses.
+     *
+     * @param recordType
+     *            the record type
+     * @param synopsisFields
+     *            the names of the top-level fields
+     * @throws AlgebricksException
+     *             if a field is not a closed, required field of a type that a filter field can have.
+     */
+    public static void validateSynopsisFields(ARecordType recordType, List<String> synopsisFields)
+            throws AlgebricksException {
+        for (String synopsisField : synopsisFields) {
+            try {
+                validateFilterField(recordType, Collections.singletonList(synopsisField));
+            } catch (CompilationException e) {
+                throw new CompilationException(ErrorCode.ILLEGAL_SYNOPSIS_FIELD, e, synopsisField);
+            }
+        }
+    }
+
     /**
      * Validates the partitioning expression that will be used to partition a dataset and returns expression type.
      *
@@ -292,4 +316,45 @@ public class ValidateUtil {
         }
     }
 
+    /**
+     * Validates the fields that will be stored in the entries of a secondary index besides its keys.
+     *
+     * @param recType
+     *            the record type
+     * @param keyFieldNames
+     *            the key fields of the index
+     * @param primaryKeys
+     *            the primary key fields of the dataset
+     * @param includedFields
+     *            the fields to include in the index
+     * @param indexType
+     *            the type of the index
+     * @throws AlgebricksException
+     *             if the index is not a B-tree index with keys.
+     *             if a field is not a declared field of the record type.
+     *             if a field is a key of the index or is included more than once.
+     */
+    public static void validateIncludedFields(ARecordType recType, List<List<String>> keyFieldNames,
+            List<List<String>> primaryKeys, List<List<String>> includedFields, IndexType indexType)
+            throws AlgebricksException {
+        if (indexType != IndexType.BTREE || keyFieldNames.isEmpty()) {
+            throw new CompilationException(ErrorCode.INDEX_ILLEGAL_INCLUDED_FIELDS);
+        }
+        Set<List<String>> validatedFields = new HashSet<>();
+        for (List<String> includedField : includedFields) {
+            if (recType.getSubFieldType(includedField) == null) {
+                throw new CompilationException(ErrorCode.COMPILATION_FIELD_NOT_FOUND,
+                        RecordUtil.toFullyQualifiedName(includedField));
+            }
+            if (keyFieldNames.contains(includedField) || primaryKeys.contains(includedField)) {
+                throw new CompilationException(ErrorCode.INDEX_ILLEGAL_INCLUDED_KEY_FIELD,
+                        RecordUtil.toFullyQualifiedName(includedField));
+            }
+            if (!validatedFields.add(includedField)) {
+                throw new CompilationException(ErrorCode.INDEX_ILLEGAL_REPETITIVE_FIELD,
+                        RecordUtil.toFullyQualifiedName(includedField));
+            }
+        }
+    }
+
 }
@@ -22,8 +22,10 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.net.InetSocketAddress;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -32,10 +34,15 @@ import org.apache.asterix.common.replication.IPartitionReplica;
 import org.apache.asterix.common.storage.IReplicaManager;
 import org.apache.asterix.common.storage.ReplicaIdentifier;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IODeviceHandle;
 import org.apache.hyracks.http.api.IServletRequest;
 import org.apache.hyracks.http.api.IServletResponse;
 import org.apache.hyracks.http.server.AbstractServlet;
 import org.apache.hyracks.http.server.utils.HttpUtil;
+import org.apache.hyracks.storage.am.lsm.common.api.IIOSchedulerStats;
+import org.apache.hyracks.storage.am.lsm.common.api.IIOThrottle;
+import org.apache.hyracks.storage.common.buffercache.BufferCachePartition;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 import org.apache.hyracks.util.JSONUtil;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
@@ -69,6 +76,12 @@ public class StorageApiServlet extends AbstractServlet {
                 json = getStatus(p -> true);
             } else if (path.startsWith("/partition")) {
                 json = getPartitionStatus(path);
+            } else if ("/buffercache".equals(path)) {
+                json = getBufferCacheStatus();
+            } else if ("/io".equals(path)) {
+                json = getIOSchedulerStatus();
+            } else if ("/io/devices".equals(path)) {
+                json = getMergeThrottleStatus();
             } else {
                 throw new IllegalArgumentException();
             }
@@ -138,6 +151,56 @@ public class StorageApiServlet extends AbstractServlet {
         return status;
     }
 
+    private JsonNode getBufferCacheStatus() {
+        final ArrayNode status = OBJECT_MAPPER.createArrayNode();
+        final IBufferCache bufferCache = appCtx.getBufferCache();
+        for (BufferCachePartition partition : appCtx.getDatasetLifecycleManager().getCachePartitions()) {
+            final ObjectNode partitionJson = OBJECT_MAPPER.createObjectNode();
+            final long hits = partition.getHitCount();
+            final long misses = partition.getMissCount();
+            partitionJson.put("name", partition.getName());
+            partitionJson.put("reservedPages", partition.getReservedPages());
+            partitionJson.put("pages", partition.getNumPages());
+            partitionJson.put("dirtyPages", bufferCache.getDirtyPageCount(partition));
+            partitionJson.put("hits", hits);
+            partitionJson.put("misses", misses);
+            partitionJson.put("hitRatio", hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+            partitionJson.put("evictions", partition.getEvictionCount());
+            status.add(partitionJson);
+        }
+        return status;
+    }
+
+    private JsonNode getIOSchedulerStatus() {
+        final ArrayNode status = OBJECT_MAPPER.createArrayNode();
+        for (Map.Entry<String, IIOSchedulerStats> entry : appCtx.getLSMIOScheduler().getStats().entrySet()) {
+            final IIOSchedulerStats stats = entry.getValue();
+            final ObjectNode indexJson = OBJECT_MAPPER.createObjectNode();
+            indexJson.put("index", entry.getKey());
+            indexJson.put("queuedFlushes", stats.getQueuedFlushes());
+            indexJson.put("queuedMerges", stats.getQueuedMerges());
+            indexJson.put("runningMerges", stats.getRunningMerges());
+            indexJson.put("flushStallTimeMs", TimeUnit.NANOSECONDS.toMillis(stats.getFlushStallTime()));
+            indexJson.put("mergeStallTimeMs", TimeUnit.NANOSECONDS.toMillis(stats.getMergeStallTime()));
+            status.add(indexJson);
+        }
+        return status;
+    }
+
+    private JsonNode getMergeThrottleStatus() {
+        final ArrayNode status = OBJECT_MAPPER.createArrayNode();
+        for (Map.Entry<IODeviceHandle, IIOThrottle> entry : appCtx.getLSMIOScheduler().getMergeThrottles().entrySet()) {
+            final IIOThrottle throttle = entry.getValue();
+            final ObjectNode deviceJson = OBJECT_MAPPER.createObjectNode();
+            deviceJson.put("device", entry.getKey().getMount().getAbsolutePath());
+            deviceJson.put("mergeRate", throttle.getRate());
+            deviceJson.put("mergeBytes", throttle.getBytes());
+            deviceJson.put("mergeThrottledTimeMs", TimeUnit.NANOSECONDS.toMillis(throttle.getThrottledTime()));
+            status.add(deviceJson);
+        }
+        return status;
+    }
+
     private void processAddReplica(IServletRequest request, IServletResponse response) {
         final ReplicaIdentifier replicaIdentifier = getReplicaIdentifier(request);
         if (replicaIdentifier == null) {
@@ -85,8 +85,8 @@ import org.apache.hyracks.control.nc.NodeControllerService;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperationScheduler;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMMergePolicyFactory;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMOperationTracker;
-import org.apache.hyracks.storage.am.lsm.common.impls.AsynchronousScheduler;
 import org.apache.hyracks.storage.am.lsm.common.impls.PrefixMergePolicyFactory;
+import org.apache.hyracks.storage.am.lsm.common.impls.PrioritizedScheduler;
 import org.apache.hyracks.storage.common.ILocalResourceRepository;
 import org.apache.hyracks.storage.common.buffercache.BufferCache;
 import org.apache.hyracks.storage.common.buffercache.ClockPageReplacementStrategy;
@@ -96,6 +96,7 @@ import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 import org.apache.hyracks.storage.common.buffercache.ICacheMemoryAllocator;
 import org.apache.hyracks.storage.common.buffercache.IPageCleanerPolicy;
 import org.apache.hyracks.storage.common.buffercache.IPageReplacementStrategy;
+import org.apache.hyracks.storage.common.buffercache.TwoQueuePageReplacementStrategy;
 import org.apache.hyracks.storage.common.file.FileMapManager;
 import org.apache.hyracks.storage.common.file.ILocalResourceRepositoryFactory;
 import org.apache.hyracks.storage.common.file.IResourceIdFactory;
@@ -171,11 +172,10 @@ public class NCAppRuntimeContext implements INcApplicationContext {
         threadExecutor = Executors.newCachedThreadPool(getServiceContext().getThreadFactory());
         ICacheMemoryAllocator allocator = new HeapBufferAllocator();
         IPageCleanerPolicy pcp = new DelayPageCleanerPolicy(600000);
-        IPageReplacementStrategy prs = new ClockPageReplacementStrategy(allocator,
-                storageProperties.getBufferCachePageSize(), storageProperties.getBufferCacheNumPages());
+        IPageReplacementStrategy prs = createPageReplacementStrategy(allocator);
 
-        AsynchronousScheduler.INSTANCE.init(getServiceContext().getThreadFactory());
-        lsmIOScheduler = AsynchronousScheduler.INSTANCE;
+        lsmIOScheduler = new PrioritizedScheduler(getServiceContext().getThreadFactory(),
+                storageProperties.getMaxConcurrentMerges(), storageProperties.getMaxMergeRate());
 
         metadataMergePolicyFactory = new PrefixMergePolicyFactory();
         indexCheckpointManagerProvider = new IndexCheckpointManagerProvider(ioManager);
@@ -226,11 +226,13 @@ public class NCAppRuntimeContext implements INcApplicationContext {
 
             bufferCache = new BufferCache(ioManager, prs, pcp, new FileMapManager(),
                     storageProperties.getBufferCacheMaxOpenFiles(), getServiceContext().getThreadFactory(),
-                    replicationManager);
+                    replicationManager, storageProperties.isBufferCacheMappedReads());
         } else {
             bufferCache = new BufferCache(ioManager, prs, pcp, new FileMapManager(),
-                    storageProperties.getBufferCacheMaxOpenFiles(), getServiceContext().getThreadFactory());
+                    storageProperties.getBufferCacheMaxOpenFiles(), getServiceContext().getThreadFactory(), null,
+                    storageProperties.isBufferCacheMappedReads());
         }
+        bufferCache.setCachePartitionResolver(datasetLifecycleManager);
 
         /*
          * The order of registration is important. The buffer cache must registered before recovery and transaction
@@ -497,4 +499,18 @@ public class NCAppRuntimeContext implements INcApplicationContext {
     public ICoordinationService getCoordinationService() {
         return NoOpCoordinationService.INSTANCE;
     }
+
+    private IPageReplacementStrategy createPageReplacementStrategy(ICacheMemoryAllocator allocator) {
+        final String policy = storageProperties.getBufferCacheReplacementPolicy();
+        final int pageSize = storageProperties.getBufferCachePageSize();
+        final int numPages = storageProperties.getBufferCacheNumPages();
+        switch (policy.toLowerCase()) {
+            case "clock":
+                return new ClockPageReplacementStrategy(allocator, pageSize, numPages);
+            case "2q":
+                return new TwoQueuePageReplacementStrategy(allocator, pageSize, numPages);
+            default:
+                throw new IllegalStateException("Unknown buffer cache replacement policy: " + policy);
+        }
+    }
 }
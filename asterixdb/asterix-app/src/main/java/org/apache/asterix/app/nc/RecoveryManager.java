@@ -39,6 +39,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.asterix.common.api.IDatasetLifecycleManager;
@@ -68,6 +69,7 @@ import org.apache.hyracks.api.application.INCServiceContext;
 import org.apache.hyracks.api.exceptions.ErrorCode;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.lifecycle.ILifeCycleComponent;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.storage.am.common.impls.NoOpIndexAccessParameters;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndex;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
@@ -181,6 +183,8 @@ public class RecoveryManager implements IRecoveryManager, ILifeCycleComponent {
         int entityCommitLogCount = 0;
         int jobCommitLogCount = 0;
         int abortLogCount = 0;
+        long logCount = 0;
+        final long startTime = System.nanoTime();
         Set<Long> winnerJobSet = new HashSet<>();
         jobId2WinnerEntitiesMap = new HashMap<>();
         //set log reader to the lowWaterMarkLsn
@@ -188,6 +192,7 @@ public class RecoveryManager implements IRecoveryManager, ILifeCycleComponent {
         logReader.setPosition(lowWaterMarkLSN);
         logRecord = logReader.next();
         while (logRecord != null) {
+            logCount++;
             if (IS_DEBUG_MODE) {
                 LOGGER.info(logRecord.getLogRecordForDisplay());
             }
@@ -226,7 +231,7 @@ public class RecoveryManager implements IRecoveryManager, ILifeCycleComponent {
             winners.prepareForSearch();
         }
 
-        LOGGER.info("Logs analysis phase completed.");
+        LOGGER.info("Logs analysis phase completed. " + getThroughput(logCount, startTime));
         LOGGER.info("Analysis log count update/entityCommit/jobCommit/abort = " + updateLogCount + "/"
                 + entityCommitLogCount + "/" + jobCommitLogCount + "/" + abortLogCount);
 
@@ -264,6 +269,8 @@ public class RecoveryManager implements IRecoveryManager, ILifeCycleComponent {
     private synchronized void startRecoveryRedoPhase(Set<Integer> partitions, ILogReader logReader,
             long lowWaterMarkLSN, Set<Long> winnerTxnSet) throws IOException, ACIDException {
         int redoCount = 0;
+        long logCount = 0;
+        final long startTime = System.nanoTime();
         long txnId = 0;
 
         long resourceId;
@@ -283,11 +290,14 @@ public class RecoveryManager implements IRecoveryManager, ILifeCycleComponent {
         Map<Long, Long> resourceId2MaxLSNMap = new HashMap<>();
         TxnEntityId tempKeyTxnEntityId = new TxnEntityId(-1, -1, -1, null, -1, false);
 
+        final int parallelism = txnSubsystem.getTransactionProperties().getRecoveryRedoParallelism();
         ILogRecord logRecord = null;
-        try {
+        try (RedoDispatcher redoDispatcher =
+                new RedoDispatcher(datasetLifecycleManager, parallelism, serviceCtx.getThreadFactory())) {
             logReader.setPosition(lowWaterMarkLSN);
             logRecord = logReader.next();
             while (logRecord != null) {
+                logCount++;
                 if (IS_DEBUG_MODE) {
                     LOGGER.info(logRecord.getLogRecordForDisplay());
                 }
@@ -357,7 +367,7 @@ public class RecoveryManager implements IRecoveryManager, ILifeCycleComponent {
                                 }
                                 // lsn @ maxDiskLastLsn is either a flush log or a master replica log
                                 if (lsn >= maxDiskLastLsn) {
-                                    redo(logRecord, datasetLifecycleManager);
+                                    redoDispatcher.redo(logRecord);
                                     redoCount++;
                                 }
                             }
@@ -376,7 +386,10 @@ public class RecoveryManager implements IRecoveryManager, ILifeCycleComponent {
                 }
                 logRecord = logReader.next();
             }
-            LOGGER.info("Logs REDO phase completed. Redo logs count: " + redoCount);
+            // wait for the redo workers before reporting
+            redoDispatcher.close();
+            LOGGER.info("Logs REDO phase completed. Redo logs count: " + redoCount + ", redo threads: " + parallelism
+                    + ". " + getThroughput(logCount, startTime));
         } finally {
             txnSubsystem.getTransactionManager().ensureMaxTxnId(txnId);
             //close all indexes
@@ -387,6 +400,12 @@ public class RecoveryManager implements IRecoveryManager, ILifeCycleComponent {
         }
     }
 
+    private static String getThroughput(long logCount, long startTime) {
+        final long elapsedMillis = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), 1);
+        return "Read " + logCount + " log records in " + elapsedMillis + " ms (" + logCount * 1000 / elapsedMillis
+                + " records/sec)";
+    }
+
     private boolean needToFreeMemory() {
         return Runtime.getRuntime().freeMemory() < cachedEntityCommitsPerJobSize;
     }
@@ -709,21 +728,20 @@ public class RecoveryManager implements IRecoveryManager, ILifeCycleComponent {
         }
     }
 
-    private static void redo(ILogRecord logRecord, IDatasetLifecycleManager datasetLifecycleManager) {
+    static void redo(int datasetId, long resourceId, byte newOp, ITupleReference newValue,
+            IDatasetLifecycleManager datasetLifecycleManager) {
         try {
-            int datasetId = logRecord.getDatasetId();
-            long resourceId = logRecord.getResourceId();
             ILSMIndex index = (ILSMIndex) datasetLifecycleManager.getIndex(datasetId, resourceId);
             ILSMIndexAccessor indexAccessor = index.createAccessor(NoOpIndexAccessParameters.INSTANCE);
-            if (logRecord.getNewOp() == AbstractIndexModificationOperationCallback.INSERT_BYTE) {
-                indexAccessor.forceInsert(logRecord.getNewValue());
-            } else if (logRecord.getNewOp() == AbstractIndexModificationOperationCallback.DELETE_BYTE) {
-                indexAccessor.forceDelete(logRecord.getNewValue());
-            } else if (logRecord.getNewOp() == AbstractIndexModificationOperationCallback.UPSERT_BYTE) {
+            if (newOp == AbstractIndexModificationOperationCallback.INSERT_BYTE) {
+                indexAccessor.forceInsert(newValue);
+            } else if (newOp == AbstractIndexModificationOperationCallback.DELETE_BYTE) {
+                indexAccessor.forceDelete(newValue);
+            } else if (newOp == AbstractIndexModificationOperationCallback.UPSERT_BYTE) {
                 // redo, upsert the new value
-                indexAccessor.forceUpsert(logRecord.getNewValue());
+                indexAccessor.forceUpsert(newValue);
             } else {
-                throw new IllegalStateException("Unsupported OperationType: " + logRecord.getNewOp());
+                throw new IllegalStateException("Unsupported OperationType: " + newOp);
             }
         } catch (Exception e) {
             throw new IllegalStateException("Failed to redo", e);
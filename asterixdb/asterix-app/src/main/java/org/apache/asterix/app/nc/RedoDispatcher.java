@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.app.nc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.asterix.common.api.IDatasetLifecycleManager;
+import org.apache.asterix.common.exceptions.ACIDException;
+import org.apache.asterix.common.transactions.ILogRecord;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.tuples.SimpleTupleReference;
+import org.apache.hyracks.storage.am.common.tuples.SimpleTupleWriter;
+
+/**
+ * Redoes the update log records found by the recovery redo phase. With a parallelism of one, a record is redone by
+ * the thread that reads the log. Otherwise, the records are copied and handed to a fixed set of workers. All the
+ * records of a dataset partition go to the same worker, so the records of each index are still redone in log order.
+ */
+class RedoDispatcher implements AutoCloseable {
+
+    private static final int QUEUE_SIZE = 1024;
+    private static final RedoTask POISON_PILL = new RedoTask(-1, -1, (byte) 0, null);
+    private final IDatasetLifecycleManager datasetLifecycleManager;
+    private final List<BlockingQueue<RedoTask>> queues;
+    private final List<Future<Void>> workers;
+    private final ExecutorService executor;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    RedoDispatcher(IDatasetLifecycleManager datasetLifecycleManager, int parallelism, ThreadFactory threadFactory) {
+        this.datasetLifecycleManager = datasetLifecycleManager;
+        queues = new ArrayList<>(parallelism);
+        workers = new ArrayList<>(parallelism);
+        if (parallelism > 1) {
+            executor = Executors.newFixedThreadPool(parallelism, threadFactory);
+            for (int i = 0; i < parallelism; i++) {
+                BlockingQueue<RedoTask> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+                queues.add(queue);
+                workers.add(executor.submit(() -> work(queue)));
+            }
+        } else {
+            executor = null;
+        }
+    }
+
+    /**
+     * Redoes the update log record, or queues a copy of it for the worker of its dataset partition.
+     */
+    void redo(ILogRecord logRecord) throws ACIDException {
+        if (queues.isEmpty()) {
+            RecoveryManager.redo(logRecord.getDatasetId(), logRecord.getResourceId(), logRecord.getNewOp(),
+                    logRecord.getNewValue(), datasetLifecycleManager);
+            return;
+        }
+        checkFailure();
+        int worker = Math.abs((31 * logRecord.getDatasetId() + logRecord.getResourcePartition()) % queues.size());
+        try {
+            queues.get(worker).put(new RedoTask(logRecord.getDatasetId(), logRecord.getResourceId(),
+                    logRecord.getNewOp(), copy(logRecord.getNewValue())));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ACIDException(e);
+        }
+    }
+
+    /**
+     * Waits until the workers redid all the queued records.
+     *
+     * @throws ACIDException
+     *             if a worker failed to redo a record
+     */
+    @Override
+    public void close() throws ACIDException {
+        if (executor == null || executor.isShutdown()) {
+            return;
+        }
+        try {
+            for (BlockingQueue<RedoTask> queue : queues) {
+                queue.put(POISON_PILL);
+            }
+            for (Future<Void> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ACIDException(e);
+        } catch (ExecutionException e) {
+            failure.compareAndSet(null, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        checkFailure();
+    }
+
+    private Void work(BlockingQueue<RedoTask> queue) throws InterruptedException {
+        while (true) {
+            RedoTask task = queue.take();
+            if (task == POISON_PILL) {
+                return null;
+            }
+            // after a failure, keep draining the queue so that the log reader does not block
+            if (failure.get() == null) {
+                try {
+                    RecoveryManager.redo(task.datasetId, task.resourceId, task.newOp, task.newValue,
+                            datasetLifecycleManager);
+                } catch (Throwable th) { // NOSONAR the failure is reported to the log reader
+                    failure.compareAndSet(null, th);
+                }
+            }
+        }
+    }
+
+    private void checkFailure() throws ACIDException {
+        Throwable th = failure.get();
+        if (th != null) {
+            throw new ACIDException(th);
+        }
+    }
+
+    private static ITupleReference copy(ITupleReference tuple) {
+        byte[] data = new byte[SimpleTupleWriter.INSTANCE.bytesRequired(tuple)];
+        SimpleTupleWriter.INSTANCE.writeTuple(tuple, data, 0);
+        SimpleTupleReference copy = SimpleTupleWriter.INSTANCE.createTupleReference();
+        copy.setFieldCount(tuple.getFieldCount());
+        copy.resetByTupleOffset(data, 0);
+        return copy;
+    }
+
+    private static class RedoTask {
+        private final int datasetId;
+        private final long resourceId;
+        private final byte newOp;
+        private final ITupleReference newValue;
+
+        RedoTask(int datasetId, long resourceId, byte newOp, ITupleReference newValue) {
+            this.datasetId = datasetId;
+            this.resourceId = resourceId;
+            this.newOp = newOp;
+            this.newValue = newValue;
+        }
+    }
+}
@@ -211,6 +211,7 @@ import org.apache.hyracks.control.common.job.profiling.om.JobProfile;
 import org.apache.hyracks.control.common.job.profiling.om.JobletProfile;
 import org.apache.hyracks.control.common.job.profiling.om.TaskProfile;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMMergePolicyFactory;
+import org.apache.hyracks.storage.common.compression.CompressionSchemes;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -541,6 +542,12 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
         String compactionPolicy = dd.getCompactionPolicy();
         Map<String, String> compactionPolicyProperties = dd.getCompactionPolicyProperties();
         boolean defaultCompactionPolicy = compactionPolicy == null;
+        String compressionScheme = dd.getCompressionScheme();
+        if (compressionScheme != null && !CompressionSchemes.isSupported(compressionScheme)) {
+            throw new CompilationException(ErrorCode.UNKNOWN_COMPRESSION_SCHEME, compressionScheme,
+                    CompressionSchemes.getNames().toString());
+        }
+        List<String> synopsisFields = dd.getSynopsisFields();
         MetadataTransactionContext mdTxnCtx = MetadataManager.INSTANCE.beginTransaction();
         boolean bActiveTxn = true;
         metadataProvider.setMetadataTxnContext(mdTxnCtx);
@@ -603,6 +610,9 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                     if (filterField != null) {
                         ValidateUtil.validateFilterField(aRecordType, filterField);
                     }
+                    if (synopsisFields != null) {
+                        ValidateUtil.validateSynopsisFields(aRecordType, synopsisFields);
+                    }
                     if (compactionPolicy == null && filterField != null) {
                         // If the dataset has a filter and the user didn't specify a merge
                         // policy, then we will pick the
@@ -620,6 +630,9 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
 
                     datasetDetails =
                             new ExternalDatasetDetails(adapter, properties, new Date(), TransactionState.COMMIT);
+                    if (synopsisFields != null && !synopsisFields.isEmpty()) {
+                        throw new CompilationException(ErrorCode.ILLEGAL_SYNOPSIS_FIELD, synopsisFields.get(0));
+                    }
                     break;
                 default:
                     throw new CompilationException("Unknown datatype " + dd.getDatasetType());
@@ -634,7 +647,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             dataset = new Dataset(dataverseName, datasetName, itemTypeDataverseName, itemTypeName,
                     metaItemTypeDataverseName, metaItemTypeName, ngName, compactionPolicy, compactionPolicyProperties,
                     datasetDetails, dd.getHints(), dsType, DatasetIdFactory.generateDatasetId(),
-                    MetadataUtil.PENDING_ADD_OP);
+                    MetadataUtil.PENDING_ADD_OP, 0L, compressionScheme, synopsisFields);
             MetadataManager.INSTANCE.addDataset(metadataProvider.getMetadataTxnContext(), dataset);
             if (dd.getDatasetType() == DatasetType.INTERNAL) {
                 JobSpecification jobSpec = DatasetUtil.createDatasetJobSpec(dataset, metadataProvider);
@@ -877,6 +890,13 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
 
             validateIndexKeyFields(stmtCreateIndex, keySourceIndicators, aRecordType, metaRecordType, indexFields,
                     indexFieldTypes);
+            if (!stmtCreateIndex.getIncludedFields().isEmpty()) {
+                if (ds.getDatasetType() != DatasetType.INTERNAL || ds.isCorrelated()) {
+                    throw new CompilationException(ErrorCode.INDEX_ILLEGAL_INCLUDED_FIELDS);
+                }
+                ValidateUtil.validateIncludedFields(aRecordType, indexFields, ds.getPrimaryKeys(),
+                        stmtCreateIndex.getIncludedFields(), stmtCreateIndex.getIndexType());
+            }
             // Checks whether a user is trying to create an inverted secondary index on a
             // dataset
             // with a variable-length primary key.
@@ -903,8 +923,9 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             }
 
             Index newIndex = new Index(dataverseName, datasetName, indexName, stmtCreateIndex.getIndexType(),
-                    indexFields, keySourceIndicators, indexFieldTypes, stmtCreateIndex.getGramLength(),
-                    overridesFieldTypes, stmtCreateIndex.isEnforced(), false, MetadataUtil.PENDING_ADD_OP);
+                    indexFields, keySourceIndicators, indexFieldTypes, stmtCreateIndex.getIncludedFields(),
+                    stmtCreateIndex.getGramLength(), overridesFieldTypes, stmtCreateIndex.isEnforced(), false,
+                    MetadataUtil.PENDING_ADD_OP);
             doCreateIndex(hcc, metadataProvider, ds, newIndex, jobFlags);
         } finally {
             metadataProvider.getLocks().unlock();
@@ -1492,8 +1513,8 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                 MetadataManager.INSTANCE.addIndex(mdTxnCtx,
                         new Index(dataverseName, datasetName, indexName, index.getIndexType(), index.getKeyFieldNames(),
                                 index.getKeyFieldSourceIndicators(), index.getKeyFieldTypes(),
-                                index.isOverridingKeyFieldTypes(), index.isEnforced(), index.isPrimaryIndex(),
-                                MetadataUtil.PENDING_DROP_OP));
+                                index.getIncludedFieldNames(), index.getGramLength(), index.isOverridingKeyFieldTypes(),
+                                index.isEnforced(), index.isPrimaryIndex(), MetadataUtil.PENDING_DROP_OP));
 
                 // #. commit the existing transaction before calling runJob.
                 MetadataManager.INSTANCE.commitTransaction(mdTxnCtx);
@@ -1554,8 +1575,8 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                 MetadataManager.INSTANCE.addIndex(mdTxnCtx,
                         new Index(dataverseName, datasetName, indexName, index.getIndexType(), index.getKeyFieldNames(),
                                 index.getKeyFieldSourceIndicators(), index.getKeyFieldTypes(),
-                                index.isOverridingKeyFieldTypes(), index.isEnforced(), index.isPrimaryIndex(),
-                                MetadataUtil.PENDING_DROP_OP));
+                                index.getIncludedFieldNames(), index.getGramLength(), index.isOverridingKeyFieldTypes(),
+                                index.isEnforced(), index.isPrimaryIndex(), MetadataUtil.PENDING_DROP_OP));
 
                 // #. commit the existing transaction before calling runJob.
                 MetadataManager.INSTANCE.commitTransaction(mdTxnCtx);
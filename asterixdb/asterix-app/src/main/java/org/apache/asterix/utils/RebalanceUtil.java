@@ -27,6 +27,7 @@ import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
 import org.apache.asterix.active.IActiveEntityEventsListener;
@@ -318,6 +319,7 @@ public class RebalanceUtil {
     }
 
     // Creates the primary index upsert operator for populating the target dataset.
+    // The secondary indexes of the target, including its primary key index, are loaded afterwards.
     private static IOperatorDescriptor createPrimaryIndexUpsertOp(JobSpecification spec,
             MetadataProvider metadataProvider, Dataset source, Dataset target) throws AlgebricksException {
         int numKeys = source.getPrimaryKeys().size();
@@ -326,7 +328,7 @@ public class RebalanceUtil {
         Pair<IOperatorDescriptor, AlgebricksPartitionConstraint> upsertOpAndConstraints =
                 DatasetUtil.createPrimaryIndexUpsertOp(spec, metadataProvider, target,
                         source.getPrimaryRecordDescriptor(metadataProvider), fieldPermutation,
-                        MissingWriterFactory.INSTANCE);
+                        MissingWriterFactory.INSTANCE, null);
         IOperatorDescriptor upsertOp = upsertOpAndConstraints.first;
         AlgebricksPartitionConstraintHelper.setPartitionConstraintInJobSpec(spec, upsertOp,
                 upsertOpAndConstraints.second);
@@ -359,19 +361,41 @@ public class RebalanceUtil {
     // Creates and loads all secondary indexes for the rebalance target dataset.
     private static void createAndLoadSecondaryIndexesForTarget(Dataset source, Dataset target,
             MetadataProvider metadataProvider, IHyracksClientConnection hcc) throws Exception {
+        List<Index> secondaryIndexes = new ArrayList<>();
         for (Index index : metadataProvider.getDatasetIndexes(source.getDataverseName(), source.getDatasetName())) {
-            if (!index.isSecondaryIndex()) {
-                continue;
+            if (index.isSecondaryIndex()) {
+                secondaryIndexes.add(index);
             }
-            // Creates the secondary index.
+        }
+        if (secondaryIndexes.isEmpty()) {
+            return;
+        }
+        // Creates the secondary indexes.
+        long startTime = System.nanoTime();
+        for (Index index : secondaryIndexes) {
             JobSpecification indexCreationJobSpec =
                     IndexUtil.buildSecondaryIndexCreationJobSpec(target, index, metadataProvider);
             JobUtils.runJob(hcc, indexCreationJobSpec, true);
-
-            // Loads the secondary index.
-            JobSpecification indexLoadingJobSpec =
-                    IndexUtil.buildSecondaryIndexLoadingJobSpec(target, index, metadataProvider);
-            JobUtils.runJob(hcc, indexLoadingJobSpec, true);
+        }
+        long creationTime = System.nanoTime() - startTime;
+
+        // Loads the secondary indexes, with a single scan of the primary index for all those that can share it.
+        startTime = System.nanoTime();
+        List<JobSpecification> indexLoadingJobSpecs =
+                IndexUtil.buildSecondaryIndexesLoadingJobSpecs(target, secondaryIndexes, metadataProvider);
+        for (int i = 0; i < indexLoadingJobSpecs.size(); i++) {
+            JobUtils.runJob(hcc, indexLoadingJobSpecs.get(i), true);
+            if (LOGGER.isInfoEnabled()) {
+                LOGGER.info("Ran loading job " + (i + 1) + " of " + indexLoadingJobSpecs.size()
+                        + " for the secondary indexes of " + target.getDatasetName());
+            }
+        }
+        long loadingTime = System.nanoTime() - startTime;
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Built " + secondaryIndexes.size() + " secondary indexes of " + target.getDatasetName()
+                    + " from " + indexLoadingJobSpecs.size() + " scan(s) of the primary index: creation took "
+                    + TimeUnit.NANOSECONDS.toMillis(creationTime) + " ms, loading took "
+                    + TimeUnit.NANOSECONDS.toMillis(loadingTime) + " ms");
         }
     }
 
@@ -633,7 +633,7 @@ public class TestNodeController {
                         recordDescProvider.getInputRecordDescriptor(new ActivityId(new OperatorDescriptorId(0), 0), 0),
                         modificationCallbackFactory, searchCallbackFactory, keyIndexes.length, recordType, -1,
                         frameOpCallbackFactory == null ? dataset.getFrameOpCallbackFactory() : frameOpCallbackFactory,
-                        MissingWriterFactory.INSTANCE, hasSecondaries);
+                        MissingWriterFactory.INSTANCE, hasSecondaries, null, null);
         RecordDescriptor upsertOutRecDesc = getUpsertOutRecDesc(primaryIndexInfo.rDesc, dataset,
                 filterFields == null ? 0 : filterFields.length, recordType, metaType);
         // fix pk fields
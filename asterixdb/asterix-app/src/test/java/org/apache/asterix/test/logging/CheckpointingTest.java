@@ -24,12 +24,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.asterix.app.bootstrap.TestNodeController;
 import org.apache.asterix.app.data.gen.TupleGenerator;
 import org.apache.asterix.app.data.gen.TupleGenerator.GenerationFunction;
 import org.apache.asterix.common.config.DatasetConfig.DatasetType;
 import org.apache.asterix.common.config.TransactionProperties;
+import org.apache.asterix.common.context.DatasetLifecycleManager;
 import org.apache.asterix.common.dataflow.LSMInsertDeleteOperatorNodePushable;
 import org.apache.asterix.common.transactions.Checkpoint;
 import org.apache.asterix.common.transactions.ICheckpointManager;
@@ -201,6 +203,165 @@ public class CheckpointingTest {
         }
     }
 
+    @Test
+    public void testIncrementalCheckpoint() {
+        try {
+            TestNodeController nc = new TestNodeController(new File(TEST_CONFIG_FILE_PATH).getAbsolutePath(), false);
+            StorageComponentProvider storageManager = new StorageComponentProvider();
+            nc.init();
+            List<List<String>> partitioningKeys = new ArrayList<>();
+            partitioningKeys.add(Collections.singletonList("key"));
+            Dataset dataset = new Dataset(DATAVERSE_NAME, DATASET_NAME, DATAVERSE_NAME, DATA_TYPE_NAME, NODE_GROUP_NAME,
+                    NoMergePolicyFactory.NAME, null, new InternalDatasetDetails(null, PartitioningStrategy.HASH,
+                            partitioningKeys, null, null, null, false, null),
+                    null, DatasetType.INTERNAL, DATASET_ID, 0);
+            try {
+                nc.createPrimaryIndex(dataset, KEY_TYPES, RECORD_TYPE, META_TYPE, null, storageManager, KEY_INDEXES,
+                        KEY_INDICATOR_LIST, 0);
+                JobId jobId = nc.newJobId();
+                IHyracksTaskContext ctx = nc.createTestContext(jobId, 0, false);
+                ITransactionContext txnCtx = nc.getTransactionManager().beginTransaction(nc.getTxnJobId(ctx),
+                        new TransactionOptions(ITransactionManager.AtomicityLevel.ENTITY_LEVEL));
+                LSMInsertDeleteOperatorNodePushable insertOp = nc.getInsertPipeline(ctx, dataset, KEY_TYPES,
+                        RECORD_TYPE, META_TYPE, null, KEY_INDEXES, KEY_INDICATOR_LIST, storageManager, null).getLeft();
+                insertOp.open();
+                TupleGenerator tupleGenerator = new TupleGenerator(RECORD_TYPE, META_TYPE, KEY_INDEXES, KEY_INDICATOR,
+                        RECORD_GEN_FUNCTION, UNIQUE_RECORD_FIELDS, META_GEN_FUNCTION, UNIQUE_META_FIELDS);
+                VSizeFrame frame = new VSizeFrame(ctx);
+                FrameTupleAppender tupleAppender = new FrameTupleAppender(frame);
+
+                IRecoveryManager recoveryManager = nc.getTransactionSubsystem().getRecoveryManager();
+                ICheckpointManager checkpointManager = nc.getTransactionSubsystem().getCheckpointManager();
+                LogManager logManager = (LogManager) nc.getTransactionSubsystem().getLogManager();
+                long initialLowWaterMarkFileId = logManager.getLogFileId(recoveryManager.getMinFirstLSN());
+
+                // Insert records until a new log file is created
+                while (logManager.getLogFileIds().size() == 1) {
+                    ITupleReference tuple = tupleGenerator.next();
+                    DataflowUtils.addTupleToFrame(tupleAppender, tuple, insertOp);
+                }
+
+                // The checkpoint is taken at the current low-water mark without waiting for the flush it schedules
+                long lowWaterMarkLSN = checkpointManager.tryIncrementalCheckpoint(logManager.getAppendLSN());
+                Assert.assertEquals(lowWaterMarkLSN, checkpointManager.getLatest().getMinMCTFirstLsn());
+
+                // Insert records until the scheduled flush (or one due to the memory budget) moves the low-water mark
+                long currentLowWaterMarkLogFileId = logManager.getLogFileId(lowWaterMarkLSN);
+                while (currentLowWaterMarkLogFileId == initialLowWaterMarkFileId) {
+                    ITupleReference tuple = tupleGenerator.next();
+                    DataflowUtils.addTupleToFrame(tupleAppender, tuple, insertOp);
+                    currentLowWaterMarkLogFileId = logManager.getLogFileId(recoveryManager.getMinFirstLSN());
+                }
+
+                // The next incremental checkpoint advances the low-water mark and deletes the initial log file
+                long nextLowWaterMarkLSN = checkpointManager.tryIncrementalCheckpoint(logManager.getAppendLSN());
+                Assert.assertTrue(nextLowWaterMarkLSN > lowWaterMarkLSN);
+                Assert.assertEquals(nextLowWaterMarkLSN, checkpointManager.getLatest().getMinMCTFirstLsn());
+                for (Long fileId : logManager.getLogFileIds()) {
+                    Assert.assertNotEquals(initialLowWaterMarkFileId, fileId.longValue());
+                }
+
+                if (tupleAppender.getTupleCount() > 0) {
+                    tupleAppender.write(insertOp, true);
+                }
+                insertOp.close();
+                nc.getTransactionManager().commitTransaction(txnCtx.getTxnId());
+            } finally {
+                nc.deInit();
+            }
+        } catch (Throwable e) {
+            e.printStackTrace();
+            Assert.fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCheckpointFlushesOldestPartitionsFirst() {
+        try {
+            TestNodeController nc = new TestNodeController(new File(TEST_CONFIG_FILE_PATH).getAbsolutePath(), false);
+            StorageComponentProvider storageManager = new StorageComponentProvider();
+            nc.init();
+            try {
+                Dataset older = createDataset(nc, storageManager, DATASET_NAME, DATASET_ID);
+                Dataset newer = createDataset(nc, storageManager, DATASET_NAME + "2", DATASET_ID + 1);
+                insert(nc, storageManager, older, 10);
+                insert(nc, storageManager, newer, 10);
+                IRecoveryManager recoveryManager = nc.getTransactionSubsystem().getRecoveryManager();
+                LogManager logManager = (LogManager) nc.getTransactionSubsystem().getLogManager();
+                DatasetLifecycleManager datasetLifecycleManager = nc.getDatasetLifecycleManager();
+                long targetLSN = logManager.getAppendLSN();
+                long initialLowWaterMarkLSN = recoveryManager.getMinFirstLSN();
+
+                // both partitions are behind the target, only the one holding the oldest LSN is flushed
+                Assert.assertEquals(1,
+                        datasetLifecycleManager.scheduleAsyncFlushForOldestDatasetPartitions(targetLSN, 1));
+                long lowWaterMarkLSN = waitForLowWaterMark(recoveryManager, initialLowWaterMarkLSN + 1);
+                Assert.assertTrue(lowWaterMarkLSN > initialLowWaterMarkLSN && lowWaterMarkLSN < targetLSN);
+
+                // then the next one
+                Assert.assertEquals(1,
+                        datasetLifecycleManager.scheduleAsyncFlushForOldestDatasetPartitions(targetLSN, 1));
+                Assert.assertTrue(waitForLowWaterMark(recoveryManager, targetLSN) >= targetLSN);
+                Assert.assertEquals(0,
+                        datasetLifecycleManager.scheduleAsyncFlushForOldestDatasetPartitions(targetLSN, 1));
+            } finally {
+                nc.deInit();
+            }
+        } catch (Throwable e) {
+            e.printStackTrace();
+            Assert.fail(e.getMessage());
+        }
+    }
+
+    /**
+     * The flushes start once the operations of the partition completed, which happens when their commit log records
+     * were flushed, so the test waits for the low-water mark instead of the flush.
+     */
+    private static long waitForLowWaterMark(IRecoveryManager recoveryManager, long lsn) throws Exception {
+        long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+        long lowWaterMarkLSN = recoveryManager.getMinFirstLSN();
+        while (lowWaterMarkLSN < lsn && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            lowWaterMarkLSN = recoveryManager.getMinFirstLSN();
+        }
+        return lowWaterMarkLSN;
+    }
+
+    private static Dataset createDataset(TestNodeController nc, StorageComponentProvider storageManager, String name,
+            int datasetId) throws Exception {
+        List<List<String>> partitioningKeys = new ArrayList<>();
+        partitioningKeys.add(Collections.singletonList("key"));
+        Dataset dataset = new Dataset(DATAVERSE_NAME, name, DATAVERSE_NAME, DATA_TYPE_NAME,
+                NODE_GROUP_NAME, NoMergePolicyFactory.NAME, null, new InternalDatasetDetails(null,
+                        PartitioningStrategy.HASH, partitioningKeys, null, null, null, false, null),
+                null, DatasetType.INTERNAL, datasetId, 0);
+        nc.createPrimaryIndex(dataset, KEY_TYPES, RECORD_TYPE, META_TYPE, null, storageManager, KEY_INDEXES,
+                KEY_INDICATOR_LIST, 0);
+        return dataset;
+    }
+
+    private static void insert(TestNodeController nc, StorageComponentProvider storageManager, Dataset dataset,
+            int numRecords) throws Exception {
+        IHyracksTaskContext ctx = nc.createTestContext(nc.newJobId(), 0, false);
+        ITransactionContext txnCtx = nc.getTransactionManager().beginTransaction(nc.getTxnJobId(ctx),
+                new TransactionOptions(ITransactionManager.AtomicityLevel.ENTITY_LEVEL));
+        LSMInsertDeleteOperatorNodePushable insertOp = nc.getInsertPipeline(ctx, dataset, KEY_TYPES, RECORD_TYPE,
+                META_TYPE, null, KEY_INDEXES, KEY_INDICATOR_LIST, storageManager, null).getLeft();
+        insertOp.open();
+        TupleGenerator tupleGenerator = new TupleGenerator(RECORD_TYPE, META_TYPE, KEY_INDEXES, KEY_INDICATOR,
+                RECORD_GEN_FUNCTION, UNIQUE_RECORD_FIELDS, META_GEN_FUNCTION, UNIQUE_META_FIELDS);
+        VSizeFrame frame = new VSizeFrame(ctx);
+        FrameTupleAppender tupleAppender = new FrameTupleAppender(frame);
+        for (int i = 0; i < numRecords; i++) {
+            DataflowUtils.addTupleToFrame(tupleAppender, tupleGenerator.next(), insertOp);
+        }
+        if (tupleAppender.getTupleCount() > 0) {
+            tupleAppender.write(insertOp, true);
+        }
+        insertOp.close();
+        nc.getTransactionManager().commitTransaction(txnCtx.getTxnId());
+    }
+
     @Test
     public void testCorruptedCheckpointFiles() {
         try {
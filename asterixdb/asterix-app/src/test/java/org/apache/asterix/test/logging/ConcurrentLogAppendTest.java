@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.test.logging;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.asterix.app.bootstrap.TestNodeController;
+import org.apache.asterix.common.transactions.ILogMarkerCallback;
+import org.apache.asterix.common.transactions.ILogRecord;
+import org.apache.asterix.common.transactions.ITransactionContext;
+import org.apache.asterix.common.transactions.ITransactionManager;
+import org.apache.asterix.common.transactions.LogRecord;
+import org.apache.asterix.common.transactions.LogSource;
+import org.apache.asterix.common.transactions.LogType;
+import org.apache.asterix.common.transactions.TransactionOptions;
+import org.apache.asterix.common.transactions.TxnId;
+import org.apache.asterix.common.utils.TransactionUtil;
+import org.apache.asterix.test.common.TestHelper;
+import org.apache.asterix.transaction.management.service.logging.LogManager;
+import org.apache.asterix.transaction.management.service.logging.LogManagerStats;
+import org.apache.asterix.transaction.management.service.logging.LogReader;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentLogAppendTest {
+
+    private static final String TEST_CONFIG_FILE_NAME = "cc-small-txn-log-partition.conf";
+    private static final String TEST_CONFIG_PATH = System.getProperty("user.dir") + File.separator + "src"
+            + File.separator + "test" + File.separator + "resources";
+    private static final String TEST_CONFIG_FILE_PATH = TEST_CONFIG_PATH + File.separator + TEST_CONFIG_FILE_NAME;
+    private static final int NUM_THREADS = 8;
+    private static final int NUM_ROUNDS = 500;
+    private static final int MARKER_SIZE = 1000;
+    // larger than a log page
+    private static final int LARGE_MARKER_SIZE = 200 * 1024;
+    private static final int DATASET_ID = 101;
+    private static final long FIRST_TXN_ID = 1000;
+
+    @After
+    public void tearDown() throws Exception {
+        TestHelper.deleteExistingInstanceFiles();
+    }
+
+    @Test
+    public void testConcurrentAppends() throws Exception {
+        TestNodeController nc = new TestNodeController(new File(TEST_CONFIG_FILE_PATH).getAbsolutePath(), false);
+        nc.init();
+        try {
+            LogManager logManager = (LogManager) nc.getTransactionSubsystem().getLogManager();
+            ITransactionManager txnManager = nc.getTransactionManager();
+            long startLsn = logManager.getAppendLSN();
+            Set<Long> markerLsns = ConcurrentHashMap.newKeySet();
+            ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < NUM_THREADS; i++) {
+                    final int thread = i;
+                    futures.add(executor.submit(() -> {
+                        ITransactionContext txnCtx = txnManager.beginTransaction(new TxnId(FIRST_TXN_ID + thread),
+                                new TransactionOptions(ITransactionManager.AtomicityLevel.ENTITY_LEVEL));
+                        txnCtx.setWriteTxn(true);
+                        for (int round = 0; round < NUM_ROUNDS; round++) {
+                            int markerSize = round == NUM_ROUNDS / 2 ? LARGE_MARKER_SIZE : MARKER_SIZE;
+                            logManager.log(createMarkerLog(txnCtx, thread, markerSize, markerLsns));
+                            LogRecord waitLog = createWaitLog(txnCtx);
+                            logManager.log(waitLog);
+                            Assert.assertTrue(waitLog.isFlushed());
+                        }
+                        txnManager.commitTransaction(txnCtx.getTxnId());
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+            // the markers alone fill more than one log file
+            Assert.assertTrue(logManager.getLogFileIds().size() > 1);
+
+            int[] numMarkers = new int[NUM_THREADS];
+            int[] numWaits = new int[NUM_THREADS];
+            int numCommits = 0;
+            long prevLsn = -1;
+            LogReader logReader = nc.getTransactionLogReader(true);
+            try {
+                logReader.setPosition(startLsn);
+                for (ILogRecord logRecord = logReader.next(); logRecord != null; logRecord = logReader.next()) {
+                    Assert.assertTrue(logRecord.getLSN() > prevLsn);
+                    prevLsn = logRecord.getLSN();
+                    int thread = (int) (logRecord.getTxnId() - FIRST_TXN_ID);
+                    switch (logRecord.getLogType()) {
+                        case LogType.MARKER:
+                            Assert.assertTrue(markerLsns.contains(logRecord.getLSN()));
+                            ByteBuffer marker = logRecord.getMarker();
+                            while (marker.hasRemaining()) {
+                                Assert.assertEquals(thread, marker.get());
+                            }
+                            numMarkers[thread]++;
+                            break;
+                        case LogType.WAIT:
+                            numWaits[thread]++;
+                            break;
+                        case LogType.JOB_COMMIT:
+                            numCommits++;
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            } finally {
+                logReader.close();
+            }
+            for (int i = 0; i < NUM_THREADS; i++) {
+                Assert.assertEquals(NUM_ROUNDS, numMarkers[i]);
+                Assert.assertEquals(NUM_ROUNDS, numWaits[i]);
+            }
+            Assert.assertEquals(NUM_THREADS, numCommits);
+
+            LogManagerStats stats = logManager.getStats();
+            Assert.assertTrue(stats.getCommitCount() >= NUM_THREADS);
+            Assert.assertTrue(stats.getMaxCommitLatency() >= stats.getAverageCommitLatency());
+            // all the markers were forced to disk
+            Assert.assertTrue(stats.getFlushedBytes() > (long) NUM_THREADS * NUM_ROUNDS * MARKER_SIZE);
+            Assert.assertTrue(stats.getFsyncCount() > 0);
+            // every wait log needs a force, but concurrent ones can share it
+            Assert.assertTrue(stats.getFsyncCount() <= (long) NUM_THREADS * (NUM_ROUNDS + 1) + 1);
+        } finally {
+            nc.deInit();
+        }
+    }
+
+    private static LogRecord createMarkerLog(ITransactionContext txnCtx, int thread, int markerSize,
+            Set<Long> markerLsns) {
+        LogRecord logRecord = new LogRecord(new ILogMarkerCallback() {
+            @Override
+            public void before(ByteBuffer buffer) {
+                // the lsn of the previous marker
+                buffer.putLong(-1L);
+            }
+
+            @Override
+            public void after(long lsn) {
+                markerLsns.add(lsn);
+            }
+        });
+        // the first byte is not part of the marker
+        ByteBuffer marker = ByteBuffer.allocate(markerSize + 1);
+        for (int i = 0; i < markerSize; i++) {
+            marker.put(i + 1, (byte) thread);
+        }
+        TransactionUtil.formMarkerLogRecord(logRecord, txnCtx, DATASET_ID, 0, marker);
+        return logRecord;
+    }
+
+    private static LogRecord createWaitLog(ITransactionContext txnCtx) {
+        LogRecord logRecord = new LogRecord();
+        logRecord.setTxnCtx(txnCtx);
+        logRecord.setLogSource(LogSource.LOCAL);
+        logRecord.setLogType(LogType.WAIT);
+        logRecord.setTxnId(txnCtx.getTxnId().getId());
+        logRecord.computeAndSetLogSize();
+        return logRecord;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.test.logging;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.asterix.app.bootstrap.TestNodeController;
+import org.apache.asterix.app.data.gen.TupleGenerator;
+import org.apache.asterix.app.data.gen.TupleGenerator.GenerationFunction;
+import org.apache.asterix.common.config.DatasetConfig.DatasetType;
+import org.apache.asterix.common.dataflow.LSMInsertDeleteOperatorNodePushable;
+import org.apache.asterix.common.transactions.ITransactionContext;
+import org.apache.asterix.common.transactions.ITransactionManager;
+import org.apache.asterix.common.transactions.TransactionOptions;
+import org.apache.asterix.external.util.DataflowUtils;
+import org.apache.asterix.file.StorageComponentProvider;
+import org.apache.asterix.metadata.entities.Dataset;
+import org.apache.asterix.metadata.entities.Index;
+import org.apache.asterix.metadata.entities.InternalDatasetDetails;
+import org.apache.asterix.metadata.entities.InternalDatasetDetails.PartitioningStrategy;
+import org.apache.asterix.om.types.ARecordType;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.asterix.om.types.IAType;
+import org.apache.asterix.test.common.TestHelper;
+import org.apache.asterix.transaction.management.service.logging.LogManager;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.storage.am.lsm.common.impls.NoMergePolicyFactory;
+import org.apache.logging.log4j.Logger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LogCompressionTest {
+
+    private static final Logger LOGGER = org.apache.logging.log4j.LogManager.getLogger();
+    private static final String TEST_CONFIG_PATH = System.getProperty("user.dir") + File.separator + "src"
+            + File.separator + "test" + File.separator + "resources";
+    private static final String TEST_CONFIG_FILE_PATH = TEST_CONFIG_PATH + File.separator + "cc.conf";
+    // the same configuration with txn.log.compression enabled
+    private static final String COMPRESSION_CONFIG_FILE_PATH = TEST_CONFIG_PATH + File.separator + "cc-recovery.conf";
+    private static final IAType[] KEY_TYPES = { BuiltinType.AINT32 };
+    private static final ARecordType RECORD_TYPE = new ARecordType("TestRecordType",
+            new String[] { "key", "name", "address", "balance", "comment" }, new IAType[] { BuiltinType.AINT32,
+                    BuiltinType.ASTRING, BuiltinType.ASTRING, BuiltinType.AINT64, BuiltinType.ASTRING },
+            false);
+    private static final GenerationFunction[] RECORD_GEN_FUNCTION =
+            { GenerationFunction.DETERMINISTIC, GenerationFunction.DETERMINISTIC, GenerationFunction.DETERMINISTIC,
+                    GenerationFunction.DETERMINISTIC, GenerationFunction.DETERMINISTIC };
+    private static final boolean[] UNIQUE_RECORD_FIELDS = { true, false, false, false, false };
+    private static final int[] KEY_INDEXES = { 0 };
+    private static final int[] KEY_INDICATOR = { Index.RECORD_INDICATOR };
+    private static final List<Integer> KEY_INDICATOR_LIST = Arrays.asList(new Integer[] { Index.RECORD_INDICATOR });
+    private static final int NUM_RECORDS = 20000;
+    private static final int DATASET_ID = 101;
+    private static final String DATAVERSE_NAME = "TestDV";
+    private static final String DATASET_NAME = "TestDS";
+    private static final String DATA_TYPE_NAME = "DUMMY";
+    private static final String NODE_GROUP_NAME = "DEFAULT";
+
+    @After
+    public void tearDown() throws Exception {
+        TestHelper.deleteExistingInstanceFiles();
+    }
+
+    @Test
+    public void testLogBytesPerEntityTransaction() throws Exception {
+        final double uncompressed = getLogBytesPerEntityTransaction(TEST_CONFIG_FILE_PATH);
+        TestHelper.deleteExistingInstanceFiles();
+        final double compressed = getLogBytesPerEntityTransaction(COMPRESSION_CONFIG_FILE_PATH);
+        LOGGER.info("log bytes per entity transaction: {} uncompressed, {} compressed ({}% less)",
+                String.format("%.1f", uncompressed), String.format("%.1f", compressed),
+                String.format("%.1f", 100 * (uncompressed - compressed) / uncompressed));
+        // the update and entity commit records of an insert are written in the compact format
+        Assert.assertTrue(compressed < uncompressed * 0.75);
+    }
+
+    /**
+     * Inserts records, each of them in its own entity level transaction, and returns the average volume of
+     * transaction log written for one of them.
+     */
+    private static double getLogBytesPerEntityTransaction(String configFilePath) throws Exception {
+        TestNodeController nc = new TestNodeController(new File(configFilePath).getAbsolutePath(), false);
+        StorageComponentProvider storageManager = new StorageComponentProvider();
+        nc.init();
+        try {
+            List<List<String>> partitioningKeys = new ArrayList<>();
+            partitioningKeys.add(Collections.singletonList("key"));
+            Dataset dataset = new Dataset(DATAVERSE_NAME, DATASET_NAME, DATAVERSE_NAME, DATA_TYPE_NAME, NODE_GROUP_NAME,
+                    NoMergePolicyFactory.NAME, null, new InternalDatasetDetails(null, PartitioningStrategy.HASH,
+                            partitioningKeys, null, null, null, false, null),
+                    null, DatasetType.INTERNAL, DATASET_ID, 0);
+            nc.createPrimaryIndex(dataset, KEY_TYPES, RECORD_TYPE, null, null, storageManager, KEY_INDEXES,
+                    KEY_INDICATOR_LIST, 0);
+            IHyracksTaskContext ctx = nc.createTestContext(nc.newJobId(), 0, false);
+            ITransactionContext txnCtx = nc.getTransactionManager().beginTransaction(nc.getTxnJobId(ctx),
+                    new TransactionOptions(ITransactionManager.AtomicityLevel.ENTITY_LEVEL));
+            LSMInsertDeleteOperatorNodePushable insertOp = nc.getInsertPipeline(ctx, dataset, KEY_TYPES, RECORD_TYPE,
+                    null, null, KEY_INDEXES, KEY_INDICATOR_LIST, storageManager, null).getLeft();
+            TupleGenerator tupleGenerator = new TupleGenerator(RECORD_TYPE, null, KEY_INDEXES, KEY_INDICATOR,
+                    RECORD_GEN_FUNCTION, UNIQUE_RECORD_FIELDS, null, null);
+            FrameTupleAppender tupleAppender = new FrameTupleAppender(new VSizeFrame(ctx));
+            LogManager logManager = (LogManager) nc.getTransactionSubsystem().getLogManager();
+            insertOp.open();
+            final long startLsn = logManager.getAppendLSN();
+            for (int i = 0; i < NUM_RECORDS; i++) {
+                DataflowUtils.addTupleToFrame(tupleAppender, tupleGenerator.next(), insertOp);
+            }
+            if (tupleAppender.getTupleCount() > 0) {
+                tupleAppender.write(insertOp, true);
+            }
+            final long logBytes = logManager.getAppendLSN() - startLsn;
+            insertOp.close();
+            nc.getTransactionManager().commitTransaction(txnCtx.getTxnId());
+            return logBytes / (double) NUM_RECORDS;
+        } finally {
+            nc.deInit();
+        }
+    }
+}
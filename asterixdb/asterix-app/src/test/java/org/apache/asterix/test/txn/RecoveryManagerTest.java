@@ -19,6 +19,8 @@
 package org.apache.asterix.test.txn;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -36,15 +38,35 @@ import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
 
+@RunWith(Parameterized.class)
 public class RecoveryManagerTest {
 
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-    private static final String TEST_CONFIG_FILE_NAME = "cc.conf";
-    private static final String TEST_CONFIG_PATH = System.getProperty("user.dir") + File.separator + "src"
-            + File.separator + "main" + File.separator + "resources";
-    private static final String TEST_CONFIG_FILE_PATH = TEST_CONFIG_PATH + File.separator + TEST_CONFIG_FILE_NAME;
+    private static final String SRC_PATH = System.getProperty("user.dir") + File.separator + "src";
+    private static final String DEFAULT_CONFIG_FILE_PATH =
+            SRC_PATH + File.separator + "main" + File.separator + "resources" + File.separator + "cc.conf";
+    // redoes the dataset partitions with several threads
+    private static final String PARALLEL_REDO_CONFIG_FILE_PATH = SRC_PATH + File.separator + "test" + File.separator
+            + "resources" + File.separator + "cc-parallel-redo.conf";
+    // redoes the dataset partitions with several threads from compact log records
+    private static final String RECOVERY_CONFIG_FILE_PATH =
+            SRC_PATH + File.separator + "test" + File.separator + "resources" + File.separator + "cc-recovery.conf";
     private static final AsterixHyracksIntegrationUtil integrationUtil = new AsterixHyracksIntegrationUtil();
+    private final String configFilePath;
+
+    public RecoveryManagerTest(String configName, String configFilePath) {
+        this.configFilePath = configFilePath;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<Object[]> data() {
+        return Arrays.asList(new Object[] { "default", DEFAULT_CONFIG_FILE_PATH },
+                new Object[] { "parallel redo", PARALLEL_REDO_CONFIG_FILE_PATH },
+                new Object[] { "parallel redo of compressed logs", RECOVERY_CONFIG_FILE_PATH });
+    }
 
     @Before
     public void setUp() throws Exception {
@@ -53,7 +75,7 @@ public class RecoveryManagerTest {
         integrationUtil.addOption(StorageProperties.Option.STORAGE_MEMORYCOMPONENT_GLOBALBUDGET, "128MB");
         integrationUtil.addOption(StorageProperties.Option.STORAGE_MEMORYCOMPONENT_NUMPAGES, 32);
         integrationUtil.setGracefulShutdown(false);
-        integrationUtil.init(true, TEST_CONFIG_FILE_PATH);
+        integrationUtil.init(true, configFilePath);
     }
 
     @After
@@ -74,7 +96,7 @@ public class RecoveryManagerTest {
         final long countBeforeFirstRecovery = TestDataUtil.getDatasetCount(datasetName);
         // do ungraceful shutdown to enforce recovery
         integrationUtil.deinit(false);
-        integrationUtil.init(false, TEST_CONFIG_FILE_PATH);
+        integrationUtil.init(false, configFilePath);
         final long countAfterFirstRecovery = TestDataUtil.getDatasetCount(datasetName);
         Assert.assertEquals(countBeforeFirstRecovery, countAfterFirstRecovery);
         // create more datasets after recovery
@@ -87,7 +109,7 @@ public class RecoveryManagerTest {
         final long countBeforeSecondRecovery = TestDataUtil.getDatasetCount(datasetName);
         // do ungraceful shutdown to enforce recovery again
         integrationUtil.deinit(false);
-        integrationUtil.init(false, TEST_CONFIG_FILE_PATH);
+        integrationUtil.init(false, configFilePath);
         final long countAfterSecondRecovery = TestDataUtil.getDatasetCount(datasetName);
         Assert.assertEquals(countBeforeSecondRecovery, countAfterSecondRecovery);
     }
@@ -109,7 +131,7 @@ public class RecoveryManagerTest {
         final long countBeforeRecovery = TestDataUtil.getDatasetCount(datasetName);
         // do ungraceful shutdown to enforce recovery
         integrationUtil.deinit(false);
-        integrationUtil.init(false, TEST_CONFIG_FILE_PATH);
+        integrationUtil.init(false, configFilePath);
         final long countAfterRecovery = TestDataUtil.getDatasetCount(datasetName);
         Assert.assertEquals(countBeforeRecovery, countAfterRecovery);
     }
@@ -29,8 +29,13 @@ import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentIdGenerator;
 import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCache;
 import org.apache.hyracks.storage.common.IIndex;
 import org.apache.hyracks.storage.common.IResourceLifecycleManager;
+import org.apache.hyracks.storage.common.buffercache.ICachePartitionResolver;
 
-public interface IDatasetLifecycleManager extends IResourceLifecycleManager<IIndex> {
+/**
+ * Manages the lifecycle of the datasets of a node and, as an {@link ICachePartitionResolver}, assigns the files of
+ * datasets to the buffer cache partitions configured for their dataverse or dataset.
+ */
+public interface IDatasetLifecycleManager extends IResourceLifecycleManager<IIndex>, ICachePartitionResolver {
     /**
      * @param datasetId
      * @param indexId
@@ -54,6 +59,19 @@ public interface IDatasetLifecycleManager extends IResourceLifecycleManager<IInd
      */
     void scheduleAsyncFlushForLaggingDatasets(long nonSharpCheckpointTargetLSN) throws HyracksDataException;
 
+    /**
+     * Schedules asynchronous flushes on the dataset partitions whose memory components hold the oldest LSNs that are
+     * < checkpointTargetLSN, oldest first. Partitions holding such LSNs that are already being flushed count against
+     * maxFlushes, so that no more than maxFlushes of them are flushing at any time.
+     *
+     * @param checkpointTargetLSN
+     * @param maxFlushes
+     * @return the number of flushes scheduled
+     * @throws HyracksDataException
+     */
+    int scheduleAsyncFlushForOldestDatasetPartitions(long checkpointTargetLSN, int maxFlushes)
+            throws HyracksDataException;
+
     /**
      * creates (if necessary) and returns the dataset info.
      *
@@ -18,10 +18,12 @@
  */
 package org.apache.asterix.common.config;
 
+import static org.apache.hyracks.control.common.config.OptionTypes.BOOLEAN;
 import static org.apache.hyracks.control.common.config.OptionTypes.DOUBLE;
 import static org.apache.hyracks.control.common.config.OptionTypes.INTEGER;
 import static org.apache.hyracks.control.common.config.OptionTypes.INTEGER_BYTE_UNIT;
 import static org.apache.hyracks.control.common.config.OptionTypes.LONG_BYTE_UNIT;
+import static org.apache.hyracks.control.common.config.OptionTypes.STRING;
 import static org.apache.hyracks.util.StorageUtil.StorageUnit.KILOBYTE;
 
 import java.util.function.Function;
@@ -40,6 +42,9 @@ public class StorageProperties extends AbstractProperties {
         // By default, uses 1/4 of the maximum heap size for read cache, i.e., disk buffer cache.
         STORAGE_BUFFERCACHE_SIZE(LONG_BYTE_UNIT, Runtime.getRuntime().maxMemory() / 4),
         STORAGE_BUFFERCACHE_MAXOPENFILES(INTEGER, Integer.MAX_VALUE),
+        STORAGE_BUFFERCACHE_REPLACEMENTPOLICY(STRING, "clock"),
+        STORAGE_BUFFERCACHE_MAPPEDREADS(BOOLEAN, false),
+        STORAGE_BUFFERCACHE_PARTITIONS(STRING, ""),
         STORAGE_MEMORYCOMPONENT_GLOBALBUDGET(LONG_BYTE_UNIT, Runtime.getRuntime().maxMemory() / 4),
         STORAGE_MEMORYCOMPONENT_PAGESIZE(INTEGER_BYTE_UNIT, StorageUtil.getIntSizeInBytes(128, KILOBYTE)),
         STORAGE_MEMORYCOMPONENT_NUMPAGES(INTEGER, (Function<IApplicationConfig, Integer>) accessor ->
@@ -51,7 +56,9 @@ public class StorageProperties extends AbstractProperties {
         // By default, uses the min of 1/64 of the STORAGE_MEMORYCOMPONENT_GLOBALBUDGET and 256 pages
         // for the write buffer budget for a metadata dataset, including data and indexes.
         Math.min((int) (accessor.getLong(STORAGE_MEMORYCOMPONENT_GLOBALBUDGET) / (64 * accessor.getInt(STORAGE_MEMORYCOMPONENT_PAGESIZE))), 256)),
-        STORAGE_LSM_BLOOMFILTER_FALSEPOSITIVERATE(DOUBLE, 0.01d);
+        STORAGE_LSM_BLOOMFILTER_FALSEPOSITIVERATE(DOUBLE, 0.01d),
+        STORAGE_LSM_MAXCONCURRENTMERGES(INTEGER, 2),
+        STORAGE_LSM_MAXMERGERATE(LONG_BYTE_UNIT, 0L);
 
         private final IOptionType interpreter;
         private final Object defaultValue;
@@ -81,6 +88,16 @@ public class StorageProperties extends AbstractProperties {
                             + " of the buffer cache page size.";
                 case STORAGE_BUFFERCACHE_MAXOPENFILES:
                     return "The maximum number of open files in the buffer cache";
+                case STORAGE_BUFFERCACHE_REPLACEMENTPOLICY:
+                    return "The page replacement policy of the buffer cache: clock, or 2q to protect frequently "
+                            + "accessed pages from large scans";
+                case STORAGE_BUFFERCACHE_MAPPEDREADS:
+                    return "Whether buffer cache misses on uncompressed files are served from a read-only memory "
+                            + "mapping of the file instead of a file read";
+                case STORAGE_BUFFERCACHE_PARTITIONS:
+                    return "Buffer cache partitions that reserve a fraction of the buffer cache for the pages of a "
+                            + "dataverse or dataset, as a comma separated list of <dataverse>[.<dataset>]:<fraction> "
+                            + "(e.g. Metadata:0.05,Shop.Orders:0.2)";
                 case STORAGE_MEMORYCOMPONENT_GLOBALBUDGET:
                     return "The size of memory allocated to the memory components.  The value should be a multiple "
                             + "of the memory component page size";
@@ -97,6 +114,13 @@ public class StorageProperties extends AbstractProperties {
                     return "The number of pages to allocate for a metadata memory component";
                 case STORAGE_LSM_BLOOMFILTER_FALSEPOSITIVERATE:
                     return "The maximum acceptable false positive rate for bloom filters associated with LSM indexes";
+                case STORAGE_LSM_MAXCONCURRENTMERGES:
+                    return "The maximum number of LSM merges running concurrently on an I/O device. Flushes are not "
+                            + "limited and never wait for merges";
+                case STORAGE_LSM_MAXMERGERATE:
+                    return "The maximum number of bytes per second the LSM merges on an I/O device read and write, or "
+                            + "0 for no limit. The limit is raised in proportion to the number of flushes waiting on "
+                            + "the device";
                 default:
                     throw new IllegalStateException("NYI: " + this);
             }
@@ -143,6 +167,18 @@ public class StorageProperties extends AbstractProperties {
         return accessor.getInt(Option.STORAGE_BUFFERCACHE_MAXOPENFILES);
     }
 
+    public String getBufferCacheReplacementPolicy() {
+        return accessor.getString(Option.STORAGE_BUFFERCACHE_REPLACEMENTPOLICY);
+    }
+
+    public boolean isBufferCacheMappedReads() {
+        return accessor.getBoolean(Option.STORAGE_BUFFERCACHE_MAPPEDREADS);
+    }
+
+    public String getBufferCachePartitions() {
+        return accessor.getString(Option.STORAGE_BUFFERCACHE_PARTITIONS);
+    }
+
     public int getMemoryComponentPageSize() {
         return accessor.getInt(Option.STORAGE_MEMORYCOMPONENT_PAGESIZE);
     }
@@ -167,6 +203,14 @@ public class StorageProperties extends AbstractProperties {
         return accessor.getDouble(Option.STORAGE_LSM_BLOOMFILTER_FALSEPOSITIVERATE);
     }
 
+    public int getMaxConcurrentMerges() {
+        return accessor.getInt(Option.STORAGE_LSM_MAXCONCURRENTMERGES);
+    }
+
+    public long getMaxMergeRate() {
+        return accessor.getLong(Option.STORAGE_LSM_MAXMERGERATE);
+    }
+
     public int getBufferCacheNumPages() {
         return (int) (getBufferCacheSize() / (getBufferCachePageSize() + IBufferCache.RESERVED_HEADER_BYTES));
     }
@@ -44,6 +44,11 @@ public class TransactionProperties extends AbstractProperties {
                 LONG_BYTE_UNIT,
                 StorageUtil.getLongSizeInBytes(256L, MEGABYTE),
                 "The maximum size (in bytes) of each transaction log file"),
+        TXN_LOG_COMPRESSION(
+                BOOLEAN,
+                false,
+                "Enable the compact encoding of entity commit and update log records, which stores their headers as "
+                        + "varints and LZ4 compresses the new values of update log records"),
         TXN_LOG_CHECKPOINT_LSNTHRESHOLD(
                 INTEGER_BYTE_UNIT,
                 StorageUtil.getIntSizeInBytes(64, MEGABYTE),
@@ -54,10 +59,22 @@ public class TransactionProperties extends AbstractProperties {
                 120,
                 "The frequency (in seconds) the checkpoint thread should check to see if a checkpoint should be written"),
         TXN_LOG_CHECKPOINT_HISTORY(INTEGER, 0, "The number of checkpoints to keep in the transaction log"),
-        TXN_LOCK_ESCALATIONTHRESHOLD(
+        TXN_LOG_CHECKPOINT_REDOTARGET(
+                LONG_BYTE_UNIT,
+                0L,
+                "The maximum volume (in bytes) of transaction log that recovery should need to redo. When set, "
+                        + "checkpoints are taken incrementally by flushing the dataset partitions holding the oldest "
+                        + "log records behind the target, a few at a time, instead of the lsn threshold based "
+                        + "checkpoints (0 = disabled)"),
+        TXN_LOG_CHECKPOINT_FLUSHINTERVAL(
                 INTEGER,
                 1000,
-                "The maximum number of entity locks to obtain before upgrading to a dataset lock"),
+                "The interval (in milliseconds) between two incremental checkpoint attempts"),
+        TXN_LOCK_ESCALATIONTHRESHOLD(
+                INTEGER,
+                0,
+                "The maximum number of entity locks that a transaction holds on a dataset before they are escalated "
+                        + "to a dataset lock (0 = disabled)"),
         TXN_LOCK_SHRINKTIMER(
                 INTEGER,
                 5000,
@@ -69,7 +86,12 @@ public class TransactionProperties extends AbstractProperties {
         TXN_JOB_RECOVERY_MEMORYSIZE(
                 LONG_BYTE_UNIT,
                 StorageUtil.getLongSizeInBytes(64L, MEGABYTE),
-                "The memory budget (in bytes) used for recovery");
+                "The memory budget (in bytes) used for recovery"),
+        TXN_RECOVERY_REDO_PARALLELISM(
+                INTEGER,
+                1,
+                "The number of threads that redo the recovered log records of different dataset partitions "
+                        + "concurrently");
 
         private final IOptionType type;
         private final Object defaultValue;
@@ -130,6 +152,10 @@ public class TransactionProperties extends AbstractProperties {
         return accessor.getLong(Option.TXN_LOG_PARTITIONSIZE);
     }
 
+    public boolean isLogCompressionEnabled() {
+        return accessor.getBoolean(Option.TXN_LOG_COMPRESSION);
+    }
+
     public int getCheckpointLSNThreshold() {
         return accessor.getInt(Option.TXN_LOG_CHECKPOINT_LSNTHRESHOLD);
     }
@@ -142,6 +168,14 @@ public class TransactionProperties extends AbstractProperties {
         return accessor.getInt(Option.TXN_LOG_CHECKPOINT_HISTORY);
     }
 
+    public long getCheckpointRedoTarget() {
+        return accessor.getLong(Option.TXN_LOG_CHECKPOINT_REDOTARGET);
+    }
+
+    public int getCheckpointFlushInterval() {
+        return accessor.getInt(Option.TXN_LOG_CHECKPOINT_FLUSHINTERVAL);
+    }
+
     public int getEntityToDatasetLockEscalationThreshold() {
         return accessor.getInt(Option.TXN_LOCK_ESCALATIONTHRESHOLD);
     }
@@ -169,4 +203,8 @@ public class TransactionProperties extends AbstractProperties {
     public long getJobRecoveryMemorySize() {
         return accessor.getLong(Option.TXN_JOB_RECOVERY_MEMORYSIZE);
     }
+
+    public int getRecoveryRedoParallelism() {
+        return accessor.getInt(Option.TXN_RECOVERY_REDO_PARALLELISM);
+    }
 }
@@ -20,9 +20,13 @@ package org.apache.asterix.common.context;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -36,12 +40,15 @@ import org.apache.asterix.common.ioopcallbacks.AbstractLSMIOOperationCallback;
 import org.apache.asterix.common.replication.IReplicationStrategy;
 import org.apache.asterix.common.storage.DatasetResourceReference;
 import org.apache.asterix.common.storage.IIndexCheckpointManagerProvider;
+import org.apache.asterix.common.storage.ResourceReference;
 import org.apache.asterix.common.transactions.ILogManager;
 import org.apache.asterix.common.transactions.LogRecord;
+import org.apache.asterix.common.utils.StorageConstants;
 import org.apache.asterix.common.utils.StoragePathUtil;
 import org.apache.asterix.common.utils.TransactionUtil;
 import org.apache.hyracks.api.exceptions.ErrorCode;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.api.lifecycle.ILifeCycleComponent;
 import org.apache.hyracks.storage.am.common.impls.NoOpIndexAccessParameters;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentIdGenerator;
@@ -53,12 +60,15 @@ import org.apache.hyracks.storage.am.lsm.common.impls.LSMComponentIdGenerator;
 import org.apache.hyracks.storage.common.IIndex;
 import org.apache.hyracks.storage.common.ILocalResourceRepository;
 import org.apache.hyracks.storage.common.LocalResource;
+import org.apache.hyracks.storage.common.buffercache.BufferCachePartition;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 public class DatasetLifecycleManager implements IDatasetLifecycleManager, ILifeCycleComponent {
 
     private static final Logger LOGGER = LogManager.getLogger();
+    // root/partition/dataverse/dataset/rebalanceCount/index/fileName
+    private static final int INDEX_FILE_PATH_DEPTH = 7;
     private final Map<Integer, DatasetResource> datasets = new ConcurrentHashMap<>();
     private final StorageProperties storageProperties;
     private final ILocalResourceRepository resourceRepository;
@@ -68,6 +78,7 @@ public class DatasetLifecycleManager implements IDatasetLifecycleManager, ILifeC
     private final int numPartitions;
     private volatile boolean stopped = false;
     private final IIndexCheckpointManagerProvider indexCheckpointManagerProvider;
+    private final Map<String, BufferCachePartition> cachePartitions;
 
     public DatasetLifecycleManager(StorageProperties storageProperties, ILocalResourceRepository resourceRepository,
             ILogManager logManager, IDatasetMemoryManager memoryManager,
@@ -79,6 +90,58 @@ public class DatasetLifecycleManager implements IDatasetLifecycleManager, ILifeC
         this.indexCheckpointManagerProvider = indexCheckpointManagerProvider;
         this.numPartitions = numPartitions;
         logRecord = new LogRecord();
+        cachePartitions = parseCachePartitions(storageProperties.getBufferCachePartitions(),
+                storageProperties.getBufferCacheNumPages());
+    }
+
+    /**
+     * Parses the buffer cache partitions from a comma separated list of dataverse[.dataset]:fraction entries, where
+     * fraction is the share of the buffer cache pages reserved for the dataverse or dataset
+     */
+    private static Map<String, BufferCachePartition> parseCachePartitions(String spec, int bufferCacheNumPages) {
+        Map<String, BufferCachePartition> partitions = new LinkedHashMap<>();
+        if (spec == null || spec.trim().isEmpty()) {
+            return partitions;
+        }
+        double total = 0;
+        for (String entry : spec.split(",")) {
+            int separator = entry.lastIndexOf(':');
+            String name = separator > 0 ? entry.substring(0, separator).trim() : "";
+            double fraction;
+            try {
+                fraction = Double.parseDouble(entry.substring(separator + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid buffer cache partition: " + entry, e);
+            }
+            if (name.isEmpty() || fraction <= 0 || fraction > 1 || partitions.containsKey(name)) {
+                throw new IllegalArgumentException("Invalid buffer cache partition: " + entry);
+            }
+            total += fraction;
+            partitions.put(name, new BufferCachePartition(name, (int) (bufferCacheNumPages * fraction)));
+        }
+        if (total > 1) {
+            throw new IllegalArgumentException("Buffer cache partitions reserve more than the buffer cache: " + spec);
+        }
+        return partitions;
+    }
+
+    @Override
+    public BufferCachePartition getCachePartition(FileReference fileRef) {
+        if (cachePartitions.isEmpty()) {
+            return null;
+        }
+        Path path = Paths.get(fileRef.getRelativePath());
+        if (path.getNameCount() != INDEX_FILE_PATH_DEPTH || !path.startsWith(StorageConstants.STORAGE_ROOT_DIR_NAME)) {
+            return null;
+        }
+        ResourceReference ref = ResourceReference.of(fileRef.getRelativePath());
+        BufferCachePartition partition = cachePartitions.get(ref.getDataverse() + '.' + ref.getDataset());
+        return partition != null ? partition : cachePartitions.get(ref.getDataverse());
+    }
+
+    @Override
+    public Collection<BufferCachePartition> getCachePartitions() {
+        return Collections.unmodifiableCollection(cachePartitions.values());
     }
 
     @Override
@@ -395,18 +458,83 @@ public class DatasetLifecycleManager implements IDatasetLifecycleManager, ILifeC
                     || opTracker.isFlushLogCreated() || opTracker.isFlushOnExit())) {
                 long firstLSN = ioCallback.getFirstLSN();
                 if (firstLSN < targetLSN) {
-                    LOGGER.info("Checkpoint flush dataset {} partition {}", dsr.getDatasetID(), partition);
-                    opTracker.setFlushOnExit(true);
-                    if (opTracker.getNumActiveOperations() == 0) {
-                        // No Modify operations currently, we need to trigger the flush and we can do so safely
-                        opTracker.flushIfRequested();
-                    }
+                    scheduleCheckpointFlush(dsr, opTracker);
                     break;
                 }
             }
         }
     }
 
+    @Override
+    public synchronized int scheduleAsyncFlushForOldestDatasetPartitions(long targetLSN, int maxFlushes)
+            throws HyracksDataException {
+        List<LaggingPartition> laggingPartitions = new ArrayList<>();
+        int flushing = 0;
+        for (DatasetResource dsr : datasets.values()) {
+            for (PrimaryIndexOperationTracker opTracker : dsr.getOpTrackers()) {
+                synchronized (opTracker) {
+                    long firstLSN = getFirstLSN(dsr, opTracker.getPartition());
+                    if (firstLSN >= targetLSN) {
+                        continue;
+                    }
+                    if (isFlushing(dsr, opTracker)) {
+                        flushing++;
+                    } else {
+                        laggingPartitions.add(new LaggingPartition(dsr, opTracker, firstLSN));
+                    }
+                }
+            }
+        }
+        laggingPartitions.sort(Comparator.comparingLong(p -> p.firstLSN));
+        int scheduled = 0;
+        for (LaggingPartition p : laggingPartitions) {
+            if (flushing + scheduled >= maxFlushes) {
+                break;
+            }
+            synchronized (p.opTracker) {
+                if (!isFlushing(p.dsr, p.opTracker) && getFirstLSN(p.dsr, p.opTracker.getPartition()) < targetLSN) {
+                    scheduleCheckpointFlush(p.dsr, p.opTracker);
+                    scheduled++;
+                }
+            }
+        }
+        return scheduled;
+    }
+
+    private static long getFirstLSN(DatasetResource dsr, int partition) throws HyracksDataException {
+        long firstLSN = Long.MAX_VALUE;
+        for (ILSMIndex lsmIndex : dsr.getDatasetInfo().getDatasetPartitionOpenIndexes(partition)) {
+            AbstractLSMIOOperationCallback ioCallback =
+                    (AbstractLSMIOOperationCallback) lsmIndex.getIOOperationCallback();
+            if (!lsmIndex.isCurrentMutableComponentEmpty() || ioCallback.hasPendingFlush()) {
+                firstLSN = Math.min(firstLSN, ioCallback.getFirstLSN());
+            }
+        }
+        return firstLSN;
+    }
+
+    private static boolean isFlushing(DatasetResource dsr, PrimaryIndexOperationTracker opTracker) {
+        if (opTracker.isFlushLogCreated() || opTracker.isFlushOnExit()) {
+            return true;
+        }
+        for (ILSMIndex lsmIndex : dsr.getDatasetInfo().getDatasetPartitionOpenIndexes(opTracker.getPartition())) {
+            if (((AbstractLSMIOOperationCallback) lsmIndex.getIOOperationCallback()).hasPendingFlush()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void scheduleCheckpointFlush(DatasetResource dsr, PrimaryIndexOperationTracker opTracker)
+            throws HyracksDataException {
+        LOGGER.info("Checkpoint flush dataset {} partition {}", dsr.getDatasetID(), opTracker.getPartition());
+        opTracker.setFlushOnExit(true);
+        if (opTracker.getNumActiveOperations() == 0) {
+            // No Modify operations currently, we need to trigger the flush and we can do so safely
+            opTracker.flushIfRequested();
+        }
+    }
+
     /*
      * This method can only be called asynchronously safely if we're sure no modify operation
      * will take place until the flush is scheduled
@@ -533,8 +661,8 @@ public class DatasetLifecycleManager implements IDatasetLifecycleManager, ILifeC
 
         String dsHeaderFormat = "%-10s %-6s %-16s %-12s\n";
         String dsFormat = "%-10d %-6b %-16d %-12d\n";
-        String idxHeaderFormat = "%-10s %-11s %-6s %-16s %-6s\n";
-        String idxFormat = "%-10d %-11d %-6b %-16d %-6s\n";
+        String idxHeaderFormat = "%-10s %-11s %-6s %-16s %-14s %-14s %-6s\n";
+        String idxFormat = "%-10d %-11d %-6b %-16d %-14d %-14d %-6s\n";
 
         sb.append("[Datasets]\n");
         sb.append(String.format(dsHeaderFormat, "DatasetID", "Open", "Reference Count", "Last Access"));
@@ -546,11 +674,15 @@ public class DatasetLifecycleManager implements IDatasetLifecycleManager, ILifeC
         sb.append("\n");
 
         sb.append("[Indexes]\n");
-        sb.append(String.format(idxHeaderFormat, "DatasetID", "ResourceID", "Open", "Reference Count", "Index"));
+        sb.append(String.format(idxHeaderFormat, "DatasetID", "ResourceID", "Open", "Reference Count", "Flushed Bytes",
+                "Merged Bytes", "Index"));
         for (DatasetResource dsr : datasets.values()) {
             DatasetInfo dsInfo = dsr.getDatasetInfo();
-            dsInfo.getIndexes().forEach((key, iInfo) -> sb.append(String.format(idxFormat, dsInfo.getDatasetID(), key,
-                    iInfo.isOpen(), iInfo.getReferenceCount(), iInfo.getIndex())));
+            dsInfo.getIndexes()
+                    .forEach((key,
+                            iInfo) -> sb.append(String.format(idxFormat, dsInfo.getDatasetID(), key, iInfo.isOpen(),
+                                    iInfo.getReferenceCount(), iInfo.getIndex().getFlushedBytes(),
+                                    iInfo.getIndex().getMergedBytes(), iInfo.getIndex())));
         }
         outputStream.write(sb.toString().getBytes());
     }
@@ -617,4 +749,16 @@ public class DatasetLifecycleManager implements IDatasetLifecycleManager, ILifeC
             indexInfo.setOpen(false);
         }
     }
+
+    private static class LaggingPartition {
+        private final DatasetResource dsr;
+        private final PrimaryIndexOperationTracker opTracker;
+        private final long firstLSN;
+
+        private LaggingPartition(DatasetResource dsr, PrimaryIndexOperationTracker opTracker, long firstLSN) {
+            this.dsr = dsr;
+            this.opTracker = opTracker;
+            this.firstLSN = firstLSN;
+        }
+    }
 }
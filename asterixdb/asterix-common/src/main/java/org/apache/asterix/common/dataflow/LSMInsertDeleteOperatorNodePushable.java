@@ -124,11 +124,7 @@ public class LSMInsertDeleteOperatorNodePushable extends LSMIndexInsertUpdateDel
                 tuple.reset(accessor, i);
                 switch (op) {
                     case INSERT:
-                        if (i == 0 && isPrimary) {
-                            lsmAccessor.insert(tuple);
-                        } else {
-                            lsmAccessor.forceInsert(tuple);
-                        }
+                        insert(lsmAccessor, i);
                         break;
                     case DELETE:
                         if (i == 0 && isPrimary) {
@@ -163,6 +159,19 @@ public class LSMInsertDeleteOperatorNodePushable extends LSMIndexInsertUpdateDel
         i = 0;
     }
 
+    /**
+     * Inserts the current tuple, which is the tuple at the given index in the current frame. The first tuple of a
+     * frame goes through a regular insert into the primary index, which waits for the memory component to be
+     * writable; the other tuples are force inserted.
+     */
+    protected void insert(ILSMIndexAccessor lsmAccessor, int tupleIndex) throws HyracksDataException {
+        if (tupleIndex == 0 && isPrimary) {
+            lsmAccessor.insert(tuple);
+        } else {
+            lsmAccessor.forceInsert(tuple);
+        }
+    }
+
     /**
      * flushes tuples in a frame from lastFlushedTupleIdx(inclusive) to currentTupleIdx(exclusive)
      */
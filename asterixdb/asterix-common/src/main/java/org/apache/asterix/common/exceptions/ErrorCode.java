@@ -140,6 +140,10 @@ public class ErrorCode {
     public static final int WITH_FIELD_MUST_CONTAIN_SUB_FIELD = 1061;
     public static final int MERGE_POLICY_PARAMETER_INVALID_TYPE = 1062;
     public static final int NO_DATAVERSE_WITH_NAME = 1063;
+    public static final int INDEX_ILLEGAL_INCLUDED_FIELDS = 1064;
+    public static final int INDEX_ILLEGAL_INCLUDED_KEY_FIELD = 1065;
+    public static final int UNKNOWN_COMPRESSION_SCHEME = 1066;
+    public static final int ILLEGAL_SYNOPSIS_FIELD = 1067;
 
     // Feed errors
     public static final int DATAFLOW_ILLEGAL_STATE = 3001;
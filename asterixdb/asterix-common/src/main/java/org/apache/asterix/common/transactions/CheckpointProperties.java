@@ -26,6 +26,8 @@ public class CheckpointProperties {
     private final int lsnThreshold;
     private final int pollFrequency;
     private final int historyToKeep;
+    private final long redoTarget;
+    private final int flushInterval;
 
     public CheckpointProperties(TransactionProperties txnProperties, String nodeId) {
         // Currently we use the log files directory for checkpoints
@@ -33,6 +35,8 @@ public class CheckpointProperties {
         lsnThreshold = txnProperties.getCheckpointLSNThreshold();
         pollFrequency = txnProperties.getCheckpointPollFrequency();
         historyToKeep = txnProperties.getCheckpointHistory();
+        redoTarget = txnProperties.getCheckpointRedoTarget();
+        flushInterval = txnProperties.getCheckpointFlushInterval();
     }
 
     public int getLsnThreshold() {
@@ -47,6 +51,14 @@ public class CheckpointProperties {
         return historyToKeep;
     }
 
+    public long getRedoTarget() {
+        return redoTarget;
+    }
+
+    public int getFlushInterval() {
+        return flushInterval;
+    }
+
     public String getCheckpointDirPath() {
         return checkpointDirPath;
     }
@@ -55,6 +67,7 @@ public class CheckpointProperties {
     public String toString() {
         return "{\"class\" : \"" + getClass().getSimpleName() + "\", \"checkpoint-dir-path\" : \"" + checkpointDirPath
                 + "\", \"lsn-threshold\" : " + lsnThreshold + ", \"poll-frequency\" : " + pollFrequency
-                + ", \"history-to-keep\" : " + historyToKeep + " }";
+                + ", \"history-to-keep\" : " + historyToKeep + ", \"redo-target\" : " + redoTarget
+                + ", \"flush-interval\" : " + flushInterval + " }";
     }
 }
@@ -46,4 +46,16 @@ public interface ICheckpointManager extends ILifeCycleComponent {
      * @throws HyracksDataException
      */
     long tryCheckpoint(long checkpointTargetLSN) throws HyracksDataException;
+
+    /**
+     * Performs a fuzzy checkpoint at the current low-water mark without waiting for any flush, if the low-water mark
+     * advanced enough since the previous one. If the low-water mark is behind the specified
+     * {@code checkpointTargetLSN}, flushes are scheduled for the dataset partitions holding the oldest LSNs behind it,
+     * a limited number at a time.
+     *
+     * @param checkpointTargetLSN
+     * @return The low-water mark LSN at the time of the call.
+     * @throws HyracksDataException
+     */
+    long tryIncrementalCheckpoint(long checkpointTargetLSN) throws HyracksDataException;
 }
\ No newline at end of file
@@ -18,25 +18,43 @@
  */
 package org.apache.asterix.common.transactions;
 
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 
+/**
+ * A page of the log tail. Any number of threads may append to a log buffer at the same time: each of them first
+ * reserves the space its record needs, writes the record into it, and then reports that it is done. The log flusher
+ * writes out the part of the buffer that no append is still working on.
+ */
 public interface ILogBuffer {
 
     /**
-     * append a log record
+     * reserve space for a log record
+     *
+     * @param logSize
+     *            the size of the log record
+     * @return the offset of the reserved space in the buffer, or -1 if the buffer is full or does not have enough
+     *         space left
+     */
+    int reserve(int logSize);
+
+    /**
+     * append a log record into space reserved by {@link #reserve(int)}. The append is not visible to the log
+     * flusher until {@link #appendFinished()} is called.
      *
      * @param logRecord
      *            the log record to be appended
+     * @param offset
+     *            the offset returned by {@link #reserve(int)}
      * @param appendLsn
      *            the lsn for the record in the log file
      */
-    void append(ILogRecord logRecord, long appendLsn);
+    void append(ILogRecord logRecord, int offset, long appendLsn);
 
     /**
-     * flush content of buffer to disk
-     * @param stopping
+     * Mark an append started by {@link #reserve(int)} as finished
      */
-    void flush(boolean stopping);
+    void appendFinished();
 
     /**
      * @param logSize
@@ -45,10 +63,52 @@ public interface ILogBuffer {
     boolean hasSpace(int logSize);
 
     /**
-     * Set buffer to be full
+     * Set buffer to be full. Once full, no more space can be reserved in the buffer.
      */
     void setFull();
 
+    /**
+     * @return the lsn of the first byte of the buffer
+     */
+    long getBaseLsn();
+
+    /**
+     * @return the end of the space reserved in the buffer so far
+     */
+    int getAppendOffset();
+
+    /**
+     * @return the end of the part of the buffer that has been written to disk
+     */
+    int getFlushOffset();
+
+    /**
+     * @return the end of the part of the buffer that can be written to disk, i.e. that has no append in progress
+     */
+    int getFlushableOffset();
+
+    /**
+     * @param flushableOffset
+     *            an offset returned by {@link #getFlushableOffset()}
+     * @return true if the buffer is full and nothing after flushableOffset will ever be appended
+     */
+    boolean isComplete(int flushableOffset);
+
+    /**
+     * @param endOffset
+     *            an offset returned by {@link #getFlushableOffset()}
+     * @return the part of the buffer between the flush offset and endOffset
+     */
+    ByteBuffer getFlushBuffer(int endOffset);
+
+    /**
+     * Notify the waiters of the log records up to endOffset once they have been forced to disk
+     *
+     * @param endOffset
+     *            the offset of the buffer that the last flush went up to
+     */
+    void flushed(int endOffset);
+
     /**
      * Associate the buffer with a file channel
      *
@@ -57,14 +117,22 @@ public interface ILogBuffer {
     void setFileChannel(FileChannel fileChannel);
 
     /**
-     * reset the buffer for re-use
+     * @return the file channel the buffer is written to
      */
-    void reset();
+    FileChannel getFileChannel();
 
     /**
-     * stops the log buffer
+     * reset the buffer for re-use
+     *
+     * @param baseLsn
+     *            the lsn of the first byte of the buffer
+     * @param capacity
+     *            the number of bytes that may be appended to the buffer
+     * @param reservedSize
+     *            the size of the space that is reserved at offset 0 as if by {@link #reserve(int)}, or 0 to reserve
+     *            none
      */
-    void stop();
+    void reset(long baseLsn, int capacity, int reservedSize);
 
     /**
      * @return the default log page size in this buffer
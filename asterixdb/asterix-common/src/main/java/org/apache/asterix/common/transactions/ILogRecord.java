@@ -176,4 +176,17 @@ public interface ILogRecord {
      * @return the flag
      */
     boolean isReplicate();
+
+    /**
+     * Sets a flag indicating if entity commit and update logs should be written in the compact format. The log size
+     * must be computed again after changing the flag.
+     *
+     * @param compactEncoding
+     */
+    void setCompactEncoding(boolean compactEncoding);
+
+    /**
+     * @return a flag indicating if entity commit and update logs are written in the compact format
+     */
+    boolean isCompactEncoding();
 }
@@ -24,9 +24,11 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.CRC32;
 
 import org.apache.asterix.common.context.PrimaryIndexOperationTracker;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.storage.am.common.tuples.SimpleTupleReference;
 import org.apache.hyracks.storage.am.common.tuples.SimpleTupleWriter;
+import org.apache.hyracks.storage.common.compression.Lz4CompressorDecompressor;
 
 /**
  * == LogRecordFormat ==
@@ -56,10 +58,44 @@ import org.apache.hyracks.storage.am.common.tuples.SimpleTupleWriter;
  * [Tail] (8 bytes) : for all log types
  * Checksum(8)
  * ---------------------------
+ * == CompactLogRecordFormat ==
+ * Entity commit and update log records can also be written in a compact format, which is flagged by
+ * {@link LogType#COMPACT} in the LogType byte. Integers are stored as unsigned varints and the new value is
+ * LZ4 compressed whenever that makes it smaller.
+ * ---------------------------
+ * [Header1] : for entity_commit and update log types
+ * LogSource(1)
+ * LogType(1)
+ * LogRecordSize(4)
+ * TxnId(varint)
+ * ResourcePartition(varint)
+ * DatasetId(varint)
+ * PKHashValue(4)
+ * PKValueSize(varint)
+ * PKValue(PKValueSize)
+ * ---------------------------
+ * [Body] : only for update log type
+ * ResourceId(varint)
+ * FieldCnt(varint)
+ * NewOp(1)
+ * NewValueSize(varint)
+ * EncodedNewValueSize(varint) //the new value is compressed when this is smaller than NewValueSize
+ * EncodedNewValue(EncodedNewValueSize)
+ * [OldValueSize(varint) OldValueFieldCnt(varint) OldValue(OldValueSize)] //only if the old value exists
+ * ---------------------------
+ * [Tail] (8 bytes)
+ * Checksum(8)
+ * ---------------------------
  */
 
 public class LogRecord implements ILogRecord {
 
+    private static final Lz4CompressorDecompressor COMPRESSOR = Lz4CompressorDecompressor.INSTANCE;
+    // LZ4 encodes at most 255 bytes of a match with one byte
+    private static final int LZ4_MAX_RATIO = 255;
+    private static final int VARINT_MASK = 0x7F;
+    private static final int VARINT_MORE = 0x80;
+
     // ------------- fields in a log record (begin) ------------//
     private byte logSource;
     private byte logType;
@@ -93,6 +129,14 @@ public class LogRecord implements ILogRecord {
     private final CRC32 checksumGen;
     private int[] PKFields;
     private PrimaryIndexOperationTracker opTracker;
+    private boolean compactEncoding;
+    // the new value as it is written in a compact log record
+    private byte[] encodedNewValue;
+    private int encodedNewValueOffset;
+    private int encodedNewValueSize;
+    private byte[] newValueBuffer;
+    private byte[] compressedNewValueBuffer;
+    private byte[] readNewValueBuffer;
 
     /**
      * The fields (numOfFlushedIndexes and nodeId) are used for remote flush logs only
@@ -119,6 +163,11 @@ public class LogRecord implements ILogRecord {
 
     private void doWriteLogRecord(ByteBuffer buffer) {
         buffer.put(logSource);
+        if (isCompact()) {
+            buffer.put((byte) (logType | LogType.COMPACT));
+            doWriteCompactLogRecord(buffer);
+            return;
+        }
         buffer.put(logType);
         buffer.putLong(txnId);
         switch (logType) {
@@ -154,6 +203,32 @@ public class LogRecord implements ILogRecord {
         }
     }
 
+    private void doWriteCompactLogRecord(ByteBuffer buffer) {
+        buffer.putInt(logSize);
+        putVarLong(buffer, txnId);
+        putVarLong(buffer, resourcePartition);
+        putVarLong(buffer, datasetId);
+        buffer.putInt(PKHashValue);
+        if (PKValueSize <= 0) {
+            throw new IllegalStateException("Primary Key Size is less than or equal to 0");
+        }
+        putVarLong(buffer, PKValueSize);
+        writePKValue(buffer);
+        if (logType == LogType.UPDATE) {
+            putVarLong(buffer, resourceId);
+            putVarLong(buffer, newValueFieldCount);
+            buffer.put(newOp);
+            putVarLong(buffer, newValueSize);
+            putVarLong(buffer, encodedNewValueSize);
+            buffer.put(encodedNewValue, encodedNewValueOffset, encodedNewValueSize);
+            if (oldValueSize > 0) {
+                putVarLong(buffer, oldValueSize);
+                putVarLong(buffer, oldValueFieldCount);
+                writeTuple(buffer, oldValue, oldValueSize);
+            }
+        }
+    }
+
     private void writeEntityInfo(ByteBuffer buffer) {
         buffer.putInt(resourcePartition);
         buffer.putInt(datasetId);
@@ -209,7 +284,7 @@ public class LogRecord implements ILogRecord {
         int beginOffset = buffer.position();
 
         //read common fields
-        RecordReadStatus status = doReadLogRecord(buffer);
+        RecordReadStatus status = doReadLogRecord(buffer, true);
         if (status != RecordReadStatus.OK) {
             buffer.position(beginOffset);
             return status;
@@ -221,20 +296,27 @@ public class LogRecord implements ILogRecord {
             return RecordReadStatus.TRUNCATED;
         }
         checksum = buffer.getLong();
-        if (checksum != generateChecksum(buffer, beginOffset, logSize - CHKSUM_LEN)) {
+        // the checksum of a compact record is verified before it is decoded
+        if (!compactEncoding && checksum != generateChecksum(buffer, beginOffset, logSize - CHKSUM_LEN)) {
             return RecordReadStatus.BAD_CHKSUM;
         }
 
         return RecordReadStatus.OK;
     }
 
-    private RecordReadStatus doReadLogRecord(ByteBuffer buffer) {
+    private RecordReadStatus doReadLogRecord(ByteBuffer buffer, boolean hasChecksum) {
         //first we need the logtype and Job ID, if the buffer isn't that big, then no dice.
         if (buffer.remaining() < ALL_RECORD_HEADER_LEN) {
             return RecordReadStatus.TRUNCATED;
         }
+        final int beginOffset = buffer.position();
         logSource = buffer.get();
         logType = buffer.get();
+        compactEncoding = (logType & LogType.COMPACT) != 0;
+        if (compactEncoding) {
+            logType &= ~LogType.COMPACT;
+            return doReadCompactLogRecord(buffer, beginOffset, hasChecksum);
+        }
         txnId = buffer.getLong();
         switch (logType) {
             case LogType.FLUSH:
@@ -309,6 +391,9 @@ public class LogRecord implements ILogRecord {
                 logSize = buffer.getInt();
                 int lenRemaining = logSize - MARKER_BASE_LOG_SIZE;
                 if (buffer.remaining() < lenRemaining) {
+                    if (logSize > buffer.capacity()) {
+                        return RecordReadStatus.LARGE_RECORD;
+                    }
                     return RecordReadStatus.TRUNCATED;
                 }
 
@@ -327,6 +412,82 @@ public class LogRecord implements ILogRecord {
         return RecordReadStatus.OK;
     }
 
+    private RecordReadStatus doReadCompactLogRecord(ByteBuffer buffer, int beginOffset, boolean hasChecksum) {
+        if (buffer.remaining() < LOGRCD_SZ_LEN) {
+            return RecordReadStatus.TRUNCATED;
+        }
+        logSize = buffer.getInt();
+        final int headerSize = buffer.position() - beginOffset;
+        if (logSize < headerSize + CHKSUM_LEN) {
+            return RecordReadStatus.BAD_CHKSUM;
+        }
+        // the size is known upfront, so the rest of the record can be read without further checks
+        if (buffer.remaining() < logSize - headerSize - (hasChecksum ? 0 : CHKSUM_LEN)) {
+            if (logSize > buffer.capacity()) {
+                return RecordReadStatus.LARGE_RECORD;
+            }
+            return RecordReadStatus.TRUNCATED;
+        }
+        // the checksum is verified before the sizes in the record are used to decode it
+        if (hasChecksum && buffer.getLong(beginOffset + logSize - CHKSUM_LEN) != generateChecksum(buffer, beginOffset,
+                logSize - CHKSUM_LEN)) {
+            return RecordReadStatus.BAD_CHKSUM;
+        }
+        txnId = getVarLong(buffer);
+        resourcePartition = (int) getVarLong(buffer);
+        datasetId = (int) getVarLong(buffer);
+        PKHashValue = buffer.getInt();
+        PKValueSize = (int) getVarLong(buffer);
+        if (PKValueSize <= 0) {
+            throw new IllegalStateException("Primary Key Size is less than or equal to 0");
+        }
+        PKValue = readPKValue(buffer);
+        if (logType != LogType.UPDATE) {
+            return RecordReadStatus.OK;
+        }
+        resourceId = getVarLong(buffer);
+        newValueFieldCount = (int) getVarLong(buffer);
+        newOp = buffer.get();
+        newValueSize = (int) getVarLong(buffer);
+        encodedNewValueSize = (int) getVarLong(buffer);
+        encodedNewValue = buffer.array();
+        encodedNewValueOffset = buffer.position();
+        // remote records have no checksum, so the value sizes are bounded by the record size and by the maximum
+        // compression ratio of LZ4 before a buffer is allocated for the new value
+        final int valueEnd = beginOffset + logSize - CHKSUM_LEN;
+        if (encodedNewValueSize < 0 || encodedNewValueSize > valueEnd - encodedNewValueOffset || newValueSize < 0
+                || newValueSize > (long) encodedNewValueSize * LZ4_MAX_RATIO) {
+            return RecordReadStatus.BAD_CHKSUM;
+        }
+        if (encodedNewValueSize < newValueSize) {
+            if (readNewValueBuffer == null || readNewValueBuffer.length < newValueSize) {
+                readNewValueBuffer = new byte[newValueSize];
+            }
+            try {
+                COMPRESSOR.uncompress(encodedNewValue, encodedNewValueOffset, encodedNewValueSize, readNewValueBuffer,
+                        0, newValueSize);
+            } catch (HyracksDataException e) {
+                return RecordReadStatus.BAD_CHKSUM;
+            }
+            readNewValue.setFieldCount(newValueFieldCount);
+            readNewValue.resetByTupleOffset(readNewValueBuffer, 0);
+            newValue = readNewValue;
+            buffer.position(encodedNewValueOffset + encodedNewValueSize);
+        } else {
+            newValue = readTuple(buffer, readNewValue, newValueFieldCount, newValueSize);
+        }
+        if (buffer.position() - beginOffset < logSize - CHKSUM_LEN) {
+            // Prev Image exists
+            oldValueSize = (int) getVarLong(buffer);
+            oldValueFieldCount = (int) getVarLong(buffer);
+            oldValue = readTuple(buffer, readOldValue, oldValueFieldCount, oldValueSize);
+        } else {
+            oldValueSize = 0;
+            oldValue = null;
+        }
+        return RecordReadStatus.OK;
+    }
+
     private boolean readEntityInfo(ByteBuffer buffer) {
         //attempt to read in the resourcePartition, dsid, PK hash and PK length
         if (buffer.remaining() < ENTITYCOMMIT_UPDATE_HEADER_LEN) {
@@ -350,7 +511,7 @@ public class LogRecord implements ILogRecord {
     @Override
     public void readRemoteLog(ByteBuffer buffer) {
         //read common fields
-        doReadLogRecord(buffer);
+        doReadLogRecord(buffer, false);
 
         if (logType == LogType.FLUSH) {
             LSN = buffer.getLong();
@@ -397,8 +558,81 @@ public class LogRecord implements ILogRecord {
         return UPDATE_LOG_BASE_SIZE + PKValueSize + newValueSize;
     }
 
+    private int getCompactLogSize() {
+        int size = LOG_SOURCE_LEN + TYPE_LEN + LOGRCD_SZ_LEN + getVarLongSize(txnId) + getVarLongSize(resourcePartition)
+                + getVarLongSize(datasetId) + PKHASH_LEN + getVarLongSize(PKValueSize) + PKValueSize + CHKSUM_LEN;
+        if (logType == LogType.UPDATE) {
+            encodeNewValue();
+            size += getVarLongSize(resourceId) + getVarLongSize(newValueFieldCount) + NEWOP_LEN
+                    + getVarLongSize(newValueSize) + getVarLongSize(encodedNewValueSize) + encodedNewValueSize;
+            if (oldValueSize > 0) {
+                size += getVarLongSize(oldValueSize) + getVarLongSize(oldValueFieldCount) + oldValueSize;
+            }
+        }
+        return size;
+    }
+
+    private void encodeNewValue() {
+        if (newValueBuffer == null || newValueBuffer.length < newValueSize) {
+            newValueBuffer = new byte[newValueSize];
+        }
+        encodedNewValue = newValueBuffer;
+        encodedNewValueOffset = 0;
+        encodedNewValueSize = newValueSize;
+        if (newValueSize == 0) {
+            return;
+        }
+        SimpleTupleWriter.INSTANCE.writeTuple(newValue, newValueBuffer, 0);
+        final int maxCompressedSize = COMPRESSOR.computeCompressedBufferSize(newValueSize);
+        if (compressedNewValueBuffer == null || compressedNewValueBuffer.length < maxCompressedSize) {
+            compressedNewValueBuffer = new byte[maxCompressedSize];
+        }
+        final int compressedSize = COMPRESSOR.compress(newValueBuffer, 0, newValueSize, compressedNewValueBuffer, 0);
+        if (compressedSize < newValueSize) {
+            encodedNewValue = compressedNewValueBuffer;
+            encodedNewValueSize = compressedSize;
+        }
+    }
+
+    private boolean isCompact() {
+        return compactEncoding && (logType == LogType.UPDATE || logType == LogType.ENTITY_COMMIT);
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~VARINT_MASK) != 0) {
+            buffer.put((byte) ((value & VARINT_MASK) | VARINT_MORE));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & VARINT_MASK) << shift;
+            shift += 7;
+        } while ((b & VARINT_MORE) != 0);
+        return value;
+    }
+
+    private static int getVarLongSize(long value) {
+        int size = 1;
+        while ((value & ~VARINT_MASK) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
     @Override
     public void computeAndSetLogSize() {
+        if (isCompact()) {
+            logSize = getCompactLogSize();
+            return;
+        }
         switch (logType) {
             case LogType.UPDATE:
                 setUpdateLogSize();
@@ -703,6 +937,16 @@ public class LogRecord implements ILogRecord {
         return replicate;
     }
 
+    @Override
+    public void setCompactEncoding(boolean compactEncoding) {
+        this.compactEncoding = compactEncoding;
+    }
+
+    @Override
+    public boolean isCompactEncoding() {
+        return compactEncoding;
+    }
+
     public ILogRequester getRequester() {
         return requester;
     }
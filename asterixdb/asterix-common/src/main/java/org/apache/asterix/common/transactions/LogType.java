@@ -27,6 +27,8 @@ public class LogType {
     public static final byte FLUSH = 4;
     public static final byte WAIT = 6;
     public static final byte MARKER = 7;
+    // flags a log record written in the compact format, see LogRecord
+    public static final byte COMPACT = (byte) 0x80;
 
     private static final String STRING_UPDATE = "UPDATE";
     private static final String STRING_JOB_COMMIT = "JOB_COMMIT";
@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.test.transactions;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.asterix.common.transactions.ILogRecord;
+import org.apache.asterix.common.transactions.ILogRecord.RecordReadStatus;
+import org.apache.asterix.common.transactions.LogRecord;
+import org.apache.asterix.common.transactions.LogSource;
+import org.apache.asterix.common.transactions.LogType;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.tuples.SimpleTupleWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LogRecordTest {
+
+    private static final int[] PK_FIELDS = new int[] { 0 };
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Test
+    public void testUpdateLogRecord() throws Exception {
+        ITupleReference newValue = createTuple(1234, 'a', 4096);
+        ITupleReference oldValue = createTuple(1234, 'b', 128);
+        for (boolean compact : new boolean[] { false, true }) {
+            LogRecord logRecord = createUpdateLogRecord(newValue, oldValue, compact);
+            LogRecord readRecord = writeAndRead(logRecord);
+            assertUpdateEquals(logRecord, readRecord);
+            Assert.assertEquals(compact, readRecord.isCompactEncoding());
+        }
+    }
+
+    @Test
+    public void testUpdateLogRecordWithoutOldValue() throws Exception {
+        ITupleReference newValue = createTuple(Integer.MAX_VALUE, 'c', 2048);
+        for (boolean compact : new boolean[] { false, true }) {
+            LogRecord logRecord = createUpdateLogRecord(newValue, null, compact);
+            LogRecord readRecord = writeAndRead(logRecord);
+            assertUpdateEquals(logRecord, readRecord);
+            Assert.assertNull(readRecord.getOldValue());
+        }
+    }
+
+    @Test
+    public void testIncompressibleNewValue() throws Exception {
+        byte[] random = new byte[256];
+        new Random(0).nextBytes(random);
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(2);
+        tb.addField(new byte[] { 0, 0, 0, 7 }, 0, Integer.BYTES);
+        tb.addField(random, 0, random.length);
+        ArrayTupleReference newValue = new ArrayTupleReference();
+        newValue.reset(tb.getFieldEndOffsets(), tb.getByteArray());
+        LogRecord logRecord = createUpdateLogRecord(newValue, null, true);
+        assertUpdateEquals(logRecord, writeAndRead(logRecord));
+    }
+
+    @Test
+    public void testCompactEncodingIsSmaller() throws Exception {
+        ITupleReference newValue = createTuple(42, 'd', 1024);
+        LogRecord logRecord = createUpdateLogRecord(newValue, null, false);
+        final int logSize = logRecord.getLogSize();
+        logRecord.setCompactEncoding(true);
+        logRecord.computeAndSetLogSize();
+        Assert.assertTrue(logRecord.getLogSize() < logSize / 4);
+
+        LogRecord entityCommit = createEntityCommitLogRecord(newValue, false);
+        final int entityCommitSize = entityCommit.getLogSize();
+        entityCommit.setCompactEncoding(true);
+        entityCommit.computeAndSetLogSize();
+        Assert.assertTrue(entityCommit.getLogSize() < entityCommitSize);
+    }
+
+    @Test
+    public void testEntityCommitLogRecord() throws Exception {
+        ITupleReference value = createTuple(-5, 'e', 16);
+        for (boolean compact : new boolean[] { false, true }) {
+            LogRecord logRecord = createEntityCommitLogRecord(value, compact);
+            LogRecord readRecord = writeAndRead(logRecord);
+            assertCommonEquals(logRecord, readRecord);
+            Assert.assertEquals(LogType.ENTITY_COMMIT, readRecord.getLogType());
+        }
+    }
+
+    @Test
+    public void testRemoteLogRecord() throws Exception {
+        ITupleReference newValue = createTuple(77, 'f', 512);
+        ITupleReference oldValue = createTuple(77, 'g', 64);
+        LogRecord logRecord = createUpdateLogRecord(newValue, oldValue, true);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        logRecord.writeRemoteLogRecord(buffer);
+        Assert.assertEquals(logRecord.getRemoteLogSize(), buffer.position());
+        buffer.flip();
+        LogRecord readRecord = new LogRecord();
+        readRecord.readRemoteLog(buffer);
+        Assert.assertFalse(buffer.hasRemaining());
+        assertUpdateEquals(logRecord, readRecord);
+
+        // a replica appends remote log records to its own log as it received them
+        readRecord.setLogSource(LogSource.REMOTE);
+        assertUpdateEquals(logRecord, writeAndRead(readRecord));
+    }
+
+    @Test
+    public void testTruncatedCompactLogRecord() throws Exception {
+        LogRecord logRecord = createUpdateLogRecord(createTuple(3, 'h', 1024), null, true);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        logRecord.writeLogRecord(buffer);
+        buffer.flip();
+        buffer.limit(logRecord.getLogSize() - 10);
+        Assert.assertEquals(RecordReadStatus.TRUNCATED, new LogRecord().readLogRecord(buffer));
+        Assert.assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void testCorruptedCompactLogRecord() throws Exception {
+        LogRecord logRecord = createUpdateLogRecord(createTuple(4, 'i', 1024), null, true);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        logRecord.writeLogRecord(buffer);
+        buffer.flip();
+        // the checksum is verified before the corrupted record is decoded
+        final int offset = logRecord.getLogSize() / 2;
+        buffer.put(offset, (byte) ~buffer.get(offset));
+        Assert.assertEquals(RecordReadStatus.BAD_CHKSUM, new LogRecord().readLogRecord(buffer));
+        buffer.put(offset, (byte) ~buffer.get(offset));
+        // a log size that cannot even hold the checksum
+        buffer.putInt(ILogRecord.LOG_SOURCE_LEN + ILogRecord.TYPE_LEN, 1);
+        buffer.position(0);
+        Assert.assertEquals(RecordReadStatus.BAD_CHKSUM, new LogRecord().readLogRecord(buffer));
+    }
+
+    private static LogRecord writeAndRead(LogRecord logRecord) {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        logRecord.writeLogRecord(buffer);
+        Assert.assertEquals(logRecord.getLogSize(), buffer.position());
+        buffer.flip();
+        LogRecord readRecord = new LogRecord();
+        Assert.assertEquals(RecordReadStatus.OK, readRecord.readLogRecord(buffer));
+        Assert.assertFalse(buffer.hasRemaining());
+        Assert.assertEquals(logRecord.getLogSize(), readRecord.getLogSize());
+        return readRecord;
+    }
+
+    private static LogRecord createEntityCommitLogRecord(ITupleReference value, boolean compact) {
+        LogRecord logRecord = new LogRecord();
+        logRecord.setLogSource(LogSource.LOCAL);
+        logRecord.setLogType(LogType.ENTITY_COMMIT);
+        setEntityInfo(logRecord, value);
+        logRecord.setCompactEncoding(compact);
+        logRecord.computeAndSetLogSize();
+        return logRecord;
+    }
+
+    private static LogRecord createUpdateLogRecord(ITupleReference newValue, ITupleReference oldValue,
+            boolean compact) {
+        LogRecord logRecord = new LogRecord();
+        logRecord.setLogSource(LogSource.LOCAL);
+        logRecord.setLogType(LogType.UPDATE);
+        setEntityInfo(logRecord, newValue);
+        logRecord.setResourceId(123456789L);
+        logRecord.setNewOp((byte) 2);
+        logRecord.setNewValueSize(tupleSize(newValue));
+        logRecord.setNewValue(newValue);
+        if (oldValue != null) {
+            logRecord.setOldValueSize(tupleSize(oldValue));
+            logRecord.setOldValue(oldValue);
+        } else {
+            logRecord.setOldValueSize(0);
+        }
+        logRecord.setCompactEncoding(compact);
+        logRecord.computeAndSetLogSize();
+        return logRecord;
+    }
+
+    private static void setEntityInfo(LogRecord logRecord, ITupleReference value) {
+        logRecord.setTxnId(9876543210L);
+        logRecord.setDatasetId(101);
+        logRecord.setResourcePartition(3);
+        logRecord.setPKHashValue(-17);
+        logRecord.setPKFieldCnt(PK_FIELDS.length);
+        logRecord.setPKFields(PK_FIELDS);
+        logRecord.setPKValue(value);
+        logRecord.computeAndSetPKValueSize();
+    }
+
+    private static void assertCommonEquals(LogRecord expected, LogRecord actual) {
+        Assert.assertEquals(expected.getLogType(), actual.getLogType());
+        Assert.assertEquals(expected.getTxnId(), actual.getTxnId());
+        Assert.assertEquals(expected.getDatasetId(), actual.getDatasetId());
+        Assert.assertEquals(expected.getResourcePartition(), actual.getResourcePartition());
+        Assert.assertEquals(expected.getPKHashValue(), actual.getPKHashValue());
+        Assert.assertEquals(expected.getPKValueSize(), actual.getPKValueSize());
+    }
+
+    private static void assertUpdateEquals(LogRecord expected, LogRecord actual) {
+        assertCommonEquals(expected, actual);
+        Assert.assertEquals(expected.getResourceId(), actual.getResourceId());
+        Assert.assertEquals(expected.getNewOp(), actual.getNewOp());
+        assertTupleEquals(expected.getNewValue(), actual.getNewValue());
+        if (expected.getOldValue() != null) {
+            assertTupleEquals(expected.getOldValue(), actual.getOldValue());
+        }
+    }
+
+    private static void assertTupleEquals(ITupleReference expected, ITupleReference actual) {
+        Assert.assertEquals(expected.getFieldCount(), actual.getFieldCount());
+        for (int i = 0; i < expected.getFieldCount(); i++) {
+            byte[] expectedField = Arrays.copyOfRange(expected.getFieldData(i), expected.getFieldStart(i),
+                    expected.getFieldStart(i) + expected.getFieldLength(i));
+            byte[] actualField = Arrays.copyOfRange(actual.getFieldData(i), actual.getFieldStart(i),
+                    actual.getFieldStart(i) + actual.getFieldLength(i));
+            Assert.assertArrayEquals(expectedField, actualField);
+        }
+    }
+
+    private static ITupleReference createTuple(int key, char fill, int valueLength) throws HyracksDataException {
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(2);
+        tb.addField(ByteBuffer.allocate(Integer.BYTES).putInt(key).array(), 0, Integer.BYTES);
+        byte[] value = new byte[valueLength];
+        Arrays.fill(value, (byte) fill);
+        tb.addField(value, 0, valueLength);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        tuple.reset(tb.getFieldEndOffsets(), tb.getByteArray());
+        return tuple;
+    }
+
+    private static int tupleSize(ITupleReference tuple) {
+        return SimpleTupleWriter.INSTANCE.bytesRequired(tuple);
+    }
+}
@@ -36,6 +36,8 @@ public class CreateIndexStatement implements Statement {
     private Identifier datasetName;
     private List<Pair<List<String>, IndexedTypeExpression>> fieldExprs = new ArrayList<>();
     private List<Integer> fieldIndexIndicators = new ArrayList<>();
+    // Fields that are stored in the index entries without being part of the index key.
+    private List<List<String>> includedFields = new ArrayList<>();
     private IndexType indexType = IndexType.BTREE;
     private boolean enforced;
     private boolean ifNotExists;
@@ -94,6 +96,14 @@ public class CreateIndexStatement implements Statement {
         fieldIndexIndicators.add(index);
     }
 
+    public List<List<String>> getIncludedFields() {
+        return includedFields;
+    }
+
+    public void addIncludedField(List<String> field) {
+        includedFields.add(field);
+    }
+
     public IndexType getIndexType() {
         return indexType;
     }
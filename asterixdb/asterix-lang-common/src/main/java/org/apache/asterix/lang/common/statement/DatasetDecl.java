@@ -18,8 +18,10 @@
  */
 package org.apache.asterix.lang.common.statement;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -32,6 +34,7 @@ import org.apache.asterix.lang.common.struct.Identifier;
 import org.apache.asterix.lang.common.util.ExpressionUtils;
 import org.apache.asterix.lang.common.util.MergePolicyUtils;
 import org.apache.asterix.lang.common.visitor.base.ILangVisitor;
+import org.apache.asterix.object.base.AdmArrayNode;
 import org.apache.asterix.object.base.AdmObjectNode;
 import org.apache.asterix.object.base.AdmStringNode;
 import org.apache.asterix.object.base.IAdmNode;
@@ -39,7 +42,12 @@ import org.apache.asterix.om.types.ATypeTag;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
 
 public class DatasetDecl implements Statement {
-    protected static final String[] WITH_OBJECT_FIELDS = new String[] { MergePolicyUtils.MERGE_POLICY_PARAMETER_NAME };
+    public static final String STORAGE_BLOCK_COMPRESSION_PARAMETER_NAME = "storage-block-compression";
+    public static final String STORAGE_BLOCK_COMPRESSION_SCHEME_PARAMETER_NAME = "scheme";
+    public static final String STORAGE_SYNOPSES_PARAMETER_NAME = "storage-synopses";
+    public static final String STORAGE_SYNOPSES_FIELDS_PARAMETER_NAME = "fields";
+    protected static final String[] WITH_OBJECT_FIELDS = new String[] { MergePolicyUtils.MERGE_POLICY_PARAMETER_NAME,
+            STORAGE_BLOCK_COMPRESSION_PARAMETER_NAME, STORAGE_SYNOPSES_PARAMETER_NAME };
     protected static final Set<String> WITH_OBJECT_FIELDS_SET = new HashSet<>(Arrays.asList(WITH_OBJECT_FIELDS));
 
     protected final Identifier name;
@@ -204,6 +212,74 @@ public class DatasetDecl implements Statement {
         return MergePolicyUtils.toProperties((AdmObjectNode) mergePolicyParameters);
     }
 
+    /**
+     * @return the compression scheme of the dataset's on-disk B-tree components given by
+     *         {@code "storage-block-compression": {"scheme": "<name>"}} in the with clause, or null if there is none
+     */
+    public String getCompressionScheme() throws CompilationException {
+        if (withObjectNode == null) {
+            return null;
+        }
+        IAdmNode compression = validateWithObject(withObjectNode).get(STORAGE_BLOCK_COMPRESSION_PARAMETER_NAME);
+        if (compression == null) {
+            return null;
+        }
+        if (!compression.isObject()) {
+            throw new CompilationException(ErrorCode.WITH_FIELD_MUST_BE_OF_TYPE,
+                    STORAGE_BLOCK_COMPRESSION_PARAMETER_NAME, ATypeTag.OBJECT);
+        }
+        IAdmNode scheme = ((AdmObjectNode) compression).get(STORAGE_BLOCK_COMPRESSION_SCHEME_PARAMETER_NAME);
+        if (scheme == null) {
+            throw new CompilationException(ErrorCode.WITH_FIELD_MUST_CONTAIN_SUB_FIELD,
+                    STORAGE_BLOCK_COMPRESSION_PARAMETER_NAME, STORAGE_BLOCK_COMPRESSION_SCHEME_PARAMETER_NAME);
+        }
+        if (scheme.getType() != ATypeTag.STRING) {
+            throw new CompilationException(ErrorCode.WITH_FIELD_MUST_BE_OF_TYPE,
+                    STORAGE_BLOCK_COMPRESSION_PARAMETER_NAME + '.' + STORAGE_BLOCK_COMPRESSION_SCHEME_PARAMETER_NAME,
+                    ATypeTag.STRING);
+        }
+        return ((AdmStringNode) scheme).get();
+    }
+
+    /**
+     * @return the record fields summarized per leaf page of the dataset's on-disk primary index components given by
+     *         {@code "storage-synopses": {"fields": ["<name>", ...]}} in the with clause, or null if there are none
+     */
+    public List<String> getSynopsisFields() throws CompilationException {
+        if (withObjectNode == null) {
+            return null;
+        }
+        IAdmNode synopses = validateWithObject(withObjectNode).get(STORAGE_SYNOPSES_PARAMETER_NAME);
+        if (synopses == null) {
+            return null;
+        }
+        if (!synopses.isObject()) {
+            throw new CompilationException(ErrorCode.WITH_FIELD_MUST_BE_OF_TYPE, STORAGE_SYNOPSES_PARAMETER_NAME,
+                    ATypeTag.OBJECT);
+        }
+        IAdmNode fields = ((AdmObjectNode) synopses).get(STORAGE_SYNOPSES_FIELDS_PARAMETER_NAME);
+        if (fields == null) {
+            throw new CompilationException(ErrorCode.WITH_FIELD_MUST_CONTAIN_SUB_FIELD, STORAGE_SYNOPSES_PARAMETER_NAME,
+                    STORAGE_SYNOPSES_FIELDS_PARAMETER_NAME);
+        }
+        if (!fields.isArray()) {
+            throw new CompilationException(ErrorCode.WITH_FIELD_MUST_BE_OF_TYPE,
+                    STORAGE_SYNOPSES_PARAMETER_NAME + '.' + STORAGE_SYNOPSES_FIELDS_PARAMETER_NAME, ATypeTag.ARRAY);
+        }
+        AdmArrayNode fieldArray = (AdmArrayNode) fields;
+        List<String> fieldNames = new ArrayList<>(fieldArray.size());
+        for (int i = 0; i < fieldArray.size(); i++) {
+            IAdmNode field = fieldArray.get(i);
+            if (field.getType() != ATypeTag.STRING) {
+                throw new CompilationException(ErrorCode.WITH_FIELD_MUST_BE_OF_TYPE,
+                        STORAGE_SYNOPSES_PARAMETER_NAME + '.' + STORAGE_SYNOPSES_FIELDS_PARAMETER_NAME + '[' + i + ']',
+                        ATypeTag.STRING);
+            }
+            fieldNames.add(((AdmStringNode) field).get());
+        }
+        return fieldNames;
+    }
+
     public Map<String, String> getHints() {
         return hints;
     }
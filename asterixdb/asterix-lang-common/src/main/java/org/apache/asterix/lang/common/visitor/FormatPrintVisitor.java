@@ -677,6 +677,16 @@ public class FormatPrintVisitor implements ILangVisitor<Void, Integer> {
             out.print(cis.getGramLength());
             out.print(")");
         }
+        if (!cis.getIncludedFields().isEmpty()) {
+            out.print(" include (");
+            for (int i = 0; i < cis.getIncludedFields().size(); i++) {
+                if (i > 0) {
+                    out.print(",");
+                }
+                printNestField(cis.getIncludedFields().get(i));
+            }
+            out.print(")");
+        }
         if (cis.isEnforced()) {
             out.print(" enforced");
         }
@@ -23,6 +23,7 @@ import java.util.Set;
 
 import org.apache.asterix.common.dataflow.ICcApplicationContext;
 import org.apache.hyracks.algebricks.common.utils.Pair;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomCalculations;
 
 /**
  * Collection of hints supported by create dataset statement.
@@ -57,6 +58,7 @@ public class DatasetHints {
         Set<IHint> hints = new HashSet<>();
         hints.add(new DatasetCardinalityHint());
         hints.add(new DatasetNodegroupCardinalityHint());
+        hints.add(new DatasetBloomFilterFalsePositiveRateHint());
         return hints;
     }
 
@@ -126,4 +128,33 @@ public class DatasetHints {
 
     }
 
+    /**
+     * Hint representing the false positive rate of the bloom filters of the dataset's on-disk components. Overrides
+     * storage.lsm.bloomfilter.falsepositiverate for the indexes of the dataset.
+     */
+    public static class DatasetBloomFilterFalsePositiveRateHint implements IHint {
+        public static final String NAME = "BLOOM_FILTER_FALSE_POSITIVE_RATE";
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public Pair<Boolean, String> validateValue(ICcApplicationContext appCtx, String value) {
+            double doubleValue;
+            try {
+                doubleValue = Double.parseDouble(value);
+            } catch (NumberFormatException nfe) {
+                return new Pair<>(false, "Inappropriate value");
+            }
+            double min = BloomCalculations.minFalsePositiveRate();
+            if (!(doubleValue >= min && doubleValue < 1)) {
+                return new Pair<>(false, "Value must be >= " + min + " and < 1");
+            }
+            return new Pair<>(true, null);
+        }
+
+    }
+
 }
@@ -31,15 +31,20 @@ import org.apache.asterix.external.indexing.IndexingConstants;
 import org.apache.asterix.metadata.api.IResourceFactoryProvider;
 import org.apache.asterix.metadata.entities.Dataset;
 import org.apache.asterix.metadata.entities.Index;
+import org.apache.asterix.metadata.utils.DatasetUtil;
 import org.apache.asterix.metadata.utils.IndexUtil;
+import org.apache.asterix.metadata.utils.KeyFieldTypeUtil;
 import org.apache.asterix.om.types.ARecordType;
 import org.apache.asterix.om.types.IAType;
+import org.apache.asterix.runtime.utils.RecordSynopsisFieldsExtractorFactory;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
 import org.apache.hyracks.algebricks.common.utils.Pair;
 import org.apache.hyracks.algebricks.data.IBinaryComparatorFactoryProvider;
 import org.apache.hyracks.algebricks.data.ITypeTraitProvider;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.btree.api.ISynopsisFieldsExtractorFactory;
 import org.apache.hyracks.storage.am.common.api.IMetadataPageManagerFactory;
 import org.apache.hyracks.storage.am.lsm.btree.dataflow.ExternalBTreeLocalResourceFactory;
 import org.apache.hyracks.storage.am.lsm.btree.dataflow.ExternalBTreeWithBuddyLocalResourceFactory;
@@ -50,6 +55,8 @@ import org.apache.hyracks.storage.am.lsm.common.api.ILSMMergePolicyFactory;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMOperationTrackerFactory;
 import org.apache.hyracks.storage.common.IResourceFactory;
 import org.apache.hyracks.storage.common.IStorageManager;
+import org.apache.hyracks.storage.common.compression.CompressionSchemes;
+import org.apache.hyracks.storage.common.compression.ICompressorDecompressorFactory;
 
 public class BTreeResourceFactoryProvider implements IResourceFactoryProvider {
 
@@ -69,7 +76,7 @@ public class BTreeResourceFactoryProvider implements IResourceFactoryProvider {
         ITypeTraits[] typeTraits = getTypeTraits(mdProvider, dataset, index, recordType, metaType);
         IBinaryComparatorFactory[] cmpFactories = getCmpFactories(mdProvider, dataset, index, recordType, metaType);
         int[] bloomFilterFields = getBloomFilterFields(dataset, index);
-        double bloomFilterFalsePositiveRate = mdProvider.getStorageProperties().getBloomFilterFalsePositiveRate();
+        double bloomFilterFalsePositiveRate = DatasetUtil.getBloomFilterFalsePositiveRate(mdProvider, dataset);
         ILSMOperationTrackerFactory opTrackerFactory = dataset.getIndexOperationTrackerFactory(index);
         ILSMIOOperationCallbackFactory ioOpCallbackFactory = dataset.getIoOperationCallbackFactory(index);
         IStorageManager storageManager = storageComponentProvider.getStorageManager();
@@ -93,17 +100,51 @@ public class BTreeResourceFactoryProvider implements IResourceFactoryProvider {
             case INTERNAL:
                 AsterixVirtualBufferCacheProvider vbcProvider =
                         new AsterixVirtualBufferCacheProvider(dataset.getDatasetId());
-                return new LSMBTreeLocalResourceFactory(storageManager, typeTraits, cmpFactories, filterTypeTraits,
-                        filterCmpFactories, filterFields, opTrackerFactory, ioOpCallbackFactory,
+                List<List<String>> synopsisFields = DatasetUtil.getSynopsisFields(dataset);
+                ISynopsisFieldsExtractorFactory synopsisExtractorFactory = null;
+                IBinaryComparatorFactory[] synopsisCmpFactories = null;
+                ITypeTraits[] indexFilterTypeTraits = filterTypeTraits;
+                IBinaryComparatorFactory[] indexFilterCmpFactories = filterCmpFactories;
+                boolean filterOverSynopsisFields = false;
+                if (index.isPrimaryIndex() && !synopsisFields.isEmpty()) {
+                    synopsisExtractorFactory = new RecordSynopsisFieldsExtractorFactory(dataset.getPrimaryKeys().size(),
+                            recordType, synopsisFields);
+                    synopsisCmpFactories = DatasetUtil.computeSynopsisBinaryComparatorFactories(dataset, recordType,
+                            storageComponentProvider.getComparatorFactoryProvider());
+                    if (dataset.getSynopsisFields() != null) {
+                        // the component filters of the primary index bound every synopsis field so that a search
+                        // prunes whole components on any of them, the secondary indexes keep the filter field only
+                        filterOverSynopsisFields = true;
+                        indexFilterTypeTraits = DatasetUtil.computeSynopsisTypeTraits(dataset, recordType);
+                        indexFilterCmpFactories = synopsisCmpFactories;
+                    }
+                }
+                return new LSMBTreeLocalResourceFactory(storageManager, typeTraits, cmpFactories, indexFilterTypeTraits,
+                        indexFilterCmpFactories, filterFields, opTrackerFactory, ioOpCallbackFactory,
                         metadataPageManagerFactory, vbcProvider, ioSchedulerProvider, mergePolicyFactory,
                         mergePolicyProperties, true, bloomFilterFields, bloomFilterFalsePositiveRate,
-                        index.isPrimaryIndex(), btreeFields);
+                        index.isPrimaryIndex(), btreeFields, getCompressorDecompressorFactory(dataset),
+                        index.isPrimaryIndex() || index.isPrimaryKeyIndex(), synopsisExtractorFactory,
+                        synopsisCmpFactories, filterOverSynopsisFields);
             default:
                 throw new CompilationException(ErrorCode.COMPILATION_UNKNOWN_DATASET_TYPE,
                         dataset.getDatasetType().toString());
         }
     }
 
+    private static ICompressorDecompressorFactory getCompressorDecompressorFactory(Dataset dataset)
+            throws AlgebricksException {
+        String scheme = dataset.getCompressionScheme();
+        if (scheme == null) {
+            return null;
+        }
+        try {
+            return CompressionSchemes.get(scheme);
+        } catch (HyracksDataException e) {
+            throw new AlgebricksException(e);
+        }
+    }
+
     private static ITypeTraits[] getTypeTraits(MetadataProvider metadataProvider, Dataset dataset, Index index,
             ARecordType recordType, ARecordType metaType) throws AlgebricksException {
         ITypeTraits[] primaryTypeTraits = dataset.getPrimaryTypeTraits(metadataProvider, recordType, metaType);
@@ -116,7 +157,9 @@ public class BTreeResourceFactoryProvider implements IResourceFactoryProvider {
         int numPrimaryKeys = dataset.getPrimaryKeys().size();
         int numSecondaryKeys = index.getKeyFieldNames().size();
         ITypeTraitProvider typeTraitProvider = metadataProvider.getStorageComponentProvider().getTypeTraitProvider();
-        ITypeTraits[] secondaryTypeTraits = new ITypeTraits[numSecondaryKeys + numPrimaryKeys];
+        List<IAType> includedFieldTypes = KeyFieldTypeUtil.getIncludedFieldTypes(index, recordType);
+        ITypeTraits[] secondaryTypeTraits =
+                new ITypeTraits[numSecondaryKeys + numPrimaryKeys + includedFieldTypes.size()];
         for (int i = 0; i < numSecondaryKeys; i++) {
             ARecordType sourceType;
             List<Integer> keySourceIndicators = index.getKeyFieldSourceIndicators();
@@ -134,6 +177,11 @@ public class BTreeResourceFactoryProvider implements IResourceFactoryProvider {
         for (int i = 0; i < numPrimaryKeys; i++) {
             secondaryTypeTraits[numSecondaryKeys + i] = primaryTypeTraits[i];
         }
+        // Included fields follow the primary keys and are not compared.
+        for (int i = 0; i < includedFieldTypes.size(); i++) {
+            secondaryTypeTraits[numSecondaryKeys + numPrimaryKeys + i] =
+                    typeTraitProvider.getTypeTrait(includedFieldTypes.get(i));
+        }
         return secondaryTypeTraits;
     }
 
@@ -174,7 +222,7 @@ public class BTreeResourceFactoryProvider implements IResourceFactoryProvider {
     }
 
     private static int[] getBloomFilterFields(Dataset dataset, Index index) throws AlgebricksException {
-        if (index.isPrimaryIndex()) {
+        if (index.isPrimaryIndex() || index.isPrimaryKeyIndex()) {
             return dataset.getPrimaryBloomFilterFields();
         } else if (dataset.getDatasetType() == DatasetType.EXTERNAL) {
             if (index.getIndexName().equals(IndexingConstants.getFilesIndexName(dataset.getDatasetName()))) {
@@ -21,6 +21,7 @@ package org.apache.asterix.metadata.declared;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -86,6 +87,7 @@ import org.apache.asterix.runtime.base.AsterixTupleFilterFactory;
 import org.apache.asterix.runtime.formats.FormatUtils;
 import org.apache.asterix.runtime.operators.LSMIndexBulkLoadOperatorDescriptor;
 import org.apache.asterix.runtime.operators.LSMIndexBulkLoadOperatorDescriptor.BulkLoadUsage;
+import org.apache.asterix.runtime.operators.LSMPrimaryInsertOperatorDescriptor;
 import org.apache.asterix.runtime.operators.LSMSecondaryUpsertOperatorDescriptor;
 import org.apache.hyracks.algebricks.common.constraints.AlgebricksAbsolutePartitionConstraint;
 import org.apache.hyracks.algebricks.common.constraints.AlgebricksPartitionConstraint;
@@ -133,6 +135,7 @@ import org.apache.hyracks.storage.am.common.api.ISearchOperationCallbackFactory;
 import org.apache.hyracks.storage.am.common.dataflow.IIndexDataflowHelperFactory;
 import org.apache.hyracks.storage.am.common.dataflow.IndexDataflowHelperFactory;
 import org.apache.hyracks.storage.am.common.ophelpers.IndexOperation;
+import org.apache.hyracks.storage.am.lsm.btree.dataflow.LSMBTreeBatchPointSearchOperatorDescriptor;
 import org.apache.hyracks.storage.am.lsm.invertedindex.dataflow.BinaryTokenizerOperatorDescriptor;
 import org.apache.hyracks.storage.am.lsm.invertedindex.tokenizers.IBinaryTokenizerFactory;
 import org.apache.hyracks.storage.am.rtree.dataflow.RTreeSearchOperatorDescriptor;
@@ -444,9 +447,11 @@ public class MetadataProvider implements IMetadataProvider<DataSourceId, String>
         RecordDescriptor outputRecDesc = JobGenHelper.mkRecordDescriptor(typeEnv, opSchema, context);
         Pair<IFileSplitProvider, AlgebricksPartitionConstraint> spPc =
                 getSplitProviderAndConstraints(dataset, theIndex.getIndexName());
+        // the primary keys of an index with included fields are locked in the index entries, after the secondary keys
+        int primaryKeyStart = theIndex.hasIncludedFields() ? theIndex.getKeyFieldNames().size() : 0;
         int[] primaryKeyFields = new int[numPrimaryKeys];
         for (int i = 0; i < numPrimaryKeys; i++) {
-            primaryKeyFields[i] = i;
+            primaryKeyFields[i] = primaryKeyStart + i;
         }
 
         ISearchOperationCallbackFactory searchCallbackFactory = dataset
@@ -454,7 +459,14 @@ public class MetadataProvider implements IMetadataProvider<DataSourceId, String>
         IStorageManager storageManager = getStorageComponentProvider().getStorageManager();
         IIndexDataflowHelperFactory indexHelperFactory = new IndexDataflowHelperFactory(storageManager, spPc.first);
         BTreeSearchOperatorDescriptor btreeSearchOp;
-        if (dataset.getDatasetType() == DatasetType.INTERNAL) {
+        if (dataset.getDatasetType() == DatasetType.INTERNAL && !isSecondary
+                && isPointSearch(numPrimaryKeys, lowKeyFields, highKeyFields, lowKeyInclusive, highKeyInclusive,
+                        minFilterFieldIndexes, maxFilterFieldIndexes)) {
+            // primary key lookups probe the index with a frame of keys at a time
+            btreeSearchOp = new LSMBTreeBatchPointSearchOperatorDescriptor(jobSpec, outputRecDesc, lowKeyFields,
+                    indexHelperFactory, retainInput, retainMissing, context.getMissingWriterFactory(),
+                    searchCallbackFactory);
+        } else if (dataset.getDatasetType() == DatasetType.INTERNAL) {
             btreeSearchOp = new BTreeSearchOperatorDescriptor(jobSpec, outputRecDesc, lowKeyFields, highKeyFields,
                     lowKeyInclusive, highKeyInclusive, indexHelperFactory, retainInput, retainMissing,
                     context.getMissingWriterFactory(), searchCallbackFactory, minFilterFieldIndexes,
@@ -468,6 +480,14 @@ public class MetadataProvider implements IMetadataProvider<DataSourceId, String>
         return new Pair<>(btreeSearchOp, spPc.second);
     }
 
+    static boolean isPointSearch(int numPrimaryKeys, int[] lowKeyFields, int[] highKeyFields, boolean lowKeyInclusive,
+            boolean highKeyInclusive, int[] minFilterFieldIndexes, int[] maxFilterFieldIndexes) {
+        // a prefix of a composite primary key is a range search
+        return lowKeyFields != null && lowKeyFields.length == numPrimaryKeys
+                && Arrays.equals(lowKeyFields, highKeyFields) && lowKeyInclusive && highKeyInclusive
+                && minFilterFieldIndexes == null && maxFilterFieldIndexes == null;
+    }
+
     public Pair<IOperatorDescriptor, AlgebricksPartitionConstraint> buildRtreeRuntime(JobSpecification jobSpec,
             List<LogicalVariable> outputVars, IOperatorSchema opSchema, IVariableTypeEnvironment typeEnv,
             JobGenContext context, boolean retainInput, boolean retainMissing, Dataset dataset, String indexName,
@@ -954,6 +974,7 @@ public class MetadataProvider implements IMetadataProvider<DataSourceId, String>
 
         Index primaryIndex = MetadataManager.INSTANCE.getIndex(mdTxnCtx, dataset.getDataverseName(),
                 dataset.getDatasetName(), dataset.getDatasetName());
+        Index primaryKeyIndex = DatasetUtil.getPrimaryKeyIndex(this, dataset);
         Pair<IFileSplitProvider, AlgebricksPartitionConstraint> splitsAndConstraint =
                 getSplitProviderAndConstraints(dataset);
 
@@ -972,6 +993,20 @@ public class MetadataProvider implements IMetadataProvider<DataSourceId, String>
             op = new LSMIndexBulkLoadOperatorDescriptor(spec, inputRecordDesc, fieldPermutation,
                     GlobalConfig.DEFAULT_TREE_FILL_FACTOR, true, numElementsHint, true, idfh, null, BulkLoadUsage.LOAD,
                     dataset.getDatasetId());
+        } else if (indexOp == IndexOperation.INSERT && primaryKeyIndex != null) {
+            // duplicate checks go to the primary key index, which the insert operator maintains
+            IIndexDataflowHelperFactory keyIndexHelperFactory =
+                    new IndexDataflowHelperFactory(storageComponentProvider.getStorageManager(),
+                            getSplitProviderAndConstraints(dataset, primaryKeyIndex.getIndexName()).first);
+            op = new LSMPrimaryInsertOperatorDescriptor(spec, inputRecordDesc, fieldPermutation, idfh,
+                    keyIndexHelperFactory,
+                    dataset.getModificationCallbackFactory(storageComponentProvider, primaryIndex,
+                            IndexOperation.UPSERT, primaryKeyFields),
+                    dataset.getModificationCallbackFactory(storageComponentProvider, primaryKeyIndex,
+                            IndexOperation.INSERT, primaryKeyFields),
+                    dataset.getSearchCallbackFactory(storageComponentProvider, primaryIndex, IndexOperation.UPSERT,
+                            primaryKeyFields),
+                    numKeys, numFilterFields > 0 ? numKeys + 1 : -1);
         } else {
             op = new LSMTreeInsertDeleteOperatorDescriptor(spec, inputRecordDesc, fieldPermutation, indexOp, idfh, null,
                     true, modificationCallbackFactory);
@@ -1031,57 +1066,29 @@ public class MetadataProvider implements IMetadataProvider<DataSourceId, String>
             JobSpecification spec, IndexOperation indexOp, boolean bulkload, List<LogicalVariable> prevSecondaryKeys,
             List<LogicalVariable> prevAdditionalFilteringKeys) throws AlgebricksException {
         Dataset dataset = MetadataManagerUtil.findExistingDataset(mdTxnCtx, dataverseName, datasetName);
-        int numKeys = primaryKeys.size() + secondaryKeys.size();
+        Index secondaryIndex = MetadataManager.INSTANCE.getIndex(mdTxnCtx, dataset.getDataverseName(),
+                dataset.getDatasetName(), indexName);
+        // the secondary key variables end with the included fields, which are stored after the primary keys
+        int numSecondaryKeys = secondaryIndex.getKeyFieldNames().size();
         int numFilterFields = DatasetUtil.getFilterField(dataset) == null ? 0 : 1;
 
         // generate field permutations
-        int[] fieldPermutation = new int[numKeys + numFilterFields];
+        int[] fieldPermutation = getBTreeFieldPermutation(propagatedSchema, primaryKeys, secondaryKeys,
+                numSecondaryKeys, numFilterFields > 0 ? additionalNonKeyFields.get(0) : null);
         int[] modificationCallbackPrimaryKeyFields = new int[primaryKeys.size()];
-        int i = 0;
-        int j = 0;
-        for (LogicalVariable varKey : secondaryKeys) {
-            int idx = propagatedSchema.findVariable(varKey);
-            fieldPermutation[i] = idx;
-            i++;
-        }
-        for (LogicalVariable varKey : primaryKeys) {
-            int idx = propagatedSchema.findVariable(varKey);
-            fieldPermutation[i] = idx;
-            modificationCallbackPrimaryKeyFields[j] = i;
-            i++;
-            j++;
-        }
-
-        if (numFilterFields > 0) {
-            int idx = propagatedSchema.findVariable(additionalNonKeyFields.get(0));
-            fieldPermutation[numKeys] = idx;
+        for (int i = 0; i < modificationCallbackPrimaryKeyFields.length; i++) {
+            modificationCallbackPrimaryKeyFields[i] = numSecondaryKeys + i;
         }
 
         int[] prevFieldPermutation = null;
         if (indexOp == IndexOperation.UPSERT) {
             // generate field permutations for prev record
-            prevFieldPermutation = new int[numKeys + numFilterFields];
-            int k = 0;
-            for (LogicalVariable varKey : prevSecondaryKeys) {
-                int idx = propagatedSchema.findVariable(varKey);
-                prevFieldPermutation[k] = idx;
-                k++;
-            }
-            for (LogicalVariable varKey : primaryKeys) {
-                int idx = propagatedSchema.findVariable(varKey);
-                prevFieldPermutation[k] = idx;
-                k++;
-            }
             // Filter can only be one field!
-            if (numFilterFields > 0) {
-                int idx = propagatedSchema.findVariable(prevAdditionalFilteringKeys.get(0));
-                prevFieldPermutation[numKeys] = idx;
-            }
+            prevFieldPermutation = getBTreeFieldPermutation(propagatedSchema, primaryKeys, prevSecondaryKeys,
+                    numSecondaryKeys, numFilterFields > 0 ? prevAdditionalFilteringKeys.get(0) : null);
         }
         try {
             // Index parameters.
-            Index secondaryIndex = MetadataManager.INSTANCE.getIndex(mdTxnCtx, dataset.getDataverseName(),
-                    dataset.getDatasetName(), indexName);
             Pair<IFileSplitProvider, AlgebricksPartitionConstraint> splitsAndConstraint =
                     getSplitProviderAndConstraints(dataset, secondaryIndex.getIndexName());
             // prepare callback
@@ -1108,6 +1115,25 @@ public class MetadataProvider implements IMetadataProvider<DataSourceId, String>
         }
     }
 
+    private static int[] getBTreeFieldPermutation(IOperatorSchema propagatedSchema, List<LogicalVariable> primaryKeys,
+            List<LogicalVariable> secondaryKeys, int numSecondaryKeys, LogicalVariable filterVar) {
+        int[] fieldPermutation = new int[primaryKeys.size() + secondaryKeys.size() + (filterVar == null ? 0 : 1)];
+        int i = 0;
+        for (LogicalVariable varKey : secondaryKeys.subList(0, numSecondaryKeys)) {
+            fieldPermutation[i++] = propagatedSchema.findVariable(varKey);
+        }
+        for (LogicalVariable varKey : primaryKeys) {
+            fieldPermutation[i++] = propagatedSchema.findVariable(varKey);
+        }
+        for (LogicalVariable varKey : secondaryKeys.subList(numSecondaryKeys, secondaryKeys.size())) {
+            fieldPermutation[i++] = propagatedSchema.findVariable(varKey);
+        }
+        if (filterVar != null) {
+            fieldPermutation[i] = propagatedSchema.findVariable(filterVar);
+        }
+        return fieldPermutation;
+    }
+
     private Pair<IOperatorDescriptor, AlgebricksPartitionConstraint> getRTreeRuntime(String dataverseName,
             String datasetName, String indexName, IOperatorSchema propagatedSchema, List<LogicalVariable> primaryKeys,
             List<LogicalVariable> secondaryKeys, List<LogicalVariable> additionalNonKeyFields,
@@ -150,6 +150,10 @@ public class Dataset implements IMetadataEntity<Dataset>, IDataset {
     private final String metaTypeDataverseName;
     private final String metaTypeName;
     private final long rebalanceCount;
+    // the compression scheme of the on-disk B-tree components, null if they are not compressed
+    private final String compressionScheme;
+    // the record fields summarized per leaf page of the on-disk primary index components, null if there are none
+    private final List<String> synopsisFields;
     private int pendingOp;
 
     /*
@@ -178,13 +182,33 @@ public class Dataset implements IMetadataEntity<Dataset>, IDataset {
         this(dataset.dataverseName, dataset.datasetName, dataset.recordTypeDataverseName, dataset.recordTypeName,
                 dataset.metaTypeDataverseName, dataset.metaTypeName, dataset.nodeGroupName,
                 dataset.compactionPolicyFactory, dataset.compactionPolicyProperties, dataset.datasetDetails,
-                dataset.hints, dataset.datasetType, dataset.datasetId, dataset.pendingOp, dataset.rebalanceCount);
+                dataset.hints, dataset.datasetType, dataset.datasetId, dataset.pendingOp, dataset.rebalanceCount,
+                dataset.compressionScheme, dataset.synopsisFields);
     }
 
     public Dataset(String dataverseName, String datasetName, String itemTypeDataverseName, String itemTypeName,
             String metaItemTypeDataverseName, String metaItemTypeName, String nodeGroupName, String compactionPolicy,
             Map<String, String> compactionPolicyProperties, IDatasetDetails datasetDetails, Map<String, String> hints,
             DatasetType datasetType, int datasetId, int pendingOp, long rebalanceCount) {
+        this(dataverseName, datasetName, itemTypeDataverseName, itemTypeName, metaItemTypeDataverseName,
+                metaItemTypeName, nodeGroupName, compactionPolicy, compactionPolicyProperties, datasetDetails, hints,
+                datasetType, datasetId, pendingOp, rebalanceCount, null);
+    }
+
+    public Dataset(String dataverseName, String datasetName, String itemTypeDataverseName, String itemTypeName,
+            String metaItemTypeDataverseName, String metaItemTypeName, String nodeGroupName, String compactionPolicy,
+            Map<String, String> compactionPolicyProperties, IDatasetDetails datasetDetails, Map<String, String> hints,
+            DatasetType datasetType, int datasetId, int pendingOp, long rebalanceCount, String compressionScheme) {
+        this(dataverseName, datasetName, itemTypeDataverseName, itemTypeName, metaItemTypeDataverseName,
+                metaItemTypeName, nodeGroupName, compactionPolicy, compactionPolicyProperties, datasetDetails, hints,
+                datasetType, datasetId, pendingOp, rebalanceCount, compressionScheme, null);
+    }
+
+    public Dataset(String dataverseName, String datasetName, String itemTypeDataverseName, String itemTypeName,
+            String metaItemTypeDataverseName, String metaItemTypeName, String nodeGroupName, String compactionPolicy,
+            Map<String, String> compactionPolicyProperties, IDatasetDetails datasetDetails, Map<String, String> hints,
+            DatasetType datasetType, int datasetId, int pendingOp, long rebalanceCount, String compressionScheme,
+            List<String> synopsisFields) {
         this.dataverseName = dataverseName;
         this.datasetName = datasetName;
         this.recordTypeName = itemTypeName;
@@ -200,6 +224,8 @@ public class Dataset implements IMetadataEntity<Dataset>, IDataset {
         this.pendingOp = pendingOp;
         this.hints = hints;
         this.rebalanceCount = rebalanceCount;
+        this.compressionScheme = compressionScheme;
+        this.synopsisFields = synopsisFields;
     }
 
     @Override
@@ -264,6 +290,14 @@ public class Dataset implements IMetadataEntity<Dataset>, IDataset {
         return rebalanceCount;
     }
 
+    public String getCompressionScheme() {
+        return compressionScheme;
+    }
+
+    public List<String> getSynopsisFields() {
+        return synopsisFields;
+    }
+
     public boolean hasMetaPart() {
         return metaTypeDataverseName != null && metaTypeName != null;
     }
@@ -568,6 +602,13 @@ public class Dataset implements IMetadataEntity<Dataset>, IDataset {
             // since the secondary primary index replaces the dataset index (which locks)
             return new PrimaryIndexInstantSearchOperationCallbackFactory(getDatasetId(), primaryKeyFields,
                     storageComponentProvider.getTransactionSubsystemProvider(), ResourceType.LSM_BTREE);
+        } else if (index.hasIncludedFields()) {
+            // queries may be answered from the included fields without visiting the dataset index (which locks).
+            // this takes one instant try-lock per result tuple, as the primary index lookup it replaces does, and
+            // only blocks on tuples of memory components that are being written. searches of the index that are
+            // followed by a primary index lookup still pay the try-lock twice per result tuple
+            return new PrimaryIndexInstantSearchOperationCallbackFactory(getDatasetId(), primaryKeyFields,
+                    storageComponentProvider.getTransactionSubsystemProvider(), ResourceType.LSM_BTREE);
         }
         return new SecondaryIndexSearchOperationCallbackFactory();
     }
@@ -812,7 +853,8 @@ public class Dataset implements IMetadataEntity<Dataset>, IDataset {
         return new Dataset(this.dataverseName, this.datasetName, this.recordTypeDataverseName, this.recordTypeName,
                 this.metaTypeDataverseName, this.metaTypeName, targetNodeGroupName, this.compactionPolicyFactory,
                 this.compactionPolicyProperties, this.datasetDetails, this.hints, this.datasetType,
-                DatasetIdFactory.generateAlternatingDatasetId(this.datasetId), this.pendingOp, this.rebalanceCount + 1);
+                DatasetIdFactory.generateAlternatingDatasetId(this.datasetId), this.pendingOp, this.rebalanceCount + 1,
+                this.compressionScheme, this.synopsisFields);
     }
 
     // Gets an array of partition numbers for this dataset.
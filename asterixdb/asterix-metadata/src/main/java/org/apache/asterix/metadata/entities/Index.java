@@ -19,6 +19,7 @@
 
 package org.apache.asterix.metadata.entities;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.asterix.common.config.DatasetConfig.IndexType;
@@ -51,6 +52,8 @@ public class Index implements IMetadataEntity<Index>, Comparable<Index> {
     private final List<List<String>> keyFieldNames;
     private final List<Integer> keyFieldSourceIndicators;
     private final List<IAType> keyFieldTypes;
+    // Fields of the record that are stored in the entries of a B-tree index after the primary keys.
+    private final List<List<String>> includedFieldNames;
     private final boolean overrideKeyFieldTypes;
     private final boolean isEnforced;
     private final boolean isPrimaryIndex;
@@ -62,6 +65,14 @@ public class Index implements IMetadataEntity<Index>, Comparable<Index> {
     public Index(String dataverseName, String datasetName, String indexName, IndexType indexType,
             List<List<String>> keyFieldNames, List<Integer> keyFieldSourceIndicators, List<IAType> keyFieldTypes,
             int gramLength, boolean overrideKeyFieldTypes, boolean isEnforced, boolean isPrimaryIndex, int pendingOp) {
+        this(dataverseName, datasetName, indexName, indexType, keyFieldNames, keyFieldSourceIndicators, keyFieldTypes,
+                Collections.emptyList(), gramLength, overrideKeyFieldTypes, isEnforced, isPrimaryIndex, pendingOp);
+    }
+
+    public Index(String dataverseName, String datasetName, String indexName, IndexType indexType,
+            List<List<String>> keyFieldNames, List<Integer> keyFieldSourceIndicators, List<IAType> keyFieldTypes,
+            List<List<String>> includedFieldNames, int gramLength, boolean overrideKeyFieldTypes, boolean isEnforced,
+            boolean isPrimaryIndex, int pendingOp) {
         this.dataverseName = dataverseName;
         this.datasetName = datasetName;
         this.indexName = indexName;
@@ -69,6 +80,7 @@ public class Index implements IMetadataEntity<Index>, Comparable<Index> {
         this.keyFieldNames = keyFieldNames;
         this.keyFieldSourceIndicators = keyFieldSourceIndicators;
         this.keyFieldTypes = keyFieldTypes;
+        this.includedFieldNames = includedFieldNames;
         this.gramLength = gramLength;
         this.overrideKeyFieldTypes = overrideKeyFieldTypes;
         this.isEnforced = isEnforced;
@@ -107,6 +119,14 @@ public class Index implements IMetadataEntity<Index>, Comparable<Index> {
         return keyFieldTypes;
     }
 
+    public List<List<String>> getIncludedFieldNames() {
+        return includedFieldNames;
+    }
+
+    public boolean hasIncludedFields() {
+        return !includedFieldNames.isEmpty();
+    }
+
     public int getGramLength() {
         return gramLength;
     }
@@ -139,6 +159,14 @@ public class Index implements IMetadataEntity<Index>, Comparable<Index> {
         return !isPrimaryIndex();
     }
 
+    /**
+     * @return true if this is a secondary B-tree without secondary keys (created with CREATE PRIMARY INDEX), whose
+     *         entries are just the primary keys of the dataset
+     */
+    public boolean isPrimaryKeyIndex() {
+        return !isPrimaryIndex && indexType == IndexType.BTREE && keyFieldNames.isEmpty();
+    }
+
     public static Pair<IAType, Boolean> getNonNullableType(IAType keyType) {
         boolean nullable = false;
         IAType actualKeyType = keyType;
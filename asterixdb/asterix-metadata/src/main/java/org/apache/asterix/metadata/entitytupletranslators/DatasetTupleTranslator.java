@@ -78,6 +78,8 @@ public class DatasetTupleTranslator extends AbstractTupleTranslator<Dataset> {
     // Payload field containing serialized Dataset.
     public static final int DATASET_PAYLOAD_TUPLE_FIELD_INDEX = 2;
     private static final String REBALANCE_ID_FIELD_NAME = "rebalanceCount";
+    private static final String COMPRESSION_SCHEME_FIELD_NAME = "BlockLevelStorageCompression";
+    private static final String SYNOPSIS_FIELDS_FIELD_NAME = "StorageSynopsisFields";
 
     @SuppressWarnings("unchecked")
     protected final ISerializerDeserializer<ARecord> recordSerDes =
@@ -261,9 +263,25 @@ public class DatasetTupleTranslator extends AbstractTupleTranslator<Dataset> {
         long rebalanceCount = rebalanceCountIndex >= 0
                 ? ((AInt64) datasetRecord.getValueByPos(rebalanceCountIndex)).getLongValue() : 0;
 
+        // Read the compression scheme if there is one.
+        int compressionSchemeIndex = datasetRecord.getType().getFieldIndex(COMPRESSION_SCHEME_FIELD_NAME);
+        String compressionScheme = compressionSchemeIndex >= 0
+                ? ((AString) datasetRecord.getValueByPos(compressionSchemeIndex)).getStringValue() : null;
+
+        // Read the synopsis fields if there are any.
+        List<String> synopsisFields = null;
+        int synopsisFieldsIndex = datasetRecord.getType().getFieldIndex(SYNOPSIS_FIELDS_FIELD_NAME);
+        if (synopsisFieldsIndex >= 0) {
+            synopsisFields = new ArrayList<>();
+            cursor = ((AOrderedList) datasetRecord.getValueByPos(synopsisFieldsIndex)).getCursor();
+            while (cursor.next()) {
+                synopsisFields.add(((AString) cursor.get()).getStringValue());
+            }
+        }
+
         return new Dataset(dataverseName, datasetName, typeDataverseName, typeName, metaTypeDataverseName, metaTypeName,
                 nodeGroupName, compactionPolicy, compactionPolicyProperties, datasetDetails, hints, datasetType,
-                datasetId, pendingOp, rebalanceCount);
+                datasetId, pendingOp, rebalanceCount, compressionScheme, synopsisFields);
     }
 
     @Override
@@ -423,6 +441,34 @@ public class DatasetTupleTranslator extends AbstractTupleTranslator<Dataset> {
             aBigIntSerde.serialize(aBigInt, fieldValue.getDataOutput());
             recordBuilder.addField(fieldName, fieldValue);
         }
+        if (dataset.getCompressionScheme() != null) {
+            // Adds the field BlockLevelStorageCompression.
+            fieldName.reset();
+            aString.setValue(COMPRESSION_SCHEME_FIELD_NAME);
+            stringSerde.serialize(aString, fieldName.getDataOutput());
+            fieldValue.reset();
+            aString.setValue(dataset.getCompressionScheme());
+            stringSerde.serialize(aString, fieldValue.getDataOutput());
+            recordBuilder.addField(fieldName, fieldValue);
+        }
+        if (dataset.getSynopsisFields() != null) {
+            // Adds the field StorageSynopsisFields.
+            fieldName.reset();
+            aString.setValue(SYNOPSIS_FIELDS_FIELD_NAME);
+            stringSerde.serialize(aString, fieldName.getDataOutput());
+            OrderedListBuilder listBuilder = new OrderedListBuilder();
+            listBuilder.reset(new AOrderedListType(BuiltinType.ASTRING, null));
+            ArrayBackedValueStorage itemValue = new ArrayBackedValueStorage();
+            for (String field : dataset.getSynopsisFields()) {
+                itemValue.reset();
+                aString.setValue(field);
+                stringSerde.serialize(aString, itemValue.getDataOutput());
+                listBuilder.addItem(itemValue);
+            }
+            fieldValue.reset();
+            listBuilder.write(fieldValue.getDataOutput(), true);
+            recordBuilder.addField(fieldName, fieldValue);
+        }
     }
 
     protected void writeDatasetDetailsRecordType(IARecordBuilder recordBuilder, Dataset dataset, DataOutput dataOutput)
@@ -76,6 +76,7 @@ public class IndexTupleTranslator extends AbstractTupleTranslator<Index> {
     public static final String INDEX_SEARCHKEY_TYPE_FIELD_NAME = "SearchKeyType";
     public static final String INDEX_ISENFORCED_FIELD_NAME = "IsEnforced";
     public static final String INDEX_SEARCHKEY_SOURCE_INDICATOR_FIELD_NAME = "SearchKeySourceIndicator";
+    public static final String INDEX_INCLUDED_FIELDS_FIELD_NAME = "IncludedFields";
 
     private transient OrderedListBuilder listBuilder = new OrderedListBuilder();
     private transient OrderedListBuilder primaryKeyListBuilder = new OrderedListBuilder();
@@ -122,17 +123,7 @@ public class IndexTupleTranslator extends AbstractTupleTranslator<Index> {
                         .getStringValue());
         IACursor fieldNameCursor =
                 ((AOrderedList) rec.getValueByPos(MetadataRecordTypes.INDEX_ARECORD_SEARCHKEY_FIELD_INDEX)).getCursor();
-        List<List<String>> searchKey = new ArrayList<>();
-        AOrderedList fieldNameList;
-        while (fieldNameCursor.next()) {
-            fieldNameList = (AOrderedList) fieldNameCursor.get();
-            IACursor nestedFieldNameCursor = (fieldNameList.getCursor());
-            List<String> nestedFieldName = new ArrayList<>();
-            while (nestedFieldNameCursor.next()) {
-                nestedFieldName.add(((AString) nestedFieldNameCursor.get()).getStringValue());
-            }
-            searchKey.add(nestedFieldName);
-        }
+        List<List<String>> searchKey = getFieldNames(fieldNameCursor);
         int indexKeyTypeFieldPos = rec.getType().getFieldIndex(INDEX_SEARCHKEY_TYPE_FIELD_NAME);
         IACursor fieldTypeCursor = new ACollectionCursor();
         if (indexKeyTypeFieldPos > 0) {
@@ -176,6 +167,13 @@ public class IndexTupleTranslator extends AbstractTupleTranslator<Index> {
             }
         }
 
+        // Read the fields included in the index entries besides the keys.
+        List<List<String>> includedFields = new ArrayList<>();
+        int includedFieldsIndex = rec.getType().getFieldIndex(INDEX_INCLUDED_FIELDS_FIELD_NAME);
+        if (includedFieldsIndex >= 0) {
+            includedFields = getFieldNames(((AOrderedList) rec.getValueByPos(includedFieldsIndex)).getCursor());
+        }
+
         // index key type information is not persisted, thus we extract type information
         // from the record metadata
         if (searchKeyType.isEmpty()) {
@@ -198,7 +196,20 @@ public class IndexTupleTranslator extends AbstractTupleTranslator<Index> {
             }
         }
         return new Index(dvName, dsName, indexName, indexStructure, searchKey, keyFieldSourceIndicator, searchKeyType,
-                gramLength, isOverridingKeyTypes, isEnforcingKeys, isPrimaryIndex, pendingOp);
+                includedFields, gramLength, isOverridingKeyTypes, isEnforcingKeys, isPrimaryIndex, pendingOp);
+    }
+
+    private static List<List<String>> getFieldNames(IACursor fieldNameCursor) {
+        List<List<String>> fieldNames = new ArrayList<>();
+        while (fieldNameCursor.next()) {
+            IACursor nestedFieldNameCursor = ((AOrderedList) fieldNameCursor.get()).getCursor();
+            List<String> nestedFieldName = new ArrayList<>();
+            while (nestedFieldNameCursor.next()) {
+                nestedFieldName.add(((AString) nestedFieldNameCursor.get()).getStringValue());
+            }
+            fieldNames.add(nestedFieldName);
+        }
+        return fieldNames;
     }
 
     @Override
@@ -242,23 +253,7 @@ public class IndexTupleTranslator extends AbstractTupleTranslator<Index> {
         recordBuilder.addField(MetadataRecordTypes.INDEX_ARECORD_INDEXSTRUCTURE_FIELD_INDEX, fieldValue);
 
         // write field 4
-        primaryKeyListBuilder.reset((AOrderedListType) MetadataRecordTypes.INDEX_RECORDTYPE
-                .getFieldTypes()[MetadataRecordTypes.INDEX_ARECORD_SEARCHKEY_FIELD_INDEX]);
-        List<List<String>> searchKey = instance.getKeyFieldNames();
-        for (List<String> field : searchKey) {
-            listBuilder.reset(stringList);
-            for (String subField : field) {
-                itemValue.reset();
-                aString.setValue(subField);
-                stringSerde.serialize(aString, itemValue.getDataOutput());
-                listBuilder.addItem(itemValue);
-            }
-            itemValue.reset();
-            listBuilder.write(itemValue.getDataOutput(), true);
-            primaryKeyListBuilder.addItem(itemValue);
-        }
-        fieldValue.reset();
-        primaryKeyListBuilder.write(fieldValue.getDataOutput(), true);
+        writeFieldNames(instance.getKeyFieldNames());
         recordBuilder.addField(MetadataRecordTypes.INDEX_ARECORD_SEARCHKEY_FIELD_INDEX, fieldValue);
 
         // write field 5
@@ -351,6 +346,14 @@ public class IndexTupleTranslator extends AbstractTupleTranslator<Index> {
             recordBuilder.addField(nameValue, fieldValue);
         }
 
+        if (instance.hasIncludedFields()) {
+            nameValue.reset();
+            aString.setValue(INDEX_INCLUDED_FIELDS_FIELD_NAME);
+            stringSerde.serialize(aString, nameValue.getDataOutput());
+            writeFieldNames(instance.getIncludedFieldNames());
+            recordBuilder.addField(nameValue, fieldValue);
+        }
+
         // write record
         recordBuilder.write(tupleBuilder.getDataOutput(), true);
         tupleBuilder.addFieldEndOffset();
@@ -358,4 +361,23 @@ public class IndexTupleTranslator extends AbstractTupleTranslator<Index> {
         tuple.reset(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray());
         return tuple;
     }
+
+    private void writeFieldNames(List<List<String>> fieldNames) throws HyracksDataException {
+        primaryKeyListBuilder.reset((AOrderedListType) MetadataRecordTypes.INDEX_RECORDTYPE
+                .getFieldTypes()[MetadataRecordTypes.INDEX_ARECORD_SEARCHKEY_FIELD_INDEX]);
+        for (List<String> field : fieldNames) {
+            listBuilder.reset(stringList);
+            for (String subField : field) {
+                itemValue.reset();
+                aString.setValue(subField);
+                stringSerde.serialize(aString, itemValue.getDataOutput());
+                listBuilder.addItem(itemValue);
+            }
+            itemValue.reset();
+            listBuilder.write(itemValue.getDataOutput(), true);
+            primaryKeyListBuilder.addItem(itemValue);
+        }
+        fieldValue.reset();
+        primaryKeyListBuilder.write(fieldValue.getDataOutput(), true);
+    }
 }
@@ -21,6 +21,7 @@ package org.apache.asterix.metadata.utils;
 import java.io.DataOutput;
 import java.rmi.RemoteException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -43,6 +44,7 @@ import org.apache.asterix.formats.nontagged.SerializerDeserializerProvider;
 import org.apache.asterix.formats.nontagged.TypeTraitProvider;
 import org.apache.asterix.metadata.MetadataManager;
 import org.apache.asterix.metadata.MetadataTransactionContext;
+import org.apache.asterix.metadata.dataset.hints.DatasetHints.DatasetBloomFilterFalsePositiveRateHint;
 import org.apache.asterix.metadata.declared.MetadataProvider;
 import org.apache.asterix.metadata.entities.CompactionPolicy;
 import org.apache.asterix.metadata.entities.Dataset;
@@ -137,6 +139,54 @@ public class DatasetUtil {
         return typeTraits;
     }
 
+    /**
+     * Gets the record fields summarized per leaf page of the primary index disk components: the filter field, if
+     * any, followed by the fields declared through "storage-synopses". The position of a field in the returned list is
+     * the position of its bounds in the min/max filter tuples of a primary index search.
+     */
+    public static List<List<String>> getSynopsisFields(Dataset dataset) {
+        List<List<String>> synopsisFields = new ArrayList<>();
+        if (dataset.getDatasetType() == DatasetType.EXTERNAL) {
+            return synopsisFields;
+        }
+        List<String> filterField = getFilterField(dataset);
+        if (filterField != null) {
+            synopsisFields.add(filterField);
+        }
+        if (dataset.getSynopsisFields() != null) {
+            for (String field : dataset.getSynopsisFields()) {
+                List<String> fieldPath = Collections.singletonList(field);
+                if (!synopsisFields.contains(fieldPath)) {
+                    synopsisFields.add(fieldPath);
+                }
+            }
+        }
+        return synopsisFields;
+    }
+
+    public static ITypeTraits[] computeSynopsisTypeTraits(Dataset dataset, ARecordType itemType)
+            throws AlgebricksException {
+        List<List<String>> synopsisFields = getSynopsisFields(dataset);
+        ITypeTraits[] typeTraits = new ITypeTraits[synopsisFields.size()];
+        for (int i = 0; i < typeTraits.length; i++) {
+            IAType type = itemType.getSubFieldType(synopsisFields.get(i));
+            typeTraits[i] = TypeTraitProvider.INSTANCE.getTypeTrait(type);
+        }
+        return typeTraits;
+    }
+
+    public static IBinaryComparatorFactory[] computeSynopsisBinaryComparatorFactories(Dataset dataset,
+            ARecordType itemType, IBinaryComparatorFactoryProvider comparatorFactoryProvider)
+            throws AlgebricksException {
+        List<List<String>> synopsisFields = getSynopsisFields(dataset);
+        IBinaryComparatorFactory[] bcfs = new IBinaryComparatorFactory[synopsisFields.size()];
+        for (int i = 0; i < bcfs.length; i++) {
+            IAType type = itemType.getSubFieldType(synopsisFields.get(i));
+            bcfs[i] = comparatorFactoryProvider.getBinaryComparatorFactory(type, true);
+        }
+        return bcfs;
+    }
+
     public static int[] createFilterFields(Dataset dataset) throws AlgebricksException {
         if (dataset.getDatasetType() == DatasetType.EXTERNAL) {
             return null;
@@ -204,6 +254,17 @@ public class DatasetUtil {
         return new Pair<>(mergePolicyFactory, properties);
     }
 
+    /**
+     * @return the false positive rate of the bloom filters of the dataset's indexes, as given by the
+     *         {@link DatasetBloomFilterFalsePositiveRateHint} of the dataset or by the storage properties
+     */
+    public static double getBloomFilterFalsePositiveRate(MetadataProvider metadataProvider, Dataset dataset) {
+        Map<String, String> hints = dataset.getHints();
+        String rate = hints != null ? hints.get(DatasetBloomFilterFalsePositiveRateHint.NAME) : null;
+        return rate != null ? Double.parseDouble(rate)
+                : metadataProvider.getStorageProperties().getBloomFilterFalsePositiveRate();
+    }
+
     public static void writePropertyTypeRecord(String name, String value, DataOutput out, ARecordType recordType)
             throws HyracksDataException {
         IARecordBuilder propertyRecordBuilder = new RecordBuilder();
@@ -383,6 +444,23 @@ public class DatasetUtil {
     public static Pair<IOperatorDescriptor, AlgebricksPartitionConstraint> createPrimaryIndexUpsertOp(
             JobSpecification spec, MetadataProvider metadataProvider, Dataset dataset, RecordDescriptor inputRecordDesc,
             int[] fieldPermutation, IMissingWriterFactory missingWriterFactory) throws AlgebricksException {
+        return createPrimaryIndexUpsertOp(spec, metadataProvider, dataset, inputRecordDesc, fieldPermutation,
+                missingWriterFactory, getPrimaryKeyIndex(metadataProvider, dataset));
+    }
+
+    /**
+     * Creates a primary index upsert operator that uses and maintains the given primary key index, if any. The
+     * secondary index updates that follow the operator must not include the primary key index.
+     *
+     * @param primaryKeyIndex,
+     *            the primary key index of the dataset, or null if the operator should not use it.
+     * @see #createPrimaryIndexUpsertOp(JobSpecification, MetadataProvider, Dataset, RecordDescriptor, int[],
+     *      IMissingWriterFactory)
+     */
+    public static Pair<IOperatorDescriptor, AlgebricksPartitionConstraint> createPrimaryIndexUpsertOp(
+            JobSpecification spec, MetadataProvider metadataProvider, Dataset dataset, RecordDescriptor inputRecordDesc,
+            int[] fieldPermutation, IMissingWriterFactory missingWriterFactory, Index primaryKeyIndex)
+            throws AlgebricksException {
         int numKeys = dataset.getPrimaryKeys().size();
         int numFilterFields = DatasetUtil.getFilterField(dataset) == null ? 0 : 1;
         ARecordType itemType = (ARecordType) metadataProvider.findType(dataset);
@@ -397,8 +475,10 @@ public class DatasetUtil {
         for (int i = 0; i < numKeys; i++) {
             primaryKeyFields[i] = i;
         }
-        boolean hasSecondaries =
-                metadataProvider.getDatasetIndexes(dataset.getDataverseName(), dataset.getDatasetName()).size() > 1;
+        int numIndexes =
+                metadataProvider.getDatasetIndexes(dataset.getDataverseName(), dataset.getDatasetName()).size();
+        // the primary key index is maintained by the upsert operator itself
+        boolean hasSecondaries = numIndexes > (primaryKeyIndex == null ? 1 : 2);
         IStorageComponentProvider storageComponentProvider = metadataProvider.getStorageComponentProvider();
         IModificationOperationCallbackFactory modificationCallbackFactory = dataset.getModificationCallbackFactory(
                 storageComponentProvider, primaryIndex, IndexOperation.UPSERT, primaryKeyFields);
@@ -445,9 +525,18 @@ public class DatasetUtil {
             outputSerDes[j + f] = inputRecordDesc.getFields()[j];
         }
         RecordDescriptor outputRecordDesc = new RecordDescriptor(outputSerDes, outputTypeTraits);
+        IIndexDataflowHelperFactory keyIndexHelperFactory = null;
+        IModificationOperationCallbackFactory keyIndexModCallbackFactory = null;
+        if (primaryKeyIndex != null) {
+            keyIndexHelperFactory = new IndexDataflowHelperFactory(storageComponentProvider.getStorageManager(),
+                    metadataProvider.getSplitProviderAndConstraints(dataset, primaryKeyIndex.getIndexName()).first);
+            keyIndexModCallbackFactory = dataset.getModificationCallbackFactory(storageComponentProvider,
+                    primaryKeyIndex, IndexOperation.UPSERT, primaryKeyFields);
+        }
         op = new LSMPrimaryUpsertOperatorDescriptor(spec, outputRecordDesc, fieldPermutation, idfh,
                 missingWriterFactory, modificationCallbackFactory, searchCallbackFactory,
-                dataset.getFrameOpCallbackFactory(), numKeys, itemType, fieldIdx, hasSecondaries);
+                dataset.getFrameOpCallbackFactory(), numKeys, itemType, fieldIdx, hasSecondaries, keyIndexHelperFactory,
+                keyIndexModCallbackFactory);
         return new Pair<>(op, splitsAndConstraint.second);
     }
 
@@ -463,6 +552,23 @@ public class DatasetUtil {
      * @return a dummy key provider operator.
      * @throws AlgebricksException
      */
+    /**
+     * @return the primary key index of the dataset (see {@link Index#isPrimaryKeyIndex()}), which the primary index
+     *         insert and upsert operators use for their key checks, or null if the dataset has none
+     */
+    public static Index getPrimaryKeyIndex(MetadataProvider metadataProvider, Dataset dataset)
+            throws AlgebricksException {
+        if (dataset.getDatasetType() != DatasetType.INTERNAL) {
+            return null;
+        }
+        for (Index index : metadataProvider.getDatasetIndexes(dataset.getDataverseName(), dataset.getDatasetName())) {
+            if (index.isPrimaryKeyIndex()) {
+                return index;
+            }
+        }
+        return null;
+    }
+
     public static IOperatorDescriptor createDummyKeyProviderOp(JobSpecification spec, Dataset dataset,
             MetadataProvider metadataProvider) throws AlgebricksException {
         Pair<IFileSplitProvider, AlgebricksPartitionConstraint> primarySplitsAndConstraint =
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.metadata.utils;
+
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
+import org.apache.hyracks.api.job.JobSpecification;
+
+/**
+ * A secondary index operations helper that can load its index from one output of a scan of the primary index that is
+ * shared with the loading of other indexes of the dataset. See
+ * {@link IndexUtil#buildSecondaryIndexesLoadingJobSpecs(org.apache.asterix.metadata.entities.Dataset, java.util.List,
+ * org.apache.asterix.metadata.declared.MetadataProvider)}.
+ */
+interface ISharedScanLoadingHelper {
+
+    /**
+     * @return whether the index of this helper can be loaded from a shared scan
+     */
+    boolean canShareLoadingScan();
+
+    /**
+     * Adds the operators that load the index from one output of a shared scan of the primary index to a job.
+     *
+     * @param spec
+     *            the loading job
+     * @param primaryScanOp
+     *            the operator that produces the records of the primary index
+     * @param outputIndex
+     *            the output of the operator that is dedicated to this index
+     * @param numSharingIndexes
+     *            the number of indexes loaded from the scan, whose sorts run side by side and split the sort memory
+     * @return the root of the added operators
+     */
+    IOperatorDescriptor buildLoadingPipeline(JobSpecification spec, IOperatorDescriptor primaryScanOp, int outputIndex,
+            int numSharingIndexes) throws AlgebricksException;
+}
@@ -20,6 +20,7 @@ package org.apache.asterix.metadata.utils;
 
 import static org.apache.hyracks.storage.am.common.dataflow.IndexDropOperatorDescriptor.DropOption;
 
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
@@ -35,12 +36,18 @@ import org.apache.asterix.metadata.entities.Dataset;
 import org.apache.asterix.metadata.entities.Index;
 import org.apache.asterix.metadata.entities.InternalDatasetDetails;
 import org.apache.asterix.runtime.job.listener.JobEventListenerFactory;
+import org.apache.asterix.runtime.utils.RuntimeUtils;
 import org.apache.asterix.transaction.management.service.transaction.TxnIdFactory;
+import org.apache.hyracks.algebricks.common.constraints.AlgebricksPartitionConstraintHelper;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.core.jobgen.impl.ConnectorPolicyAssignmentPolicy;
 import org.apache.hyracks.algebricks.core.rewriter.base.PhysicalOptimizationConfig;
+import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
 import org.apache.hyracks.api.dataflow.value.ITypeTraits;
 import org.apache.hyracks.api.job.IJobletEventListenerFactory;
 import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.dataflow.std.connectors.OneToOneConnectorDescriptor;
+import org.apache.hyracks.dataflow.std.misc.ReplicateOperatorDescriptor;
 
 public class IndexUtil {
 
@@ -73,7 +80,7 @@ public class IndexUtil {
         }
         int numPrimaryKeys = dataset.getPrimaryKeys().size();
         int numSecondaryKeys = index.getKeyFieldNames().size();
-        int[] btreeFields = new int[numSecondaryKeys + numPrimaryKeys];
+        int[] btreeFields = new int[numSecondaryKeys + numPrimaryKeys + index.getIncludedFieldNames().size()];
         for (int k = 0; k < btreeFields.length; k++) {
             btreeFields[k] = k;
         }
@@ -89,7 +96,7 @@ public class IndexUtil {
         int numSecondaryKeys = index.getKeyFieldNames().size();
         switch (index.getIndexType()) {
             case BTREE:
-                return new int[] { numPrimaryKeys + numSecondaryKeys };
+                return new int[] { numPrimaryKeys + numSecondaryKeys + index.getIncludedFieldNames().size() };
             case RTREE:
             case LENGTH_PARTITIONED_NGRAM_INVIX:
             case LENGTH_PARTITIONED_WORD_INVIX:
@@ -131,20 +138,78 @@ public class IndexUtil {
 
     public static JobSpecification buildSecondaryIndexLoadingJobSpec(Dataset dataset, Index index,
             MetadataProvider metadataProvider, List<ExternalFile> files) throws AlgebricksException {
-        SecondaryIndexOperationsHelper secondaryIndexHelper;
-        if (dataset.isCorrelated()) {
-            secondaryIndexHelper = SecondaryCorrelatedTreeIndexOperationsHelper.createIndexOperationsHelper(dataset,
-                    index, metadataProvider, physicalOptimizationConfig);
-        } else {
-            secondaryIndexHelper = SecondaryTreeIndexOperationsHelper.createIndexOperationsHelper(dataset, index,
-                    metadataProvider, physicalOptimizationConfig);
-        }
+        SecondaryIndexOperationsHelper secondaryIndexHelper =
+                createLoadingOperationsHelper(dataset, index, metadataProvider);
         if (files != null) {
             secondaryIndexHelper.setExternalFiles(files);
         }
         return secondaryIndexHelper.buildLoadingJobSpec();
     }
 
+    /**
+     * Builds the jobs that load several secondary indexes of a dataset that have been created already. The indexes
+     * that can share a scan are loaded by a single job that reads the primary index once and hands each record to
+     * the sort and bulk load operators of every index, which then run side by side. Every other index gets a
+     * loading job of its own. This is only used to load the indexes of a dataset that is being rebalanced.
+     *
+     * @return the loading jobs, the shared one first
+     */
+    public static List<JobSpecification> buildSecondaryIndexesLoadingJobSpecs(Dataset dataset, List<Index> indexes,
+            MetadataProvider metadataProvider) throws AlgebricksException {
+        List<JobSpecification> jobs = new ArrayList<>();
+        List<SecondaryIndexOperationsHelper> sharedScanHelpers = new ArrayList<>();
+        for (Index index : indexes) {
+            SecondaryIndexOperationsHelper secondaryIndexHelper =
+                    createLoadingOperationsHelper(dataset, index, metadataProvider);
+            if (secondaryIndexHelper instanceof ISharedScanLoadingHelper
+                    && ((ISharedScanLoadingHelper) secondaryIndexHelper).canShareLoadingScan()) {
+                sharedScanHelpers.add(secondaryIndexHelper);
+            } else {
+                jobs.add(secondaryIndexHelper.buildLoadingJobSpec());
+            }
+        }
+        if (sharedScanHelpers.size() == 1) {
+            jobs.add(0, sharedScanHelpers.get(0).buildLoadingJobSpec());
+        } else if (sharedScanHelpers.size() > 1) {
+            jobs.add(0, buildSharedScanLoadingJobSpec(dataset, sharedScanHelpers, metadataProvider));
+        }
+        return jobs;
+    }
+
+    private static JobSpecification buildSharedScanLoadingJobSpec(Dataset dataset,
+            List<SecondaryIndexOperationsHelper> secondaryIndexHelpers, MetadataProvider metadataProvider)
+            throws AlgebricksException {
+        // job spec:
+        // key provider -> primary idx -> replicate -> (cast assign)? -> assign -> ... -> bulk load -> sink
+        //                                         \-> (cast assign)? -> assign -> ... -> bulk load -> sink
+        JobSpecification spec = RuntimeUtils.createJobSpecification(metadataProvider.getApplicationContext());
+        bindJobEventListener(spec, metadataProvider);
+        IOperatorDescriptor keyProviderOp = DatasetUtil.createDummyKeyProviderOp(spec, dataset, metadataProvider);
+        IOperatorDescriptor primaryScanOp = DatasetUtil.createPrimaryIndexScanOp(spec, metadataProvider, dataset);
+        spec.connect(new OneToOneConnectorDescriptor(spec), keyProviderOp, 0, primaryScanOp, 0);
+        IOperatorDescriptor replicateOp = new ReplicateOperatorDescriptor(spec,
+                dataset.getPrimaryRecordDescriptor(metadataProvider), secondaryIndexHelpers.size());
+        AlgebricksPartitionConstraintHelper.setPartitionConstraintInJobSpec(spec, replicateOp,
+                metadataProvider.getSplitProviderAndConstraints(dataset).second);
+        spec.connect(new OneToOneConnectorDescriptor(spec), primaryScanOp, 0, replicateOp, 0);
+        for (int i = 0; i < secondaryIndexHelpers.size(); i++) {
+            ISharedScanLoadingHelper secondaryIndexHelper = (ISharedScanLoadingHelper) secondaryIndexHelpers.get(i);
+            spec.addRoot(secondaryIndexHelper.buildLoadingPipeline(spec, replicateOp, i, secondaryIndexHelpers.size()));
+        }
+        spec.setConnectorPolicyAssignmentPolicy(new ConnectorPolicyAssignmentPolicy());
+        return spec;
+    }
+
+    private static SecondaryIndexOperationsHelper createLoadingOperationsHelper(Dataset dataset, Index index,
+            MetadataProvider metadataProvider) throws AlgebricksException {
+        if (dataset.isCorrelated()) {
+            return SecondaryCorrelatedTreeIndexOperationsHelper.createIndexOperationsHelper(dataset, index,
+                    metadataProvider, physicalOptimizationConfig);
+        }
+        return SecondaryTreeIndexOperationsHelper.createIndexOperationsHelper(dataset, index, metadataProvider,
+                physicalOptimizationConfig);
+    }
+
     public static JobSpecification buildSecondaryIndexCompactJobSpec(Dataset dataset, Index index,
             MetadataProvider metadataProvider) throws AlgebricksException {
         SecondaryIndexOperationsHelper secondaryIndexHelper = SecondaryIndexOperationsHelper
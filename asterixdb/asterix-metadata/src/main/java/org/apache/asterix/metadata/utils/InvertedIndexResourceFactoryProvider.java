@@ -110,7 +110,7 @@ public class InvertedIndexResourceFactoryProvider implements IResourceFactoryPro
         AsterixVirtualBufferCacheProvider vbcProvider = new AsterixVirtualBufferCacheProvider(dataset.getDatasetId());
         ILSMIOOperationSchedulerProvider ioSchedulerProvider =
                 storageComponentProvider.getIoOperationSchedulerProvider();
-        double bloomFilterFalsePositiveRate = mdProvider.getStorageProperties().getBloomFilterFalsePositiveRate();
+        double bloomFilterFalsePositiveRate = DatasetUtil.getBloomFilterFalsePositiveRate(mdProvider, dataset);
         ITypeTraits[] typeTraits = getInvListTypeTraits(mdProvider, dataset, recordType, metaType);
         IBinaryComparatorFactory[] cmpFactories =
                 getInvListComparatorFactories(mdProvider, dataset, recordType, metaType);
@@ -129,6 +129,24 @@ public class KeyFieldTypeUtil {
         return indexKeyTypes;
     }
 
+    /**
+     * Get the types of the fields that are included in the entries of a BTree index besides its keys
+     *
+     * @param index,
+     *            the index to consider.
+     * @param recordType,
+     *            the main record type.
+     * @return a list of IATypes, one for each included field.
+     * @throws AlgebricksException
+     */
+    public static List<IAType> getIncludedFieldTypes(Index index, ARecordType recordType) throws AlgebricksException {
+        List<IAType> includedFieldTypes = new ArrayList<>();
+        for (List<String> includedField : index.getIncludedFieldNames()) {
+            includedFieldTypes.add(recordType.getSubFieldType(includedField));
+        }
+        return includedFieldTypes;
+    }
+
     /**
      * Get the types of RTree index key fields
      *
@@ -166,7 +166,7 @@ public class RTreeResourceFactoryProvider implements IResourceFactoryProvider {
                     metadataPageManagerFactory, ioSchedulerProvider, mergePolicyFactory, mergePolicyProperties, true,
                     btreeCompFactories, valueProviderFactories, rTreePolicyType, linearizeCmpFactory, rtreeFields,
                     new int[] { numNestedSecondaryKeyFields }, isPointMBR,
-                    mdProvider.getStorageProperties().getBloomFilterFalsePositiveRate());
+                    DatasetUtil.getBloomFilterFalsePositiveRate(mdProvider, dataset));
         }
     }
 
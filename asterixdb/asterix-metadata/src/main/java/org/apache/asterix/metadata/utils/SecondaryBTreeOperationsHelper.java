@@ -55,7 +55,11 @@ import org.apache.hyracks.storage.am.common.dataflow.IIndexDataflowHelperFactory
 import org.apache.hyracks.storage.am.common.dataflow.IndexDataflowHelperFactory;
 import org.apache.hyracks.storage.am.common.dataflow.TreeIndexBulkLoadOperatorDescriptor;
 
-public class SecondaryBTreeOperationsHelper extends SecondaryTreeIndexOperationsHelper {
+public class SecondaryBTreeOperationsHelper extends SecondaryTreeIndexOperationsHelper
+        implements ISharedScanLoadingHelper {
+
+    // the fewest frames the compiler gives to a sort
+    private static final int MIN_SORT_FRAMES = 3;
 
     protected SecondaryBTreeOperationsHelper(Dataset dataset, Index index, PhysicalOptimizationConfig physOptConf,
             MetadataProvider metadataProvider) throws AlgebricksException {
@@ -134,51 +138,69 @@ public class SecondaryBTreeOperationsHelper extends SecondaryTreeIndexOperations
             IOperatorDescriptor targetOp = DatasetUtil.createPrimaryIndexScanOp(spec, metadataProvider, dataset);
             spec.connect(new OneToOneConnectorDescriptor(spec), sourceOp, 0, targetOp, 0);
 
-            sourceOp = targetOp;
-            if (isOverridingKeyFieldTypes && !enforcedItemType.equals(itemType)) {
-                // primary index scan ----> cast assign
-                targetOp = createCastOp(spec, dataset.getDatasetType(), index.isEnforced());
-                spec.connect(new OneToOneConnectorDescriptor(spec), sourceOp, 0, targetOp, 0);
-                sourceOp = targetOp;
-            }
-            // primary index OR cast assign ----> assign op
-            targetOp = createAssignOp(spec, index.getKeyFieldNames().size(), secondaryRecDesc);
-            spec.connect(new OneToOneConnectorDescriptor(spec), sourceOp, 0, targetOp, 0);
+            spec.addRoot(buildLoadingPipeline(spec, targetOp, 0, 1));
+            spec.setConnectorPolicyAssignmentPolicy(new ConnectorPolicyAssignmentPolicy());
+            return spec;
+        }
+    }
 
-            sourceOp = targetOp;
-            if (anySecondaryKeyIsNullable || isOverridingKeyFieldTypes) {
-                // if any of the secondary fields are nullable, then add a select op that filters nulls.
-                // assign op ----> select op
-                targetOp = createFilterNullsSelectOp(spec, index.getKeyFieldNames().size(), secondaryRecDesc);
-                spec.connect(new OneToOneConnectorDescriptor(spec), sourceOp, 0, targetOp, 0);
-                sourceOp = targetOp;
-            }
+    @Override
+    public boolean canShareLoadingScan() {
+        return dataset.getDatasetType() == DatasetType.INTERNAL;
+    }
 
-            // no need to sort if the index is secondary primary index
-            if (!index.getKeyFieldNames().isEmpty()) {
-                // sort by secondary keys.
-                // assign op OR select op ----> sort op
-                targetOp = createSortOp(spec, secondaryComparatorFactories, secondaryRecDesc);
-                spec.connect(new OneToOneConnectorDescriptor(spec), sourceOp, 0, targetOp, 0);
-                sourceOp = targetOp;
-            }
+    @Override
+    public IOperatorDescriptor buildLoadingPipeline(JobSpecification spec, IOperatorDescriptor primaryScanOp,
+            int outputIndex, int numSharingIndexes) throws AlgebricksException {
+        // (cast assign)? -> assign -> (select)? -> (sort)? -> bulk load -> sink
+        boolean isOverridingKeyFieldTypes = index.isOverridingKeyFieldTypes();
+        int[] fieldPermutation = createFieldPermutationForBulkLoadOp(index.getKeyFieldNames().size());
+        IIndexDataflowHelperFactory dataflowHelperFactory = new IndexDataflowHelperFactory(
+                metadataProvider.getStorageComponentProvider().getStorageManager(), secondaryFileSplitProvider);
+        IOperatorDescriptor sourceOp = primaryScanOp;
+        int sourceOutput = outputIndex;
+        IOperatorDescriptor targetOp;
+        if (isOverridingKeyFieldTypes && !enforcedItemType.equals(itemType)) {
+            // primary index scan ----> cast assign
+            targetOp = createCastOp(spec, dataset.getDatasetType(), index.isEnforced());
+            spec.connect(new OneToOneConnectorDescriptor(spec), sourceOp, sourceOutput, targetOp, 0);
+            sourceOp = targetOp;
+            sourceOutput = 0;
+        }
+        // primary index OR cast assign ----> assign op
+        targetOp = createAssignOp(spec, index.getKeyFieldNames().size(), secondaryRecDesc);
+        spec.connect(new OneToOneConnectorDescriptor(spec), sourceOp, sourceOutput, targetOp, 0);
 
-            // assign op OR select op OR sort op ----> bulk load op
-            targetOp = createTreeIndexBulkLoadOp(spec, fieldPermutation, dataflowHelperFactory,
-                    GlobalConfig.DEFAULT_TREE_FILL_FACTOR);
+        sourceOp = targetOp;
+        if (anySecondaryKeyIsNullable || isOverridingKeyFieldTypes) {
+            // if any of the secondary fields are nullable, then add a select op that filters nulls.
+            // assign op ----> select op
+            targetOp = createFilterNullsSelectOp(spec, index.getKeyFieldNames().size(), secondaryRecDesc);
             spec.connect(new OneToOneConnectorDescriptor(spec), sourceOp, 0, targetOp, 0);
-
-            // bulk load op ----> sink op
             sourceOp = targetOp;
-            targetOp = new AlgebricksMetaOperatorDescriptor(spec, 1, 0,
-                    new IPushRuntimeFactory[] { new SinkRuntimeFactory() },
-                    new RecordDescriptor[] { secondaryRecDesc });
-            spec.connect(new OneToOneConnectorDescriptor(spec), sourceOp, 0, targetOp, 0);
+        }
 
-            spec.addRoot(targetOp);
-            spec.setConnectorPolicyAssignmentPolicy(new ConnectorPolicyAssignmentPolicy());
-            return spec;
+        // no need to sort if the index is secondary primary index
+        if (!index.getKeyFieldNames().isEmpty()) {
+            // sort by secondary keys.
+            // assign op OR select op ----> sort op
+            int sortFrames = Math.max(MIN_SORT_FRAMES, physOptConf.getMaxFramesExternalSort() / numSharingIndexes);
+            targetOp = createSortOp(spec, secondaryComparatorFactories, secondaryRecDesc, sortFrames);
+            spec.connect(new OneToOneConnectorDescriptor(spec), sourceOp, 0, targetOp, 0);
+            sourceOp = targetOp;
         }
+
+        // assign op OR select op OR sort op ----> bulk load op
+        targetOp = createTreeIndexBulkLoadOp(spec, fieldPermutation, dataflowHelperFactory,
+                GlobalConfig.DEFAULT_TREE_FILL_FACTOR);
+        spec.connect(new OneToOneConnectorDescriptor(spec), sourceOp, 0, targetOp, 0);
+
+        // bulk load op ----> sink op
+        sourceOp = targetOp;
+        targetOp = new AlgebricksMetaOperatorDescriptor(spec, 1, 0,
+                new IPushRuntimeFactory[] { new SinkRuntimeFactory() }, new RecordDescriptor[] { secondaryRecDesc });
+        spec.connect(new OneToOneConnectorDescriptor(spec), sourceOp, 0, targetOp, 0);
+        return targetOp;
     }
 
     @Override
@@ -191,14 +213,17 @@ public class SecondaryBTreeOperationsHelper extends SecondaryTreeIndexOperations
      *     |  SK  |             Bloom filter
      *      ======
      *      ====== ======
-     *     |  SK  |  PK  |      comparators, type traits
+     *     |  SK  |  PK  |      comparators
      *      ====== ======
-     *      ====== ........
-     *     |  SK  | Filter |    field access evaluators
-     *      ====== ........
-     *      ====== ====== ........
-     *     |  SK  |  PK  | Filter |   record fields
-     *      ====== ====== ........
+     *      ====== ====== ..........
+     *     |  SK  |  PK  | Included |      type traits
+     *      ====== ====== ..........
+     *      ====== .......... ........
+     *     |  SK  | Included | Filter |    field access evaluators
+     *      ====== .......... ........
+     *      ====== ====== .......... ........
+     *     |  SK  |  PK  | Included | Filter |   record fields
+     *      ====== ====== .......... ........
      *      ====== ========= ........ ........
      *     |  PK  | Payload |  Meta  | Filter | enforced record
      *      ====== ========= ........ ........
@@ -206,16 +231,17 @@ public class SecondaryBTreeOperationsHelper extends SecondaryTreeIndexOperations
     @Override
     protected void setSecondaryRecDescAndComparators() throws AlgebricksException {
         int numSecondaryKeys = index.getKeyFieldNames().size();
-        secondaryFieldAccessEvalFactories = new IScalarEvaluatorFactory[numSecondaryKeys + numFilterFields];
+        secondaryFieldAccessEvalFactories =
+                new IScalarEvaluatorFactory[numSecondaryKeys + numIncludedFields + numFilterFields];
         secondaryComparatorFactories = new IBinaryComparatorFactory[numSecondaryKeys + numPrimaryKeys];
         secondaryBloomFilterKeyFields = new int[numSecondaryKeys];
         ISerializerDeserializer[] secondaryRecFields =
-                new ISerializerDeserializer[numPrimaryKeys + numSecondaryKeys + numFilterFields];
+                new ISerializerDeserializer[numPrimaryKeys + numSecondaryKeys + numIncludedFields + numFilterFields];
         ISerializerDeserializer[] enforcedRecFields =
                 new ISerializerDeserializer[1 + numPrimaryKeys + (dataset.hasMetaPart() ? 1 : 0) + numFilterFields];
         ITypeTraits[] enforcedTypeTraits =
                 new ITypeTraits[1 + numPrimaryKeys + (dataset.hasMetaPart() ? 1 : 0) + numFilterFields];
-        secondaryTypeTraits = new ITypeTraits[numSecondaryKeys + numPrimaryKeys];
+        secondaryTypeTraits = new ITypeTraits[numSecondaryKeys + numPrimaryKeys + numIncludedFields];
         ISerializerDeserializerProvider serdeProvider = metadataProvider.getDataFormat().getSerdeProvider();
         ITypeTraitProvider typeTraitProvider = metadataProvider.getDataFormat().getTypeTraitProvider();
         IBinaryComparatorFactoryProvider comparatorFactoryProvider =
@@ -266,6 +292,15 @@ public class SecondaryBTreeOperationsHelper extends SecondaryTreeIndexOperations
                 secondaryComparatorFactories[numSecondaryKeys + i] = IndexingConstants.getComparatorFactory(i);
             }
         }
+        List<IAType> includedFieldTypes = KeyFieldTypeUtil.getIncludedFieldTypes(index, itemType);
+        for (int i = 0; i < numIncludedFields; i++) {
+            secondaryFieldAccessEvalFactories[numSecondaryKeys + i] = metadataProvider.getDataFormat()
+                    .getFieldAccessEvaluatorFactory(metadataProvider.getFunctionManager(), itemType,
+                            index.getIncludedFieldNames().get(i), recordColumn);
+            IAType type = includedFieldTypes.get(i);
+            secondaryRecFields[numSecondaryKeys + numPrimaryKeys + i] = serdeProvider.getSerializerDeserializer(type);
+            secondaryTypeTraits[numSecondaryKeys + numPrimaryKeys + i] = typeTraitProvider.getTypeTrait(type);
+        }
         enforcedRecFields[numPrimaryKeys] = serdeProvider.getSerializerDeserializer(itemType);
         enforcedTypeTraits[numPrimaryKeys] = typeTraitProvider.getTypeTrait(itemType);
         if (dataset.hasMetaPart()) {
@@ -274,13 +309,13 @@ public class SecondaryBTreeOperationsHelper extends SecondaryTreeIndexOperations
         }
 
         if (numFilterFields > 0) {
-            secondaryFieldAccessEvalFactories[numSecondaryKeys] =
+            secondaryFieldAccessEvalFactories[numSecondaryKeys + numIncludedFields] =
                     metadataProvider.getDataFormat().getFieldAccessEvaluatorFactory(
                             metadataProvider.getFunctionManager(), itemType, filterFieldName, numPrimaryKeys);
             Pair<IAType, Boolean> keyTypePair = Index.getNonNullableKeyFieldType(filterFieldName, itemType);
             IAType type = keyTypePair.first;
             ISerializerDeserializer serde = serdeProvider.getSerializerDeserializer(type);
-            secondaryRecFields[numPrimaryKeys + numSecondaryKeys] = serde;
+            secondaryRecFields[numPrimaryKeys + numSecondaryKeys + numIncludedFields] = serde;
             enforcedRecFields[numPrimaryKeys + 1 + (dataset.hasMetaPart() ? 1 : 0)] = serde;
             enforcedTypeTraits[numPrimaryKeys + 1 + (dataset.hasMetaPart() ? 1 : 0)] =
                     typeTraitProvider.getTypeTrait(type);
@@ -291,7 +326,7 @@ public class SecondaryBTreeOperationsHelper extends SecondaryTreeIndexOperations
     }
 
     protected int[] createFieldPermutationForBulkLoadOp(int numSecondaryKeyFields) {
-        int[] fieldPermutation = new int[numSecondaryKeyFields + numPrimaryKeys + numFilterFields];
+        int[] fieldPermutation = new int[numSecondaryKeyFields + numPrimaryKeys + numIncludedFields + numFilterFields];
         for (int i = 0; i < fieldPermutation.length; i++) {
             fieldPermutation[i] = i;
         }
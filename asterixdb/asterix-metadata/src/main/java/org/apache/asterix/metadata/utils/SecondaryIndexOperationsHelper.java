@@ -63,6 +63,7 @@ import org.apache.hyracks.algebricks.runtime.evaluators.ColumnAccessEvalFactory;
 import org.apache.hyracks.algebricks.runtime.operators.meta.AlgebricksMetaOperatorDescriptor;
 import org.apache.hyracks.algebricks.runtime.operators.std.AssignRuntimeFactory;
 import org.apache.hyracks.algebricks.runtime.operators.std.StreamSelectRuntimeFactory;
+import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
 import org.apache.hyracks.api.dataflow.value.ITypeTraits;
@@ -109,6 +110,7 @@ public abstract class SecondaryIndexOperationsHelper {
     protected Map<String, String> mergePolicyProperties;
     protected RecordDescriptor enforcedRecDesc;
     protected int numFilterFields;
+    protected int numIncludedFields;
     protected List<String> filterFieldName;
     protected ITypeTraits[] filterTypeTraits;
     protected IBinaryComparatorFactory[] filterCmpFactories;
@@ -185,6 +187,7 @@ public abstract class SecondaryIndexOperationsHelper {
         secondaryFileSplitProvider = secondarySplitsAndConstraint.first;
         secondaryPartitionConstraint = secondarySplitsAndConstraint.second;
         numPrimaryKeys = dataset.getPrimaryKeys().size();
+        numIncludedFields = index.getIncludedFieldNames().size();
         if (dataset.getDatasetType() == DatasetType.INTERNAL) {
             filterFieldName = DatasetUtil.getFilterField(dataset);
             if (filterFieldName != null) {
@@ -215,7 +218,7 @@ public abstract class SecondaryIndexOperationsHelper {
         secondaryFilterFields = new int[numFilterFields];
         primaryFilterFields = new int[numFilterFields];
         primaryBTreeFields = new int[numPrimaryKeys + 1];
-        secondaryBTreeFields = new int[index.getKeyFieldNames().size() + numPrimaryKeys];
+        secondaryBTreeFields = new int[index.getKeyFieldNames().size() + numPrimaryKeys + numIncludedFields];
         for (int i = 0; i < primaryBTreeFields.length; i++) {
             primaryBTreeFields[i] = i;
         }
@@ -226,7 +229,7 @@ public abstract class SecondaryIndexOperationsHelper {
         IAType type = itemType.getSubFieldType(filterFieldName);
         filterCmpFactories[0] = BinaryComparatorFactoryProvider.INSTANCE.getBinaryComparatorFactory(type, true);
         filterTypeTraits[0] = TypeTraitProvider.INSTANCE.getTypeTrait(type);
-        secondaryFilterFields[0] = getNumSecondaryKeys() + numPrimaryKeys;
+        secondaryFilterFields[0] = getNumSecondaryKeys() + numPrimaryKeys + numIncludedFields;
         primaryFilterFields[0] = numPrimaryKeys + 1;
     }
 
@@ -267,9 +270,10 @@ public abstract class SecondaryIndexOperationsHelper {
 
     protected AlgebricksMetaOperatorDescriptor createAssignOp(JobSpecification spec, int numSecondaryKeyFields,
             RecordDescriptor secondaryRecDesc) throws AlgebricksException {
-        int[] outColumns = new int[numSecondaryKeyFields + numFilterFields];
-        int[] projectionList = new int[numSecondaryKeyFields + numPrimaryKeys + numFilterFields];
-        for (int i = 0; i < numSecondaryKeyFields + numFilterFields; i++) {
+        int numAssignedFields = numSecondaryKeyFields + numIncludedFields + numFilterFields;
+        int[] outColumns = new int[numAssignedFields];
+        int[] projectionList = new int[numAssignedFields + numPrimaryKeys];
+        for (int i = 0; i < numAssignedFields; i++) {
             outColumns[i] = numPrimaryKeys + i;
         }
         int projCount = 0;
@@ -279,8 +283,11 @@ public abstract class SecondaryIndexOperationsHelper {
         for (int i = 0; i < numPrimaryKeys; i++) {
             projectionList[projCount++] = i;
         }
+        for (int i = 0; i < numIncludedFields; i++) {
+            projectionList[projCount++] = numPrimaryKeys + numSecondaryKeyFields + i;
+        }
         if (numFilterFields > 0) {
-            projectionList[projCount] = numPrimaryKeys + numSecondaryKeyFields;
+            projectionList[projCount] = numPrimaryKeys + numSecondaryKeyFields + numIncludedFields;
         }
 
         IScalarEvaluatorFactory[] sefs = new IScalarEvaluatorFactory[secondaryFieldAccessEvalFactories.length];
@@ -332,12 +339,19 @@ public abstract class SecondaryIndexOperationsHelper {
 
     protected ExternalSortOperatorDescriptor createSortOp(JobSpecification spec,
             IBinaryComparatorFactory[] secondaryComparatorFactories, RecordDescriptor secondaryRecDesc) {
+        return createSortOp(spec, secondaryComparatorFactories, secondaryRecDesc,
+                physOptConf.getMaxFramesExternalSort());
+    }
+
+    protected ExternalSortOperatorDescriptor createSortOp(JobSpecification spec,
+            IBinaryComparatorFactory[] secondaryComparatorFactories, RecordDescriptor secondaryRecDesc,
+            int framesLimit) {
         int[] sortFields = new int[secondaryComparatorFactories.length];
         for (int i = 0; i < secondaryComparatorFactories.length; i++) {
             sortFields[i] = i;
         }
-        ExternalSortOperatorDescriptor sortOp = new ExternalSortOperatorDescriptor(spec,
-                physOptConf.getMaxFramesExternalSort(), sortFields, secondaryComparatorFactories, secondaryRecDesc);
+        ExternalSortOperatorDescriptor sortOp = new ExternalSortOperatorDescriptor(spec, framesLimit, sortFields,
+                secondaryComparatorFactories, secondaryRecDesc);
         AlgebricksPartitionConstraintHelper.setPartitionConstraintInJobSpec(spec, sortOp, primaryPartitionConstraint);
         return sortOp;
     }
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.metadata.declared;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetadataProviderTest {
+
+    @Test
+    public void testPointSearch() {
+        int[] keyFields = { 0, 1 };
+        Assert.assertTrue(MetadataProvider.isPointSearch(2, keyFields, keyFields, true, true, null, null));
+        // the primary key lookups of secondary index searches share the key fields of their bounds
+        Assert.assertTrue(MetadataProvider.isPointSearch(1, new int[] { 3 }, new int[] { 3 }, true, true, null, null));
+    }
+
+    @Test
+    public void testCompositeKeyPrefixIsNotPointSearch() {
+        int[] prefix = { 0 };
+        Assert.assertFalse(MetadataProvider.isPointSearch(2, prefix, prefix, true, true, null, null));
+        Assert.assertFalse(MetadataProvider.isPointSearch(2, new int[0], new int[0], true, true, null, null));
+    }
+
+    @Test
+    public void testRangeSearchIsNotPointSearch() {
+        int[] keyFields = { 0 };
+        Assert.assertFalse(MetadataProvider.isPointSearch(1, keyFields, new int[] { 1 }, true, true, null, null));
+        Assert.assertFalse(MetadataProvider.isPointSearch(1, keyFields, keyFields, false, true, null, null));
+        Assert.assertFalse(MetadataProvider.isPointSearch(1, keyFields, keyFields, true, false, null, null));
+        Assert.assertFalse(MetadataProvider.isPointSearch(1, null, null, true, true, null, null));
+        Assert.assertFalse(MetadataProvider.isPointSearch(1, keyFields, keyFields, true, true, keyFields, null));
+    }
+}
@@ -19,8 +19,10 @@
 package org.apache.asterix.metadata.entitytupletranslators;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.asterix.common.config.DatasetConfig.DatasetType;
@@ -69,4 +71,38 @@ public class DatasetTupleTranslatorTest {
             }
         }
     }
+
+    @Test
+    public void testCompressionScheme() throws AlgebricksException, IOException {
+        InternalDatasetDetails details = new InternalDatasetDetails(FileStructure.BTREE, PartitioningStrategy.HASH,
+                Collections.singletonList(Collections.singletonList("row_id")),
+                Collections.singletonList(Collections.singletonList("row_id")), null,
+                Collections.singletonList(BuiltinType.AINT64), false, Collections.emptyList());
+        for (String compressionScheme : new String[] { "lz4", null }) {
+            Dataset dataset = new Dataset("test", "log", "foo", "LogType", null, null, "DEFAULT_NG_ALL_NODES", "prefix",
+                    new HashMap<>(), details, Collections.emptyMap(), DatasetType.INTERNAL, 115, 0, 0L,
+                    compressionScheme);
+            DatasetTupleTranslator dtTranslator = new DatasetTupleTranslator(true);
+            ITupleReference tuple = dtTranslator.getTupleFromMetadataEntity(dataset);
+            Dataset deserializedDataset = dtTranslator.getMetadataEntityFromTuple(tuple);
+            Assert.assertEquals(compressionScheme, deserializedDataset.getCompressionScheme());
+        }
+    }
+
+    @Test
+    public void testSynopsisFields() throws AlgebricksException, IOException {
+        InternalDatasetDetails details = new InternalDatasetDetails(FileStructure.BTREE, PartitioningStrategy.HASH,
+                Collections.singletonList(Collections.singletonList("row_id")),
+                Collections.singletonList(Collections.singletonList("row_id")), null,
+                Collections.singletonList(BuiltinType.AINT64), false, Collections.emptyList());
+        for (List<String> synopsisFields : Arrays.asList(Arrays.asList("ts", "level"), null)) {
+            Dataset dataset = new Dataset("test", "log", "foo", "LogType", null, null, "DEFAULT_NG_ALL_NODES", "prefix",
+                    new HashMap<>(), details, Collections.emptyMap(), DatasetType.INTERNAL, 115, 0, 0L, null,
+                    synopsisFields);
+            DatasetTupleTranslator dtTranslator = new DatasetTupleTranslator(true);
+            ITupleReference tuple = dtTranslator.getTupleFromMetadataEntity(dataset);
+            Dataset deserializedDataset = dtTranslator.getMetadataEntityFromTuple(tuple);
+            Assert.assertEquals(synopsisFields, deserializedDataset.getSynopsisFields());
+        }
+    }
 }
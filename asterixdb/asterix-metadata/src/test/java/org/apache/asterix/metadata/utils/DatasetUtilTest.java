@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.metadata.utils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.asterix.common.config.DatasetConfig.DatasetType;
+import org.apache.asterix.common.config.StorageProperties;
+import org.apache.asterix.metadata.dataset.hints.DatasetHints.DatasetBloomFilterFalsePositiveRateHint;
+import org.apache.asterix.metadata.declared.MetadataProvider;
+import org.apache.asterix.metadata.entities.Dataset;
+import org.apache.asterix.metadata.entities.InternalDatasetDetails;
+import org.apache.asterix.metadata.entities.InternalDatasetDetails.FileStructure;
+import org.apache.asterix.metadata.entities.InternalDatasetDetails.PartitioningStrategy;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomCalculations;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class DatasetUtilTest {
+    private static final double DEFAULT_RATE = 0.01;
+
+    @Test
+    public void testBloomFilterFalsePositiveRate() {
+        MetadataProvider metadataProvider = createMetadataProvider();
+        Map<String, String> hints = new HashMap<>();
+        hints.put(DatasetBloomFilterFalsePositiveRateHint.NAME, "0.001");
+        Assert.assertEquals(0.001, DatasetUtil.getBloomFilterFalsePositiveRate(metadataProvider, createDataset(hints)),
+                0);
+        // datasets without the hint use the storage properties
+        Assert.assertEquals(DEFAULT_RATE, DatasetUtil.getBloomFilterFalsePositiveRate(metadataProvider,
+                createDataset(Collections.singletonMap("CARDINALITY", "10"))), 0);
+        Assert.assertEquals(DEFAULT_RATE,
+                DatasetUtil.getBloomFilterFalsePositiveRate(metadataProvider, createDataset(Collections.emptyMap())),
+                0);
+        Assert.assertEquals(DEFAULT_RATE,
+                DatasetUtil.getBloomFilterFalsePositiveRate(metadataProvider, createDataset(null)), 0);
+    }
+
+    @Test
+    public void testBloomFilterFalsePositiveRateHintValidation() {
+        DatasetBloomFilterFalsePositiveRateHint hint = new DatasetBloomFilterFalsePositiveRateHint();
+        double min = BloomCalculations.minFalsePositiveRate();
+        Assert.assertTrue(hint.validateValue(null, "0.001").first);
+        Assert.assertTrue(hint.validateValue(null, Double.toString(min)).first);
+        Assert.assertFalse(hint.validateValue(null, Double.toString(min / 2)).first);
+        Assert.assertFalse(hint.validateValue(null, "1").first);
+        Assert.assertFalse(hint.validateValue(null, "-0.1").first);
+        Assert.assertFalse(hint.validateValue(null, "NaN").first);
+        Assert.assertFalse(hint.validateValue(null, "low").first);
+    }
+
+    private static MetadataProvider createMetadataProvider() {
+        StorageProperties storageProperties = Mockito.mock(StorageProperties.class);
+        Mockito.when(storageProperties.getBloomFilterFalsePositiveRate()).thenReturn(DEFAULT_RATE);
+        MetadataProvider metadataProvider = Mockito.mock(MetadataProvider.class);
+        Mockito.when(metadataProvider.getStorageProperties()).thenReturn(storageProperties);
+        return metadataProvider;
+    }
+
+    private static Dataset createDataset(Map<String, String> hints) {
+        InternalDatasetDetails details = new InternalDatasetDetails(FileStructure.BTREE, PartitioningStrategy.HASH,
+                Collections.singletonList(Collections.singletonList("id")),
+                Collections.singletonList(Collections.singletonList("id")), null,
+                Collections.singletonList(BuiltinType.AINT64), false, Collections.emptyList());
+        return new Dataset("test", "ds", "test", "TestType", null, null, "DEFAULT_NG_ALL_NODES", "prefix",
+                new HashMap<>(), details, hints, DatasetType.INTERNAL, 115, 0);
+    }
+}
@@ -60,6 +60,10 @@ public class AdmArrayNode implements IAdmNode {
         return children.get(index);
     }
 
+    public int size() {
+        return children.size();
+    }
+
     @Override
     public ATypeTag getType() {
         return ATypeTag.ARRAY;
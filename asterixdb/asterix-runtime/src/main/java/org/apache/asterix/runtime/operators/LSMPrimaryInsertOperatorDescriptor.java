@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.operators;
+
+import org.apache.asterix.common.dataflow.LSMTreeInsertDeleteOperatorDescriptor;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
+import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
+import org.apache.hyracks.storage.am.common.api.IModificationOperationCallbackFactory;
+import org.apache.hyracks.storage.am.common.api.ISearchOperationCallbackFactory;
+import org.apache.hyracks.storage.am.common.dataflow.IIndexDataflowHelperFactory;
+import org.apache.hyracks.storage.am.common.ophelpers.IndexOperation;
+
+/**
+ * Inserts into the primary index of a dataset that has a primary key index, which is used for the duplicate checks
+ * and maintained along with the primary index.
+ */
+public class LSMPrimaryInsertOperatorDescriptor extends LSMTreeInsertDeleteOperatorDescriptor {
+
+    private static final long serialVersionUID = 1L;
+    private final IIndexDataflowHelperFactory keyIndexHelperFactory;
+    private final IModificationOperationCallbackFactory keyIndexModCallbackFactory;
+    private final ISearchOperationCallbackFactory searchOpCallbackFactory;
+    private final int numPrimaryKeys;
+    private final int filterFieldIndex;
+
+    public LSMPrimaryInsertOperatorDescriptor(IOperatorDescriptorRegistry spec, RecordDescriptor outRecDesc,
+            int[] fieldPermutation, IIndexDataflowHelperFactory indexHelperFactory,
+            IIndexDataflowHelperFactory keyIndexHelperFactory,
+            IModificationOperationCallbackFactory modificationOpCallbackFactory,
+            IModificationOperationCallbackFactory keyIndexModCallbackFactory,
+            ISearchOperationCallbackFactory searchOpCallbackFactory, int numPrimaryKeys, int filterFieldIndex) {
+        super(spec, outRecDesc, fieldPermutation, IndexOperation.INSERT, indexHelperFactory, null, true,
+                modificationOpCallbackFactory);
+        this.keyIndexHelperFactory = keyIndexHelperFactory;
+        this.keyIndexModCallbackFactory = keyIndexModCallbackFactory;
+        this.searchOpCallbackFactory = searchOpCallbackFactory;
+        this.numPrimaryKeys = numPrimaryKeys;
+        this.filterFieldIndex = filterFieldIndex;
+    }
+
+    @Override
+    public IOperatorNodePushable createPushRuntime(IHyracksTaskContext ctx,
+            IRecordDescriptorProvider recordDescProvider, int partition, int nPartitions) throws HyracksDataException {
+        RecordDescriptor inputRecDesc = recordDescProvider.getInputRecordDescriptor(getActivityId(), 0);
+        return new LSMPrimaryInsertOperatorNodePushable(ctx, partition, indexHelperFactory, keyIndexHelperFactory,
+                fieldPermutation, inputRecDesc, modCallbackFactory, keyIndexModCallbackFactory, searchOpCallbackFactory,
+                numPrimaryKeys, filterFieldIndex);
+    }
+}
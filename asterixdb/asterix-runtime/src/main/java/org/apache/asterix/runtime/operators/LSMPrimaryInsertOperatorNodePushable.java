@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.operators;
+
+import java.util.Arrays;
+
+import org.apache.asterix.common.dataflow.LSMInsertDeleteOperatorNodePushable;
+import org.apache.asterix.transaction.management.opcallbacks.AbstractIndexModificationOperationCallback;
+import org.apache.asterix.transaction.management.opcallbacks.AbstractIndexModificationOperationCallback.Operation;
+import org.apache.asterix.transaction.management.opcallbacks.LockThenSearchOperationCallback;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.btree.util.BTreeUtils;
+import org.apache.hyracks.storage.am.common.api.IModificationOperationCallbackFactory;
+import org.apache.hyracks.storage.am.common.api.ISearchOperationCallbackFactory;
+import org.apache.hyracks.storage.am.common.api.ITreeIndex;
+import org.apache.hyracks.storage.am.common.dataflow.IIndexDataflowHelperFactory;
+import org.apache.hyracks.storage.am.common.ophelpers.IndexOperation;
+import org.apache.hyracks.storage.am.common.tuples.PermutingFrameTupleReference;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTreeOpContext;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.common.MultiComparator;
+
+/**
+ * Inserts into the primary index and maintains the primary key index of the dataset. Each key is locked and looked up
+ * in the primary key index. If the key index is complete and does not have the key, the key cannot be in the primary
+ * index either: the record is inserted without searching the disk components of the primary index, whose pages hold
+ * whole records. Otherwise the insert goes through the regular duplicate check of the primary index. New keys are
+ * added to the primary key index right away, so a later duplicate in the same frame finds its key there.
+ */
+public class LSMPrimaryInsertOperatorNodePushable extends LSMInsertDeleteOperatorNodePushable {
+
+    private final PermutingFrameTupleReference key = new PermutingFrameTupleReference();
+    // the primary keys, followed by the filter value if the dataset is filtered
+    private final PermutingFrameTupleReference keyIndexEntry = new PermutingFrameTupleReference();
+    private final ISearchOperationCallbackFactory searchCallbackFactory;
+    private final PrimaryKeyIndexAccessor keyIndex;
+    private LockThenSearchOperationCallback searchCallback;
+    private MultiComparator keySearchCmp;
+
+    public LSMPrimaryInsertOperatorNodePushable(IHyracksTaskContext ctx, int partition,
+            IIndexDataflowHelperFactory indexHelperFactory, IIndexDataflowHelperFactory keyIndexHelperFactory,
+            int[] fieldPermutation, RecordDescriptor inputRecDesc,
+            IModificationOperationCallbackFactory modCallbackFactory,
+            IModificationOperationCallbackFactory keyIndexModCallbackFactory,
+            ISearchOperationCallbackFactory searchCallbackFactory, int numOfPrimaryKeys, int filterFieldIndex)
+            throws HyracksDataException {
+        super(ctx, partition, fieldPermutation, inputRecDesc, IndexOperation.INSERT, true, indexHelperFactory,
+                modCallbackFactory, null);
+        this.searchCallbackFactory = searchCallbackFactory;
+        this.keyIndex = new PrimaryKeyIndexAccessor(ctx, partition, keyIndexHelperFactory, keyIndexModCallbackFactory);
+        int[] keyFields = Arrays.copyOf(fieldPermutation, numOfPrimaryKeys);
+        key.setFieldPermutation(keyFields);
+        if (filterFieldIndex < 0) {
+            keyIndexEntry.setFieldPermutation(keyFields);
+        } else {
+            int[] entryFields = Arrays.copyOf(fieldPermutation, numOfPrimaryKeys + 1);
+            entryFields[numOfPrimaryKeys] = fieldPermutation[filterFieldIndex];
+            keyIndexEntry.setFieldPermutation(entryFields);
+        }
+    }
+
+    @Override
+    public void open() throws HyracksDataException {
+        super.open();
+        try {
+            // the modification callback only logs, the locks are taken through the search callback
+            ((AbstractIndexModificationOperationCallback) modCallback).setOp(Operation.INSERT);
+            searchCallback = (LockThenSearchOperationCallback) searchCallbackFactory
+                    .createSearchOperationCallback(indexHelper.getResource().getId(), ctx, this);
+            keySearchCmp = BTreeUtils.getSearchMultiComparator(
+                    ((ITreeIndex) indexHelper.getIndexInstance()).getComparatorFactories(), key);
+            keyIndex.open(ctx, this);
+        } catch (Throwable th) {
+            throw HyracksDataException.create(th);
+        }
+    }
+
+    @Override
+    protected void insert(ILSMIndexAccessor lsmAccessor, int tupleIndex) throws HyracksDataException {
+        key.reset(accessor, tupleIndex);
+        searchCallback.before(key); // lock
+        boolean indexed = keyIndex.contains(key, keySearchCmp);
+        ((LSMBTreeOpContext) lsmAccessor.getOpContext()).setDiskDuplicateCheck(indexed || !keyIndex.isComplete());
+        super.insert(lsmAccessor, tupleIndex);
+        if (!indexed) {
+            keyIndexEntry.reset(accessor, tupleIndex);
+            keyIndex.insert(keyIndexEntry);
+        }
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        try {
+            keyIndex.close();
+        } finally {
+            super.close();
+        }
+    }
+}
@@ -43,6 +43,8 @@ public class LSMPrimaryUpsertOperatorDescriptor extends LSMTreeInsertDeleteOpera
     private final int numPrimaryKeys;
     private final IMissingWriterFactory missingWriterFactory;
     private final boolean hasSecondaries;
+    private final IIndexDataflowHelperFactory keyIndexHelperFactory;
+    private final IModificationOperationCallbackFactory keyIndexModCallbackFactory;
 
     public LSMPrimaryUpsertOperatorDescriptor(IOperatorDescriptorRegistry spec, RecordDescriptor outRecDesc,
             int[] fieldPermutation, IIndexDataflowHelperFactory indexHelperFactory,
@@ -51,6 +53,27 @@ public class LSMPrimaryUpsertOperatorDescriptor extends LSMTreeInsertDeleteOpera
             ISearchOperationCallbackFactory searchOpCallbackFactory,
             IFrameOperationCallbackFactory frameOpCallbackFactory, int numPrimaryKeys, ARecordType recordType,
             int filterIndex, boolean hasSecondaries) {
+        this(spec, outRecDesc, fieldPermutation, indexHelperFactory, missingWriterFactory,
+                modificationOpCallbackFactory, searchOpCallbackFactory, frameOpCallbackFactory, numPrimaryKeys,
+                recordType, filterIndex, hasSecondaries, null, null);
+    }
+
+    /**
+     * @param hasSecondaries
+     *            whether the dataset has secondary indexes other than the primary key index
+     * @param keyIndexHelperFactory
+     *            the helper factory of the primary key index of the dataset, or null if it has none
+     * @param keyIndexModCallbackFactory
+     *            the modification callback factory of the primary key index, or null if the dataset has none
+     */
+    public LSMPrimaryUpsertOperatorDescriptor(IOperatorDescriptorRegistry spec, RecordDescriptor outRecDesc,
+            int[] fieldPermutation, IIndexDataflowHelperFactory indexHelperFactory,
+            IMissingWriterFactory missingWriterFactory,
+            IModificationOperationCallbackFactory modificationOpCallbackFactory,
+            ISearchOperationCallbackFactory searchOpCallbackFactory,
+            IFrameOperationCallbackFactory frameOpCallbackFactory, int numPrimaryKeys, ARecordType recordType,
+            int filterIndex, boolean hasSecondaries, IIndexDataflowHelperFactory keyIndexHelperFactory,
+            IModificationOperationCallbackFactory keyIndexModCallbackFactory) {
         super(spec, outRecDesc, fieldPermutation, IndexOperation.UPSERT, indexHelperFactory, null, true,
                 modificationOpCallbackFactory);
         this.frameOpCallbackFactory = frameOpCallbackFactory;
@@ -60,6 +83,8 @@ public class LSMPrimaryUpsertOperatorDescriptor extends LSMTreeInsertDeleteOpera
         this.recordType = recordType;
         this.filterIndex = filterIndex;
         this.hasSecondaries = hasSecondaries;
+        this.keyIndexHelperFactory = keyIndexHelperFactory;
+        this.keyIndexModCallbackFactory = keyIndexModCallbackFactory;
     }
 
     @Override
@@ -68,6 +93,7 @@ public class LSMPrimaryUpsertOperatorDescriptor extends LSMTreeInsertDeleteOpera
         RecordDescriptor intputRecDesc = recordDescProvider.getInputRecordDescriptor(getActivityId(), 0);
         return new LSMPrimaryUpsertOperatorNodePushable(ctx, partition, indexHelperFactory, fieldPermutation,
                 intputRecDesc, modCallbackFactory, searchOpCallbackFactory, numPrimaryKeys, recordType, filterIndex,
-                frameOpCallbackFactory, missingWriterFactory, hasSecondaries);
+                frameOpCallbackFactory, missingWriterFactory, hasSecondaries, keyIndexHelperFactory,
+                keyIndexModCallbackFactory);
     }
 }
@@ -55,8 +55,10 @@ import org.apache.hyracks.storage.am.common.api.ISearchOperationCallbackFactory;
 import org.apache.hyracks.storage.am.common.api.ITreeIndex;
 import org.apache.hyracks.storage.am.common.dataflow.IIndexDataflowHelperFactory;
 import org.apache.hyracks.storage.am.common.impls.IndexAccessParameters;
+import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
 import org.apache.hyracks.storage.am.common.ophelpers.IndexOperation;
 import org.apache.hyracks.storage.am.common.tuples.PermutingFrameTupleReference;
+import org.apache.hyracks.storage.am.common.tuples.PermutingTupleReference;
 import org.apache.hyracks.storage.am.lsm.common.api.IFrameOperationCallback;
 import org.apache.hyracks.storage.am.lsm.common.api.IFrameOperationCallbackFactory;
 import org.apache.hyracks.storage.am.lsm.common.api.IFrameTupleProcessor;
@@ -81,6 +83,8 @@ public class LSMPrimaryUpsertOperatorNodePushable extends LSMIndexInsertUpdateDe
     private ITupleReference prevTuple;
     private final int numOfPrimaryKeys;
     boolean isFiltered = false;
+    // whether the index extracts its filter values from the records rather than reading them at the filter field
+    private boolean isFilterExtracted;
     private final ArrayTupleReference prevTupleWithFilter = new ArrayTupleReference();
     private ArrayTupleBuilder prevRecWithPKWithFilterValue;
     private ARecordType recordType;
@@ -98,15 +102,23 @@ public class LSMPrimaryUpsertOperatorNodePushable extends LSMIndexInsertUpdateDe
     private final IFrameTupleProcessor processor;
     private LSMTreeIndexAccessor lsmAccessor;
     private IIndexAccessParameters iap;
+    // null if the dataset has no primary key index
+    private final PrimaryKeyIndexAccessor keyIndex;
+    // the primary keys, followed by the filter value if the dataset is filtered
+    private PermutingTupleReference keyIndexEntry;
 
     public LSMPrimaryUpsertOperatorNodePushable(IHyracksTaskContext ctx, int partition,
             IIndexDataflowHelperFactory indexHelperFactory, int[] fieldPermutation, RecordDescriptor inputRecDesc,
             IModificationOperationCallbackFactory modCallbackFactory,
             ISearchOperationCallbackFactory searchCallbackFactory, int numOfPrimaryKeys, ARecordType recordType,
             int filterFieldIndex, IFrameOperationCallbackFactory frameOpCallbackFactory,
-            IMissingWriterFactory missingWriterFactory, final boolean hasSecondaries) throws HyracksDataException {
+            IMissingWriterFactory missingWriterFactory, final boolean hasSecondaries,
+            IIndexDataflowHelperFactory keyIndexHelperFactory,
+            IModificationOperationCallbackFactory keyIndexModCallbackFactory) throws HyracksDataException {
         super(ctx, partition, indexHelperFactory, fieldPermutation, inputRecDesc, IndexOperation.UPSERT,
                 modCallbackFactory, null);
+        this.keyIndex = keyIndexHelperFactory == null ? null
+                : new PrimaryKeyIndexAccessor(ctx, partition, keyIndexHelperFactory, keyIndexModCallbackFactory);
         this.key = new PermutingFrameTupleReference();
         this.searchCallbackFactory = searchCallbackFactory;
         this.numOfPrimaryKeys = numOfPrimaryKeys;
@@ -129,6 +141,16 @@ public class LSMPrimaryUpsertOperatorNodePushable extends LSMIndexInsertUpdateDe
             this.prevRecWithPKWithFilterValue = new ArrayTupleBuilder(fieldPermutation.length + (hasMeta ? 1 : 0));
             this.prevDos = prevRecWithPKWithFilterValue.getDataOutput();
         }
+        if (keyIndex != null) {
+            int[] entryFields = new int[numOfPrimaryKeys + (isFiltered ? 1 : 0)];
+            for (int i = 0; i < numOfPrimaryKeys; i++) {
+                entryFields[i] = i;
+            }
+            if (isFiltered) {
+                entryFields[numOfPrimaryKeys] = this.filterFieldIndex;
+            }
+            keyIndexEntry = new PermutingTupleReference(entryFields);
+        }
         processor = new IFrameTupleProcessor() {
             @Override
             public void process(ITupleReference tuple, int index) throws HyracksDataException {
@@ -138,11 +160,21 @@ public class LSMPrimaryUpsertOperatorNodePushable extends LSMIndexInsertUpdateDe
                     boolean recordWasDeleted = false;
                     boolean isDelete = isDeleteOperation(tuple, numOfPrimaryKeys);
                     resetSearchPredicate(index);
-                    if (isFiltered || isDelete || hasSecondaries) {
+                    // without a complete primary key index, the key has to be assumed to exist
+                    boolean keyExists = true;
+                    if (keyIndex != null) {
+                        searchCallback.before(key); // lock
+                        keyExists = !keyIndex.isComplete() || keyIndex.contains(key, keySearchCmp);
+                    }
+                    if (keyExists && (isFiltered || isFilterExtracted || isDelete || hasSecondaries)) {
                         lsmAccessor.search(cursor, searchPred);
                         if (cursor.hasNext()) {
                             cursor.next();
                             prevTuple = cursor.getTuple();
+                            if (isFilterExtracted) {
+                                // the filter of the new component has to cover the previous values, which it hides
+                                lsmAccessor.updateFilter(prevTuple);
+                            }
                             cursor.close(); // end the search
                             appendFilterToPrevTuple();
                             appendPrevRecord();
@@ -152,7 +184,9 @@ public class LSMPrimaryUpsertOperatorNodePushable extends LSMIndexInsertUpdateDe
                             appendPreviousTupleAsMissing();
                         }
                     } else {
-                        searchCallback.before(key); // lock
+                        if (keyIndex == null) {
+                            searchCallback.before(key); // lock
+                        }
                         appendPreviousTupleAsMissing();
                     }
                     if (isDelete && prevTuple != null) {
@@ -166,7 +200,23 @@ public class LSMPrimaryUpsertOperatorNodePushable extends LSMIndexInsertUpdateDe
                         lsmAccessor.forceUpsert(tuple);
                         recordWasInserted = true;
                     }
-                    if (isFiltered && prevTuple != null) {
+                    if (keyIndex != null) {
+                        if (recordWasDeleted) {
+                            // only the copy of the previous tuple made for the filter outlives the delete
+                            keyIndexEntry.reset(isFiltered ? prevTuple : tuple);
+                            keyIndex.delete(keyIndexEntry);
+                        } else if (recordWasInserted && !keyExists) {
+                            keyIndexEntry.reset(tuple);
+                            keyIndex.insert(keyIndexEntry);
+                        } else if (recordWasInserted && (isFiltered || !keyIndex.isComplete())) {
+                            // the entry moves to the new component along with the record, whose filter value may
+                            // have changed, or it may be missing from an incomplete index. the key may already be in
+                            // the memory component, so it is replaced
+                            keyIndexEntry.reset(tuple);
+                            keyIndex.upsert(keyIndexEntry);
+                        }
+                    }
+                    if (isFiltered && !isFilterExtracted && prevTuple != null) {
                         // need to update the filter of the new component with the previous value
                         lsmAccessor.updateFilter(prevTuple);
                     }
@@ -222,11 +272,17 @@ public class LSMPrimaryUpsertOperatorNodePushable extends LSMIndexInsertUpdateDe
             abstractModCallback = (AbstractIndexModificationOperationCallback) modCallback;
             searchCallback = (LockThenSearchOperationCallback) searchCallbackFactory
                     .createSearchOperationCallback(indexHelper.getResource().getId(), ctx, this);
-            iap = new IndexAccessParameters(abstractModCallback, searchCallback);
+            // with a primary key index, keys are locked before they are looked up there rather than by the search
+            iap = new IndexAccessParameters(abstractModCallback,
+                    keyIndex == null ? searchCallback : NoOpOperationCallback.INSTANCE);
             indexAccessor = index.createAccessor(iap);
             lsmAccessor = (LSMTreeIndexAccessor) indexAccessor;
+            isFilterExtracted = ((AbstractLSMIndex) index).getFilterExtractorFactory() != null;
             cursor = indexAccessor.createSearchCursor(false);
             frameTuple = new FrameTupleReference();
+            if (keyIndex != null) {
+                keyIndex.open(ctx, this);
+            }
             INcApplicationContext appCtx =
                     (INcApplicationContext) ctx.getJobletContext().getServiceContext().getApplicationContext();
             LSMIndexUtil.checkAndSetFirstLSN((AbstractLSMIndex) index,
@@ -243,7 +299,13 @@ public class LSMPrimaryUpsertOperatorNodePushable extends LSMIndexInsertUpdateDe
             };
 
         } catch (Exception e) {
-            indexHelper.close();
+            try {
+                if (keyIndex != null) {
+                    keyIndex.close();
+                }
+            } finally {
+                indexHelper.close();
+            }
             throw new HyracksDataException(e);
         }
     }
@@ -367,7 +429,13 @@ public class LSMPrimaryUpsertOperatorNodePushable extends LSMIndexInsertUpdateDe
                 writer.close();
             }
         } finally {
-            indexHelper.close();
+            try {
+                if (keyIndex != null) {
+                    keyIndex.close();
+                }
+            } finally {
+                indexHelper.close();
+            }
         }
     }
 
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.operators;
+
+import org.apache.asterix.common.api.INcApplicationContext;
+import org.apache.asterix.common.dataflow.LSMIndexUtil;
+import org.apache.asterix.transaction.management.opcallbacks.AbstractIndexModificationOperationCallback;
+import org.apache.asterix.transaction.management.opcallbacks.AbstractIndexModificationOperationCallback.Operation;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.common.api.IIndexDataflowHelper;
+import org.apache.hyracks.storage.am.common.api.IModificationOperationCallbackFactory;
+import org.apache.hyracks.storage.am.common.dataflow.IIndexDataflowHelperFactory;
+import org.apache.hyracks.storage.am.common.impls.IndexAccessParameters;
+import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTree;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.impls.AbstractLSMIndex;
+import org.apache.hyracks.storage.common.IIndexCursor;
+import org.apache.hyracks.storage.common.MultiComparator;
+
+/**
+ * Access to the primary key index of a dataset (the secondary B-tree created with CREATE PRIMARY INDEX), used by the
+ * primary index insert and upsert operators. The index only holds the primary keys and keeps bloom filters on them,
+ * so checking whether a key exists reads far fewer pages than a search of the primary index. The operators that use
+ * it also keep it up to date, in the same step in which they modify the primary index. Key indexes created before
+ * that could miss the keys of upserted records, so only a complete index (see {@link #isComplete()}) tells that a key
+ * is not in the dataset.
+ * The caller must hold the lock on the primary key before calling any method.
+ */
+class PrimaryKeyIndexAccessor {
+
+    private final IIndexDataflowHelper indexHelper;
+    private final IModificationOperationCallbackFactory modCallbackFactory;
+    private AbstractIndexModificationOperationCallback modCallback;
+    private ILSMIndexAccessor accessor;
+    private IIndexCursor cursor;
+    // the index operation context keeps the last search predicate and reuses it for inserts, so it cannot be shared
+    private final RangePredicate keyPredicate = new RangePredicate();
+    private boolean isOpen;
+    private boolean complete;
+
+    PrimaryKeyIndexAccessor(IHyracksTaskContext ctx, int partition, IIndexDataflowHelperFactory indexHelperFactory,
+            IModificationOperationCallbackFactory modCallbackFactory) throws HyracksDataException {
+        this.indexHelper = indexHelperFactory.create(ctx.getJobletContext().getServiceContext(), partition);
+        this.modCallbackFactory = modCallbackFactory;
+    }
+
+    void open(IHyracksTaskContext ctx, IOperatorNodePushable operator) throws HyracksDataException {
+        indexHelper.open();
+        isOpen = true;
+        AbstractLSMIndex index = (AbstractLSMIndex) indexHelper.getIndexInstance();
+        // key indexes got bloom filters along with their maintenance by the insert and upsert operators, the older
+        // ones were not maintained by upserts
+        complete = ((LSMBTree) index).hasBloomFilter();
+        modCallback = (AbstractIndexModificationOperationCallback) modCallbackFactory
+                .createModificationOperationCallback(indexHelper.getResource(), ctx, operator);
+        accessor = index.createAccessor(new IndexAccessParameters(modCallback, NoOpOperationCallback.INSTANCE));
+        cursor = accessor.createSearchCursor(false);
+        INcApplicationContext appCtx =
+                (INcApplicationContext) ctx.getJobletContext().getServiceContext().getApplicationContext();
+        LSMIndexUtil.checkAndSetFirstLSN(index, appCtx.getTransactionSubsystem().getLogManager());
+    }
+
+    /**
+     * @return true if the index has the keys of all the records of the dataset partition, so that a key that is not
+     *         in the index is not in the primary index either
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @param key
+     *            the primary key fields
+     * @param keyCmp
+     *            a comparator on all the primary key fields
+     * @return true if the key is in the index
+     */
+    boolean contains(ITupleReference key, MultiComparator keyCmp) throws HyracksDataException {
+        keyPredicate.reset(key, key, true, true, keyCmp, keyCmp);
+        accessor.search(cursor, keyPredicate);
+        try {
+            return cursor.hasNext();
+        } finally {
+            cursor.close();
+        }
+    }
+
+    void insert(ITupleReference key) throws HyracksDataException {
+        modCallback.setOp(Operation.INSERT);
+        accessor.forceInsert(key);
+    }
+
+    void upsert(ITupleReference key) throws HyracksDataException {
+        modCallback.setOp(Operation.UPSERT);
+        accessor.forceUpsert(key);
+    }
+
+    void delete(ITupleReference key) throws HyracksDataException {
+        modCallback.setOp(Operation.DELETE);
+        accessor.forceDelete(key);
+    }
+
+    void close() throws HyracksDataException {
+        if (!isOpen) {
+            return;
+        }
+        try {
+            if (cursor != null) {
+                cursor.destroy();
+            }
+        } finally {
+            indexHelper.close();
+        }
+    }
+}
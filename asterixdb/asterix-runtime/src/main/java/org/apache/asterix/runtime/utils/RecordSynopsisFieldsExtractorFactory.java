@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.utils;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.asterix.dataflow.data.nontagged.serde.ARecordSerializerDeserializer;
+import org.apache.asterix.om.types.ARecordType;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.AUnionType;
+import org.apache.asterix.om.types.IAType;
+import org.apache.asterix.om.utils.NonTaggedFormatUtil;
+import org.apache.asterix.om.utils.RecordUtil;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.storage.am.btree.api.ISynopsisFieldsExtractor;
+import org.apache.hyracks.storage.am.btree.api.ISynopsisFieldsExtractorFactory;
+
+/**
+ * Extracts the tagged values of closed record fields from the record stored in a primary index tuple so that the
+ * on-disk B-tree components can keep per-leaf synopses over them.
+ */
+public class RecordSynopsisFieldsExtractorFactory implements ISynopsisFieldsExtractorFactory {
+    private static final long serialVersionUID = 1L;
+
+    private final int recordField;
+    // per synopsis field, the field ids, null bitmap sizes and openness of the records along its path
+    private final int[][] fieldIds;
+    private final int[][] nullBitmapSizes;
+    private final boolean[][] isOpen;
+    private final ATypeTag[] fieldTags;
+
+    /**
+     * @param recordField
+     *            the index of the record in the primary index tuples
+     * @param recordType
+     *            the type of the record
+     * @param fieldPaths
+     *            the full names of the closed fields to extract
+     */
+    public RecordSynopsisFieldsExtractorFactory(int recordField, ARecordType recordType,
+            List<List<String>> fieldPaths) {
+        this.recordField = recordField;
+        int numFields = fieldPaths.size();
+        fieldIds = new int[numFields][];
+        nullBitmapSizes = new int[numFields][];
+        isOpen = new boolean[numFields][];
+        fieldTags = new ATypeTag[numFields];
+        for (int i = 0; i < numFields; i++) {
+            List<String> path = fieldPaths.get(i);
+            fieldIds[i] = new int[path.size()];
+            nullBitmapSizes[i] = new int[path.size()];
+            isOpen[i] = new boolean[path.size()];
+            ARecordType parentType = recordType;
+            IAType fieldType = null;
+            for (int j = 0; j < path.size(); j++) {
+                fieldIds[i][j] = parentType.getFieldIndex(path.get(j));
+                nullBitmapSizes[i][j] = RecordUtil.computeNullBitmapSize(parentType);
+                isOpen[i][j] = parentType.isOpen();
+                fieldType = parentType.getFieldTypes()[fieldIds[i][j]];
+                if (fieldType.getTypeTag() == ATypeTag.UNION) {
+                    fieldType = ((AUnionType) fieldType).getActualType();
+                }
+                if (j < path.size() - 1) {
+                    parentType = (ARecordType) fieldType;
+                }
+            }
+            fieldTags[i] = fieldType.getTypeTag();
+        }
+    }
+
+    @Override
+    public int getFieldCount() {
+        return fieldTags.length;
+    }
+
+    @Override
+    public ISynopsisFieldsExtractor createExtractor() {
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(fieldTags.length);
+        ArrayTupleReference synopsisFields = new ArrayTupleReference();
+        // nested records are copied with their tag, alternating between two buffers along a path
+        ArrayBackedValueStorage[] nestedRecords =
+                new ArrayBackedValueStorage[] { new ArrayBackedValueStorage(), new ArrayBackedValueStorage() };
+        return tuple -> {
+            if (recordField >= tuple.getFieldCount() || tuple.getFieldData(recordField)[tuple
+                    .getFieldStart(recordField)] != ATypeTag.SERIALIZED_RECORD_TYPE_TAG) {
+                // an antimatter tuple, or the missing record of an upsert that deletes
+                return null;
+            }
+            tupleBuilder.reset();
+            DataOutput out = tupleBuilder.getDataOutput();
+            try {
+                for (int i = 0; i < fieldTags.length; i++) {
+                    byte[] data = tuple.getFieldData(recordField);
+                    int start = tuple.getFieldStart(recordField);
+                    int last = fieldIds[i].length - 1;
+                    for (int j = 0; j <= last; j++) {
+                        int offset = ARecordSerializerDeserializer.getFieldOffsetById(data, start, fieldIds[i][j],
+                                nullBitmapSizes[i][j], isOpen[i][j]);
+                        if (offset <= 0) {
+                            // a null or missing value on the path leaves the leaf unbounded
+                            return null;
+                        }
+                        ATypeTag tag = j == last ? fieldTags[i] : ATypeTag.OBJECT;
+                        int length = NonTaggedFormatUtil.getFieldValueLength(data, offset, tag, false);
+                        if (j == last) {
+                            out.writeByte(tag.serialize());
+                            out.write(data, offset, length);
+                        } else {
+                            ArrayBackedValueStorage nestedRecord = nestedRecords[j % 2];
+                            nestedRecord.reset();
+                            nestedRecord.getDataOutput().writeByte(tag.serialize());
+                            nestedRecord.getDataOutput().write(data, offset, length);
+                            data = nestedRecord.getByteArray();
+                            start = nestedRecord.getStartOffset();
+                        }
+                    }
+                    tupleBuilder.addFieldEndOffset();
+                }
+            } catch (IOException e) {
+                throw HyracksDataException.create(e);
+            }
+            synopsisFields.reset(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray());
+            return synopsisFields;
+        };
+    }
+}
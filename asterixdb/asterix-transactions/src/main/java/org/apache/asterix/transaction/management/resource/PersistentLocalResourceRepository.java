@@ -73,6 +73,7 @@ import org.apache.hyracks.storage.am.common.api.ITreeIndexFrame;
 import org.apache.hyracks.storage.am.lsm.common.impls.AbstractLSMIndexFileManager;
 import org.apache.hyracks.storage.common.ILocalResourceRepository;
 import org.apache.hyracks.storage.common.LocalResource;
+import org.apache.hyracks.storage.common.compression.CompressedFileManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -417,6 +418,7 @@ public class PersistentLocalResourceRepository implements ILocalResourceReposito
                 if (fileStartTime.after(validTimestamp)) {
                     LOGGER.info(() -> "Deleting invalid component file: " + componentFile.getAbsolutePath());
                     Files.delete(componentFile.toPath());
+                    CompressedFileManager.delete(componentFile);
                 }
             }
         }
@@ -444,6 +446,7 @@ public class PersistentLocalResourceRepository implements ILocalResourceReposito
             for (File maskedFile : maskedFiles) {
                 LOGGER.info(() -> "deleting masked file: " + maskedFile.getAbsolutePath());
                 Files.delete(maskedFile.toPath());
+                CompressedFileManager.delete(maskedFile);
             }
         }
     }
@@ -22,8 +22,10 @@ package org.apache.asterix.transaction.management.service.locking;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.asterix.common.exceptions.ACIDException;
 import org.apache.asterix.common.transactions.DatasetId;
@@ -38,9 +40,21 @@ import org.apache.logging.log4j.Logger;
 
 /**
  * A concurrent implementation of the ILockManager interface.
+ * If an escalation threshold is configured, locks are hierarchical: a transaction takes an intention lock on the
+ * granule of a dataset before it locks entities of the dataset and once it holds as many entity locks on the dataset
+ * as the threshold, they are escalated to an X lock on the granule. Waiting for the granule while holding entity locks
+ * could introduce a deadlock, which {@link #enqueueWaiter} detects (when the deadlock-free locking protocol is not
+ * enabled) by aborting the waiting transaction. To not abort transactions for an optimization, an escalation never
+ * waits and only happens if no other transaction holds or waits for a lock on the granule.
+ * The intention or escalated lock on the granule is released as soon as the transaction released all its entity locks
+ * on the dataset, so that entity-level transactions (e.g. feeds) do not keep the granule locked between entities.
+ * A transaction that keeps locking entities might never get there, so a transaction that has to wait for an escalated
+ * lock asks its holder to de-escalate: the holder locks new entities individually again and turns the escalated lock
+ * into an IX lock once it released the entities that the escalated lock covers.
  *
  * @see ResourceGroupTable
  * @see ResourceGroup
+ * @see DatasetGranule
  */
 public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent {
 
@@ -54,12 +68,19 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
     public static final boolean DEBUG_MODE = false;//true
     public static final boolean CHECK_CONSISTENCY = false;
 
+    // the granule of a dataset is stored as a resource of a (negative) dataset id that no entity can have
+    static final int GRANULE_HASH = 0;
+
     private ResourceGroupTable table;
     private ResourceArenaManager resArenaMgr;
     private RequestArenaManager reqArenaMgr;
     private JobArenaManager jobArenaMgr;
     private ConcurrentHashMap<Long, Long> txnId2TxnSlotMap;
     private LockManagerStats stats = new LockManagerStats(10000);
+    private final int escalationThreshold;
+    private final ConcurrentHashMap<Long, Map<Integer, DatasetGranule>> txnId2Granules;
+    // the number of escalated granules, instant locks only need to look at the granules if there are any
+    private final AtomicInteger escalatedGranules = new AtomicInteger();
 
     enum LockAction {
         ERR(false, false),
@@ -86,18 +107,30 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
             { LockAction.ERR, LockAction.WAIT, LockAction.WAIT, LockAction.WAIT, LockAction.WAIT } // X
     };
 
-    public ConcurrentLockManager(final int lockManagerShrinkTimer) throws ACIDException {
-        this(lockManagerShrinkTimer, Runtime.getRuntime().availableProcessors() * 2, 1024);
+    public ConcurrentLockManager(final int lockManagerShrinkTimer, final int escalationThreshold) throws ACIDException {
+        this(lockManagerShrinkTimer, Runtime.getRuntime().availableProcessors() * 2, 1024, escalationThreshold);
         // TODO increase table size?
     }
 
     public ConcurrentLockManager(final int lockManagerShrinkTimer, final int noArenas, final int tableSize)
             throws ACIDException {
+        this(lockManagerShrinkTimer, noArenas, tableSize, 0);
+    }
+
+    /**
+     * @param escalationThreshold
+     *            the number of entity locks that a transaction can hold on a dataset before they are escalated to a
+     *            lock on the dataset granule, 0 disables lock escalation and intention locks
+     */
+    public ConcurrentLockManager(final int lockManagerShrinkTimer, final int noArenas, final int tableSize,
+            final int escalationThreshold) throws ACIDException {
         this.table = new ResourceGroupTable(tableSize);
         resArenaMgr = new ResourceArenaManager(noArenas, lockManagerShrinkTimer);
         reqArenaMgr = new RequestArenaManager(noArenas, lockManagerShrinkTimer);
         jobArenaMgr = new JobArenaManager(noArenas, lockManagerShrinkTimer);
         txnId2TxnSlotMap = new ConcurrentHashMap<>();
+        this.escalationThreshold = escalationThreshold;
+        txnId2Granules = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -108,6 +141,15 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
 
         final long txnId = txnContext.getTxnId().getId();
         final long jobSlot = findOrAllocJobSlot(txnId);
+        DatasetGranule granule = null;
+        if (escalationThreshold > 0) {
+            granule = getGranule(txnId, datasetId.getId());
+            if (granule.lockEntity()) {
+                // the entity is covered by the escalated lock on the granule
+                return;
+            }
+            lockIntention(granule, lockMode, jobSlot, txnContext, true);
+        }
         final ResourceGroup group = table.get(datasetId.getId(), entityHashValue);
         group.getLatch();
         try {
@@ -151,6 +193,10 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
             group.releaseLatch();
         }
 
+        if (granule != null && lockMode == LockMode.X) {
+            tryEscalate(granule, jobSlot);
+        }
+
         if (CHECK_CONSISTENCY) {
             assertLocksCanBefoundInJobQueue();
         }
@@ -330,6 +376,7 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
         stats.instantLock();
 
         final long txnId = txnContext.getTxnId().getId();
+        instantLockGranule(datasetId.getId(), txnContext, true);
         final ResourceGroup group = table.get(datasetId.getId(), entityHashValue);
         if (group.firstResourceIndex.get() == NILL) {
             validateJob(txnContext);
@@ -392,7 +439,20 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
 
         final long txnId = txnContext.getTxnId().getId();
         final long jobSlot = findOrAllocJobSlot(txnId);
+        DatasetGranule granule = null;
+        if (escalationThreshold > 0) {
+            granule = getGranule(txnId, datasetId.getId());
+            if (granule.lockEntity()) {
+                // the entity is covered by the escalated lock on the granule
+                return true;
+            }
+            if (!lockIntention(granule, lockMode, jobSlot, txnContext, false)) {
+                releaseEntity(granule, jobSlot, false);
+                return false;
+            }
+        }
         final ResourceGroup group = table.get(datasetId.getId(), entityHashValue);
+        final boolean locked;
         group.getLatch();
 
         try {
@@ -408,16 +468,27 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
                     // no break
                 case GET:
                     addHolder(reqSlot, resSlot, jobSlot);
-                    return true;
+                    locked = true;
+                    break;
                 case WAIT:
                 case CONV:
-                    return false;
+                    locked = false;
+                    break;
                 default:
                     throw new IllegalStateException();
             }
         } finally {
             group.releaseLatch();
         }
+
+        if (granule != null) {
+            if (!locked) {
+                releaseEntity(granule, jobSlot, false);
+            } else if (lockMode == LockMode.X) {
+                tryEscalate(granule, jobSlot);
+            }
+        }
+        return locked;
     }
 
     @Override
@@ -427,6 +498,9 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
         stats.instantTryLock();
 
         final long txnId = txnContext.getTxnId().getId();
+        if (!instantLockGranule(datasetId.getId(), txnContext, false)) {
+            return false;
+        }
         final ResourceGroup group = table.get(datasetId.getId(), entityHashValue);
         if (group.firstResourceIndex.get() == NILL) {
             validateJob(txnContext);
@@ -471,10 +545,26 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
         final long txnId = txnContext.getTxnId().getId();
         final long jobSlot = txnId2TxnSlotMap.get(txnId);
 
-        unlock(datasetId.getId(), entityHashValue, lockMode, jobSlot);
+        final DatasetGranule granule = escalationThreshold > 0 ? findGranule(txnId, datasetId.getId()) : null;
+        if (granule == null) {
+            unlock(datasetId.getId(), entityHashValue, lockMode, jobSlot, true);
+            return;
+        }
+        // the entity lock might have been released when the entity locks were escalated
+        final boolean covered = !unlock(datasetId.getId(), entityHashValue, lockMode, jobSlot, false);
+        if (covered && !granule.isEscalated()) {
+            throw new IllegalStateException("resource (" + datasetId.getId() + ",  " + entityHashValue + ") not found");
+        }
+        releaseEntity(granule, jobSlot, covered);
     }
 
-    private void unlock(int dsId, int entityHashValue, byte lockMode, long jobSlot) throws ACIDException {
+    /**
+     * @param mustExist
+     *            whether a missing lock is an error
+     * @return false if the job does not hold the lock
+     */
+    private boolean unlock(int dsId, int entityHashValue, byte lockMode, long jobSlot, boolean mustExist)
+            throws ACIDException {
         log("unlock", dsId, entityHashValue, lockMode, null);
         stats.unlock();
 
@@ -484,6 +574,9 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
 
             long resource = findResourceInGroup(group, dsId, entityHashValue);
             if (resource < 0) {
+                if (!mustExist) {
+                    return false;
+                }
                 throw new IllegalStateException("resource (" + dsId + ",  " + entityHashValue + ") not found");
             }
 
@@ -491,6 +584,9 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
                 assertLocksCanBefoundInJobQueue();
             }
 
+            if (!mustExist && !holdsLock(resource, jobSlot, lockMode)) {
+                return false;
+            }
             long holder = removeLastHolder(resource, jobSlot, lockMode);
 
             // deallocate request
@@ -498,6 +594,7 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
                 LOGGER.trace("del req slot " + TypeUtil.Global.toString(holder));
             }
             reqArenaMgr.deallocate(holder);
+            stats.lockReleased();
             // deallocate resource or fix max lock mode
             if (resourceNotUsed(resource)) {
                 long prev = group.firstResourceIndex.get();
@@ -522,6 +619,7 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
         } finally {
             group.releaseLatch();
         }
+        return true;
     }
 
     @Override
@@ -549,11 +647,21 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
             long resource = reqArenaMgr.getResourceId(holder);
             int dsId = resArenaMgr.getDatasetId(resource);
             int pkHashVal = resArenaMgr.getPkHashVal(resource);
-            unlock(dsId, pkHashVal, LockMode.ANY, jobSlot);
+            unlock(dsId, pkHashVal, LockMode.ANY, jobSlot, true);
             synchronized (jobArenaMgr) {
                 holder = jobArenaMgr.getLastHolder(jobSlot);
             }
         }
+        if (escalationThreshold > 0) {
+            final Map<Integer, DatasetGranule> granules = txnId2Granules.remove(txnId);
+            if (granules != null) {
+                for (DatasetGranule granule : granules.values()) {
+                    if (granule.clear()) {
+                        escalatedGranules.decrementAndGet();
+                    }
+                }
+            }
+        }
         if (DEBUG_MODE) {
             LOGGER.trace("del job slot " + TypeUtil.Global.toString(jobSlot));
         }
@@ -683,6 +791,7 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
     }
 
     private void addHolder(long request, long resource, long job) {
+        stats.lockHeld();
         long lastHolder = resArenaMgr.getLastHolder(resource);
         reqArenaMgr.setNextRequest(request, lastHolder);
         resArenaMgr.setLastHolder(resource, request);
@@ -694,6 +803,317 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
         }
     }
 
+    private DatasetGranule getGranule(long txnId, int dsId) {
+        Map<Integer, DatasetGranule> granules = txnId2Granules.get(txnId);
+        if (granules == null) {
+            granules = txnId2Granules.computeIfAbsent(txnId, id -> new ConcurrentHashMap<>());
+        }
+        DatasetGranule granule = granules.get(dsId);
+        if (granule == null) {
+            granule = granules.computeIfAbsent(dsId, id -> new DatasetGranule(id, escalationThreshold));
+        }
+        return granule;
+    }
+
+    private DatasetGranule findGranule(long txnId, int dsId) {
+        final Map<Integer, DatasetGranule> granules = txnId2Granules.get(txnId);
+        return granules != null ? granules.get(dsId) : null;
+    }
+
+    private static int granuleId(int dsId) {
+        return -dsId - 1;
+    }
+
+    /**
+     * acquires the intention lock on the granule of a dataset that is needed to lock an entity of the dataset
+     *
+     * @param wait
+     *            whether to wait if another transaction escalated its entity locks on the dataset
+     * @return false if the caller does not want to wait and the granule is escalated by another transaction
+     */
+    private boolean lockIntention(DatasetGranule granule, byte lockMode, long jobSlot, ITransactionContext txnContext,
+            boolean wait) throws ACIDException {
+        final byte intention = lockMode == LockMode.X || lockMode == LockMode.IX ? LockMode.IX : LockMode.IS;
+        if (granule.holdsIntention(intention)) {
+            return true;
+        }
+        final int granuleId = granuleId(granule.datasetId);
+        final ResourceGroup group = table.get(granuleId, GRANULE_HASH);
+        long reqSlot = NILL;
+        group.getLatch();
+        try {
+            final long resSlot = findOrAllocResourceSlot(group, granuleId, GRANULE_HASH);
+            while (true) {
+                if (granule.intentionMode >= intention || holdsLock(resSlot, jobSlot, LockMode.X)) {
+                    // another thread of the transaction took the intention lock or escalated the entity locks
+                    return true;
+                }
+                final LockAction act = ACTION_MATRIX[resArenaMgr.getMaxMode(resSlot)][intention];
+                switch (act) {
+                    case UPD:
+                        resArenaMgr.setMaxMode(resSlot, intention);
+                        // no break
+                    case GET:
+                        if (reqSlot == NILL) {
+                            reqSlot = allocRequestSlot(resSlot, jobSlot, intention);
+                        }
+                        addHolder(reqSlot, resSlot, jobSlot);
+                        if (intention > granule.intentionMode) {
+                            granule.intentionMode = intention;
+                        }
+                        return true;
+                    case WAIT:
+                        requestDeescalation(resSlot, granule.datasetId);
+                        if (resArenaMgr.getMaxMode(resSlot) != LockMode.X) {
+                            // the escalated lock was de-escalated right away
+                            continue;
+                        }
+                        if (!wait) {
+                            return false;
+                        }
+                        if (reqSlot == NILL) {
+                            reqSlot = allocRequestSlot(resSlot, jobSlot, intention);
+                        }
+                        enqueueWaiter(group, reqSlot, resSlot, jobSlot, act, txnContext);
+                        break;
+                    case ERR:
+                    default:
+                        throw new IllegalStateException();
+                }
+            }
+        } catch (InterruptedException e) {
+            throw new WaitInterruptedException(txnContext, "interrupted", e);
+        } finally {
+            group.releaseLatch();
+        }
+    }
+
+    /**
+     * an instant lock on an entity also has to wait for an escalated lock of another transaction on the granule of
+     * the dataset, as the entities that are covered by it are not locked individually
+     *
+     * @param wait
+     *            whether to wait if another transaction escalated its entity locks on the dataset
+     * @return false if the caller does not want to wait and the granule is escalated by another transaction
+     */
+    private boolean instantLockGranule(int dsId, ITransactionContext txnContext, boolean wait) throws ACIDException {
+        if (escalatedGranules.get() == 0) {
+            return true;
+        }
+        final int granuleId = granuleId(dsId);
+        final ResourceGroup group = table.get(granuleId, GRANULE_HASH);
+        long reqSlot = NILL;
+        group.getLatch();
+        try {
+            final long resSlot = findResourceInGroup(group, granuleId, GRANULE_HASH);
+            if (resSlot < 0) {
+                return true;
+            }
+            final long jobSlot = findOrAllocJobSlot(txnContext.getTxnId().getId());
+            while (resArenaMgr.getMaxMode(resSlot) == LockMode.X && !holdsLock(resSlot, jobSlot, LockMode.X)) {
+                requestDeescalation(resSlot, dsId);
+                if (resArenaMgr.getMaxMode(resSlot) != LockMode.X) {
+                    break;
+                }
+                if (!wait) {
+                    return false;
+                }
+                if (reqSlot == NILL) {
+                    reqSlot = allocRequestSlot(resSlot, jobSlot, LockMode.IS);
+                }
+                enqueueWaiter(group, reqSlot, resSlot, jobSlot, LockAction.WAIT, txnContext);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            throw new WaitInterruptedException(txnContext, "interrupted", e);
+        } finally {
+            if (reqSlot != NILL) {
+                reqArenaMgr.deallocate(reqSlot);
+            }
+            group.releaseLatch();
+        }
+    }
+
+    /**
+     * escalates the entity locks of a job on a dataset to an X lock on the granule of the dataset once the job holds
+     * enough of them. The escalation is only done if no other job holds or waits for a lock on the granule,
+     * otherwise it is retried after another threshold of entity locks.
+     */
+    private void tryEscalate(DatasetGranule granule, long jobSlot) throws ACIDException {
+        final int entityLocks = granule.getEntityLocks();
+        if (entityLocks < granule.nextEscalation || granule.isEscalated()) {
+            return;
+        }
+        final int granuleId = granuleId(granule.datasetId);
+        final ResourceGroup group = table.get(granuleId, GRANULE_HASH);
+        boolean escalated = false;
+        group.getLatch();
+        try {
+            final long resSlot = findResourceInGroup(group, granuleId, GRANULE_HASH);
+            if (resSlot != NILL && !hasOtherHolders(resSlot, jobSlot) && resArenaMgr.getFirstWaiter(resSlot) == NILL
+                    && resArenaMgr.getFirstUpgrader(resSlot) == NILL) {
+                if (!granule.escalate()) {
+                    // another thread of the job escalated the entity locks
+                    return;
+                }
+                setGranuleMode(resSlot, jobSlot, LockMode.X);
+                escalatedGranules.incrementAndGet();
+                escalated = true;
+            }
+        } finally {
+            group.releaseLatch();
+        }
+        if (!escalated) {
+            granule.nextEscalation = entityLocks + escalationThreshold;
+            stats.escalationFailed();
+            return;
+        }
+        stats.escalate();
+        releaseEntityLocks(granule, jobSlot);
+        if (granule.endEscalation()) {
+            deescalate(granule, jobSlot);
+        } else if (granule.getEntityLocks() == 0) {
+            // the job released all its entity locks on the dataset while they were escalated
+            releaseGranule(granule, jobSlot);
+        }
+    }
+
+    /**
+     * releases the entity locks of a job on a dataset that are covered by its escalated lock on the granule
+     */
+    private void releaseEntityLocks(DatasetGranule granule, long jobSlot) throws ACIDException {
+        final int dsId = granule.datasetId;
+        final ArrayList<Integer> entities = new ArrayList<>();
+        synchronized (jobArenaMgr) {
+            long holder = jobArenaMgr.getLastHolder(jobSlot);
+            while (holder != NILL) {
+                final long resource = reqArenaMgr.getResourceId(holder);
+                if (resArenaMgr.getDatasetId(resource) == dsId) {
+                    entities.add(resArenaMgr.getPkHashVal(resource));
+                }
+                holder = reqArenaMgr.getNextJobRequest(holder);
+            }
+        }
+        for (int entityHashValue : entities) {
+            // counted before the lock is released, so that the granule is not de-escalated while it covers the entity
+            granule.cover();
+            if (!unlock(dsId, entityHashValue, LockMode.ANY, jobSlot, false)) {
+                granule.uncover();
+            }
+        }
+    }
+
+    /**
+     * counts a released entity lock and releases the intention or escalated lock of the job on the granule once the
+     * job released all its entity locks on the dataset, or de-escalates the escalated lock once it no longer covers
+     * any entity if another job waits for it
+     *
+     * @param covered
+     *            whether the entity was covered by the escalated lock rather than locked individually
+     */
+    private void releaseEntity(DatasetGranule granule, long jobSlot, boolean covered) throws ACIDException {
+        if (granule.unlockEntity(covered)) {
+            releaseGranule(granule, jobSlot);
+        } else if (covered && granule.canDeescalate()) {
+            deescalate(granule, jobSlot);
+        }
+    }
+
+    private void releaseGranule(DatasetGranule granule, long jobSlot) throws ACIDException {
+        final int granuleId = granuleId(granule.datasetId);
+        final ResourceGroup group = table.get(granuleId, GRANULE_HASH);
+        final boolean escalated;
+        group.getLatch();
+        try {
+            escalated = granule.isEscalated();
+            if (!granule.beginRelease()) {
+                // another thread of the job locked an entity of the dataset in the meantime
+                return;
+            }
+            try {
+                // the latch is reentrant, so the locks are released before another thread of the job can lock the
+                // granule again
+                while (unlock(granuleId, GRANULE_HASH, LockMode.ANY, jobSlot, false)) {
+                    // the job holds a request per intention mode that it upgraded to
+                }
+            } finally {
+                granule.endRelease();
+            }
+        } finally {
+            group.releaseLatch();
+        }
+        if (escalated) {
+            escalatedGranules.decrementAndGet();
+            stats.deescalate();
+        }
+    }
+
+    /**
+     * asks the job that escalated its entity locks on a dataset to de-escalate, as the caller is about to wait for
+     * its lock on the granule. Must be called under the granule latch.
+     */
+    private void requestDeescalation(long resSlot, int dsId) throws ACIDException {
+        long holder = resArenaMgr.getLastHolder(resSlot);
+        while (holder != NILL && reqArenaMgr.getLockMode(holder) != LockMode.X) {
+            holder = reqArenaMgr.getNextRequest(holder);
+        }
+        if (holder == NILL) {
+            return;
+        }
+        final long holderJobSlot = reqArenaMgr.getJobSlot(holder);
+        final DatasetGranule granule = findGranule(jobArenaMgr.getTxnId(holderJobSlot), dsId);
+        if (granule != null && granule.requestDeescalation()) {
+            deescalate(granule, holderJobSlot);
+        }
+    }
+
+    /**
+     * turns the escalated lock of a job on a granule into an IX lock, once it no longer covers any entity, and
+     * wakes up the jobs that wait for it
+     */
+    private void deescalate(DatasetGranule granule, long jobSlot) throws ACIDException {
+        final int granuleId = granuleId(granule.datasetId);
+        final ResourceGroup group = table.get(granuleId, GRANULE_HASH);
+        group.getLatch();
+        try {
+            if (!granule.beginDeescalation()) {
+                return;
+            }
+            setGranuleMode(findResourceInGroup(group, granuleId, GRANULE_HASH), jobSlot, LockMode.IX);
+            group.wakeUp();
+        } finally {
+            group.releaseLatch();
+        }
+        escalatedGranules.decrementAndGet();
+        stats.deescalate();
+    }
+
+    /**
+     * changes the mode of the locks of a job on a granule, which works as no other job holds a lock on the granule
+     * when it is escalated
+     */
+    private void setGranuleMode(long resSlot, long jobSlot, byte lockMode) {
+        long holder = resArenaMgr.getLastHolder(resSlot);
+        while (holder != NILL) {
+            if (reqArenaMgr.getJobSlot(holder) == jobSlot) {
+                reqArenaMgr.setLockMode(holder, lockMode);
+            }
+            holder = reqArenaMgr.getNextRequest(holder);
+        }
+        resArenaMgr.setMaxMode(resSlot, lockMode);
+    }
+
+    private boolean holdsLock(long resSlot, long jobSlot, byte lockMode) {
+        long holder = resArenaMgr.getLastHolder(resSlot);
+        while (holder != NILL) {
+            if (requestMatches(holder, jobSlot, lockMode)) {
+                return true;
+            }
+            holder = reqArenaMgr.getNextRequest(holder);
+        }
+        return false;
+    }
+
     private boolean hasOtherHolders(long resSlot, long jobSlot) {
         long holder = resArenaMgr.getLastHolder(resSlot);
         while (holder != NILL) {
@@ -1036,6 +1456,10 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
         return NILL;
     }
 
+    LockManagerStats getStats() {
+        return stats;
+    }
+
     private TablePrinter getResourceTablePrinter() {
         return new ResourceTablePrinter(table, resArenaMgr, reqArenaMgr, jobArenaMgr);
     }
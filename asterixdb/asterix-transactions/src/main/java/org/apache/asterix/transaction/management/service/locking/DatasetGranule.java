@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.transaction.management.service.locking;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.asterix.transaction.management.service.transaction.TransactionManagementConstants.LockManagerConstants.LockMode;
+
+/**
+ * The locks that a transaction holds on the entities of a dataset and on the granule that covers all the entities of
+ * the dataset. The transaction holds an intention lock on the granule while it locks entities individually and an X
+ * lock once its entity locks were escalated. Either lock on the granule is released once the transaction holds no
+ * entity lock on the dataset anymore.
+ * When another transaction waits for the escalated lock, the transaction is asked to de-escalate: it locks new
+ * entities individually again and turns its X lock into an IX lock once it released the entities that are covered by
+ * the escalated lock, instead of holding the X lock until it released all its entity locks on the dataset.
+ * The numbers of entity locks and of covered entity locks share one atomic state with the escalation and release
+ * flags, so that a transaction that releases an entity lock can only give up or downgrade its lock on the granule
+ * when no other thread of the transaction relies on it.
+ *
+ * @see ConcurrentLockManager
+ */
+final class DatasetGranule {
+    private static final long ENTITY_LOCKS_MASK = (1L << 30) - 1;
+    private static final int COVERED_SHIFT = 30;
+    private static final long COVERED = 1L << COVERED_SHIFT;
+    private static final long ESCALATING = 1L << 60;
+    private static final long RELEASING = 1L << 61;
+    private static final long DEESCALATE = 1L << 62;
+    private static final long ESCALATED = 1L << 63;
+
+    final int datasetId;
+    // the strongest intention lock that the transaction holds on the granule, only modified under the granule latch
+    volatile byte intentionMode = LockMode.NL;
+    // the number of entity locks at which the next escalation is attempted
+    volatile int nextEscalation;
+    private final int escalationThreshold;
+    private final AtomicLong state = new AtomicLong();
+
+    DatasetGranule(int datasetId, int escalationThreshold) {
+        this.datasetId = datasetId;
+        this.escalationThreshold = escalationThreshold;
+        this.nextEscalation = escalationThreshold;
+    }
+
+    /**
+     * counts a new entity lock
+     *
+     * @return true if the entity is covered by the escalated lock on the granule
+     */
+    boolean lockEntity() {
+        long current;
+        long next;
+        do {
+            current = state.get();
+            next = current + 1;
+            if ((current & (ESCALATED | DEESCALATE)) == ESCALATED) {
+                next += COVERED;
+            }
+        } while (!state.compareAndSet(current, next));
+        return next - current != 1;
+    }
+
+    /**
+     * @return true if the transaction holds an intention lock of at least the given mode on the granule that is not
+     *         being released, which can only be relied on after the entity lock was counted
+     */
+    boolean holdsIntention(byte intention) {
+        return (state.get() & RELEASING) == 0 && intentionMode >= intention;
+    }
+
+    /**
+     * counts a released entity lock
+     *
+     * @param covered
+     *            whether the entity was covered by the escalated lock rather than locked individually
+     * @return true if this was the last entity lock on the dataset
+     */
+    boolean unlockEntity(boolean covered) {
+        return ((state.addAndGet(covered ? -1 - COVERED : -1)) & ENTITY_LOCKS_MASK) == 0;
+    }
+
+    /**
+     * marks the granule escalated, the entity locks that the escalated lock covers from then on are counted by
+     * {@link #cover()} as they are released, until {@link #endEscalation()}
+     */
+    boolean escalate() {
+        long current;
+        do {
+            current = state.get();
+            if ((current & ESCALATED) != 0) {
+                return false;
+            }
+        } while (!state.compareAndSet(current, current | ESCALATED | ESCALATING));
+        return true;
+    }
+
+    /**
+     * counts an entity lock that is about to be released as it is covered by the escalated lock
+     */
+    void cover() {
+        state.addAndGet(COVERED);
+    }
+
+    /**
+     * reverts {@link #cover()} when the entity lock was released by another thread of the transaction meanwhile
+     */
+    void uncover() {
+        state.addAndGet(-COVERED);
+    }
+
+    /**
+     * @return true if the lock on the granule can be de-escalated right away
+     */
+    boolean endEscalation() {
+        long current;
+        do {
+            current = state.get();
+        } while (!state.compareAndSet(current, current & ~ESCALATING));
+        return canDeescalate(current & ~ESCALATING);
+    }
+
+    /**
+     * asks the transaction to de-escalate its lock on the granule as another transaction waits for it
+     *
+     * @return true if the lock on the granule can be de-escalated right away
+     */
+    boolean requestDeescalation() {
+        long current;
+        do {
+            current = state.get();
+            if ((current & (ESCALATED | DEESCALATE)) != ESCALATED) {
+                return canDeescalate(current);
+            }
+        } while (!state.compareAndSet(current, current | DEESCALATE));
+        return canDeescalate(current | DEESCALATE);
+    }
+
+    /**
+     * @return true if the lock on the granule is escalated, was asked to de-escalate and no longer covers any entity
+     */
+    boolean canDeescalate() {
+        return canDeescalate(state.get());
+    }
+
+    private static boolean canDeescalate(long state) {
+        return (state & (ESCALATED | DEESCALATE | ESCALATING)) == (ESCALATED | DEESCALATE)
+                && (state >>> COVERED_SHIFT & ENTITY_LOCKS_MASK) == 0;
+    }
+
+    /**
+     * starts the de-escalation of the lock on the granule, which has to happen under the granule latch
+     *
+     * @return false if the lock on the granule cannot or no longer needs to be de-escalated
+     */
+    boolean beginDeescalation() {
+        long current;
+        do {
+            current = state.get();
+            if (!canDeescalate(current)) {
+                return false;
+            }
+        } while (!state.compareAndSet(current, current & ~(ESCALATED | DEESCALATE)));
+        intentionMode = LockMode.IX;
+        nextEscalation = getEntityLocks() + escalationThreshold;
+        return true;
+    }
+
+    /**
+     * starts the release of the lock on the granule, which has to happen under the granule latch
+     *
+     * @return false if the transaction locked another entity of the dataset in the meantime or is still releasing
+     *         the entity locks that it escalated, in which case the escalation releases the lock on the granule
+     */
+    boolean beginRelease() {
+        long current;
+        do {
+            current = state.get();
+            if ((current & ENTITY_LOCKS_MASK) != 0 || (current & ESCALATING) != 0) {
+                return false;
+            }
+        } while (!state.compareAndSet(current, RELEASING));
+        return true;
+    }
+
+    /**
+     * completes the release of the lock on the granule, the entity locks counted during the release need a new
+     * intention lock
+     */
+    void endRelease() {
+        intentionMode = LockMode.NL;
+        nextEscalation = escalationThreshold;
+        state.addAndGet(-RELEASING);
+    }
+
+    /**
+     * @return true if the granule was escalated
+     */
+    boolean clear() {
+        return (state.getAndSet(0) & ESCALATED) != 0;
+    }
+
+    boolean isEscalated() {
+        return (state.get() & ESCALATED) != 0;
+    }
+
+    int getEntityLocks() {
+        return (int) (state.get() & ENTITY_LOCKS_MASK);
+    }
+
+    @Override
+    public String toString() {
+        return "{ dataset : " + datasetId + ", intention : " + LockMode.toString(intentionMode) + ", entityLocks : "
+                + getEntityLocks() + ", escalated : " + isEscalated() + " }";
+    }
+}
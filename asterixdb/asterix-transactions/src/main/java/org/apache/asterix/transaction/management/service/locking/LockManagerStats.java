@@ -33,6 +33,13 @@ final class LockManagerStats {
     private final AtomicLong itlCnt = new AtomicLong();
     private final AtomicLong ulCnt = new AtomicLong();
     private final AtomicLong rlCnt = new AtomicLong();
+    // occupancy of the lock table
+    private final AtomicLong heldCnt = new AtomicLong();
+    private final AtomicLong maxHeldCnt = new AtomicLong();
+    // escalations of entity locks to dataset granule locks
+    private final AtomicLong escCnt = new AtomicLong();
+    private final AtomicLong escFailCnt = new AtomicLong();
+    private final AtomicLong deescCnt = new AtomicLong();
 
     LockManagerStats(int loggingPeriod) {
         this.loggingPeriod = loggingPeriod;
@@ -62,6 +69,46 @@ final class LockManagerStats {
         rlCnt.incrementAndGet();
     }
 
+    final void lockHeld() {
+        maxHeldCnt.accumulateAndGet(heldCnt.incrementAndGet(), Math::max);
+    }
+
+    final void lockReleased() {
+        heldCnt.decrementAndGet();
+    }
+
+    final void escalate() {
+        escCnt.incrementAndGet();
+    }
+
+    final void escalationFailed() {
+        escFailCnt.incrementAndGet();
+    }
+
+    final void deescalate() {
+        deescCnt.incrementAndGet();
+    }
+
+    final long heldLocks() {
+        return heldCnt.get();
+    }
+
+    final long maxHeldLocks() {
+        return maxHeldCnt.get();
+    }
+
+    final long escalations() {
+        return escCnt.get();
+    }
+
+    final long failedEscalations() {
+        return escFailCnt.get();
+    }
+
+    final long deescalations() {
+        return deescCnt.get();
+    }
+
     final int requestSum() {
         return lCnt.intValue() + ilCnt.intValue() + tlCnt.intValue() + itlCnt.intValue() + ulCnt.intValue()
                 + rlCnt.intValue();
@@ -70,7 +117,9 @@ final class LockManagerStats {
     final StringBuilder append(StringBuilder sb) {
         sb.append("{").append(" lock : ").append(lCnt).append(", instantLock : ").append(ilCnt).append(", tryLock : ")
                 .append(tlCnt).append(", instantTryLock : ").append(itlCnt).append(", unlock : ").append(ulCnt)
-                .append(", releaseLocks : ").append(rlCnt).append(" }");
+                .append(", releaseLocks : ").append(rlCnt).append(", held : ").append(heldCnt).append(", maxHeld : ")
+                .append(maxHeldCnt).append(", escalations : ").append(escCnt).append(", failedEscalations : ")
+                .append(escFailCnt).append(", deescalations : ").append(deescCnt).append(" }");
         return sb;
     }
 
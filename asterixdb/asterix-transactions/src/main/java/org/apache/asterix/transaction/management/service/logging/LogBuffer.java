@@ -20,8 +20,9 @@ package org.apache.asterix.transaction.management.service.logging;
 
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.asterix.common.context.PrimaryIndexOperationTracker;
 import org.apache.asterix.common.exceptions.ACIDException;
@@ -34,7 +35,6 @@ import org.apache.asterix.common.transactions.ITransactionSubsystem;
 import org.apache.asterix.common.transactions.LogRecord;
 import org.apache.asterix.common.transactions.LogSource;
 import org.apache.asterix.common.transactions.LogType;
-import org.apache.asterix.common.transactions.MutableLong;
 import org.apache.asterix.common.transactions.TxnId;
 import org.apache.asterix.transaction.management.service.transaction.TransactionManagementConstants.LockManagerConstants.LockMode;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
@@ -45,38 +45,41 @@ public class LogBuffer implements ILogBuffer {
 
     public static final boolean IS_DEBUG_MODE = false;//true
     private static final Logger LOGGER = LogManager.getLogger();
+    /*
+     * The state of the buffer is kept in a single long so that appenders can reserve space with one CAS:
+     * the upper 32 bits hold the end of the reserved space, bit 31 is set once the buffer is full and the lower
+     * 31 bits count the appends that reserved space but did not finish writing yet.
+     */
+    private static final int OFFSET_SHIFT = 32;
+    private static final long FULL = 1L << 31;
+    private static final long WRITERS_MASK = FULL - 1;
     private final ITransactionSubsystem txnSubsystem;
     private final LogBufferTailReader logBufferTailReader;
     private final int logPageSize;
-    private final MutableLong flushLSN;
-    private final AtomicBoolean full;
-    protected int appendOffset;
+    private final AtomicLong state;
+    private volatile long baseLsn;
+    private volatile int capacity;
     private int flushOffset;
     protected final ByteBuffer appendBuffer;
     private final ByteBuffer flushBuffer;
     private final ByteBuffer unlockBuffer;
-    protected final LinkedBlockingQueue<ILogRecord> syncCommitQ;
-    protected final LinkedBlockingQueue<ILogRecord> flushQ;
-    protected final LinkedBlockingQueue<ILogRecord> remoteJobsQ;
+    // log records that wait for their flush, by their offset in the buffer
+    protected final Map<Integer, ILogRecord> flushWaiters;
     private FileChannel fileChannel;
-    private boolean stop;
     private final MutableTxnId reusableTxnId;
     private final DatasetId reusableDatasetId;
 
-    public LogBuffer(ITransactionSubsystem txnSubsystem, int logPageSize, MutableLong flushLSN) {
+    public LogBuffer(ITransactionSubsystem txnSubsystem, int logPageSize) {
         this.txnSubsystem = txnSubsystem;
         this.logPageSize = logPageSize;
-        this.flushLSN = flushLSN;
         appendBuffer = ByteBuffer.allocate(logPageSize);
         flushBuffer = appendBuffer.duplicate();
         unlockBuffer = appendBuffer.duplicate();
         logBufferTailReader = getLogBufferTailReader();
-        full = new AtomicBoolean(false);
-        appendOffset = 0;
+        state = new AtomicLong(FULL);
+        capacity = logPageSize;
         flushOffset = 0;
-        syncCommitQ = new LinkedBlockingQueue<>(logPageSize / ILogRecord.JOB_TERMINATE_LOG_SIZE);
-        flushQ = new LinkedBlockingQueue<>();
-        remoteJobsQ = new LinkedBlockingQueue<>();
+        flushWaiters = new ConcurrentHashMap<>();
         reusableTxnId = new MutableTxnId(-1);
         reusableDatasetId = new DatasetId(-1);
     }
@@ -86,65 +89,99 @@ public class LogBuffer implements ILogBuffer {
     ////////////////////////////////////
 
     @Override
-    public void append(ILogRecord logRecord, long appendLsn) {
-        logRecord.writeLogRecord(appendBuffer);
+    public int reserve(int logSize) {
+        while (true) {
+            final long currentState = state.get();
+            final int appendOffset = getOffset(currentState);
+            if ((currentState & FULL) != 0 || appendOffset + logSize > capacity) {
+                return -1;
+            }
+            if (state.compareAndSet(currentState, currentState + ((long) logSize << OFFSET_SHIFT) + 1)) {
+                return appendOffset;
+            }
+        }
+    }
+
+    @Override
+    public void append(ILogRecord logRecord, int offset, long appendLsn) {
+        final ByteBuffer buffer = appendBuffer.duplicate();
+        buffer.position(offset);
+        logRecord.writeLogRecord(buffer);
 
         if (logRecord.getLogSource() == LogSource.LOCAL && logRecord.getLogType() != LogType.FLUSH
                 && logRecord.getLogType() != LogType.WAIT) {
             logRecord.getTxnCtx().setLastLSN(appendLsn);
         }
 
-        synchronized (this) {
-            appendOffset += logRecord.getLogSize();
-            if (IS_DEBUG_MODE) {
-                LOGGER.info("append()| appendOffset: " + appendOffset);
-            }
-            if (logRecord.getLogSource() == LogSource.LOCAL) {
-                if (logRecord.getLogType() == LogType.JOB_COMMIT || logRecord.getLogType() == LogType.ABORT
-                        || logRecord.getLogType() == LogType.WAIT) {
-                    logRecord.isFlushed(false);
-                    syncCommitQ.add(logRecord);
-                }
-                if (logRecord.getLogType() == LogType.FLUSH) {
-                    logRecord.isFlushed(false);
-                    flushQ.add(logRecord);
-                }
-            } else if (logRecord.getLogSource() == LogSource.REMOTE && (logRecord.getLogType() == LogType.JOB_COMMIT
-                    || logRecord.getLogType() == LogType.ABORT || logRecord.getLogType() == LogType.FLUSH)) {
-                remoteJobsQ.add(logRecord);
+        if (IS_DEBUG_MODE) {
+            LOGGER.info("append()| offset: " + offset + ", size: " + logRecord.getLogSize());
+        }
+        if (logRecord.getLogSource() == LogSource.LOCAL) {
+            if (logRecord.getLogType() == LogType.JOB_COMMIT || logRecord.getLogType() == LogType.ABORT
+                    || logRecord.getLogType() == LogType.WAIT || logRecord.getLogType() == LogType.FLUSH) {
+                logRecord.isFlushed(false);
+                flushWaiters.put(offset, logRecord);
             }
-            this.notify();
+        } else if (logRecord.getLogSource() == LogSource.REMOTE && (logRecord.getLogType() == LogType.JOB_COMMIT
+                || logRecord.getLogType() == LogType.ABORT || logRecord.getLogType() == LogType.FLUSH)) {
+            flushWaiters.put(offset, logRecord);
         }
     }
 
+    @Override
+    public void appendFinished() {
+        state.decrementAndGet();
+    }
+
     @Override
     public void setFileChannel(FileChannel fileChannel) {
         this.fileChannel = fileChannel;
     }
 
     @Override
-    public synchronized void setFull() {
-        this.full.set(true);
-        this.notify();
+    public FileChannel getFileChannel() {
+        return fileChannel;
+    }
+
+    @Override
+    public void setFull() {
+        state.getAndUpdate(currentState -> currentState | FULL);
     }
 
     @Override
     public boolean hasSpace(int logSize) {
-        return appendOffset + logSize <= logPageSize && !full.get();
+        final long currentState = state.get();
+        return (currentState & FULL) == 0 && getOffset(currentState) + logSize <= capacity;
     }
 
     @Override
-    public void reset() {
+    public long getBaseLsn() {
+        return baseLsn;
+    }
+
+    @Override
+    public int getAppendOffset() {
+        return getOffset(state.get());
+    }
+
+    @Override
+    public void reset(long baseLsn, int capacity, int reservedSize) {
         appendBuffer.position(0);
         appendBuffer.limit(logPageSize);
         flushBuffer.position(0);
         flushBuffer.limit(logPageSize);
         unlockBuffer.position(0);
         unlockBuffer.limit(logPageSize);
-        full.set(false);
-        appendOffset = 0;
         flushOffset = 0;
-        stop = false;
+        flushWaiters.clear();
+        this.baseLsn = baseLsn;
+        this.capacity = capacity;
+        // publishes the fields above to the appenders
+        state.set(reservedSize > 0 ? ((long) reservedSize << OFFSET_SHIFT) + 1 : 0);
+    }
+
+    private static int getOffset(long state) {
+        return (int) (state >>> OFFSET_SHIFT);
     }
 
     ////////////////////////////////////
@@ -152,57 +189,38 @@ public class LogBuffer implements ILogBuffer {
     ////////////////////////////////////
 
     @Override
-    public void flush(boolean stopping) {
-        boolean interrupted = false;
-        try {
-            int endOffset;
-            while (!full.get()) {
-                try {
-                    synchronized (this) {
-                        if (appendOffset - flushOffset == 0 && !full.get()) {
-                            if (IS_DEBUG_MODE) {
-                                LOGGER.info("flush()| appendOffset: " + appendOffset + ", flushOffset: " + flushOffset
-                                        + ", full: " + full.get());
-                            }
-                            if (stopping || stop) {
-                                return;
-                            }
-                            wait();
-                        }
-                        endOffset = appendOffset;
-                    }
-                    internalFlush(flushOffset, endOffset);
-                } catch (InterruptedException e) {
-                    interrupted = true;
-                }
-            }
-            internalFlush(flushOffset, appendOffset);
-        } finally {
-            if (interrupted) {
-                Thread.currentThread().interrupt();
-            }
-        }
+    public int getFlushOffset() {
+        return flushOffset;
     }
 
-    private void internalFlush(int beginOffset, int endOffset) {
-        try {
-            if (endOffset > beginOffset) {
-                flushBuffer.limit(endOffset);
-                fileChannel.write(flushBuffer);
-                fileChannel.force(false);
-                flushOffset = endOffset;
-                synchronized (flushLSN) {
-                    flushLSN.set(flushLSN.get() + (endOffset - beginOffset));
-                    flushLSN.notifyAll(); //notify to LogReaders if any
-                }
-                if (IS_DEBUG_MODE) {
-                    LOGGER.info("internalFlush()| flushOffset: " + flushOffset + ", flushLSN: " + flushLSN.get());
-                }
-                batchUnlock(beginOffset, endOffset);
-            }
-        } catch (Exception e) {
-            throw new IllegalStateException(e);
+    @Override
+    public int getFlushableOffset() {
+        final long currentState = state.get();
+        return (currentState & WRITERS_MASK) == 0 ? getOffset(currentState) : flushOffset;
+    }
+
+    @Override
+    public boolean isComplete(int flushableOffset) {
+        final long currentState = state.get();
+        return (currentState & FULL) != 0 && (currentState & WRITERS_MASK) == 0
+                && getOffset(currentState) == flushableOffset;
+    }
+
+    @Override
+    public ByteBuffer getFlushBuffer(int endOffset) {
+        flushBuffer.limit(endOffset);
+        flushBuffer.position(flushOffset);
+        return flushBuffer;
+    }
+
+    @Override
+    public void flushed(int endOffset) {
+        final int beginOffset = flushOffset;
+        flushOffset = endOffset;
+        if (IS_DEBUG_MODE) {
+            LOGGER.info("flushed()| flushOffset: " + flushOffset + ", baseLsn: " + baseLsn);
         }
+        batchUnlock(beginOffset, endOffset);
     }
 
     private LogBufferTailReader getLogBufferTailReader() {
@@ -213,6 +231,7 @@ public class LogBuffer implements ILogBuffer {
         if (endOffset > beginOffset) {
             logBufferTailReader.initializeScan(beginOffset, endOffset);
             ITransactionContext txnCtx;
+            int offset = beginOffset;
             LogRecord logRecord = logBufferTailReader.next();
             while (logRecord != null) {
                 if (logRecord.getLogSource() == LogSource.LOCAL) {
@@ -232,53 +251,40 @@ public class LogBuffer implements ILogBuffer {
                         txnCtx.notifyUpdateCommitted(logRecord.getResourceId());
                     } else if (logRecord.getLogType() == LogType.JOB_COMMIT
                             || logRecord.getLogType() == LogType.ABORT) {
-                        notifyJobTermination();
+                        notifyJobTermination(offset);
                     } else if (logRecord.getLogType() == LogType.FLUSH) {
-                        notifyFlushTermination();
+                        notifyFlushTermination(offset);
                     } else if (logRecord.getLogType() == LogType.WAIT) {
-                        notifyWaitTermination();
+                        notifyWaitTermination(offset);
                     }
                 } else if (logRecord.getLogSource() == LogSource.REMOTE && (logRecord.getLogType() == LogType.JOB_COMMIT
                         || logRecord.getLogType() == LogType.ABORT || logRecord.getLogType() == LogType.FLUSH)) {
-                    notifyReplicationTermination();
+                    notifyReplicationTermination(offset);
                 }
+                offset += logRecord.getLogSize();
                 logRecord = logBufferTailReader.next();
             }
         }
     }
 
-    public void notifyJobTermination() {
-        notifyToSyncCommitQWaiter();
+    public void notifyJobTermination(int offset) {
+        notifyFlushWaiter(offset);
     }
 
-    public void notifyWaitTermination() {
-        notifyToSyncCommitQWaiter();
+    public void notifyWaitTermination(int offset) {
+        notifyFlushWaiter(offset);
     }
 
-    public void notifyToSyncCommitQWaiter() {
-        ILogRecord logRecord = null;
-        while (logRecord == null) {
-            try {
-                logRecord = syncCommitQ.take();
-            } catch (InterruptedException e) {
-                //ignore
-            }
-        }
+    public void notifyFlushWaiter(int offset) {
+        final ILogRecord logRecord = removeFlushWaiter(offset);
         synchronized (logRecord) {
             logRecord.isFlushed(true);
             logRecord.notifyAll();
         }
     }
 
-    public void notifyFlushTermination() throws ACIDException {
-        LogRecord logRecord = null;
-        while (logRecord == null) {
-            try {
-                logRecord = (LogRecord) flushQ.take();
-            } catch (InterruptedException e) { //NOSONAR LogFlusher should survive interrupts
-                //ignore
-            }
-        }
+    public void notifyFlushTermination(int offset) throws ACIDException {
+        final LogRecord logRecord = (LogRecord) removeFlushWaiter(offset);
         synchronized (logRecord) {
             logRecord.isFlushed(true);
             logRecord.notifyAll();
@@ -293,15 +299,8 @@ public class LogBuffer implements ILogBuffer {
         }
     }
 
-    public void notifyReplicationTermination() {
-        LogRecord logRecord = null;
-        while (logRecord == null) {
-            try {
-                logRecord = (LogRecord) remoteJobsQ.take();
-            } catch (InterruptedException e) { //NOSONAR LogFlusher should survive interrupts
-                //ignore
-            }
-        }
+    public void notifyReplicationTermination(int offset) {
+        final LogRecord logRecord = (LogRecord) removeFlushWaiter(offset);
         logRecord.isFlushed(true);
         final ILogRequester logRequester = logRecord.getRequester();
         if (logRequester != null) {
@@ -309,10 +308,13 @@ public class LogBuffer implements ILogBuffer {
         }
     }
 
-    @Override
-    public synchronized void stop() {
-        stop = true;
-        notifyAll();
+    private ILogRecord removeFlushWaiter(int offset) {
+        final ILogRecord logRecord = flushWaiters.remove(offset);
+        if (logRecord == null) {
+            // every waiter is registered before its append finishes, i.e. before it can be flushed
+            throw new IllegalStateException("No log record waits for the flush of offset " + offset);
+        }
+        return logRecord;
     }
 
     @Override
@@ -23,13 +23,16 @@ import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -38,7 +41,6 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
-import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.asterix.common.exceptions.ACIDException;
 import org.apache.asterix.common.replication.IReplicationManager;
@@ -76,14 +78,15 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
     private final HashMap<Long, Integer> txnLogFileId2ReaderCount = new HashMap<>();
     private final long logFileSize;
     private final int logPageSize;
-    private final AtomicLong appendLSN;
     private final long maxLogRecordSize;
+    private final boolean compressLogs;
+    private final LogManagerStats stats = new LogManagerStats();
 
     private LinkedBlockingQueue<ILogBuffer> emptyQ;
     private LinkedBlockingQueue<ILogBuffer> flushQ;
     private LinkedBlockingQueue<ILogBuffer> stashQ;
     private FileChannel appendChannel;
-    private ILogBuffer appendPage;
+    private volatile ILogBuffer appendPage;
     private LogFlusher logFlusher;
     private Future<? extends Object> futureLogFlusher;
     protected LinkedBlockingQueue<ILogRecord> flushLogsQ;
@@ -97,10 +100,10 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
         maxLogRecordSize = logFileSize - 1;
         logPageSize = logManagerProperties.getLogPageSize();
         numLogPages = logManagerProperties.getNumLogPages();
+        compressLogs = logManagerProperties.isCompressLogs();
         logDir = logManagerProperties.getLogDir();
         logFilePrefix = logManagerProperties.getLogFilePrefix();
         flushLSN = new MutableLong();
-        appendLSN = new AtomicLong();
         nodeId = txnSubsystem.getId();
         flushLogsQ = new LinkedBlockingQueue<>();
         txnSubsystem.getApplicationContext().getThreadExecutor().execute(new FlushLogsLogger());
@@ -112,20 +115,20 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
         flushQ = new LinkedBlockingQueue<>(numLogPages);
         stashQ = new LinkedBlockingQueue<>(numLogPages);
         for (int i = 0; i < numLogPages; i++) {
-            emptyQ.add(new LogBuffer(txnSubsystem, logPageSize, flushLSN));
+            emptyQ.add(new LogBuffer(txnSubsystem, logPageSize));
         }
-        appendLSN.set(initializeLogAnchor(nextLogFileId));
-        flushLSN.set(appendLSN.get());
+        final long appendLsn = initializeLogAnchor(nextLogFileId);
+        flushLSN.set(appendLsn);
         if (LOGGER.isInfoEnabled()) {
-            LOGGER.info("LogManager starts logging in LSN: " + appendLSN);
+            LOGGER.info("LogManager starts logging in LSN: " + appendLsn);
         }
         try {
-            setLogPosition(appendLSN.get());
+            setLogPosition(appendLsn);
         } catch (IOException e) {
             throw new ACIDException(e);
         }
-        initNewPage(INITIAL_LOG_SIZE);
-        logFlusher = new LogFlusher(this, emptyQ, flushQ, stashQ);
+        appendPage = initNewPage(appendLsn, INITIAL_LOG_SIZE, false);
+        logFlusher = new LogFlusher(this, emptyQ, flushQ, stashQ, flushLSN, stats);
         futureLogFlusher =
                 ((ExecutorService) txnSubsystem.getApplicationContext().getThreadExecutor()).submit(logFlusher);
     }
@@ -140,7 +143,8 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
     }
 
     protected void appendToLogTail(ILogRecord logRecord) {
-        syncAppendToLogTail(logRecord);
+        final long appendTime = logRecord.getLogType() == LogType.JOB_COMMIT ? System.nanoTime() : 0;
+        appendToLogBuffer(logRecord);
         if (waitForFlush(logRecord) && !logRecord.isFlushed()) {
             InvokeUtil.doUninterruptibly(() -> {
                 synchronized (logRecord) {
@@ -150,6 +154,9 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
                 }
             });
         }
+        if (logRecord.getLogType() == LogType.JOB_COMMIT) {
+            stats.commit(System.nanoTime() - appendTime);
+        }
     }
 
     protected static boolean waitForFlush(ILogRecord logRecord) {
@@ -157,79 +164,117 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
         return logType == LogType.JOB_COMMIT || logType == LogType.ABORT || logType == LogType.WAIT;
     }
 
-    synchronized void syncAppendToLogTail(ILogRecord logRecord) {
+    /**
+     * Appends the log record to the log tail. Appenders only synchronize on the log manager when the current log
+     * page is full and the next one has to be set up, otherwise they reserve their space in the page with a CAS
+     * and write their records in parallel.
+     */
+    void appendToLogBuffer(ILogRecord logRecord) {
         if (logRecord.getLogSource() == LogSource.LOCAL && logRecord.getLogType() != LogType.FLUSH) {
             ITransactionContext txnCtx = logRecord.getTxnCtx();
             if (txnCtx.getTxnState() == ITransactionManager.ABORTED && logRecord.getLogType() != LogType.ABORT) {
                 throw new ACIDException(
                         "Aborted txn(" + txnCtx.getTxnId() + ") tried to write non-abort type log record.");
             }
+            if (compressLogs && !logRecord.isCompactEncoding()
+                    && (logRecord.getLogType() == LogType.UPDATE || logRecord.getLogType() == LogType.ENTITY_COMMIT)) {
+                // reused log records keep the encoding, so their size is computed in the compact format from now on
+                logRecord.setCompactEncoding(true);
+                logRecord.computeAndSetLogSize();
+            }
         }
         final int logSize = logRecord.getLogSize();
-        ensureSpace(logSize);
-        appendPage.append(logRecord, appendLSN.get());
-        if (logRecord.getLogType() == LogType.FLUSH) {
-            logRecord.setLSN(appendLSN.get());
+        if (logSize > maxLogRecordSize) {
+            throw new ACIDException("Maximum log record size of (" + maxLogRecordSize + ") exceeded");
+        }
+        ILogBuffer page = appendPage;
+        int offset = page.reserve(logSize);
+        if (offset < 0) {
+            synchronized (this) {
+                page = appendPage;
+                offset = page.reserve(logSize);
+                if (offset < 0) {
+                    offset = reserveInNextPage(logSize);
+                    page = appendPage;
+                }
+            }
         }
-        if (logRecord.isMarker()) {
-            logRecord.logAppended(appendLSN.get());
+        final long lsn = page.getBaseLsn() + offset;
+        try {
+            if (logRecord.getLogType() == LogType.FLUSH) {
+                logRecord.setLSN(lsn);
+            }
+            page.append(logRecord, offset, lsn);
+            if (logRecord.isMarker()) {
+                logRecord.logAppended(lsn);
+            }
+        } finally {
+            page.appendFinished();
+            logFlusher.notifyAppended();
         }
-        appendLSN.addAndGet(logSize);
     }
 
-    private void ensureSpace(int logSize) {
-        if (!fileHasSpace(logSize)) {
+    private int reserveInNextPage(int logSize) {
+        appendPage.setFull();
+        logFlusher.notifyAppended();
+        if (!fileHasSpace(getAppendLSN(), logSize)) {
             ensureLastPageFlushed();
             prepareNextLogFile();
+            final int offset = appendPage.reserve(logSize);
+            if (offset >= 0) {
+                return offset;
+            }
+            appendPage.setFull();
+            logFlusher.notifyAppended();
         }
-        if (!appendPage.hasSpace(logSize)) {
-            prepareNextPage(logSize);
-        }
+        /*
+         * The page may be a recycled one that a stale appender still references, so the space of the record is
+         * reserved when the page is reset, before any other appender can reserve space in it. This also gives a
+         * record larger than a log page its own page.
+         */
+        appendPage = initNewPage(getAppendLSN(), logSize, true);
+        return 0;
     }
 
-    private boolean fileHasSpace(int logSize) {
-        if (logSize > maxLogRecordSize) {
-            throw new ACIDException("Maximum log record size of (" + maxLogRecordSize + ") exceeded");
-        }
+    private boolean fileHasSpace(long lsn, int logSize) {
         /*
          * To eliminate the case where the modulo of the next appendLSN = 0 (the next
          * appendLSN = the first LSN of the next log file), we do not allow a log to be
          * written at the last offset of the current file.
          */
-        return getLogFileOffset(appendLSN.get()) + logSize < logFileSize;
-    }
-
-    private void prepareNextPage(int logSize) {
-        appendPage.setFull();
-        initNewPage(logSize);
+        return getLogFileOffset(lsn) + logSize < logFileSize;
     }
 
-    private void initNewPage(int logSize) {
+    private ILogBuffer initNewPage(long baseLsn, int logSize, boolean reserve) {
         boolean largePage = logSize > logPageSize;
         // if a new large page will be allocated, we need to stash a normal sized page
         // since our queues have fixed capacity
-        ensureAvailablePage(largePage);
+        ILogBuffer page = takeEmptyPage(largePage);
         if (largePage) {
             // for now, alloc a new buffer for each large page
             // TODO: pool large pages??
-            appendPage = new LogBuffer(txnSubsystem, logSize, flushLSN);
-        } else {
-            appendPage.reset();
+            page = new LogBuffer(txnSubsystem, logSize);
         }
-        appendPage.setFileChannel(appendChannel);
-        flushQ.add(appendPage);
+        return initPage(page, baseLsn, reserve ? logSize : 0);
+    }
+
+    private ILogBuffer initPage(ILogBuffer page, long baseLsn, int reservedSize) {
+        // a page never crosses the end of a log file
+        page.reset(baseLsn, (int) Math.min(page.getLogPageSize(), logFileSize - 1 - getLogFileOffset(baseLsn)),
+                reservedSize);
+        page.setFileChannel(appendChannel);
+        flushQ.add(page);
+        return page;
     }
 
-    private void ensureAvailablePage(boolean stash) {
-        final ILogBuffer currentPage = appendPage;
-        appendPage = null;
+    private ILogBuffer takeEmptyPage(boolean stash) {
         try {
-            appendPage = emptyQ.take();
+            final ILogBuffer page = emptyQ.take();
             if (stash) {
-                stashQ.add(appendPage);
+                stashQ.add(page);
             }
+            return page;
         } catch (InterruptedException e) {
-            appendPage = currentPage;
             Thread.currentThread().interrupt();
             throw new ACIDException(e);
         }
@@ -241,10 +286,13 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
             closeCurrentLogFile();
             createNextLogFile();
             InvokeUtil.doIoUninterruptibly(() -> setLogPosition(nextFileBeginLsn));
-            // move appendLSN and flushLSN to the first LSN of the next log file
+            // move flushLSN to the first LSN of the next log file and start appending there
             // only after the file was created and the channel was positioned successfully
-            appendLSN.set(nextFileBeginLsn);
             flushLSN.set(nextFileBeginLsn);
+            // the last page was flushed, so the flusher is about to return it if the queue is empty
+            final ILogBuffer[] page = new ILogBuffer[1];
+            InvokeUtil.doUninterruptibly(() -> page[0] = emptyQ.take());
+            appendPage = initPage(page[0], nextFileBeginLsn, 0);
             LOGGER.info("Created new txn log file with id({}) starting with LSN = {}", currentLogFileId,
                     nextFileBeginLsn);
         } catch (IOException e) {
@@ -254,15 +302,19 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
 
     private long getNextFileFirstLsn() {
         // add the remaining space in the current file
-        return appendLSN.get() + (logFileSize - getLogFileOffset(appendLSN.get()));
+        final long appendLsn = getAppendLSN();
+        return appendLsn + (logFileSize - getLogFileOffset(appendLsn));
     }
 
     private void ensureLastPageFlushed() {
         // Make sure to flush whatever left in the log tail.
-        appendPage.setFull();
+        final ILogBuffer lastPage = appendPage;
+        lastPage.setFull();
+        logFlusher.notifyAppended();
+        final long appendLsn = lastPage.getBaseLsn() + lastPage.getAppendOffset();
         synchronized (flushLSN) {
-            while (flushLSN.get() != appendLSN.get()) {
-                // notification will come from LogBuffer.internalFlush(.)
+            while (flushLSN.get() < appendLsn) {
+                // notification will come from LogFlusher
                 try {
                     flushLSN.wait();
                 } catch (InterruptedException e) {
@@ -286,9 +338,21 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
         return txnSubsystem;
     }
 
+    public LogManagerStats getStats() {
+        return stats;
+    }
+
     @Override
     public long getAppendLSN() {
-        return appendLSN.get();
+        while (true) {
+            final ILogBuffer page = appendPage;
+            final long baseLsn = page.getBaseLsn();
+            final int appendOffset = page.getAppendOffset();
+            // retry if the page was recycled while we looked at it
+            if (page == appendPage && baseLsn == page.getBaseLsn()) {
+                return baseLsn + appendOffset;
+            }
+        }
     }
 
     @Override
@@ -333,8 +397,9 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
         try {
             StringBuilder sb = new StringBuilder();
             sb.append("\n>>dump_begin\t>>----- [LSNInfo] -----");
-            sb.append("\nappendLsn: " + appendLSN);
+            sb.append("\nappendLsn: " + getAppendLSN());
             sb.append("\nflushLsn: " + flushLSN.get());
+            sb.append("\nstats: " + stats);
             sb.append("\n>>dump_end\t>>----- [LSNInfo] -----\n");
             os.write(sb.toString().getBytes());
         } catch (Exception e) {
@@ -649,23 +714,36 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
     }
 }
 
+/**
+ * Forces the log tail to disk. Each round writes everything the appenders have finished since the last round, over
+ * as many log pages as that spans, with one gathering write and one force, so the number of commits per force grows
+ * with the load on the log.
+ */
 class LogFlusher implements Callable<Boolean> {
     private static final Logger LOGGER = org.apache.logging.log4j.LogManager.getLogger();
-    private static final ILogBuffer POISON_PILL = new LogBuffer(null, ILogRecord.JOB_TERMINATE_LOG_SIZE, null);
+    private static final ILogBuffer POISON_PILL = new LogBuffer(null, ILogRecord.JOB_TERMINATE_LOG_SIZE);
     private final LogManager logMgr;//for debugging
     private final LinkedBlockingQueue<ILogBuffer> emptyQ;
     private final LinkedBlockingQueue<ILogBuffer> flushQ;
     private final LinkedBlockingQueue<ILogBuffer> stashQ;
-    private volatile ILogBuffer flushPage;
+    private final MutableLong flushLSN;
+    private final LogManagerStats stats;
+    // the pages taken from the flushQ that are not completely flushed yet, in LSN order
+    private final Deque<ILogBuffer> flushPages = new ArrayDeque<>();
+    private final List<ILogBuffer> batchPages = new ArrayList<>();
+    private final List<ByteBuffer> batchBuffers = new ArrayList<>();
+    private volatile boolean waiting;
     private volatile boolean stopping;
     private final Semaphore started;
 
     LogFlusher(LogManager logMgr, LinkedBlockingQueue<ILogBuffer> emptyQ, LinkedBlockingQueue<ILogBuffer> flushQ,
-            LinkedBlockingQueue<ILogBuffer> stashQ) {
+            LinkedBlockingQueue<ILogBuffer> stashQ, MutableLong flushLSN, LogManagerStats stats) {
         this.logMgr = logMgr;
         this.emptyQ = emptyQ;
         this.flushQ = flushQ;
         this.stashQ = stashQ;
+        this.flushLSN = flushLSN;
+        this.stats = stats;
         this.started = new Semaphore(0);
     }
 
@@ -675,30 +753,45 @@ class LogFlusher implements Callable<Boolean> {
 
         stopping = true;
 
-        // we must tell any active flush, if any, to stop
-        final ILogBuffer currentFlushPage = this.flushPage;
-        if (currentFlushPage != null) {
-            currentFlushPage.stop();
+        // we must tell the flusher to stop waiting for appends, if it does
+        synchronized (this) {
+            notifyAll();
         }
         // finally we put a POISON_PILL onto the flushQ to indicate to the flusher it is time to exit
         InvokeUtil.doUninterruptibly(() -> flushQ.put(POISON_PILL));
     }
 
+    /**
+     * Called by appenders once they finished an append or filled a page
+     */
+    void notifyAppended() {
+        // the flusher sets waiting before it checks for work, so either it sees our append or we see it waiting
+        if (waiting) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
     @Override
     public Boolean call() {
         started.release();
         boolean interrupted = false;
         try {
             while (true) {
-                flushPage = null;
-                interrupted = InvokeUtil.doUninterruptiblyGet(() -> flushPage = flushQ.take()) || interrupted;
-                if (flushPage == POISON_PILL) {
+                if (flushPages.isEmpty()) {
+                    interrupted = InvokeUtil.doUninterruptiblyGet(() -> flushPages.add(flushQ.take())) || interrupted;
+                }
+                flushQ.drainTo(flushPages);
+                if (flushPages.peekFirst() == POISON_PILL) {
                     return true;
                 }
-                flushPage.flush(stopping);
-
-                // TODO(mblow): recycle large pages
-                emptyQ.add(flushPage.getLogPageSize() == logMgr.getLogPageSize() ? flushPage : stashQ.remove());
+                if (!flushBatch()) {
+                    if (stopping) {
+                        return true;
+                    }
+                    interrupted = waitForAppends() || interrupted;
+                }
             }
         } catch (Exception e) {
             LOGGER.log(Level.ERROR, "LogFlusher is terminating abnormally. System is in unusable state.", e);
@@ -709,4 +802,95 @@ class LogFlusher implements Callable<Boolean> {
             }
         }
     }
+
+    /**
+     * @return true if any log page was written or recycled
+     */
+    private boolean flushBatch() {
+        batchPages.clear();
+        batchBuffers.clear();
+        FileChannel channel = null;
+        long numBytes = 0;
+        int lastEndOffset = 0;
+        for (ILogBuffer page : flushPages) {
+            if (page == POISON_PILL || (channel != null && page.getFileChannel() != channel)) {
+                break;
+            }
+            final int endOffset = page.getFlushableOffset();
+            final boolean complete = page.isComplete(endOffset);
+            if (endOffset > page.getFlushOffset()) {
+                channel = page.getFileChannel();
+                numBytes += endOffset - page.getFlushOffset();
+                batchBuffers.add(page.getFlushBuffer(endOffset));
+            } else if (!complete) {
+                break;
+            }
+            batchPages.add(page);
+            lastEndOffset = endOffset;
+            if (!complete) {
+                break;
+            }
+        }
+        if (batchPages.isEmpty()) {
+            return false;
+        }
+        final ILogBuffer lastPage = batchPages.get(batchPages.size() - 1);
+        if (channel != null) {
+            write(channel, numBytes);
+            stats.fsync(batchBuffers.size(), numBytes);
+            synchronized (flushLSN) {
+                flushLSN.set(Math.max(flushLSN.get(), lastPage.getBaseLsn() + lastEndOffset));
+                flushLSN.notifyAll(); //notify to LogReaders if any
+            }
+        }
+        for (ILogBuffer page : batchPages) {
+            // all but the last page of a batch are complete, and so flushed up to their end
+            final int endOffset = page == lastPage ? lastEndOffset : page.getAppendOffset();
+            if (endOffset > page.getFlushOffset()) {
+                page.flushed(endOffset);
+            }
+            if (page.isComplete(endOffset)) {
+                flushPages.removeFirst();
+                // TODO(mblow): recycle large pages
+                emptyQ.add(page.getLogPageSize() == logMgr.getLogPageSize() ? page : stashQ.remove());
+            }
+        }
+        return true;
+    }
+
+    private void write(FileChannel channel, long numBytes) {
+        final ByteBuffer[] buffers = batchBuffers.toArray(new ByteBuffer[batchBuffers.size()]);
+        try {
+            long remaining = numBytes;
+            while (remaining > 0) {
+                remaining -= channel.write(buffers);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return true if the thread was interrupted while waiting
+     */
+    private synchronized boolean waitForAppends() {
+        waiting = true;
+        try {
+            if (!stopping && !hasWork()) {
+                wait();
+            }
+            return false;
+        } catch (InterruptedException e) { //NOSONAR LogFlusher should survive interrupts
+            return true;
+        } finally {
+            waiting = false;
+        }
+    }
+
+    private boolean hasWork() {
+        final ILogBuffer page = flushPages.peekFirst();
+        final int endOffset = page.getFlushableOffset();
+        return endOffset > page.getFlushOffset() || page.isComplete(endOffset) || !flushQ.isEmpty();
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.transaction.management.service.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the log manager: how long commits wait for their log records to be forced, and how many bytes and
+ * log pages each force of the log flusher covers.
+ */
+public final class LogManagerStats {
+    private final long startTime = System.nanoTime();
+
+    private final LongAdder commitCnt = new LongAdder();
+    private final LongAdder commitLatency = new LongAdder();
+    private final AtomicLong maxCommitLatency = new AtomicLong();
+    private final AtomicLong fsyncCnt = new AtomicLong();
+    private final AtomicLong flushedBytes = new AtomicLong();
+    private final AtomicLong flushedPages = new AtomicLong();
+    private final AtomicLong maxBatchPages = new AtomicLong();
+
+    final void commit(long latencyNanos) {
+        commitCnt.increment();
+        commitLatency.add(latencyNanos);
+        maxCommitLatency.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    final void fsync(int numPages, long numBytes) {
+        fsyncCnt.incrementAndGet();
+        flushedPages.addAndGet(numPages);
+        flushedBytes.addAndGet(numBytes);
+        maxBatchPages.accumulateAndGet(numPages, Math::max);
+    }
+
+    public long getCommitCount() {
+        return commitCnt.sum();
+    }
+
+    /**
+     * @return the average time in nanoseconds between the append of a commit log record and its force to disk
+     */
+    public long getAverageCommitLatency() {
+        final long count = commitCnt.sum();
+        return count == 0 ? 0 : commitLatency.sum() / count;
+    }
+
+    public long getMaxCommitLatency() {
+        return maxCommitLatency.get();
+    }
+
+    public long getFsyncCount() {
+        return fsyncCnt.get();
+    }
+
+    public double getFsyncsPerSecond() {
+        final double seconds = (System.nanoTime() - startTime) / (double) TimeUnit.SECONDS.toNanos(1);
+        return seconds == 0 ? 0 : fsyncCnt.get() / seconds;
+    }
+
+    public long getFlushedBytes() {
+        return flushedBytes.get();
+    }
+
+    /**
+     * @return the average number of log pages written by one force
+     */
+    public double getAverageBatchPages() {
+        final long count = fsyncCnt.get();
+        return count == 0 ? 0 : flushedPages.get() / (double) count;
+    }
+
+    public long getMaxBatchPages() {
+        return maxBatchPages.get();
+    }
+
+    final StringBuilder append(StringBuilder sb) {
+        sb.append("{").append(" commits : ").append(getCommitCount()).append(", avgCommitLatencyUs : ")
+                .append(TimeUnit.NANOSECONDS.toMicros(getAverageCommitLatency())).append(", maxCommitLatencyUs : ")
+                .append(TimeUnit.NANOSECONDS.toMicros(getMaxCommitLatency())).append(", fsyncs : ")
+                .append(getFsyncCount()).append(", fsyncsPerSec : ").append(String.format("%.2f", getFsyncsPerSecond()))
+                .append(", flushedBytes : ").append(getFlushedBytes()).append(", avgBatchPages : ")
+                .append(String.format("%.2f", getAverageBatchPages())).append(", maxBatchPages : ")
+                .append(getMaxBatchPages()).append(" }");
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return append(new StringBuilder()).toString();
+    }
+}
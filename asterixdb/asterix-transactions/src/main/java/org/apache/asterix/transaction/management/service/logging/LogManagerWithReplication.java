@@ -74,7 +74,8 @@ public class LogManagerWithReplication extends LogManager {
 
     @Override
     protected void appendToLogTail(ILogRecord logRecord) {
-        syncAppendToLogTail(logRecord);
+        final long appendTime = logRecord.getLogType() == LogType.JOB_COMMIT ? System.nanoTime() : 0;
+        appendToLogBuffer(logRecord);
 
         if (logRecord.isReplicate()) {
             try {
@@ -100,6 +101,9 @@ public class LogManagerWithReplication extends LogManager {
                     }
                 }
             });
+            if (logRecord.getLogType() == LogType.JOB_COMMIT) {
+                getStats().commit(System.nanoTime() - appendTime);
+            }
         }
     }
 
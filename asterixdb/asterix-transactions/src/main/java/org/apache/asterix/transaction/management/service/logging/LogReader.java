@@ -105,6 +105,7 @@ public class LogReader implements ILogReader {
                         if (!refillLogReadBuffer()) {
                             return null;
                         }
+                        readBuffer = this.readBuffer;
                         refilled = true;
                         //now see what we have in the refilled buffer
                         continue;
@@ -133,6 +134,10 @@ public class LogReader implements ILogReader {
             // break the loop by default
             break;
         }
+        if (readBuffer != this.readBuffer) {
+            // the record did not fit the read buffer, so its content is behind us: refill on the next read
+            this.readBuffer.position(this.readBuffer.limit());
+        }
         logRecord.setLSN(readLSN);
         readLSN += logRecord.getLogSize();
         return logRecord;
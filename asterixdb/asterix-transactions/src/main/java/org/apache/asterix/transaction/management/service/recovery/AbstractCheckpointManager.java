@@ -60,6 +60,8 @@ public abstract class AbstractCheckpointManager implements ICheckpointManager {
     private final int historyToKeep;
     private final int lsnThreshold;
     private final int pollFrequency;
+    private final long redoTarget;
+    private final int flushInterval;
     protected final ITransactionSubsystem txnSubsystem;
     private CheckpointThread checkpointer;
 
@@ -82,6 +84,8 @@ public abstract class AbstractCheckpointManager implements ICheckpointManager {
         }
         lsnThreshold = checkpointProperties.getLsnThreshold();
         pollFrequency = checkpointProperties.getPollFrequency();
+        redoTarget = checkpointProperties.getRedoTarget();
+        flushInterval = checkpointProperties.getFlushInterval();
         // We must keep at least the latest checkpoint
         historyToKeep = checkpointProperties.getHistoryToKeep() == 0 ? 1 : checkpointProperties.getHistoryToKeep();
     }
@@ -143,9 +147,14 @@ public abstract class AbstractCheckpointManager implements ICheckpointManager {
         return checkpointObjectList.get(0);
     }
 
+    protected long getRedoTarget() {
+        return redoTarget;
+    }
+
     @Override
     public void start() {
-        checkpointer = new CheckpointThread(this, txnSubsystem.getLogManager(), lsnThreshold, pollFrequency);
+        checkpointer = new CheckpointThread(this, txnSubsystem.getLogManager(), lsnThreshold, pollFrequency, redoTarget,
+                flushInterval);
         checkpointer.start();
     }
 
@@ -33,6 +33,7 @@ import org.apache.logging.log4j.Logger;
 public class CheckpointManager extends AbstractCheckpointManager {
 
     private static final Logger LOGGER = LogManager.getLogger();
+    private long lastIncrementalCheckpointLSN = SHARP_CHECKPOINT_LSN;
 
     public CheckpointManager(ITransactionSubsystem txnSubsystem, CheckpointProperties checkpointProperties) {
         super(txnSubsystem, checkpointProperties);
@@ -77,4 +78,48 @@ public class CheckpointManager extends AbstractCheckpointManager {
         }
         return minFirstLSN;
     }
-}
\ No newline at end of file
+
+    /***
+     * Schedules asynchronous flushes for the dataset partitions whose memory components hold the oldest LSNs <
+     * {@code checkpointTargetLSN}, oldest first, so that the low-water mark moves towards the target. The flushes are
+     * paced: at most one partition behind the target is flushing at a time while the log to redo exceeds the redo
+     * target by less than a quarter of it, and one more is allowed for each further quarter, so that more partitions
+     * are flushed concurrently only when flushing one at a time does not keep up with the log.
+     * A checkpoint is captured at the current low-water mark, without waiting for the flushes, once the low-water
+     * mark advanced by a quarter of the redo target since the previous incremental checkpoint, and the transaction
+     * log files it no longer needs are deleted. This writes at most four checkpoints for each redo target worth of
+     * log.
+     */
+    @Override
+    public synchronized long tryIncrementalCheckpoint(long checkpointTargetLSN) throws HyracksDataException {
+        final long minFirstLSN = txnSubsystem.getRecoveryManager().getMinFirstLSN();
+        if (minFirstLSN < checkpointTargetLSN) {
+            int maxFlushes = getMaxCheckpointFlushes(checkpointTargetLSN - minFirstLSN);
+            int scheduled = txnSubsystem.getApplicationContext().getDatasetLifecycleManager()
+                    .scheduleAsyncFlushForOldestDatasetPartitions(checkpointTargetLSN, maxFlushes);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("scheduled {} checkpoint flush(es), at most {} at a time", scheduled, maxFlushes);
+            }
+        }
+        if (lastIncrementalCheckpointLSN == SHARP_CHECKPOINT_LSN
+                || minFirstLSN - lastIncrementalCheckpointLSN > getRedoTarget() / 4) {
+            capture(minFirstLSN, false);
+            txnSubsystem.getLogManager().deleteOldLogFiles(minFirstLSN);
+            lastIncrementalCheckpointLSN = minFirstLSN;
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("incremental checkpoint at LSN({})", minFirstLSN);
+            }
+        }
+        return minFirstLSN;
+    }
+
+    /**
+     * @param excessRedoLog
+     *            by how much the log to redo exceeds the redo target
+     * @return how many partitions behind the redo target may be flushing at the same time
+     */
+    private int getMaxCheckpointFlushes(long excessRedoLog) {
+        long step = Math.max(1, getRedoTarget() / 4);
+        return (int) Math.min(Integer.MAX_VALUE, 1 + excessRedoLog / step);
+    }
+}
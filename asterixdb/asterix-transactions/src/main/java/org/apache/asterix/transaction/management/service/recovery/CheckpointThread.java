@@ -29,12 +29,18 @@ import org.apache.logging.log4j.Logger;
  * A daemon thread that periodically attempts to perform checkpoints.
  * A checkpoint attempt is made when the volume of transaction logs written
  * since the last successful checkpoint exceeds a certain threshold.
+ * When a redo target is set, the thread instead makes an incremental checkpoint
+ * attempt every flush interval, flushing the dataset partitions that hold the
+ * oldest LSNs behind the redo target, a few at a time, so that the log to redo
+ * stays close to the target without flush bursts.
  */
 public class CheckpointThread extends Thread {
 
     private static final Logger LOGGER = LogManager.getLogger();
     private long lsnThreshold;
     private long checkpointTermInSecs;
+    private final long redoTarget;
+    private final long flushIntervalInMillis;
 
     private final ILogManager logManager;
     private final ICheckpointManager checkpointManager;
@@ -42,16 +48,50 @@ public class CheckpointThread extends Thread {
 
     public CheckpointThread(ICheckpointManager checkpointManager, ILogManager logManager, long lsnThreshold,
             long checkpointTermInSecs) {
+        this(checkpointManager, logManager, lsnThreshold, checkpointTermInSecs, 0, 0);
+    }
+
+    public CheckpointThread(ICheckpointManager checkpointManager, ILogManager logManager, long lsnThreshold,
+            long checkpointTermInSecs, long redoTarget, long flushIntervalInMillis) {
         this.checkpointManager = checkpointManager;
         this.logManager = logManager;
         this.lsnThreshold = lsnThreshold;
         this.checkpointTermInSecs = checkpointTermInSecs;
+        this.redoTarget = redoTarget;
+        this.flushIntervalInMillis = flushIntervalInMillis;
         setDaemon(true);
     }
 
     @Override
     public void run() {
         Thread.currentThread().setName("Checkpoint Thread (" + Thread.currentThread().getId() + ")");
+        if (redoTarget > 0) {
+            runIncrementalCheckpoints();
+        } else {
+            runThresholdCheckpoints();
+        }
+    }
+
+    private void runIncrementalCheckpoints() {
+        while (shouldRun) {
+            try {
+                sleep(flushIntervalInMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!shouldRun) {
+                return;
+            }
+            try {
+                // anything logged before the target LSN has to be flushed to keep the redo work below the target
+                checkpointManager.tryIncrementalCheckpoint(logManager.getAppendLSN() - redoTarget);
+            } catch (HyracksDataException e) {
+                LOGGER.log(Level.ERROR, "Error during incremental checkpoint", e);
+            }
+        }
+    }
+
+    private void runThresholdCheckpoints() {
         long currentCheckpointAttemptMinLSN;
         long lastCheckpointLSN = -1;
         long currentLogLSN;
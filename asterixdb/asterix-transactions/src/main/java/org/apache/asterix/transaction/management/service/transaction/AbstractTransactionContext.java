@@ -60,8 +60,9 @@ public abstract class AbstractTransactionContext implements ITransactionContext
 
     @Override
     public void setLastLSN(long newValue) {
-        firstLSN.compareAndSet(-1, newValue);
-        lastLSN.set(Math.max(lastLSN.get(), newValue));
+        // the tasks of a transaction append their log records concurrently, so they can get here out of LSN order
+        firstLSN.accumulateAndGet(newValue, (current, lsn) -> current == -1 ? lsn : Math.min(current, lsn));
+        lastLSN.accumulateAndGet(newValue, Math::max);
     }
 
     @Override
@@ -24,11 +24,14 @@ import static org.mockito.Mockito.when;
 
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.asterix.common.transactions.DatasetId;
@@ -38,6 +41,7 @@ import org.apache.asterix.common.transactions.TxnId;
 import org.apache.asterix.transaction.management.service.locking.Request.Kind;
 import org.apache.asterix.transaction.management.service.transaction.TransactionManagementConstants.LockManagerConstants.LockMode;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -46,6 +50,7 @@ public class LockManagerUnitTest {
     public static int LOCK_MGR_SHRINK_TIMER = 5000;
     public static int LOCK_MGR_ARENAS = 2;
     public static int LOCK_MGR_TABLE_SIZE = 10;
+    public static int LOCK_MGR_ESCALATION_THRESHOLD = 2;
 
     static int INITIAL_TIMESTAMP = 0;
     static long COORDINATOR_SLEEP = 20;
@@ -142,10 +147,210 @@ public class LockManagerUnitTest {
         expectError(execute(reqs), j(1), IllegalStateException.class);
     }
 
+    @Test
+    public void testEscalation() throws Exception {
+        ConcurrentLockManager escalatingLockMgr = createEscalatingLockManager();
+        LockManagerStats stats = escalatingLockMgr.getStats();
+        escalatingLockMgr.lock(d(1), e(1), LockMode.X, j(1));
+        escalatingLockMgr.lock(d(1), e(2), LockMode.X, j(1));
+        Assert.assertEquals(1, stats.escalations());
+        // only the lock on the granule is left
+        Assert.assertEquals(1, stats.heldLocks());
+        Assert.assertTrue(escalatingLockMgr.tryLock(d(1), e(3), LockMode.X, j(1)));
+        Assert.assertEquals(1, stats.heldLocks());
+
+        Assert.assertFalse(escalatingLockMgr.instantTryLock(d(1), e(4), LockMode.S, j(2)));
+        Assert.assertFalse(escalatingLockMgr.tryLock(d(1), e(4), LockMode.X, j(2)));
+        Assert.assertTrue(escalatingLockMgr.instantTryLock(d(2), e(4), LockMode.S, j(2)));
+
+        // releasing the covered entity locks releases the escalated lock
+        escalatingLockMgr.unlock(d(1), e(1), LockMode.X, j(1));
+        escalatingLockMgr.unlock(d(1), e(2), LockMode.X, j(1));
+        Assert.assertEquals(0, stats.deescalations());
+        escalatingLockMgr.unlock(d(1), e(3), LockMode.X, j(1));
+        Assert.assertEquals(1, stats.deescalations());
+        Assert.assertTrue(escalatingLockMgr.instantTryLock(d(1), e(4), LockMode.S, j(2)));
+        Assert.assertTrue(escalatingLockMgr.tryLock(d(1), e(4), LockMode.X, j(2)));
+
+        escalatingLockMgr.releaseLocks(j(1));
+        escalatingLockMgr.releaseLocks(j(2));
+        Assert.assertEquals(0, stats.heldLocks());
+        Assert.assertEquals(3, stats.maxHeldLocks());
+    }
+
+    @Test
+    public void testEscalationConflict() throws Exception {
+        ConcurrentLockManager escalatingLockMgr = createEscalatingLockManager();
+        LockManagerStats stats = escalatingLockMgr.getStats();
+        escalatingLockMgr.lock(d(1), e(10), LockMode.S, j(2));
+        escalatingLockMgr.lock(d(1), e(1), LockMode.X, j(1));
+        escalatingLockMgr.lock(d(1), e(2), LockMode.X, j(1));
+        // the intention lock of the reader prevents the escalation
+        Assert.assertEquals(0, stats.escalations());
+        Assert.assertEquals(1, stats.failedEscalations());
+        Assert.assertEquals(5, stats.heldLocks());
+        Assert.assertTrue(escalatingLockMgr.instantTryLock(d(1), e(3), LockMode.S, j(2)));
+
+        escalatingLockMgr.releaseLocks(j(2));
+        escalatingLockMgr.lock(d(1), e(3), LockMode.X, j(1));
+        // the escalation is retried after another threshold of entity locks
+        Assert.assertEquals(0, stats.escalations());
+        escalatingLockMgr.lock(d(1), e(4), LockMode.X, j(1));
+        Assert.assertEquals(1, stats.escalations());
+        escalatingLockMgr.releaseLocks(j(1));
+        Assert.assertEquals(0, stats.heldLocks());
+    }
+
+    @Test
+    public void testIntentionLockReleased() throws Exception {
+        ConcurrentLockManager escalatingLockMgr = createEscalatingLockManager();
+        LockManagerStats stats = escalatingLockMgr.getStats();
+        escalatingLockMgr.lock(d(1), e(1), LockMode.X, j(1));
+        // an entity-level writer gives up its intention lock with its last entity lock on the dataset
+        escalatingLockMgr.lock(d(1), e(10), LockMode.X, j(2));
+        escalatingLockMgr.unlock(d(1), e(10), LockMode.X, j(2));
+        Assert.assertEquals(2, stats.heldLocks());
+        escalatingLockMgr.lock(d(1), e(2), LockMode.X, j(1));
+        Assert.assertEquals(1, stats.escalations());
+        Assert.assertEquals(0, stats.failedEscalations());
+
+        escalatingLockMgr.unlock(d(1), e(1), LockMode.X, j(1));
+        escalatingLockMgr.unlock(d(1), e(2), LockMode.X, j(1));
+        Assert.assertEquals(1, stats.deescalations());
+        Assert.assertEquals(0, stats.heldLocks());
+        escalatingLockMgr.releaseLocks(j(1));
+        escalatingLockMgr.releaseLocks(j(2));
+    }
+
+    @Test
+    public void testConcurrentEntityLevelWriters() throws Exception {
+        final ConcurrentLockManager escalatingLockMgr = createEscalatingLockManager();
+        final LockManagerStats stats = escalatingLockMgr.getStats();
+        final int numWriters = 2;
+        final int numEntities = 10000;
+        final ITransactionContext[] txnCtxs = new ITransactionContext[numWriters];
+        for (int i = 0; i < numWriters; i++) {
+            txnCtxs[i] = j(i + 1);
+        }
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        final CyclicBarrier barrier = new CyclicBarrier(numWriters);
+        final Thread[] writers = new Thread[numWriters];
+        for (int i = 0; i < numWriters; i++) {
+            final int writer = i;
+            writers[i] = new Thread(() -> {
+                try {
+                    barrier.await();
+                    // every writer locks its own entities and commits each one of them before the one after next
+                    for (int entity = writer; entity < numEntities; entity += numWriters) {
+                        escalatingLockMgr.lock(d(1), e(entity), LockMode.X, txnCtxs[writer]);
+                        if (entity >= numWriters) {
+                            escalatingLockMgr.unlock(d(1), e(entity - numWriters), LockMode.X, txnCtxs[writer]);
+                        }
+                    }
+                    final int lastEntity = numEntities - numWriters + writer;
+                    escalatingLockMgr.unlock(d(1), e(lastEntity), LockMode.X, txnCtxs[writer]);
+                } catch (Throwable th) {
+                    errors.add(th);
+                }
+            });
+            writers[i].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        Assert.assertTrue(errors.toString(), errors.isEmpty());
+        // the intention and escalated locks were released with the last entity locks, before the transactions end
+        Assert.assertEquals(0, stats.heldLocks());
+        Assert.assertEquals(stats.escalations(), stats.deescalations());
+        for (ITransactionContext txnCtx : txnCtxs) {
+            escalatingLockMgr.releaseLocks(txnCtx);
+        }
+    }
+
+    @Test
+    public void testDeescalationOnConflict() throws Exception {
+        ConcurrentLockManager escalatingLockMgr = createEscalatingLockManager();
+        LockManagerStats stats = escalatingLockMgr.getStats();
+        escalatingLockMgr.lock(d(1), e(1), LockMode.X, j(1));
+        escalatingLockMgr.lock(d(1), e(2), LockMode.X, j(1));
+        Assert.assertEquals(1, stats.escalations());
+        // the conflict asks the escalated lock to de-escalate, new entities are locked individually from then on
+        Assert.assertFalse(escalatingLockMgr.tryLock(d(1), e(10), LockMode.X, j(2)));
+        escalatingLockMgr.lock(d(1), e(3), LockMode.X, j(1));
+        escalatingLockMgr.unlock(d(1), e(1), LockMode.X, j(1));
+        Assert.assertFalse(escalatingLockMgr.tryLock(d(1), e(10), LockMode.X, j(2)));
+        // the escalated lock is de-escalated once it covers no entity, before the writer released all its entities
+        escalatingLockMgr.unlock(d(1), e(2), LockMode.X, j(1));
+        Assert.assertEquals(1, stats.deescalations());
+        Assert.assertTrue(escalatingLockMgr.tryLock(d(1), e(10), LockMode.X, j(2)));
+        Assert.assertFalse(escalatingLockMgr.tryLock(d(1), e(3), LockMode.X, j(2)));
+        // the IX locks of both writers prevent another escalation
+        escalatingLockMgr.lock(d(1), e(4), LockMode.X, j(1));
+        escalatingLockMgr.lock(d(1), e(5), LockMode.X, j(1));
+        Assert.assertEquals(1, stats.escalations());
+        escalatingLockMgr.releaseLocks(j(1));
+        escalatingLockMgr.releaseLocks(j(2));
+    }
+
+    @Test
+    public void testDeescalationForContinuousWriter() throws Exception {
+        final ConcurrentLockManager escalatingLockMgr = createEscalatingLockManager();
+        final LockManagerStats stats = escalatingLockMgr.getStats();
+        final ITransactionContext continuousWriter = j(1);
+        final ITransactionContext writer = j(2);
+        final AtomicBoolean stop = new AtomicBoolean();
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        escalatingLockMgr.lock(d(1), e(0), LockMode.X, continuousWriter);
+        escalatingLockMgr.lock(d(1), e(1), LockMode.X, continuousWriter);
+        Assert.assertEquals(1, stats.escalations());
+        // the writer always holds an entity lock on the dataset, it commits each entity after locking the next one
+        final Thread continuous = new Thread(() -> {
+            try {
+                escalatingLockMgr.unlock(d(1), e(0), LockMode.X, continuousWriter);
+                for (int entity = 2; !stop.get(); entity++) {
+                    escalatingLockMgr.lock(d(1), e(entity), LockMode.X, continuousWriter);
+                    escalatingLockMgr.unlock(d(1), e(entity - 1), LockMode.X, continuousWriter);
+                }
+            } catch (Throwable th) {
+                errors.add(th);
+            }
+        });
+        continuous.start();
+        try {
+            // the second writer gets its entity lock although the continuous writer never releases all its entities
+            escalatingLockMgr.lock(d(1), e(-1), LockMode.X, writer);
+            Assert.assertEquals(1, stats.deescalations());
+            escalatingLockMgr.unlock(d(1), e(-1), LockMode.X, writer);
+        } finally {
+            stop.set(true);
+            continuous.join();
+        }
+        Assert.assertTrue(errors.toString(), errors.isEmpty());
+        escalatingLockMgr.releaseLocks(continuousWriter);
+        escalatingLockMgr.releaseLocks(writer);
+        Assert.assertEquals(0, stats.heldLocks());
+    }
+
+    @Test
+    public void testInstantEscalated() throws Exception {
+        lockMgr = createEscalatingLockManager();
+        List<Request> reqs = new ArrayList<>();
+        reqs.add(req(Kind.LOCK, j(1), d(1), e(1), LockMode.X));
+        reqs.add(req(Kind.LOCK, j(1), d(1), e(2), LockMode.X));
+        reqs.add(req(Kind.PRINT));
+        reqs.add(req(Kind.INSTANT_LOCK, j(2), d(1), e(3), LockMode.S));
+        expectError(execute(reqs), j(2), WaitInterruptedException.class);
+    }
+
     //--------------------------------------------------------------------
     // Helper methods
     //--------------------------------------------------------------------
 
+    private static ConcurrentLockManager createEscalatingLockManager() throws Exception {
+        return new ConcurrentLockManager(LOCK_MGR_SHRINK_TIMER, LOCK_MGR_ARENAS, LOCK_MGR_TABLE_SIZE,
+                LOCK_MGR_ESCALATION_THRESHOLD);
+    }
+
     /**
      * Executes a list of requests where
      * a) each job runs in a different thread and
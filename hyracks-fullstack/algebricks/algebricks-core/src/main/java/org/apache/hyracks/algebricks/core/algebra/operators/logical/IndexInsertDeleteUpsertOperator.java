@@ -50,6 +50,8 @@ public class IndexInsertDeleteUpsertOperator extends AbstractLogicalOperator {
     private List<Mutable<ILogicalExpression>> prevSecondaryKeyExprs;
     private Mutable<ILogicalExpression> prevAdditionalFilteringExpression;
     private final int numberOfAdditionalNonFilteringFields;
+    // the number of trailing secondary key expressions that are stored in the index without being part of its key
+    private int numberOfIncludedFields;
 
     public IndexInsertDeleteUpsertOperator(IDataSourceIndex<?, ?> dataSourceIndex,
             List<Mutable<ILogicalExpression>> primaryKeyExprs, List<Mutable<ILogicalExpression>> secondaryKeyExprs,
@@ -189,4 +191,12 @@ public class IndexInsertDeleteUpsertOperator extends AbstractLogicalOperator {
     public int getNumberOfAdditionalNonFilteringFields() {
         return numberOfAdditionalNonFilteringFields;
     }
+
+    public int getNumberOfIncludedFields() {
+        return numberOfIncludedFields;
+    }
+
+    public void setNumberOfIncludedFields(int numberOfIncludedFields) {
+        this.numberOfIncludedFields = numberOfIncludedFields;
+    }
 }
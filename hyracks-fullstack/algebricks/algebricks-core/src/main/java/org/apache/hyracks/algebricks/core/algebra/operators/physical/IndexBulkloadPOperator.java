@@ -62,10 +62,17 @@ public class IndexBulkloadPOperator extends AbstractPhysicalOperator {
     private final List<LogicalVariable> additionalFilteringKeys;
     private final ILogicalExpression filterExpr;
     private final IDataSourceIndex<?, ?> dataSourceIndex;
+    private final int numberOfIncludedFields;
 
     public IndexBulkloadPOperator(List<LogicalVariable> primaryKeys, List<LogicalVariable> secondaryKeys,
             List<LogicalVariable> additionalFilteringKeys, Mutable<ILogicalExpression> filterExpr,
             IDataSourceIndex<?, ?> dataSourceIndex) {
+        this(primaryKeys, secondaryKeys, additionalFilteringKeys, filterExpr, dataSourceIndex, 0);
+    }
+
+    public IndexBulkloadPOperator(List<LogicalVariable> primaryKeys, List<LogicalVariable> secondaryKeys,
+            List<LogicalVariable> additionalFilteringKeys, Mutable<ILogicalExpression> filterExpr,
+            IDataSourceIndex<?, ?> dataSourceIndex, int numberOfIncludedFields) {
         this.primaryKeys = primaryKeys;
         this.secondaryKeys = secondaryKeys;
         this.additionalFilteringKeys = additionalFilteringKeys;
@@ -75,6 +82,7 @@ public class IndexBulkloadPOperator extends AbstractPhysicalOperator {
             this.filterExpr = null;
         }
         this.dataSourceIndex = dataSourceIndex;
+        this.numberOfIncludedFields = numberOfIncludedFields;
     }
 
     @Override
@@ -96,7 +104,8 @@ public class IndexBulkloadPOperator extends AbstractPhysicalOperator {
         List<OrderColumn> orderColumns = new ArrayList<OrderColumn>();
         // Data needs to be sorted based on the [token, number of token, PK]
         // OR [token, PK] if the index is not partitioned
-        for (LogicalVariable skVar : secondaryKeys) {
+        // Included fields are not part of the index key and do not take part in the order
+        for (LogicalVariable skVar : secondaryKeys.subList(0, secondaryKeys.size() - numberOfIncludedFields)) {
             if (!skVarMap.containsKey(skVar.getId())) {
                 orderColumns.add(new OrderColumn(skVar, OrderKind.ASC));
                 skVarMap.put(skVar.getId(), null);
@@ -352,9 +352,9 @@ public class SetAlgebricksPhysicalOperatorsRule implements IAlgebraicRewriteRule
                         getKeys(opInsDel.getAdditionalFilteringExpressions(), additionalFilteringKeys);
                     }
                     if (opInsDel.isBulkload()) {
-                        op.setPhysicalOperator(
-                                new IndexBulkloadPOperator(primaryKeys, secondaryKeys, additionalFilteringKeys,
-                                        opInsDel.getFilterExpression(), opInsDel.getDataSourceIndex()));
+                        op.setPhysicalOperator(new IndexBulkloadPOperator(primaryKeys, secondaryKeys,
+                                additionalFilteringKeys, opInsDel.getFilterExpression(), opInsDel.getDataSourceIndex(),
+                                opInsDel.getNumberOfIncludedFields()));
                     } else {
                         List<LogicalVariable> prevSecondaryKeys = null;
                         LogicalVariable prevAdditionalFilteringKey = null;
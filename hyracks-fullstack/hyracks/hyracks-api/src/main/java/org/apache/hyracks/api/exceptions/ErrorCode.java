@@ -140,6 +140,8 @@ public class ErrorCode {
     public static final int INDEX_DOES_NOT_EXIST = 104;
     public static final int CANNOT_DROP_IN_USE_INDEX = 105;
     public static final int CANNOT_DEACTIVATE_PINNED_BLOOM_FILTER = 106;
+    public static final int BATCH_POINT_SEARCH_NOT_ALLOWED_FOR_SECONDARY_INDEX = 107;
+    public static final int BATCH_POINT_SEARCH_REQUIRES_ALL_KEY_FIELDS = 108;
 
     // Compilation error codes.
     public static final int RULECOLLECTION_NOT_INSTANCE_OF_LIST = 10000;
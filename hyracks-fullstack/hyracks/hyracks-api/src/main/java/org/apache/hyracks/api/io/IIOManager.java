@@ -51,6 +51,31 @@ public interface IIOManager {
 
     public IIOFuture asyncRead(IFileHandle fHandle, long offset, ByteBuffer data);
 
+    /**
+     * Map a region of an open file into memory for reading. The mapping stays valid after the file handle is closed
+     * and is released by {@link #unmap(ByteBuffer)}, or when the returned buffer is garbage collected.
+     *
+     * @param fHandle
+     *            the file handle
+     * @param offset
+     *            the position in the file where the region starts
+     * @param size
+     *            the size of the region, at most {@link Integer#MAX_VALUE}
+     * @return a read-only buffer over the region
+     * @throws HyracksDataException
+     */
+    public ByteBuffer mapForRead(IFileHandle fHandle, long offset, long size) throws HyracksDataException;
+
+    /**
+     * Release a mapping returned by {@link #mapForRead(IFileHandle, long, long)} without waiting for it to be
+     * garbage collected. The buffer must not be accessed afterwards. Where the JDK does not allow releasing it
+     * explicitly, the mapping is still released when it is garbage collected.
+     *
+     * @param mapping
+     *            the mapped buffer
+     */
+    public void unmap(ByteBuffer mapping);
+
     public void close(IFileHandle fHandle) throws HyracksDataException;
 
     public void sync(IFileHandle fileHandle, boolean metadata) throws HyracksDataException;
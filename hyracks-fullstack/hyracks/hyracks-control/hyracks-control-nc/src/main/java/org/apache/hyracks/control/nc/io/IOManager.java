@@ -41,6 +41,7 @@ import org.apache.hyracks.api.io.IIOFuture;
 import org.apache.hyracks.api.io.IIOManager;
 import org.apache.hyracks.api.io.IODeviceHandle;
 import org.apache.hyracks.api.util.IoUtil;
+import org.apache.hyracks.util.BufferUnmapper;
 
 public class IOManager implements IIOManager {
     /*
@@ -231,6 +232,27 @@ public class IOManager implements IIOManager {
         return req;
     }
 
+    @Override
+    public ByteBuffer mapForRead(IFileHandle fHandle, long offset, long size) throws HyracksDataException {
+        try {
+            return ((FileHandle) fHandle).getFileChannel().map(FileChannel.MapMode.READ_ONLY, offset, size);
+        } catch (ClosedByInterruptException e) {
+            Thread.currentThread().interrupt();
+            // re-open the closed channel. The channel will be closed during the typical file lifecycle
+            ((FileHandle) fHandle).ensureOpen();
+            throw HyracksDataException.create(e);
+        } catch (ClosedChannelException e) {
+            throw HyracksDataException.create(ErrorCode.CANNOT_READ_CLOSED_FILE, e, fHandle.getFileReference());
+        } catch (IOException e) {
+            throw HyracksDataException.create(e);
+        }
+    }
+
+    @Override
+    public void unmap(ByteBuffer mapping) {
+        BufferUnmapper.unmap(mapping);
+    }
+
     @Override
     public void close(IFileHandle fHandle) throws HyracksDataException {
         try {
@@ -150,6 +150,14 @@ public class BloomCalculations {
         return new BloomFilterSpecification(K, bucketsPerElement + 1);
     }
 
+    /**
+     * @return the lowest false positive rate {@link #computeBloomSpec(int, double)} can satisfy
+     */
+    public static double minFalsePositiveRate() {
+        double[] prob = probs[probs.length - 1];
+        return prob[prob.length - 1];
+    }
+
     /**
      * Calculates the maximum number of buckets per element that this implementation
      * can support. Crucially, it will lower the bucket count if necessary to meet
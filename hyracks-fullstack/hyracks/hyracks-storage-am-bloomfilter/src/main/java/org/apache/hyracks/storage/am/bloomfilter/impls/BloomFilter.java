@@ -125,7 +125,26 @@ public class BloomFilter {
         if (numPages == 0) {
             return false;
         }
+        computeHashes(tuple, hashes);
+        return contains(hashes);
+    }
+
+    /**
+     * Computes the hashes of the key of a tuple once, to check it against several filters on the same key fields
+     * with {@link #contains(long[])}.
+     */
+    public void computeHashes(ITupleReference tuple, long[] hashes) {
         MurmurHash128Bit.hash3_x64_128(tuple, keyFields, SEED, hashes);
+    }
+
+    /**
+     * @param hashes
+     *            the hashes of a key, as computed by {@link #computeHashes(ITupleReference, long[])}
+     */
+    public boolean contains(long[] hashes) throws HyracksDataException {
+        if (numPages == 0) {
+            return false;
+        }
         if (version == BLOCKED_BLOOM_FILTER_VERSION) {
             return blockContains(hashes);
         } else {
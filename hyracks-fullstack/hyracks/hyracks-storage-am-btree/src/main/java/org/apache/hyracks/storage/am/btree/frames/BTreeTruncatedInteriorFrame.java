@@ -0,0 +1,384 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hyracks.storage.am.btree.frames;
+
+import java.util.Arrays;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.btree.api.IBTreeInteriorFrame;
+import org.apache.hyracks.storage.am.btree.impls.BTreeOpContext.PageValidationInfo;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.btree.tuples.BTreeTruncatedInteriorTupleReference;
+import org.apache.hyracks.storage.am.common.api.ISplitKey;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexFrame;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.storage.am.common.frames.FrameOpSpaceStatus;
+import org.apache.hyracks.storage.am.common.frames.TreeIndexNSMFrame;
+import org.apache.hyracks.storage.am.common.tuples.TypeAwareTupleWriter;
+import org.apache.hyracks.storage.common.MultiComparator;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.IExtraPageBlockHelper;
+import org.apache.hyracks.util.encoding.VarLenIntEncoderDecoder;
+
+/**
+ * An interior frame for bulk loaded B-trees that keeps its separators short. The bulk loader cuts each separator
+ * after the first key field that tells the last key of the left child apart from the first key of the right child;
+ * the fields cut off are taken to be greater than any value when a search key is compared to the separator. Within
+ * a page, the leading fields and bytes a separator shares with the first separator of the page are not stored again
+ * (see {@link BTreeTruncatedInteriorTupleReference}), so every separator can still be read on its own and the page
+ * is searched with a binary search. More separators fit in a page, which makes the tree flatter and lets a lookup
+ * pin fewer pages.
+ * Pages of this frame can only be filled in key order by a bulk loader, they do not support inserts, deletes or
+ * splits.
+ */
+public class BTreeTruncatedInteriorFrame extends TreeIndexNSMFrame implements IBTreeInteriorFrame {
+
+    private static final int RIGHT_LEAF_OFFSET = TreeIndexNSMFrame.RESERVED_HEADER_SIZE;
+    private static final int PAGE_HEADER_SIZE = RIGHT_LEAF_OFFSET + 4;
+    private static final int CHILD_PTR_SIZE = 4;
+    private static final int MAX_FIELD_COUNT = 0xFF;
+
+    private final ITypeTraits[] typeTraits;
+    private final BTreeTruncatedInteriorTupleReference firstTuple;
+    private final BTreeTruncatedInteriorTupleReference previousTuple;
+    private final int[] sharedBytes;
+    private int sharedFields;
+
+    private MultiComparator cmp;
+
+    public BTreeTruncatedInteriorFrame(TypeAwareTupleWriter tupleWriter) {
+        super(tupleWriter, new OrderedSlotManager());
+        typeTraits = tupleWriter.getTypeTraits();
+        frameTuple = createTupleReference();
+        firstTuple = createTupleReference();
+        previousTuple = createTupleReference();
+        sharedBytes = new int[typeTraits.length];
+    }
+
+    @Override
+    public void initBuffer(byte level) {
+        super.initBuffer(level);
+        buf.putInt(RIGHT_LEAF_OFFSET, -1);
+    }
+
+    /**
+     * @return the largest number of bytes the key fields of the tuple can take in a page, with its child pointer and
+     *         slot
+     */
+    @Override
+    public int getBytesRequiredToWriteTuple(ITupleReference tuple) {
+        int numFields = Math.min(tuple.getFieldCount(), cmp.getKeyFieldCount());
+        int bytes = BTreeTruncatedInteriorTupleReference.HEADER_SIZE;
+        for (int i = 0; i < numFields; i++) {
+            bytes += getFieldBytes(i, tuple.getFieldLength(i), 0);
+        }
+        return bytes + CHILD_PTR_SIZE + slotManager.getSlotSize();
+    }
+
+    /**
+     * @return the number of bytes the separator takes when it is appended to this page, with its child pointer and
+     *         slot
+     */
+    public int getBytesRequiredToAppend(ITupleReference tuple) {
+        return computeSharedPrefix(tuple) + CHILD_PTR_SIZE + slotManager.getSlotSize();
+    }
+
+    private int getFieldBytes(int fieldIndex, int fieldLength, int fieldSharedBytes) {
+        int suffixLength = fieldLength - fieldSharedBytes;
+        int bytes = VarLenIntEncoderDecoder.getBytesRequired(fieldSharedBytes) + suffixLength;
+        if (!typeTraits[fieldIndex].isFixedLength()) {
+            bytes += VarLenIntEncoderDecoder.getBytesRequired(suffixLength);
+        }
+        return bytes;
+    }
+
+    /**
+     * Finds the leading fields and bytes the separator shares with the first separator of the page.
+     *
+     * @return the number of bytes of the separator without its child pointer
+     */
+    private int computeSharedPrefix(ITupleReference tuple) {
+        int numFields = tuple.getFieldCount();
+        sharedFields = 0;
+        Arrays.fill(sharedBytes, 0, numFields, 0);
+        if (getTupleCount() > 0) {
+            firstTuple.resetByTupleIndex(this, 0);
+            int firstTupleFields = firstTuple.getFieldCount();
+            // the last field is always stored, the child pointer follows it
+            while (sharedFields < numFields - 1 && sharedFields < firstTupleFields
+                    && getSharedBytes(tuple, firstTuple, sharedFields) == tuple.getFieldLength(sharedFields)
+                    && tuple.getFieldLength(sharedFields) == firstTuple.getFieldLength(sharedFields)) {
+                sharedFields++;
+            }
+            for (int i = sharedFields; i < Math.min(numFields, firstTupleFields); i++) {
+                sharedBytes[i] = getSharedBytes(tuple, firstTuple, i);
+            }
+        }
+        int bytes = BTreeTruncatedInteriorTupleReference.HEADER_SIZE;
+        for (int i = sharedFields; i < numFields; i++) {
+            bytes += getFieldBytes(i, tuple.getFieldLength(i), sharedBytes[i]);
+        }
+        return bytes;
+    }
+
+    private static int getSharedBytes(ITupleReference tuple, ITupleReference other, int fieldIndex) {
+        byte[] data = tuple.getFieldData(fieldIndex);
+        int start = tuple.getFieldStart(fieldIndex);
+        byte[] otherData = other.getFieldData(fieldIndex);
+        int otherStart = other.getFieldStart(fieldIndex);
+        int length = Math.min(tuple.getFieldLength(fieldIndex), other.getFieldLength(fieldIndex));
+        int shared = 0;
+        while (shared < length && data[start + shared] == otherData[otherStart + shared]) {
+            shared++;
+        }
+        return shared;
+    }
+
+    @Override
+    public void insertSorted(ITupleReference tuple) {
+        int numFields = tuple.getFieldCount();
+        if (numFields > MAX_FIELD_COUNT) {
+            throw new IllegalArgumentException("Cannot store separators with more than " + MAX_FIELD_COUNT + " fields");
+        }
+        int separatorSize = computeSharedPrefix(tuple);
+        int freeSpace = buf.getInt(Constants.FREE_SPACE_OFFSET);
+        slotManager.insertSlot(slotManager.getGreatestKeyIndicator(), freeSpace);
+        byte[] data = buf.array();
+        int runner = freeSpace;
+        data[runner++] = (byte) numFields;
+        data[runner++] = (byte) sharedFields;
+        for (int i = sharedFields; i < numFields; i++) {
+            int suffixLength = tuple.getFieldLength(i) - sharedBytes[i];
+            runner += VarLenIntEncoderDecoder.encode(sharedBytes[i], data, runner);
+            if (!typeTraits[i].isFixedLength()) {
+                runner += VarLenIntEncoderDecoder.encode(suffixLength, data, runner);
+            }
+            System.arraycopy(tuple.getFieldData(i), tuple.getFieldStart(i) + sharedBytes[i], data, runner,
+                    suffixLength);
+            runner += suffixLength;
+        }
+        System.arraycopy(tuple.getFieldData(numFields - 1), getLeftChildPageOff(tuple), data, runner, CHILD_PTR_SIZE);
+        int tupleSize = separatorSize + CHILD_PTR_SIZE;
+        buf.putInt(Constants.TUPLE_COUNT_OFFSET, buf.getInt(Constants.TUPLE_COUNT_OFFSET) + 1);
+        buf.putInt(Constants.FREE_SPACE_OFFSET, freeSpace + tupleSize);
+        buf.putInt(TOTAL_FREE_SPACE_OFFSET,
+                buf.getInt(TOTAL_FREE_SPACE_OFFSET) - tupleSize - slotManager.getSlotSize());
+        System.arraycopy(tuple.getFieldData(0), getLeftChildPageOff(tuple) + CHILD_PTR_SIZE, data, RIGHT_LEAF_OFFSET,
+                CHILD_PTR_SIZE);
+    }
+
+    @Override
+    public void deleteGreatest() {
+        int tupleOff = slotManager.getTupleOff(slotManager.getSlotEndOff());
+        frameTuple.resetByTupleOffset(buf.array(), tupleOff);
+        int tupleSize = frameTuple.getTupleSize() + CHILD_PTR_SIZE;
+        System.arraycopy(buf.array(), tupleOff + frameTuple.getTupleSize(), buf.array(), RIGHT_LEAF_OFFSET,
+                CHILD_PTR_SIZE);
+        buf.putInt(Constants.TUPLE_COUNT_OFFSET, buf.getInt(Constants.TUPLE_COUNT_OFFSET) - 1);
+        buf.putInt(TOTAL_FREE_SPACE_OFFSET,
+                buf.getInt(TOTAL_FREE_SPACE_OFFSET) + tupleSize + slotManager.getSlotSize());
+        if (buf.getInt(Constants.FREE_SPACE_OFFSET) == tupleOff + tupleSize) {
+            buf.putInt(Constants.FREE_SPACE_OFFSET, tupleOff);
+        }
+    }
+
+    /**
+     * Compares a search key to a separator whose trailing key fields may have been cut. The fields cut from the
+     * separator are greater than any value: a search key that matches all the fields kept in the separator and has
+     * more fields sorts before it. A search key with no more fields than the separator compares the fields it has,
+     * as a prefix search does.
+     */
+    public static int compare(MultiComparator keyCmp, ITupleReference key, ITupleReference separator)
+            throws HyracksDataException {
+        IBinaryComparator[] cmps = keyCmp.getComparators();
+        int numFields = Math.min(cmps.length, separator.getFieldCount());
+        for (int i = 0; i < numFields; i++) {
+            int c = cmps[i].compare(key.getFieldData(i), key.getFieldStart(i), key.getFieldLength(i),
+                    separator.getFieldData(i), separator.getFieldStart(i), separator.getFieldLength(i));
+            if (c != 0) {
+                return c;
+            }
+        }
+        return cmps.length > numFields ? -1 : 0;
+    }
+
+    private int compareSeparators(ITupleReference separator, ITupleReference otherSeparator)
+            throws HyracksDataException {
+        IBinaryComparator[] cmps = cmp.getComparators();
+        int numFields = Math.min(separator.getFieldCount(), otherSeparator.getFieldCount());
+        for (int i = 0; i < numFields; i++) {
+            int c = cmps[i].compare(separator.getFieldData(i), separator.getFieldStart(i), separator.getFieldLength(i),
+                    otherSeparator.getFieldData(i), otherSeparator.getFieldStart(i), otherSeparator.getFieldLength(i));
+            if (c != 0) {
+                return c;
+            }
+        }
+        // the shorter separator stands for the greatest key starting with its fields
+        return Integer.compare(otherSeparator.getFieldCount(), separator.getFieldCount());
+    }
+
+    /**
+     * @return the index of the first separator that is greater than (or equal to, if inclusive) the search key, or
+     *         -1 if there is none
+     */
+    private int findChildTupleIndex(ITupleReference key, MultiComparator keyCmp, boolean inclusive)
+            throws HyracksDataException {
+        int begin = 0;
+        int end = getTupleCount() - 1;
+        int tupleIndex = -1;
+        while (begin <= end) {
+            int mid = (begin + end) >>> 1;
+            frameTuple.resetByTupleIndex(this, mid);
+            int c = compare(keyCmp, key, frameTuple);
+            if (c < 0 || (inclusive && c == 0)) {
+                tupleIndex = mid;
+                end = mid - 1;
+            } else {
+                begin = mid + 1;
+            }
+        }
+        return tupleIndex;
+    }
+
+    @Override
+    public int getChildPageId(RangePredicate pred) throws HyracksDataException {
+        // Trivial case where there is only a child pointer (and no key).
+        if (getTupleCount() == 0) {
+            return buf.getInt(RIGHT_LEAF_OFFSET);
+        }
+        ITupleReference key = pred.getLowKey();
+        if (key == null) {
+            return getLeftmostChildPageId();
+        }
+        // Binary search always finds the leftmost separator, which is also the right one for prefix searches.
+        int tupleIndex = findChildTupleIndex(key, pred.getLowKeyComparator(), pred.isLowKeyInclusive());
+        if (tupleIndex < 0) {
+            return buf.getInt(RIGHT_LEAF_OFFSET);
+        }
+        return buf.getInt(getChildPointerOff(tupleIndex));
+    }
+
+    private int getChildPointerOff(int tupleIndex) {
+        frameTuple.resetByTupleIndex(this, tupleIndex);
+        return getTupleOffset(tupleIndex) + frameTuple.getTupleSize();
+    }
+
+    private int getLeftChildPageOff(ITupleReference tuple) {
+        return tuple.getFieldStart(tuple.getFieldCount() - 1) + tuple.getFieldLength(tuple.getFieldCount() - 1);
+    }
+
+    @Override
+    public int getLeftmostChildPageId() {
+        return buf.getInt(getChildPointerOff(0));
+    }
+
+    @Override
+    public int getRightmostChildPageId() {
+        return buf.getInt(RIGHT_LEAF_OFFSET);
+    }
+
+    @Override
+    public void setRightmostChildPageId(int pageId) {
+        buf.putInt(RIGHT_LEAF_OFFSET, pageId);
+    }
+
+    @Override
+    public int getPageHeaderSize() {
+        return PAGE_HEADER_SIZE;
+    }
+
+    @Override
+    public void setMultiComparator(MultiComparator cmp) {
+        this.cmp = cmp;
+    }
+
+    @Override
+    public BTreeTruncatedInteriorTupleReference createTupleReference() {
+        return new BTreeTruncatedInteriorTupleReference(typeTraits, PAGE_HEADER_SIZE);
+    }
+
+    @Override
+    public boolean compact() {
+        // separators are only appended, and only the greatest one is ever removed
+        return false;
+    }
+
+    @Override
+    public int findInsertTupleIndex(ITupleReference tuple) throws HyracksDataException {
+        throw new UnsupportedOperationException("Cannot insert tuples in a bulk loaded interior node.");
+    }
+
+    @Override
+    public int findDeleteTupleIndex(ITupleReference tuple) throws HyracksDataException {
+        throw new UnsupportedOperationException("Cannot delete tuples from a bulk loaded interior node.");
+    }
+
+    @Override
+    public FrameOpSpaceStatus hasSpaceInsert(ITupleReference tuple) throws HyracksDataException {
+        throw new UnsupportedOperationException("Cannot insert tuples in a bulk loaded interior node.");
+    }
+
+    @Override
+    public void insert(ITupleReference tuple, int tupleIndex) {
+        throw new UnsupportedOperationException("Cannot insert tuples in a bulk loaded interior node.");
+    }
+
+    @Override
+    public void delete(ITupleReference tuple, int tupleIndex) {
+        throw new UnsupportedOperationException("Cannot delete tuples from a bulk loaded interior node.");
+    }
+
+    @Override
+    public FrameOpSpaceStatus hasSpaceUpdate(ITupleReference tuple, int oldTupleIndex) {
+        throw new UnsupportedOperationException("Cannot update tuples in interior node.");
+    }
+
+    @Override
+    public void update(ITupleReference newTuple, int oldTupleIndex, boolean inPlace) {
+        throw new UnsupportedOperationException("Cannot update tuples in interior node.");
+    }
+
+    @Override
+    public void split(ITreeIndexFrame rightFrame, ITupleReference tuple, ISplitKey splitKey,
+            IExtraPageBlockHelper extraPageBlockHelper, IBufferCache bufferCache) throws HyracksDataException {
+        throw new UnsupportedOperationException("Cannot split a bulk loaded interior node.");
+    }
+
+    @Override
+    public void validate(PageValidationInfo pvi) throws HyracksDataException {
+        int tupleCount = getTupleCount();
+        for (int i = 0; i < tupleCount; i++) {
+            frameTuple.resetByTupleIndex(this, i);
+            if (!pvi.isLowRangeNull) {
+                assert compareSeparators(pvi.lowRangeTuple, frameTuple) < 0;
+            }
+            if (!pvi.isHighRangeNull) {
+                assert compareSeparators(pvi.highRangeTuple, frameTuple) >= 0;
+            }
+            if (i > 0) {
+                previousTuple.resetByTupleIndex(this, i - 1);
+                assert compareSeparators(previousTuple, frameTuple) < 0;
+            }
+        }
+    }
+}
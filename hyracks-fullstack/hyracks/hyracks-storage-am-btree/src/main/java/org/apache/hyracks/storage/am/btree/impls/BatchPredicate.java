@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.btree.impls;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.tuples.PermutingFrameTupleReference;
+import org.apache.hyracks.storage.common.MultiComparator;
+
+/**
+ * A point search predicate over all the keys of a frame. Each call to {@link #next()} makes the next key of the frame
+ * both the low and the high key of the predicate. The keys are best sorted on the index key, so that consecutive
+ * lookups in a component find their leaf close to the previous one.
+ */
+public class BatchPredicate extends RangePredicate {
+
+    private static final long serialVersionUID = 1L;
+
+    private final PermutingFrameTupleReference keyTuple;
+    private final PermutingFrameTupleReference otherKeyTuple;
+    private IFrameTupleAccessor accessor;
+    private int keyIndex = -1;
+
+    public BatchPredicate(int[] keyFields, MultiComparator keyCmp) {
+        super(null, null, true, true, keyCmp, keyCmp);
+        keyTuple = new PermutingFrameTupleReference(keyFields);
+        otherKeyTuple = new PermutingFrameTupleReference(keyFields);
+    }
+
+    public void reset(IFrameTupleAccessor accessor) {
+        this.accessor = accessor;
+        keyIndex = -1;
+        lowKey = null;
+        highKey = null;
+    }
+
+    public int getNumKeys() {
+        return accessor.getTupleCount();
+    }
+
+    public boolean hasNext() {
+        return keyIndex + 1 < accessor.getTupleCount();
+    }
+
+    public void next() {
+        keyIndex++;
+        keyTuple.reset(accessor, keyIndex);
+        lowKey = keyTuple;
+        highKey = keyTuple;
+    }
+
+    /**
+     * @return the position in the frame of the current key
+     */
+    public int getKeyIndex() {
+        return keyIndex;
+    }
+
+    /**
+     * @return the key at the given position in the frame; the returned reference is only valid until the next call
+     */
+    public ITupleReference getKey(int index) {
+        otherKeyTuple.reset(accessor, index);
+        return otherKeyTuple;
+    }
+}
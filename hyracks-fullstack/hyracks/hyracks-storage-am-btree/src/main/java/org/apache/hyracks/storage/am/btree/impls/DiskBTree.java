@@ -19,19 +19,38 @@
 
 package org.apache.hyracks.storage.am.btree.impls;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.exceptions.ErrorCode;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.storage.am.btree.api.IBTreeFrame;
 import org.apache.hyracks.storage.am.btree.api.IBTreeLeafFrame;
+import org.apache.hyracks.storage.am.btree.api.ISynopsisFieldsExtractorFactory;
+import org.apache.hyracks.storage.am.btree.frames.BTreeTruncatedInteriorFrame;
+import org.apache.hyracks.storage.am.btree.frames.BTreeTruncatedInteriorFrameFactory;
+import org.apache.hyracks.storage.am.common.api.IMetadataPageManager;
 import org.apache.hyracks.storage.am.common.api.IPageManager;
+import org.apache.hyracks.storage.am.common.api.ISplitKey;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexCursor;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexFrame;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexFrameFactory;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.storage.am.common.freepage.AppendOnlyLinkedMetadataPageManager;
+import org.apache.hyracks.storage.am.common.freepage.MutableArrayValueReference;
+import org.apache.hyracks.storage.am.common.impls.NodeFrontier;
 import org.apache.hyracks.storage.am.common.impls.TreeIndexDiskOrderScanCursor;
 import org.apache.hyracks.storage.am.common.ophelpers.IndexOperation;
 import org.apache.hyracks.storage.common.IIndexAccessParameters;
+import org.apache.hyracks.storage.common.IIndexBulkLoader;
 import org.apache.hyracks.storage.common.IIndexCursor;
 import org.apache.hyracks.storage.common.IModificationOperationCallback;
 import org.apache.hyracks.storage.common.ISearchOperationCallback;
@@ -39,14 +58,112 @@ import org.apache.hyracks.storage.common.ISearchPredicate;
 import org.apache.hyracks.storage.common.MultiComparator;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.compression.ICompressorDecompressorFactory;
 import org.apache.hyracks.storage.common.file.BufferedFileHandle;
 
 public class DiskBTree extends BTree {
+    public static final MutableArrayValueReference LEAF_SYNOPSES_KEY =
+            new MutableArrayValueReference("LeafSynopses".getBytes(StandardCharsets.UTF_8));
+    // each page holding leaf synopses starts with the id of the next such page and the length of its content
+    private static final int SYNOPSIS_PAGE_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private final ISynopsisFieldsExtractorFactory synopsisExtractorFactory;
+    private final IBinaryComparatorFactory[] synopsisCmpFactories;
+    private LeafSynopses leafSynopses;
+    // written after leafSynopses, so that a search that sees it set also sees the synopses
+    private volatile boolean leafSynopsesRead;
 
     public DiskBTree(IBufferCache bufferCache, IPageManager freePageManager,
             ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory leafFrameFactory,
             IBinaryComparatorFactory[] cmpFactories, int fieldCount, FileReference file) {
-        super(bufferCache, freePageManager, interiorFrameFactory, leafFrameFactory, cmpFactories, fieldCount, file);
+        this(bufferCache, freePageManager, interiorFrameFactory, leafFrameFactory, cmpFactories, fieldCount, file,
+                null);
+    }
+
+    public DiskBTree(IBufferCache bufferCache, IPageManager freePageManager,
+            ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory leafFrameFactory,
+            IBinaryComparatorFactory[] cmpFactories, int fieldCount, FileReference file,
+            ICompressorDecompressorFactory compressorDecompressorFactory) {
+        this(bufferCache, freePageManager, interiorFrameFactory, leafFrameFactory, cmpFactories, fieldCount, file,
+                compressorDecompressorFactory, null, null);
+    }
+
+    /**
+     * @param synopsisExtractorFactory
+     *            gives the fields whose min and max values are kept for each leaf by the bulk loader, or null
+     * @param synopsisCmpFactories
+     *            the comparators of the synopsis fields
+     */
+    public DiskBTree(IBufferCache bufferCache, IPageManager freePageManager,
+            ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory leafFrameFactory,
+            IBinaryComparatorFactory[] cmpFactories, int fieldCount, FileReference file,
+            ICompressorDecompressorFactory compressorDecompressorFactory,
+            ISynopsisFieldsExtractorFactory synopsisExtractorFactory, IBinaryComparatorFactory[] synopsisCmpFactories) {
+        super(bufferCache, freePageManager, interiorFrameFactory, leafFrameFactory, cmpFactories, fieldCount, file,
+                compressorDecompressorFactory);
+        this.synopsisExtractorFactory = synopsisExtractorFactory;
+        this.synopsisCmpFactories = synopsisCmpFactories;
+    }
+
+    private boolean hasTruncatedSeparators() {
+        return interiorFrameFactory instanceof BTreeTruncatedInteriorFrameFactory;
+    }
+
+    private boolean hasLeafSynopses() {
+        // only the append-only page manager of the disk components keeps key-value metadata
+        return synopsisExtractorFactory != null && freePageManager instanceof AppendOnlyLinkedMetadataPageManager;
+    }
+
+    /**
+     * @return the synopses of the leaves written when the tree was bulk loaded, or null if there are none
+     */
+    public LeafSynopses getLeafSynopses() throws HyracksDataException {
+        // searches only synchronize until the synopses of the activated tree have been read once
+        if (!leafSynopsesRead) {
+            readLeafSynopses();
+        }
+        return leafSynopses;
+    }
+
+    private synchronized void readLeafSynopses() throws HyracksDataException {
+        if (leafSynopsesRead) {
+            return;
+        }
+        if (hasLeafSynopses()) {
+            IMetadataPageManager metadataManager = (IMetadataPageManager) freePageManager;
+            VoidPointable value = new VoidPointable();
+            metadataManager.get(metadataManager.createMetadataFrame(), LEAF_SYNOPSES_KEY, value);
+            if (value.getLength() > 0) {
+                leafSynopses = LeafSynopses.read(
+                        readSynopsisPages(IntegerPointable.getInteger(value.getByteArray(), value.getStartOffset())));
+            }
+        }
+        leafSynopsesRead = true;
+    }
+
+    private byte[] readSynopsisPages(int pageId) throws HyracksDataException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        while (pageId >= 0) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(getFileId(), pageId), false);
+            try {
+                ByteBuffer buf = page.getBuffer().duplicate();
+                pageId = buf.getInt(0);
+                byte[] data = new byte[buf.getInt(Integer.BYTES)];
+                buf.position(SYNOPSIS_PAGE_HEADER_SIZE);
+                buf.get(data);
+                bytes.write(data, 0, data.length);
+            } finally {
+                bufferCache.unpin(page);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public synchronized void deactivate() throws HyracksDataException {
+        leafSynopses = null;
+        leafSynopsesRead = false;
+        super.deactivate();
     }
 
     private void diskOrderScan(ITreeIndexCursor icursor, BTreeOpContext ctx) throws HyracksDataException {
@@ -87,6 +204,7 @@ public class DiskBTree extends BTree {
         cursor.setFileId(getFileId());
 
         DiskBTreeRangeSearchCursor diskCursor = (DiskBTreeRangeSearchCursor) cursor;
+        diskCursor.setLeafSynopses(diskCursor.isLeafSkippingEnabled() ? getLeafSynopses() : null, synopsisCmpFactories);
 
         if (diskCursor.numSearchPages() == 0) {
             // we have to search from root to leaf
@@ -144,6 +262,12 @@ public class DiskBTree extends BTree {
 
     private boolean fitInPage(ITupleReference key, MultiComparator comparator, IBTreeFrame frame)
             throws HyracksDataException {
+        if (frame instanceof BTreeTruncatedInteriorFrame) {
+            // the separators of the frame may have been cut, they cannot be compared as whole keys
+            return frame.getTupleCount() > 0
+                    && BTreeTruncatedInteriorFrame.compare(comparator, key, frame.getRightmostTuple()) <= 0
+                    && BTreeTruncatedInteriorFrame.compare(comparator, key, frame.getLeftmostTuple()) >= 0;
+        }
         ITupleReference rightmostTuple = frame.getRightmostTuple();
         int cmp = comparator.compare(key, rightmostTuple);
         if (cmp > 0) {
@@ -193,6 +317,183 @@ public class DiskBTree extends BTree {
         }
     }
 
+    @Override
+    public IIndexBulkLoader createBulkLoader(float fillFactor, boolean verifyInput, long numElementsHint,
+            boolean checkIfEmptyIndex) throws HyracksDataException {
+        return hasLeafSynopses() || hasTruncatedSeparators() ? new DiskBTreeBulkLoader(fillFactor, verifyInput)
+                : super.createBulkLoader(fillFactor, verifyInput, numElementsHint, checkIfEmptyIndex);
+    }
+
+    /**
+     * Bulk loads the tree and writes the synopses of its leaves to pages of their own, linked from the metadata page.
+     * With a {@link BTreeTruncatedInteriorFrame}, the separator of two leaves is cut after the first key field that
+     * tells the last key of the left leaf apart from the first key of the right leaf.
+     */
+    public class DiskBTreeBulkLoader extends BTreeBulkLoader {
+        private final LeafSynopses.Builder synopses;
+        private final boolean truncateSeparators;
+        private final ITreeIndexTupleReference interiorTuple;
+        private ITupleReference nextTuple;
+        private byte[] separatorBytes = new byte[0];
+
+        public DiskBTreeBulkLoader(float fillFactor, boolean verifyInput) throws HyracksDataException {
+            super(fillFactor, verifyInput);
+            if (hasLeafSynopses()) {
+                IBinaryComparator[] cmps = new IBinaryComparator[synopsisCmpFactories.length];
+                for (int i = 0; i < cmps.length; i++) {
+                    cmps[i] = synopsisCmpFactories[i].createBinaryComparator();
+                }
+                synopses = new LeafSynopses.Builder(synopsisExtractorFactory.createExtractor(), cmps);
+            } else {
+                synopses = null;
+            }
+            truncateSeparators = hasTruncatedSeparators();
+            interiorTuple = interiorFrame.createTupleReference();
+        }
+
+        @Override
+        public void add(ITupleReference tuple) throws HyracksDataException {
+            int leafPageId = nodeFrontiers.get(0).pageId;
+            // the split key of the previous leaf may have been cut
+            splitKey.getTuple().setFieldCount(cmp.getKeyFieldCount());
+            nextTuple = tuple;
+            super.add(tuple);
+            if (synopses != null) {
+                if (nodeFrontiers.get(0).pageId != leafPageId) {
+                    synopses.endLeaf(leafPageId);
+                }
+                synopses.add(tuple);
+            }
+        }
+
+        @Override
+        protected void propagateBulk(int level, List<ICachedPage> pagesToWrite) throws HyracksDataException {
+            if (!truncateSeparators) {
+                super.propagateBulk(level, pagesToWrite);
+                return;
+            }
+            if (splitKey.getBuffer() == null) {
+                return;
+            }
+            if (level == 1) {
+                truncateSplitKey();
+            }
+            if (level >= nodeFrontiers.size()) {
+                addLevel();
+            }
+
+            NodeFrontier frontier = nodeFrontiers.get(level);
+            BTreeTruncatedInteriorFrame frame = (BTreeTruncatedInteriorFrame) interiorFrame;
+            frame.setPage(frontier.page);
+
+            ITupleReference tuple = splitKey.getTuple();
+            int maxTupleSize = frame.getMaxTupleSize(bufferCache.getPageSize());
+            int tupleBytes = frame.getBytesRequiredToWriteTuple(tuple);
+            if (tupleBytes > maxTupleSize) {
+                throw HyracksDataException.create(ErrorCode.RECORD_IS_TOO_LARGE, tupleBytes, maxTupleSize);
+            }
+
+            int spaceUsed = frame.getBuffer().capacity() - frame.getTotalFreeSpace();
+            if (spaceUsed + frame.getBytesRequiredToAppend(tuple) > interiorMaxBytes) {
+                ISplitKey copyKey = splitKey.duplicate(tupleWriter.createTupleReference());
+                tuple = copyKey.getTuple();
+
+                // the greatest separator of the full page goes up a level
+                interiorTuple.resetByTupleIndex(frame, frame.getTupleCount() - 1);
+                int numFields = interiorTuple.getFieldCount();
+                splitKey.getTuple().setFieldCount(numFields);
+                splitKey.initData(tupleWriter.bytesRequired(interiorTuple, 0, numFields));
+                tupleWriter.writeTupleFields(interiorTuple, 0, numFields, splitKey.getBuffer().array(), 0);
+                splitKey.getTuple().resetByTupleOffset(splitKey.getBuffer().array(), 0);
+
+                frame.deleteGreatest();
+                int finalPageId = freePageManager.takePage(metaFrame);
+                frontier.page.setDiskPageId(BufferedFileHandle.getDiskPageId(getFileId(), finalPageId));
+                pagesToWrite.add(frontier.page);
+                splitKey.setLeftPage(finalPageId);
+
+                propagateBulk(level + 1, pagesToWrite);
+                frontier.page = bufferCache.confiscatePage(IBufferCache.INVALID_DPID);
+                frame.setPage(frontier.page);
+                frame.initBuffer((byte) level);
+            }
+            frame.insertSorted(tuple);
+        }
+
+        /**
+         * Cuts the split key, which is the last key of the full leaf, after the first field that differs from the
+         * first key of the next leaf.
+         */
+        private void truncateSplitKey() throws HyracksDataException {
+            ITreeIndexTupleReference lastKey = splitKey.getTuple();
+            IBinaryComparator[] cmps = cmp.getComparators();
+            int numFields = 1;
+            while (numFields < cmps.length && cmps[numFields - 1].compare(lastKey.getFieldData(numFields - 1),
+                    lastKey.getFieldStart(numFields - 1), lastKey.getFieldLength(numFields - 1),
+                    nextTuple.getFieldData(numFields - 1), nextTuple.getFieldStart(numFields - 1),
+                    nextTuple.getFieldLength(numFields - 1)) == 0) {
+                numFields++;
+            }
+            if (numFields == cmps.length) {
+                return;
+            }
+            int leftPage = splitKey.getLeftPage();
+            int rightPage = splitKey.getRightPage();
+            int separatorSize = tupleWriter.bytesRequired(lastKey, 0, numFields);
+            if (separatorBytes.length < separatorSize) {
+                separatorBytes = new byte[separatorSize];
+            }
+            tupleWriter.writeTupleFields(lastKey, 0, numFields, separatorBytes, 0);
+            splitKey.initData(separatorSize);
+            System.arraycopy(separatorBytes, 0, splitKey.getBuffer().array(), 0, separatorSize);
+            lastKey.setFieldCount(numFields);
+            lastKey.resetByTupleOffset(splitKey.getBuffer().array(), 0);
+            splitKey.setPages(leftPage, rightPage);
+        }
+
+        @Override
+        public void end() throws HyracksDataException {
+            if (synopses != null) {
+                try {
+                    synopses.endLeaf(nodeFrontiers.get(0).pageId);
+                    byte[] bytes = synopses.build();
+                    if (bytes != null) {
+                        writeSynopses(bytes);
+                    }
+                } catch (HyracksDataException | RuntimeException e) {
+                    handleException();
+                    throw e;
+                }
+            }
+            super.end();
+        }
+
+        private void writeSynopses(byte[] bytes) throws HyracksDataException {
+            int pageCapacity = bufferCache.getPageSize() - SYNOPSIS_PAGE_HEADER_SIZE;
+            int numPages = (bytes.length + pageCapacity - 1) / pageCapacity;
+            int[] pageIds = new int[numPages];
+            for (int i = 0; i < numPages; i++) {
+                pageIds[i] = freePageManager.takePage(metaFrame);
+            }
+            for (int i = 0; i < numPages; i++) {
+                long dpid = BufferedFileHandle.getDiskPageId(getFileId(), pageIds[i]);
+                ICachedPage page = bufferCache.confiscatePage(dpid);
+                ByteBuffer buf = page.getBuffer().duplicate();
+                int offset = i * pageCapacity;
+                int length = Math.min(pageCapacity, bytes.length - offset);
+                buf.putInt(0, i + 1 < numPages ? pageIds[i + 1] : -1);
+                buf.putInt(Integer.BYTES, length);
+                buf.position(SYNOPSIS_PAGE_HEADER_SIZE);
+                buf.put(bytes, offset, length);
+                queue.put(page);
+            }
+            byte[] headPage = new byte[Integer.BYTES];
+            IntegerPointable.setInteger(headPage, 0, pageIds[0]);
+            ((IMetadataPageManager) freePageManager).put(metaFrame, LEAF_SYNOPSES_KEY,
+                    new MutableArrayValueReference(headPage));
+        }
+    }
+
     @Override
     public BTreeAccessor createAccessor(IIndexAccessParameters iap) {
         return new DiskBTreeAccessor(this, iap.getModificationCallback(), iap.getSearchOperationCallback());
@@ -22,26 +22,120 @@ package org.apache.hyracks.storage.am.btree.impls;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.storage.am.btree.api.IBTreeLeafFrame;
+import org.apache.hyracks.storage.common.ICursorInitialState;
+import org.apache.hyracks.storage.common.ISearchPredicate;
+import org.apache.hyracks.storage.common.buffercache.BufferCache;
 import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.buffercache.IReadAheadRequest;
 import org.apache.hyracks.storage.common.file.BufferedFileHandle;
 
 public class DiskBTreeRangeSearchCursor extends BTreeRangeSearchCursor {
 
+    // read-ahead starts once a search has moved past this many leaves, so that short range searches don't pay for it
+    private static final int READ_AHEAD_MIN_LEAF_HOPS = 2;
+    private static final int READ_AHEAD_MIN_PAGES = 4;
+
     // keep track of the pages (root -> leaf) we've searched
     protected final List<Integer> searchPages = new ArrayList<>(5);
 
+    // the leaves of a bulk-loaded tree are laid out mostly in key order, so a sequential scan reads the pages
+    // following the current leaf. the read-ahead window doubles every time it is used up, as long as the scan goes on
+    private int leafHops;
+    private int readAheadPages;
+    private int readAheadStart;
+    private int readAheadEnd;
+    private IReadAheadRequest readAhead = IReadAheadRequest.NO_OP;
+
+    // with leaf skipping, the leaves whose synopses don't meet the filter bounds of the predicate are not read
+    private boolean leafSkippingEnabled;
+    private LeafSynopses leafSynopses;
+    private IBinaryComparatorFactory[] synopsisCmpFactories;
+    private IBinaryComparator[] synopsisCmps;
+    private long skippedLeaves;
+    // whether leaves were skipped between the previous tuple and the current one, and since the current one
+    private boolean skippedBeforeTuple;
+    private boolean skippedSinceTuple;
+
     public DiskBTreeRangeSearchCursor(IBTreeLeafFrame frame, boolean exclusiveLatchNodes) {
         super(frame, exclusiveLatchNodes);
     }
 
+    /**
+     * Lets the cursor skip the leaves that cannot hold a tuple within the filter bounds of the search predicate,
+     * according to the leaf synopses of the tree. The caller must not rely on the cursor to see every tuple in the key
+     * range: in an LSM index, a key that an older component returns may be hidden by a newer version in a skipped leaf,
+     * which {@link #hasSkippedLeavesBeforeTuple()} and {@link #hasSkippedLeavesAfterTuple()} tell the caller to look
+     * for.
+     */
+    public void setLeafSkippingEnabled(boolean leafSkippingEnabled) {
+        this.leafSkippingEnabled = leafSkippingEnabled;
+    }
+
+    public boolean isLeafSkippingEnabled() {
+        return leafSkippingEnabled;
+    }
+
+    void setLeafSynopses(LeafSynopses leafSynopses, IBinaryComparatorFactory[] synopsisCmpFactories) {
+        this.leafSynopses = leafSynopses;
+        if (leafSynopses != null && this.synopsisCmpFactories != synopsisCmpFactories) {
+            this.synopsisCmpFactories = synopsisCmpFactories;
+            synopsisCmps = new IBinaryComparator[synopsisCmpFactories.length];
+            for (int i = 0; i < synopsisCmps.length; i++) {
+                synopsisCmps[i] = synopsisCmpFactories[i].createBinaryComparator();
+            }
+        }
+    }
+
+    /**
+     * @return the number of leaves this cursor did not read thanks to their synopses
+     */
+    public long getSkippedLeaves() {
+        return skippedLeaves;
+    }
+
+    /**
+     * @return whether leaves were skipped between the previous tuple returned by {@link #next()} and the current one
+     */
+    public boolean hasSkippedLeavesBeforeTuple() {
+        return skippedBeforeTuple;
+    }
+
+    /**
+     * @return whether leaves were skipped after the current tuple, which tells whether the range was cut short once
+     *         {@link #hasNext()} returns false
+     */
+    public boolean hasSkippedLeavesAfterTuple() {
+        return skippedSinceTuple;
+    }
+
+    private boolean isSkippingLeaves() {
+        return leafSynopses != null && (pred.getMinFilterTuple() != null || pred.getMaxFilterTuple() != null);
+    }
+
+    private int nextQualifyingLeaf() throws HyracksDataException {
+        int index = leafSynopses.indexOf(pageId);
+        if (index < 0) {
+            return frame.getNextLeaf();
+        }
+        int next = leafSynopses.nextQualifyingLeaf(index, pred.getMinFilterTuple(), pred.getMaxFilterTuple(),
+                synopsisCmps);
+        int skipped = (next < 0 ? leafSynopses.getNumLeaves() : next) - index - 1;
+        skippedLeaves += skipped;
+        skippedSinceTuple |= skipped > 0;
+        return next < 0 ? -1 : leafSynopses.getLeafPageId(next);
+    }
+
     @Override
     public boolean hasNext() throws HyracksDataException {
         int nextLeafPage;
         if (tupleIndex >= frame.getTupleCount()) {
-            nextLeafPage = frame.getNextLeaf();
+            nextLeafPage = isSkippingLeaves() ? nextQualifyingLeaf() : frame.getNextLeaf();
             if (nextLeafPage >= 0) {
+                readAheadIfSequential(nextLeafPage);
                 fetchNextLeafPage(nextLeafPage);
                 tupleIndex = 0;
                 // update page ids and positions
@@ -62,6 +156,65 @@ public class DiskBTreeRangeSearchCursor extends BTreeRangeSearchCursor {
         return true;
     }
 
+    @Override
+    public void next() throws HyracksDataException {
+        super.next();
+        skippedBeforeTuple = skippedSinceTuple;
+        skippedSinceTuple = false;
+    }
+
+    private void readAheadIfSequential(int nextLeafPage) throws HyracksDataException {
+        if (++leafHops < READ_AHEAD_MIN_LEAF_HOPS) {
+            return;
+        }
+        boolean inWindow = nextLeafPage >= readAheadStart && nextLeafPage < readAheadEnd;
+        if (inWindow && nextLeafPage + readAheadPages / 2 < readAheadEnd) {
+            // still well within the pages read ahead last time
+            return;
+        }
+        readAheadPages = readAheadPages == 0 ? READ_AHEAD_MIN_PAGES
+                : Math.min(readAheadPages * 2, BufferCache.MAX_READ_AHEAD_PAGES);
+        int from = inWindow ? readAheadEnd : nextLeafPage + 1;
+        int to = nextLeafPage + 1 + readAheadPages;
+        // the previous request covers the pages we are about to read, so it is done or nearly done
+        readAhead.cancel();
+        readAhead = bufferCache.readAhead(fileId, from, to - from);
+        readAheadStart = nextLeafPage;
+        readAheadEnd = to;
+    }
+
+    @Override
+    public void open(ICursorInitialState initialState, ISearchPredicate searchPred) throws HyracksDataException {
+        super.open(initialState, searchPred);
+        leafHops = 0;
+        readAheadPages = 0;
+        readAheadStart = 0;
+        readAheadEnd = 0;
+        skippedBeforeTuple = false;
+        skippedSinceTuple = false;
+        if (isSkippingLeaves()) {
+            int index = leafSynopses.indexOf(pageId);
+            if (index >= 0
+                    && !leafSynopses.satisfy(index, pred.getMinFilterTuple(), pred.getMaxFilterTuple(), synopsisCmps)) {
+                // the first leaf was already read to find the start of the range, but its tuples are not needed
+                tupleIndex = stopTupleIndex < frame.getTupleCount() - 1 ? stopTupleIndex + 1 : frame.getTupleCount();
+                skippedSinceTuple = true;
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws HyracksDataException {
+        // read-ahead must not outlive the cursor, the file may be closed right after
+        cancelReadAhead();
+        super.destroy();
+    }
+
+    private void cancelReadAhead() throws HyracksDataException {
+        readAhead.cancel();
+        readAhead = IReadAheadRequest.NO_OP;
+    }
+
     @Override
     protected void resetBeforeOpen() throws HyracksDataException {
         // do nothing
@@ -100,6 +253,9 @@ public class DiskBTreeRangeSearchCursor extends BTreeRangeSearchCursor {
 
     @Override
     public void close() throws HyracksDataException {
+        // LSM cursors close their component cursors at the end of every search, and a component can be deactivated
+        // before the cursor is used again, so read-ahead must not outlive the search
+        cancelReadAhead();
         super.close();
         searchPages.clear();
     }
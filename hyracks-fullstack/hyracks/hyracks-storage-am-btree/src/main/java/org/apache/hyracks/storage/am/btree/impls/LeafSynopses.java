@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.btree.impls;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.btree.api.ISynopsisFieldsExtractor;
+
+/**
+ * The min and max values of some non-key fields in each leaf of a bulk-loaded B-tree, in key order. They let a scan
+ * with bounds on these fields skip the leaves that cannot hold a qualifying tuple without reading them. A leaf that
+ * holds a tuple without the fields (e.g. an antimatter tuple) is unbounded and never skipped. Bounds follow the
+ * conventions of the LSM component filters: a field of the search bounds is unbounded when it is missing or empty.
+ */
+public class LeafSynopses {
+    private final int numFields;
+    private final int[] leafPageIds;
+    private final boolean[] bounded;
+    // per leaf and field: min start, min length, max start, max length in data
+    private final int[] offsets;
+    private final byte[] data;
+
+    private LeafSynopses(int numFields, int[] leafPageIds, boolean[] bounded, int[] offsets, byte[] data) {
+        this.numFields = numFields;
+        this.leafPageIds = leafPageIds;
+        this.bounded = bounded;
+        this.offsets = offsets;
+        this.data = data;
+    }
+
+    public int getNumLeaves() {
+        return leafPageIds.length;
+    }
+
+    public int getLeafPageId(int index) {
+        return leafPageIds[index];
+    }
+
+    /**
+     * @return the position of the leaf in key order, or -1 if the page is not a leaf with a synopsis
+     */
+    public int indexOf(int leafPageId) {
+        // leaves are allocated in key order by the bulk loader
+        int index = Arrays.binarySearch(leafPageIds, leafPageId);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * @return whether the leaf may hold a tuple within the bounds
+     */
+    public boolean satisfy(int index, ITupleReference minTuple, ITupleReference maxTuple, IBinaryComparator[] cmps)
+            throws HyracksDataException {
+        if (!bounded[index]) {
+            return true;
+        }
+        for (int i = 0; i < numFields; i++) {
+            int o = (index * numFields + i) * 4;
+            if (isBounded(maxTuple, i) && cmps[i].compare(maxTuple.getFieldData(i), maxTuple.getFieldStart(i),
+                    maxTuple.getFieldLength(i), data, offsets[o], offsets[o + 1]) < 0) {
+                return false;
+            }
+            if (isBounded(minTuple, i) && cmps[i].compare(minTuple.getFieldData(i), minTuple.getFieldStart(i),
+                    minTuple.getFieldLength(i), data, offsets[o + 2], offsets[o + 3]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the position of the first leaf after the given one that may hold a tuple within the bounds, or -1
+     */
+    public int nextQualifyingLeaf(int index, ITupleReference minTuple, ITupleReference maxTuple,
+            IBinaryComparator[] cmps) throws HyracksDataException {
+        for (int i = index + 1; i < leafPageIds.length; i++) {
+            if (satisfy(i, minTuple, maxTuple, cmps)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBounded(ITupleReference tuple, int field) {
+        return tuple != null && field < tuple.getFieldCount() && tuple.getFieldLength(field) > 0;
+    }
+
+    public static LeafSynopses read(byte[] bytes) {
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        int numFields = buf.getInt();
+        int numLeaves = buf.getInt();
+        int[] leafPageIds = new int[numLeaves];
+        boolean[] bounded = new boolean[numLeaves];
+        int[] offsets = new int[numLeaves * numFields * 4];
+        for (int leaf = 0; leaf < numLeaves; leaf++) {
+            leafPageIds[leaf] = buf.getInt();
+            bounded[leaf] = buf.get() != 0;
+            if (bounded[leaf]) {
+                for (int i = (leaf * numFields) * 4; i < (leaf + 1) * numFields * 4; i += 2) {
+                    int length = buf.getInt();
+                    offsets[i] = buf.position();
+                    offsets[i + 1] = length;
+                    buf.position(buf.position() + length);
+                }
+            }
+        }
+        return new LeafSynopses(numFields, leafPageIds, bounded, offsets, bytes);
+    }
+
+    /**
+     * Collects the synopses of the leaves while they are bulk loaded.
+     */
+    public static class Builder {
+        private final ISynopsisFieldsExtractor extractor;
+        private final IBinaryComparator[] cmps;
+        private final byte[][] min;
+        private final byte[][] max;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private int numLeaves;
+        private int lastLeafPageId = -1;
+        private boolean ascending = true;
+        private boolean empty = true;
+        private boolean bounded = true;
+
+        public Builder(ISynopsisFieldsExtractor extractor, IBinaryComparator[] cmps) {
+            this.extractor = extractor;
+            this.cmps = cmps;
+            min = new byte[cmps.length][];
+            max = new byte[cmps.length][];
+        }
+
+        /**
+         * Accounts a tuple added to the current leaf.
+         */
+        public void add(ITupleReference tuple) throws HyracksDataException {
+            if (!bounded) {
+                return;
+            }
+            ITupleReference fields = extractor.extract(tuple);
+            if (fields == null) {
+                bounded = false;
+                return;
+            }
+            for (int i = 0; i < cmps.length; i++) {
+                byte[] data = fields.getFieldData(i);
+                int start = fields.getFieldStart(i);
+                int length = fields.getFieldLength(i);
+                if (empty || cmps[i].compare(data, start, length, min[i], 0, min[i].length) < 0) {
+                    min[i] = Arrays.copyOfRange(data, start, start + length);
+                }
+                if (empty || cmps[i].compare(data, start, length, max[i], 0, max[i].length) > 0) {
+                    max[i] = Arrays.copyOfRange(data, start, start + length);
+                }
+            }
+            empty = false;
+        }
+
+        /**
+         * Ends the current leaf, the tuples added from now on belong to the next leaf.
+         */
+        public void endLeaf(int leafPageId) throws HyracksDataException {
+            try {
+                out.writeInt(leafPageId);
+                boolean hasBounds = bounded && !empty;
+                out.writeByte(hasBounds ? 1 : 0);
+                if (hasBounds) {
+                    for (int i = 0; i < cmps.length; i++) {
+                        out.writeInt(min[i].length);
+                        out.write(min[i]);
+                        out.writeInt(max[i].length);
+                        out.write(max[i]);
+                    }
+                }
+            } catch (IOException e) {
+                throw HyracksDataException.create(e);
+            }
+            numLeaves++;
+            ascending &= leafPageId > lastLeafPageId;
+            lastLeafPageId = leafPageId;
+            empty = true;
+            bounded = true;
+        }
+
+        /**
+         * @return the synopses, or null if the leaves were not allocated in key order and cannot be looked up
+         */
+        public byte[] build() {
+            if (!ascending) {
+                return null;
+            }
+            byte[] leaves = bytes.toByteArray();
+            ByteBuffer buf = ByteBuffer.allocate(2 * Integer.BYTES + leaves.length);
+            buf.putInt(cmps.length);
+            buf.putInt(numLeaves);
+            buf.put(leaves);
+            return buf.array();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.btree.impls;
+
+import org.apache.hyracks.storage.am.btree.api.ISynopsisFieldsExtractor;
+import org.apache.hyracks.storage.am.btree.api.ISynopsisFieldsExtractorFactory;
+import org.apache.hyracks.storage.am.common.tuples.PermutingTupleReference;
+
+/**
+ * Extracts synopsis fields that are fields of the B-tree tuples.
+ */
+public class TupleSynopsisFieldsExtractorFactory implements ISynopsisFieldsExtractorFactory {
+    private static final long serialVersionUID = 1L;
+
+    private final int[] fields;
+
+    public TupleSynopsisFieldsExtractorFactory(int[] fields) {
+        this.fields = fields;
+    }
+
+    @Override
+    public int getFieldCount() {
+        return fields.length;
+    }
+
+    @Override
+    public ISynopsisFieldsExtractor createExtractor() {
+        PermutingTupleReference synopsisFields = new PermutingTupleReference(fields);
+        return tuple -> {
+            for (int field : fields) {
+                if (field >= tuple.getFieldCount()) {
+                    return null;
+                }
+            }
+            synopsisFields.reset(tuple);
+            return synopsisFields;
+        };
+    }
+}
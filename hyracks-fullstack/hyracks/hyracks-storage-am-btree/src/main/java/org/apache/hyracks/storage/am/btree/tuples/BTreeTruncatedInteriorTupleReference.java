@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.btree.tuples;
+
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexFrame;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.util.encoding.VarLenIntEncoderDecoder;
+import org.apache.hyracks.util.encoding.VarLenIntEncoderDecoder.VarLenIntDecoder;
+
+/**
+ * Reads the separators of a {@link org.apache.hyracks.storage.am.btree.frames.BTreeTruncatedInteriorFrame}.
+ * A separator starts with its number of fields and the number of leading fields it shares with the first separator
+ * of the page. Each of the remaining fields is stored as the number of leading bytes it shares with the same field of
+ * the first separator, the length of the rest of the field unless the field has a fixed length, and the rest of the
+ * field. Shared fields point into the first separator; fields sharing some of their bytes are put back together in
+ * buffers owned by this reference.
+ */
+public class BTreeTruncatedInteriorTupleReference implements ITreeIndexTupleReference {
+    public static final int HEADER_SIZE = 2;
+
+    private final ITypeTraits[] typeTraits;
+    private final int firstTupleOff;
+    private final VarLenIntDecoder decoder = VarLenIntEncoderDecoder.createDecoder();
+    private final VarLenIntDecoder firstTupleDecoder = VarLenIntEncoderDecoder.createDecoder();
+    private final byte[][] fieldData;
+    private final int[] fieldStarts;
+    private final int[] fieldLengths;
+    private final int[] firstTupleFieldStarts;
+    private final int[] firstTupleFieldLengths;
+    private final byte[][] fieldBuffers;
+    private byte[] buf;
+    private int fieldCount;
+    private int tupleSize;
+
+    /**
+     * @param firstTupleOff
+     *            the offset of the first separator in the page
+     */
+    public BTreeTruncatedInteriorTupleReference(ITypeTraits[] typeTraits, int firstTupleOff) {
+        this.typeTraits = typeTraits;
+        this.firstTupleOff = firstTupleOff;
+        fieldData = new byte[typeTraits.length][];
+        fieldStarts = new int[typeTraits.length];
+        fieldLengths = new int[typeTraits.length];
+        firstTupleFieldStarts = new int[typeTraits.length];
+        firstTupleFieldLengths = new int[typeTraits.length];
+        fieldBuffers = new byte[typeTraits.length][];
+    }
+
+    @Override
+    public void resetByTupleOffset(byte[] buf, int tupleStartOff) {
+        this.buf = buf;
+        fieldCount = Byte.toUnsignedInt(buf[tupleStartOff]);
+        int sharedFields = Byte.toUnsignedInt(buf[tupleStartOff + 1]);
+        boolean firstTupleRead = false;
+        if (sharedFields > 0) {
+            readFirstTuple();
+            firstTupleRead = true;
+        }
+        for (int i = 0; i < sharedFields; i++) {
+            fieldData[i] = buf;
+            fieldStarts[i] = firstTupleFieldStarts[i];
+            fieldLengths[i] = firstTupleFieldLengths[i];
+        }
+        decoder.reset(buf, tupleStartOff + HEADER_SIZE);
+        for (int i = sharedFields; i < fieldCount; i++) {
+            int sharedBytes = decoder.decode();
+            int suffixLength =
+                    typeTraits[i].isFixedLength() ? typeTraits[i].getFixedLength() - sharedBytes : decoder.decode();
+            int suffixStart = decoder.getPos();
+            if (sharedBytes == 0) {
+                fieldData[i] = buf;
+                fieldStarts[i] = suffixStart;
+            } else {
+                if (!firstTupleRead) {
+                    readFirstTuple();
+                    firstTupleRead = true;
+                }
+                byte[] fieldBuffer = getFieldBuffer(i, sharedBytes + suffixLength);
+                System.arraycopy(buf, firstTupleFieldStarts[i], fieldBuffer, 0, sharedBytes);
+                System.arraycopy(buf, suffixStart, fieldBuffer, sharedBytes, suffixLength);
+                fieldData[i] = fieldBuffer;
+                fieldStarts[i] = 0;
+            }
+            fieldLengths[i] = sharedBytes + suffixLength;
+            decoder.reset(buf, suffixStart + suffixLength);
+        }
+        tupleSize = decoder.getPos() - tupleStartOff;
+    }
+
+    private void readFirstTuple() {
+        // the first separator of a page shares nothing, each of its fields starts with a zero shared byte count
+        int numFields = Byte.toUnsignedInt(buf[firstTupleOff]);
+        firstTupleDecoder.reset(buf, firstTupleOff + HEADER_SIZE);
+        for (int i = 0; i < numFields; i++) {
+            firstTupleDecoder.decode();
+            int length = typeTraits[i].isFixedLength() ? typeTraits[i].getFixedLength() : firstTupleDecoder.decode();
+            firstTupleFieldStarts[i] = firstTupleDecoder.getPos();
+            firstTupleFieldLengths[i] = length;
+            firstTupleDecoder.reset(buf, firstTupleFieldStarts[i] + length);
+        }
+    }
+
+    private byte[] getFieldBuffer(int fieldIndex, int length) {
+        if (fieldBuffers[fieldIndex] == null || fieldBuffers[fieldIndex].length < length) {
+            fieldBuffers[fieldIndex] = new byte[length];
+        }
+        return fieldBuffers[fieldIndex];
+    }
+
+    @Override
+    public void resetByTupleIndex(ITreeIndexFrame frame, int tupleIndex) {
+        resetByTupleOffset(frame.getBuffer().array(), frame.getTupleOffset(tupleIndex));
+    }
+
+    @Override
+    public void setFieldCount(int fieldCount) {
+        // the number of fields of a separator is stored with it
+    }
+
+    @Override
+    public void setFieldCount(int fieldStartIndex, int fieldCount) {
+        // the number of fields of a separator is stored with it
+    }
+
+    @Override
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    @Override
+    public byte[] getFieldData(int fIdx) {
+        return fieldData[fIdx];
+    }
+
+    @Override
+    public int getFieldStart(int fIdx) {
+        return fieldStarts[fIdx];
+    }
+
+    @Override
+    public int getFieldLength(int fIdx) {
+        return fieldLengths[fIdx];
+    }
+
+    /**
+     * @return the number of bytes of the separator in the page, not counting the child pointer that follows it
+     */
+    @Override
+    public int getTupleSize() {
+        return tupleSize;
+    }
+}
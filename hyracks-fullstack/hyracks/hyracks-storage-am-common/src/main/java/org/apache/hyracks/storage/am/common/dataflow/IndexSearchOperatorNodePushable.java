@@ -85,7 +85,7 @@ public abstract class IndexSearchOperatorNodePushable extends AbstractUnaryInput
     protected ArrayTupleBuilder nonFilterTupleBuild;
     protected final ISearchOperationCallbackFactory searchCallbackFactory;
     protected boolean failed = false;
-    private final IOperatorStats stats;
+    protected final IOperatorStats stats;
 
     public IndexSearchOperatorNodePushable(IHyracksTaskContext ctx, RecordDescriptor inputRecDesc, int partition,
             int[] minFilterFieldIndexes, int[] maxFilterFieldIndexes, IIndexDataflowHelperFactory indexHelperFactory,
@@ -122,7 +122,7 @@ public abstract class IndexSearchOperatorNodePushable extends AbstractUnaryInput
 
     protected abstract void resetSearchPredicate(int tupleIndex);
 
-    protected IIndexCursor createCursor() {
+    protected IIndexCursor createCursor() throws HyracksDataException {
         return indexAccessor.createSearchCursor(false);
     }
 
@@ -169,30 +169,43 @@ public abstract class IndexSearchOperatorNodePushable extends AbstractUnaryInput
         long matchingTupleCount = 0;
         while (cursor.hasNext()) {
             matchingTupleCount++;
-            tb.reset();
             cursor.next();
-            if (retainInput) {
-                frameTuple.reset(accessor, tupleIndex);
-                for (int i = 0; i < frameTuple.getFieldCount(); i++) {
-                    dos.write(frameTuple.getFieldData(i), frameTuple.getFieldStart(i), frameTuple.getFieldLength(i));
-                    tb.addFieldEndOffset();
-                }
-            }
-            ITupleReference tuple = cursor.getTuple();
-            writeTupleToOutput(tuple);
-            if (appendIndexFilter) {
-                writeFilterTupleToOutput(((ILSMIndexCursor) cursor).getFilterMinTuple());
-                writeFilterTupleToOutput(((ILSMIndexCursor) cursor).getFilterMaxTuple());
-            }
-            FrameUtils.appendToWriter(writer, appender, tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize());
+            writeSearchResult(tupleIndex);
         }
         stats.getTupleCounter().update(matchingTupleCount);
 
         if (matchingTupleCount == 0 && retainInput && retainMissing) {
-            FrameUtils.appendConcatToWriter(writer, appender, accessor, tupleIndex,
-                    nonMatchTupleBuild.getFieldEndOffsets(), nonMatchTupleBuild.getByteArray(), 0,
-                    nonMatchTupleBuild.getSize());
+            writeMissingResult(tupleIndex);
+        }
+    }
+
+    /**
+     * Writes the current tuple of the cursor, preceded by the input tuple if the input is retained.
+     */
+    protected void writeSearchResult(int tupleIndex) throws Exception {
+        tb.reset();
+        if (retainInput) {
+            frameTuple.reset(accessor, tupleIndex);
+            for (int i = 0; i < frameTuple.getFieldCount(); i++) {
+                dos.write(frameTuple.getFieldData(i), frameTuple.getFieldStart(i), frameTuple.getFieldLength(i));
+                tb.addFieldEndOffset();
+            }
         }
+        ITupleReference tuple = cursor.getTuple();
+        writeTupleToOutput(tuple);
+        if (appendIndexFilter) {
+            writeFilterTupleToOutput(((ILSMIndexCursor) cursor).getFilterMinTuple());
+            writeFilterTupleToOutput(((ILSMIndexCursor) cursor).getFilterMaxTuple());
+        }
+        FrameUtils.appendToWriter(writer, appender, tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize());
+    }
+
+    /**
+     * Writes the input tuple padded with missing values, for an input tuple without a match.
+     */
+    protected void writeMissingResult(int tupleIndex) throws HyracksDataException {
+        FrameUtils.appendConcatToWriter(writer, appender, accessor, tupleIndex, nonMatchTupleBuild.getFieldEndOffsets(),
+                nonMatchTupleBuild.getByteArray(), 0, nonMatchTupleBuild.getSize());
     }
 
     @Override
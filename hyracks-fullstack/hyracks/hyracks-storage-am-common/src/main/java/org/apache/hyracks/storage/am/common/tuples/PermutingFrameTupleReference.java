@@ -21,6 +21,10 @@ package org.apache.hyracks.storage.am.common.tuples;
 
 import org.apache.hyracks.dataflow.common.data.accessors.FrameTupleReference;
 
+/**
+ * A frame tuple whose fields are the fields of the frame tuple at the positions of the permutation. A negative
+ * position stands for an empty field, e.g. for the unbounded fields of the filter bounds of a search.
+ */
 public class PermutingFrameTupleReference extends FrameTupleReference {
     private int[] fieldPermutation;
 
@@ -47,12 +51,15 @@ public class PermutingFrameTupleReference extends FrameTupleReference {
 
     @Override
     public int getFieldStart(int fIdx) {
+        if (fieldPermutation[fIdx] < 0) {
+            return fta.getTupleStartOffset(tIndex);
+        }
         return fta.getTupleStartOffset(tIndex) + fta.getFieldSlotsLength()
                 + fta.getFieldStartOffset(tIndex, fieldPermutation[fIdx]);
     }
 
     @Override
     public int getFieldLength(int fIdx) {
-        return fta.getFieldLength(tIndex, fieldPermutation[fIdx]);
+        return fieldPermutation[fIdx] < 0 ? 0 : fta.getFieldLength(tIndex, fieldPermutation[fIdx]);
     }
 }
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree.dataflow;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IMissingWriterFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.ErrorCode;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.btree.dataflow.BTreeSearchOperatorNodePushable;
+import org.apache.hyracks.storage.am.btree.impls.BatchPredicate;
+import org.apache.hyracks.storage.am.btree.util.BTreeUtils;
+import org.apache.hyracks.storage.am.common.api.ISearchOperationCallbackFactory;
+import org.apache.hyracks.storage.am.common.api.ITreeIndex;
+import org.apache.hyracks.storage.am.common.dataflow.IIndexDataflowHelperFactory;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTreeBatchPointSearchCursor;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.common.IIndexCursor;
+import org.apache.hyracks.storage.common.ISearchPredicate;
+
+/**
+ * Looks up the keys of each input frame in a primary LSM B-tree with a single batched point search instead of one
+ * search per key. The output is the same as the one of a {@link BTreeSearchOperatorNodePushable} doing point searches.
+ */
+public class LSMBTreeBatchPointSearchOperatorNodePushable extends BTreeSearchOperatorNodePushable {
+
+    private final int[] keyFields;
+    private BatchPredicate batchPred;
+
+    public LSMBTreeBatchPointSearchOperatorNodePushable(IHyracksTaskContext ctx, int partition,
+            RecordDescriptor inputRecDesc, int[] keyFields, IIndexDataflowHelperFactory indexHelperFactory,
+            boolean retainInput, boolean retainMissing, IMissingWriterFactory missingWriterFactory,
+            ISearchOperationCallbackFactory searchCallbackFactory) throws HyracksDataException {
+        super(ctx, partition, inputRecDesc, keyFields, keyFields, true, true, null, null, indexHelperFactory,
+                retainInput, retainMissing, missingWriterFactory, searchCallbackFactory, false);
+        this.keyFields = keyFields;
+    }
+
+    @Override
+    protected ISearchPredicate createSearchPredicate() {
+        ITreeIndex treeIndex = (ITreeIndex) index;
+        lowKeySearchCmp = BTreeUtils.getSearchMultiComparator(treeIndex.getComparatorFactories(), lowKey);
+        highKeySearchCmp = lowKeySearchCmp;
+        batchPred = new BatchPredicate(keyFields, lowKeySearchCmp);
+        return batchPred;
+    }
+
+    @Override
+    protected IIndexCursor createCursor() throws HyracksDataException {
+        int numIndexKeys = ((ITreeIndex) index).getComparatorFactories().length;
+        if (keyFields.length != numIndexKeys) {
+            // a key prefix matches any number of entries, and the bloom filters are built on the full key
+            throw HyracksDataException.create(ErrorCode.BATCH_POINT_SEARCH_REQUIRES_ALL_KEY_FIELDS, numIndexKeys,
+                    keyFields.length);
+        }
+        return ((ILSMIndexAccessor) indexAccessor).createBatchPointSearchCursor();
+    }
+
+    @Override
+    public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+        accessor.reset(buffer);
+        try {
+            batchPred.reset(accessor);
+            cursor.close();
+            indexAccessor.search(cursor, batchPred);
+            writeBatchSearchResults();
+        } catch (Exception e) {
+            throw HyracksDataException.create(e);
+        }
+    }
+
+    private void writeBatchSearchResults() throws Exception {
+        LSMBTreeBatchPointSearchCursor batchCursor = (LSMBTreeBatchPointSearchCursor) cursor;
+        boolean writeMissing = retainInput && retainMissing;
+        long matchingTupleCount = 0;
+        // the next input tuple that has not been written yet
+        int nextTupleIndex = 0;
+        while (cursor.hasNext()) {
+            matchingTupleCount++;
+            cursor.next();
+            int tupleIndex = batchCursor.getKeyIndex();
+            for (; writeMissing && nextTupleIndex < tupleIndex; nextTupleIndex++) {
+                writeMissingResult(nextTupleIndex);
+            }
+            writeSearchResult(tupleIndex);
+            nextTupleIndex = tupleIndex + 1;
+        }
+        stats.getTupleCounter().update(matchingTupleCount);
+        for (; writeMissing && nextTupleIndex < accessor.getTupleCount(); nextTupleIndex++) {
+            writeMissingResult(nextTupleIndex);
+        }
+    }
+}
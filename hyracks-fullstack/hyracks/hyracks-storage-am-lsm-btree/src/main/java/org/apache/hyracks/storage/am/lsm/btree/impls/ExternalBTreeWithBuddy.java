@@ -352,6 +352,7 @@ public class ExternalBTreeWithBuddy extends AbstractLSMIndex implements ITreeInd
                 cursor.next();
                 ITupleReference frameTuple = cursor.getTuple();
                 componentBulkLoader.add(frameTuple);
+                mergeOp.throttle(frameTuple);
             }
         } finally {
             cursor.destroy();
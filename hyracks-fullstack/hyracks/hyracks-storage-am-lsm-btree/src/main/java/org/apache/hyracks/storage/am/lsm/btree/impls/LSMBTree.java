@@ -29,6 +29,7 @@ import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.api.io.IIOManager;
 import org.apache.hyracks.data.std.primitive.IntegerPointable;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.btree.api.ISynopsisFieldsExtractorFactory;
 import org.apache.hyracks.storage.am.btree.impls.BTree;
 import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeAccessor;
 import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
@@ -75,6 +76,7 @@ import org.apache.hyracks.util.trace.ITracer;
 public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
 
     private static final ICursorFactory cursorFactory = opCtx -> new LSMBTreeSearchCursor(opCtx);
+    private static final ICursorFactory batchPointCursorFactory = opCtx -> new LSMBTreeBatchPointSearchCursor(opCtx);
     // Common for in-memory and on-disk components.
     protected final ITreeIndexFrameFactory insertLeafFrameFactory;
     protected final ITreeIndexFrameFactory deleteLeafFrameFactory;
@@ -83,9 +85,12 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
 
     private final boolean needKeyDupCheck;
 
-    // Primary LSMBTree has a Bloomfilter, but Secondary one doesn't have.
+    // Primary LSMBTree has a Bloomfilter, secondary ones only have one if they are used for point lookups
     private final boolean hasBloomFilter;
 
+    // extracts the component filter values from the tuples instead of reading them at the filter fields
+    private final ISynopsisFieldsExtractorFactory filterExtractorFactory;
+
     public LSMBTree(IIOManager ioManager, List<IVirtualBufferCache> virtualBufferCaches,
             ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory insertLeafFrameFactory,
             ITreeIndexFrameFactory deleteLeafFrameFactory, IBufferCache diskBufferCache,
@@ -96,6 +101,52 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
             ILSMMergePolicy mergePolicy, ILSMOperationTracker opTracker, ILSMIOOperationScheduler ioScheduler,
             ILSMIOOperationCallbackFactory ioOpCallbackFactory, boolean needKeyDupCheck, int[] btreeFields,
             int[] filterFields, boolean durable, boolean updateAware, ITracer tracer) throws HyracksDataException {
+        this(ioManager, virtualBufferCaches, interiorFrameFactory, insertLeafFrameFactory, deleteLeafFrameFactory,
+                diskBufferCache, fileManager, componentFactory, bulkLoadComponentFactory, filterHelper,
+                filterFrameFactory, filterManager, bloomFilterFalsePositiveRate, fieldCount, cmpFactories, mergePolicy,
+                opTracker, ioScheduler, ioOpCallbackFactory, needKeyDupCheck, needKeyDupCheck, btreeFields,
+                filterFields, durable, updateAware, tracer);
+    }
+
+    /**
+     * @param hasBloomFilter
+     *            whether the disk components keep a bloom filter on the key fields; besides primary indexes, this is
+     *            the case of secondary indexes that are probed with point searches, such as primary key indexes
+     */
+    public LSMBTree(IIOManager ioManager, List<IVirtualBufferCache> virtualBufferCaches,
+            ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory insertLeafFrameFactory,
+            ITreeIndexFrameFactory deleteLeafFrameFactory, IBufferCache diskBufferCache,
+            ILSMIndexFileManager fileManager, ILSMDiskComponentFactory componentFactory,
+            ILSMDiskComponentFactory bulkLoadComponentFactory, IComponentFilterHelper filterHelper,
+            ILSMComponentFilterFrameFactory filterFrameFactory, LSMComponentFilterManager filterManager,
+            double bloomFilterFalsePositiveRate, int fieldCount, IBinaryComparatorFactory[] cmpFactories,
+            ILSMMergePolicy mergePolicy, ILSMOperationTracker opTracker, ILSMIOOperationScheduler ioScheduler,
+            ILSMIOOperationCallbackFactory ioOpCallbackFactory, boolean needKeyDupCheck, boolean hasBloomFilter,
+            int[] btreeFields, int[] filterFields, boolean durable, boolean updateAware, ITracer tracer)
+            throws HyracksDataException {
+        this(ioManager, virtualBufferCaches, interiorFrameFactory, insertLeafFrameFactory, deleteLeafFrameFactory,
+                diskBufferCache, fileManager, componentFactory, bulkLoadComponentFactory, filterHelper,
+                filterFrameFactory, filterManager, bloomFilterFalsePositiveRate, fieldCount, cmpFactories, mergePolicy,
+                opTracker, ioScheduler, ioOpCallbackFactory, needKeyDupCheck, hasBloomFilter, btreeFields, filterFields,
+                null, durable, updateAware, tracer);
+    }
+
+    /**
+     * @param filterExtractorFactory
+     *            extracts the component filter values from the tuples, or null to read them at filterFields; the
+     *            component filter can then cover values that the tuples do not carry as separate fields
+     */
+    public LSMBTree(IIOManager ioManager, List<IVirtualBufferCache> virtualBufferCaches,
+            ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory insertLeafFrameFactory,
+            ITreeIndexFrameFactory deleteLeafFrameFactory, IBufferCache diskBufferCache,
+            ILSMIndexFileManager fileManager, ILSMDiskComponentFactory componentFactory,
+            ILSMDiskComponentFactory bulkLoadComponentFactory, IComponentFilterHelper filterHelper,
+            ILSMComponentFilterFrameFactory filterFrameFactory, LSMComponentFilterManager filterManager,
+            double bloomFilterFalsePositiveRate, int fieldCount, IBinaryComparatorFactory[] cmpFactories,
+            ILSMMergePolicy mergePolicy, ILSMOperationTracker opTracker, ILSMIOOperationScheduler ioScheduler,
+            ILSMIOOperationCallbackFactory ioOpCallbackFactory, boolean needKeyDupCheck, boolean hasBloomFilter,
+            int[] btreeFields, int[] filterFields, ISynopsisFieldsExtractorFactory filterExtractorFactory,
+            boolean durable, boolean updateAware, ITracer tracer) throws HyracksDataException {
         super(ioManager, virtualBufferCaches, diskBufferCache, fileManager, bloomFilterFalsePositiveRate, mergePolicy,
                 opTracker, ioScheduler, ioOpCallbackFactory, componentFactory, bulkLoadComponentFactory,
                 filterFrameFactory, filterManager, filterFields, durable, filterHelper, btreeFields, tracer);
@@ -115,7 +166,8 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
             ++i;
         }
         this.needKeyDupCheck = needKeyDupCheck;
-        this.hasBloomFilter = needKeyDupCheck;
+        this.hasBloomFilter = hasBloomFilter;
+        this.filterExtractorFactory = filterExtractorFactory;
     }
 
     // Without memory components
@@ -134,6 +186,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         this.needKeyDupCheck = needKeyDupCheck;
         this.hasBloomFilter = true;
         this.updateAware = false;
+        this.filterExtractorFactory = null;
     }
 
     @Override
@@ -141,6 +194,29 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         return needKeyDupCheck;
     }
 
+    public boolean hasBloomFilter() {
+        return hasBloomFilter;
+    }
+
+    @Override
+    public ISynopsisFieldsExtractorFactory getFilterExtractorFactory() {
+        return filterExtractorFactory;
+    }
+
+    @Override
+    public void updateFilter(ILSMIndexOperationContext ctx, ITupleReference tuple) throws HyracksDataException {
+        if (filterExtractorFactory == null) {
+            super.updateFilter(ctx, tuple);
+            return;
+        }
+        // antimatter tuples carry no values; a delete updates the filter with the values of the deleted tuple
+        ITupleReference filterValues = ((LSMBTreeOpContext) ctx).getFilterExtractor().extract(tuple);
+        if (filterValues != null) {
+            memoryComponents.get(currentMutableComponentId.get()).getLSMComponentFilter().update(filterValues,
+                    ctx.getFilterCmp());
+        }
+    }
+
     @Override
     public IBinaryComparatorFactory[] getComparatorFactories() {
         return cmpFactories;
@@ -197,6 +273,11 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
             } finally {
                 memCursor.destroy();
             }
+            if (!ctx.isDiskDuplicateCheck()) {
+                ctx.getCurrentMutableBTreeAccessor().upsertIfConditionElseInsert(tuple,
+                        AntimatterAwareTupleAcceptor.INSTANCE);
+                return true;
+            }
 
             // TODO: Can we just remove the above code that search the mutable
             // component and do it together with the search call below? i.e. instead
@@ -334,6 +415,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
                 cursor.next();
                 ITupleReference frameTuple = cursor.getTuple();
                 componentBulkLoader.add(frameTuple);
+                mergeOp.throttle(frameTuple);
             }
         } finally {
             cursor.destroy();
@@ -367,7 +449,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
                 ? ((LSMBTreeWithBloomFilterDiskComponentFactory) componentFactory).getBloomFilterKeyFields().length : 0;
         return new LSMBTreeOpContext(this, memoryComponents, insertLeafFrameFactory, deleteLeafFrameFactory,
                 modificationCallback, searchCallback, numBloomFilterKeyFields, getTreeFields(), getFilterFields(),
-                getHarness(), getFilterCmpFactories(), tracer);
+                filterExtractorFactory, getHarness(), getFilterCmpFactories(), tracer);
     }
 
     @Override
@@ -376,7 +458,8 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     }
 
     public ILSMIndexAccessor createAccessor(AbstractLSMIndexOperationContext opCtx) {
-        return new LSMTreeIndexAccessor(getHarness(), opCtx, cursorFactory);
+        return new LSMTreeIndexAccessor(getHarness(), opCtx, cursorFactory,
+                isPrimaryIndex() ? batchPointCursorFactory : null);
     }
 
     @Override
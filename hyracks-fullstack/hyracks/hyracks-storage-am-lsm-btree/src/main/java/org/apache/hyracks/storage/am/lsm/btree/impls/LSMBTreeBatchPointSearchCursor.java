@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree.impls;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.btree.impls.BatchPredicate;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent.LSMComponentType;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexOperationContext;
+import org.apache.hyracks.storage.common.ICursorInitialState;
+import org.apache.hyracks.storage.common.ISearchPredicate;
+
+/**
+ * Looks up all the keys of a {@link BatchPredicate} in a single search of the index: the components are entered once
+ * for the whole batch, the cursors of the disk components stay on their last leaf so that the next key is searched
+ * from there instead of from the root, and the bloom filters are checked for all the keys at once, hashing each key a
+ * single time. The cursor returns at most one tuple per key, in the order of the keys; {@link #getKeyIndex()} gives
+ * the key of the current tuple.
+ */
+public class LSMBTreeBatchPointSearchCursor extends LSMBTreePointSearchCursor {
+
+    private BatchPredicate batchPred;
+    // for each component, whether its bloom filter may contain each key of the batch
+    private boolean[] mayContain = new boolean[0];
+    private long[] keyHashes = new long[0];
+
+    public LSMBTreeBatchPointSearchCursor(ILSMIndexOperationContext opCtx) {
+        super(opCtx);
+    }
+
+    @Override
+    public void open(ICursorInitialState initialState, ISearchPredicate searchPred) throws HyracksDataException {
+        super.open(initialState, searchPred);
+        batchPred = (BatchPredicate) predicate;
+        checkBloomFilters();
+    }
+
+    private void checkBloomFilters() throws HyracksDataException {
+        int numKeys = batchPred.getNumKeys();
+        if (mayContain.length < numBTrees * numKeys) {
+            mayContain = new boolean[numBTrees * numKeys];
+        }
+        if (keyHashes.length < 2 * numKeys) {
+            keyHashes = new long[2 * numKeys];
+        }
+        boolean hashed = false;
+        long[] hashes = new long[2];
+        for (int i = 0; i < numBTrees; i++) {
+            if (bloomFilters[i] == null) {
+                continue;
+            }
+            // all the components share the bloom filter key fields, so each key is hashed once
+            if (!hashed) {
+                for (int k = 0; k < numKeys; k++) {
+                    bloomFilters[i].computeHashes(batchPred.getKey(k), hashes);
+                    keyHashes[2 * k] = hashes[0];
+                    keyHashes[2 * k + 1] = hashes[1];
+                }
+                hashed = true;
+            }
+            for (int k = 0; k < numKeys; k++) {
+                hashes[0] = keyHashes[2 * k];
+                hashes[1] = keyHashes[2 * k + 1];
+                mayContain[i * numKeys + k] = bloomFilters[i].contains(hashes);
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() throws HyracksDataException {
+        if (foundTuple && !nextHasBeenCalled) {
+            return true;
+        }
+        while (batchPred.hasNext()) {
+            releaseMemoryCursors();
+            batchPred.next();
+            nextHasBeenCalled = false;
+            foundTuple = false;
+            if (super.hasNext()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the position in the batch of the key of the current tuple
+     */
+    public int getKeyIndex() {
+        return batchPred.getKeyIndex();
+    }
+
+    @Override
+    protected boolean isExcludedByBloomFilter(int i) throws HyracksDataException {
+        return bloomFilters[i] != null && !mayContain[i * batchPred.getNumKeys() + batchPred.getKeyIndex()];
+    }
+
+    @Override
+    protected void releaseCursor(int i) throws HyracksDataException {
+        // a disk component cursor keeps its leaf pinned, the next key is likely to be found in the same leaf
+        if (operationalComponents.get(i).getType() == LSMComponentType.MEMORY) {
+            btreeCursors[i].close();
+        }
+    }
+
+    private void releaseMemoryCursors() throws HyracksDataException {
+        // the cursors of the memory components latch their leaf, which must not be held while looking up other keys
+        for (int i = 0; i < numBTrees; i++) {
+            if (operationalComponents.get(i).getType() == LSMComponentType.MEMORY) {
+                btreeCursors[i].close();
+            }
+        }
+    }
+}
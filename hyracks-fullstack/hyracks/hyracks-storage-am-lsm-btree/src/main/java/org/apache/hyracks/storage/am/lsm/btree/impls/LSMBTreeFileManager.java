@@ -148,7 +148,7 @@ public class LSMBTreeFileManager extends AbstractLSMIndexFileManager {
                     && (!hasBloomFilter || (currentBloomFilter.interval[0].compareTo(lastBloomFilter.interval[0]) >= 0
                             && currentBloomFilter.interval[1].compareTo(lastBloomFilter.interval[1]) <= 0))) {
                 // Invalid files are completely contained in last interval.
-                IoUtil.delete(new File(currentBTree.fullPath));
+                deleteComponentFile(new File(currentBTree.fullPath));
                 if (hasBloomFilter) {
                     IoUtil.delete(new File(currentBloomFilter.fullPath));
                 }
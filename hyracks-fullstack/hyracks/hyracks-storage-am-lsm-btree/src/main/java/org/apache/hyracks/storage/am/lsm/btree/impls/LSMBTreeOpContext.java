@@ -23,6 +23,8 @@ import java.util.List;
 
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.storage.am.btree.api.IBTreeLeafFrame;
+import org.apache.hyracks.storage.am.btree.api.ISynopsisFieldsExtractor;
+import org.apache.hyracks.storage.am.btree.api.ISynopsisFieldsExtractorFactory;
 import org.apache.hyracks.storage.am.btree.impls.BTree;
 import org.apache.hyracks.storage.am.btree.impls.BTreeOpContext;
 import org.apache.hyracks.storage.am.btree.impls.BTreeRangeSearchCursor;
@@ -58,16 +60,20 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
     private final BTreeRangeSearchCursor memCursor;
     private final LSMBTreeCursorInitialState searchInitialState;
     private final LSMBTreePointSearchCursor insertSearchCursor;
+    private final ISynopsisFieldsExtractor filterExtractor;
     /*
      * Mutables
      */
     private BTree.BTreeAccessor currentMutableBTreeAccessor;
     private BTreeOpContext currentMutableBTreeOpCtx;
+    // not reset with the operation, the caller decides for each insert
+    private boolean diskDuplicateCheck = true;
 
     public LSMBTreeOpContext(ILSMIndex index, List<ILSMMemoryComponent> mutableComponents,
             ITreeIndexFrameFactory insertLeafFrameFactory, ITreeIndexFrameFactory deleteLeafFrameFactory,
             IModificationOperationCallback modificationCallback, ISearchOperationCallback searchCallback,
-            int numBloomFilterKeyFields, int[] btreeFields, int[] filterFields, ILSMHarness lsmHarness,
+            int numBloomFilterKeyFields, int[] btreeFields, int[] filterFields,
+            ISynopsisFieldsExtractorFactory filterExtractorFactory, ILSMHarness lsmHarness,
             IBinaryComparatorFactory[] filterCmpFactories, ITracer tracer) {
         super(index, btreeFields, filterFields, filterCmpFactories, searchCallback, modificationCallback, tracer);
         LSMBTreeMemoryComponent c = (LSMBTreeMemoryComponent) mutableComponents.get(0);
@@ -112,6 +118,7 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
         searchInitialState = new LSMBTreeCursorInitialState(insertLeafFrameFactory, getCmp(), bloomFilterCmp,
                 lsmHarness, null, searchCallback, null);
         insertSearchCursor = new LSMBTreePointSearchCursor(this);
+        filterExtractor = filterExtractorFactory == null ? null : filterExtractorFactory.createExtractor();
     }
 
     @Override
@@ -130,6 +137,10 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
         currentMutableBTreeOpCtx.setLeafFrameFactory(deleteLeafFrameFactory);
     }
 
+    public ISynopsisFieldsExtractor getFilterExtractor() {
+        return filterExtractor;
+    }
+
     @Override
     public void setCurrentMutableComponentId(int currentMutableComponentId) {
         setCurrentMutableBTreeAccessor(mutableBTreeAccessors[currentMutableComponentId]);
@@ -161,6 +172,20 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
         this.currentMutableBTreeAccessor = currentMutableBTreeAccessor;
     }
 
+    /**
+     * @param diskDuplicateCheck
+     *            whether the following inserts search the disk components for a duplicate of their key. Callers that
+     *            know from another index that a key is not in this one can turn it off. The memory component is
+     *            always checked.
+     */
+    public void setDiskDuplicateCheck(boolean diskDuplicateCheck) {
+        this.diskDuplicateCheck = diskDuplicateCheck;
+    }
+
+    public boolean isDiskDuplicateCheck() {
+        return diskDuplicateCheck;
+    }
+
     public LSMBTreePointSearchCursor getInsertSearchCursor() {
         return insertSearchCursor;
     }
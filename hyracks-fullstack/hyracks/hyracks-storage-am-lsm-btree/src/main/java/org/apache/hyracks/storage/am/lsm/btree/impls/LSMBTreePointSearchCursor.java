@@ -44,20 +44,20 @@ import org.apache.hyracks.storage.common.ISearchPredicate;
 
 public class LSMBTreePointSearchCursor implements ILSMIndexCursor {
 
-    private ITreeIndexCursor[] btreeCursors;
+    protected ITreeIndexCursor[] btreeCursors;
     private final ILSMIndexOperationContext opCtx;
     private ISearchOperationCallback searchCallback;
-    private RangePredicate predicate;
+    protected RangePredicate predicate;
     private boolean includeMutableComponent;
-    private int numBTrees;
+    protected int numBTrees;
     private BTreeAccessor[] btreeAccessors;
-    private BloomFilter[] bloomFilters;
+    protected BloomFilter[] bloomFilters;
     private ILSMHarness lsmHarness;
-    private boolean nextHasBeenCalled;
-    private boolean foundTuple;
+    protected boolean nextHasBeenCalled;
+    protected boolean foundTuple;
     private int foundIn = -1;
     private ITupleReference frameTuple;
-    private List<ILSMComponent> operationalComponents;
+    protected List<ILSMComponent> operationalComponents;
 
     private final long[] hashes = BloomFilter.createHashArray();
 
@@ -74,7 +74,7 @@ public class LSMBTreePointSearchCursor implements ILSMIndexCursor {
         }
         boolean reconciled = false;
         for (int i = 0; i < numBTrees; ++i) {
-            if (bloomFilters[i] != null && !bloomFilters[i].contains(predicate.getLowKey(), hashes)) {
+            if (isExcludedByBloomFilter(i)) {
                 continue;
             }
             btreeAccessors[i].search(btreeCursors[i], predicate);
@@ -88,7 +88,7 @@ public class LSMBTreePointSearchCursor implements ILSMIndexCursor {
                         if (reconciled) {
                             searchCallback.cancel(predicate.getLowKey());
                         }
-                        btreeCursors[i].destroy();
+                        releaseCursor(i);
                         return false;
                     } else {
                         frameTuple = btreeCursors[i].getTuple();
@@ -109,7 +109,7 @@ public class LSMBTreePointSearchCursor implements ILSMIndexCursor {
                         btreeCursors[i].next();
                         if (((ILSMTreeTupleReference) btreeCursors[i].getTuple()).isAntimatter()) {
                             searchCallback.cancel(predicate.getLowKey());
-                            btreeCursors[i].destroy();
+                            releaseCursor(i);
                             return false;
                         } else {
                             frameTuple = btreeCursors[i].getTuple();
@@ -120,7 +120,7 @@ public class LSMBTreePointSearchCursor implements ILSMIndexCursor {
                         }
                     } else {
                         searchCallback.cancel(predicate.getLowKey());
-                        btreeCursors[i].destroy();
+                        releaseCursor(i);
                     }
                 } else {
                     frameTuple = btreeCursors[i].getTuple();
@@ -131,12 +131,26 @@ public class LSMBTreePointSearchCursor implements ILSMIndexCursor {
                     return true;
                 }
             } else {
-                btreeCursors[i].destroy();
+                releaseCursor(i);
             }
         }
         return false;
     }
 
+    /**
+     * @return whether the bloom filter of the i-th component rules out the search key
+     */
+    protected boolean isExcludedByBloomFilter(int i) throws HyracksDataException {
+        return bloomFilters[i] != null && !bloomFilters[i].contains(predicate.getLowKey(), hashes);
+    }
+
+    /**
+     * Releases the cursor of the i-th component once it is known not to hold a tuple to return for the search key.
+     */
+    protected void releaseCursor(int i) throws HyracksDataException {
+        btreeCursors[i].destroy();
+    }
+
     @Override
     public void close() throws HyracksDataException {
         try {
@@ -19,15 +19,19 @@
 
 package org.apache.hyracks.storage.am.lsm.btree.impls;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.PriorityQueue;
 
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
 import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter;
 import org.apache.hyracks.storage.am.btree.impls.BTree;
 import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeAccessor;
+import org.apache.hyracks.storage.am.btree.impls.DiskBTreeRangeSearchCursor;
 import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
 import org.apache.hyracks.storage.am.common.impls.NoOpIndexAccessParameters;
 import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
@@ -53,6 +57,16 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
     private boolean canCallProceed = true;
     private int tupleFromMemoryComponentCount = 0;
 
+    // the disk components skip the leaves that their synopses rule out. a key that an older component returns may then
+    // have a newer version in a skipped leaf of a newer component, which is looked up in the components that skipped
+    // leaves right before their current element
+    private final RangePredicate lookupPred;
+    private final long[] hashes = BloomFilter.createHashArray();
+    private boolean[] skippedBeforeElement;
+    private BloomFilter[] bloomFilters;
+    private BTreeAccessor[] lookupAccessors;
+    private IIndexCursor[] lookupCursors;
+
     public LSMBTreeRangeSearchCursor(ILSMIndexOperationContext opCtx) {
         this(opCtx, false);
     }
@@ -61,14 +75,38 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
         super(opCtx, returnDeletedTuples);
         this.copyTuple = new ArrayTupleReference();
         this.reusablePred = new RangePredicate(null, null, true, true, null, null);
+        this.lookupPred = new RangePredicate(null, null, true, true, null, null);
     }
 
     @Override
     public void close() throws HyracksDataException {
-        super.close();
+        try {
+            closeLookupCursors();
+        } finally {
+            super.close();
+        }
         canCallProceed = true;
     }
 
+    @Override
+    public void destroy() throws HyracksDataException {
+        try {
+            closeLookupCursors();
+        } finally {
+            super.destroy();
+        }
+    }
+
+    private void closeLookupCursors() throws HyracksDataException {
+        if (lookupCursors != null) {
+            for (int i = 0; i < lookupCursors.length; i++) {
+                if (lookupCursors[i] != null) {
+                    lookupCursors[i].close();
+                }
+            }
+        }
+    }
+
     @Override
     public void next() throws HyracksDataException {
         outputElement = outputPriorityQueue.poll();
@@ -149,8 +187,9 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
                 // If there is no previous tuple or the previous tuple can be ignored.
                 // This check is needed not to release the same tuple again.
                 if (outputElement == null) {
-                    if (isDeleted(queueHead) && !returnDeletedTuples) {
-                        // If the key has been deleted then pop it and set needPush to true.
+                    if ((isDeleted(queueHead) && !returnDeletedTuples) || isInSkippedLeaf(queueHead)) {
+                        // If the key has been deleted, or a newer version of it was skipped, then pop it and set
+                        // needPush to true.
                         // We cannot push immediately because the tuple may be
                         // modified if hasNext() is called
                         outputElement = outputPriorityQueue.poll();
@@ -188,6 +227,48 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
 
     }
 
+    @Override
+    protected boolean pushIntoQueueFromCursorAndReplaceThisElement(PriorityQueueElement e) throws HyracksDataException {
+        boolean pushed = super.pushIntoQueueFromCursorAndReplaceThisElement(e);
+        int i = e.getCursorIndex();
+        if (rangeCursors[i] instanceof DiskBTreeRangeSearchCursor) {
+            DiskBTreeRangeSearchCursor cursor = (DiskBTreeRangeSearchCursor) rangeCursors[i];
+            // once the cursor is exhausted, the leaves it skipped at the end of the range are before no element
+            skippedBeforeElement[i] =
+                    pushed ? cursor.hasSkippedLeavesBeforeTuple() : cursor.hasSkippedLeavesAfterTuple();
+        }
+        return pushed;
+    }
+
+    /**
+     * @return whether a newer component than the one of the element holds its key in a leaf that was skipped
+     */
+    private boolean isInSkippedLeaf(PriorityQueueElement element) throws HyracksDataException {
+        // the newer components whose current element has the same key come first in the queue, so the key can only
+        // be in the leaves they skipped right before their current element
+        for (int i = 0; i < element.getCursorIndex(); i++) {
+            if (skippedBeforeElement[i] && contains(i, element.getTuple())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean contains(int i, ITupleReference key) throws HyracksDataException {
+        if (bloomFilters[i] != null && !bloomFilters[i].contains(key, hashes)) {
+            return false;
+        }
+        if (lookupAccessors[i] == null) {
+            BTree btree = (BTree) operationalComponents.get(i).getIndex();
+            lookupAccessors[i] = btree.createAccessor(NoOpIndexAccessParameters.INSTANCE);
+            lookupCursors[i] = lookupAccessors[i].createPointCursor(false);
+        }
+        lookupPred.setLowKey(key, true);
+        lookupPred.setHighKey(key, true);
+        lookupAccessors[i].search(lookupCursors[i], lookupPred);
+        return lookupCursors[i].hasNext();
+    }
+
     private void pushOutputElementIntoQueueIfNeeded() throws HyracksDataException {
         if (needPushElementIntoQueue) {
             pushIntoQueueFromCursorAndReplaceThisElement(outputElement);
@@ -328,6 +409,8 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
         reusablePred.setLowKeyComparator(cmp);
         reusablePred.setHighKey(predicate.getHighKey(), predicate.isHighKeyInclusive());
         reusablePred.setHighKeyComparator(predicate.getHighKeyComparator());
+        lookupPred.setLowKeyComparator(cmp);
+        lookupPred.setHighKeyComparator(cmp);
         includeMutableComponent = false;
 
         int numBTrees = operationalComponents.size();
@@ -335,7 +418,12 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
             // object creation: should be relatively low
             rangeCursors = new IIndexCursor[numBTrees];
             btreeAccessors = new BTreeAccessor[numBTrees];
+            skippedBeforeElement = new boolean[numBTrees];
+            bloomFilters = new BloomFilter[numBTrees];
+            lookupAccessors = new BTreeAccessor[numBTrees];
+            lookupCursors = new IIndexCursor[numBTrees];
         }
+        Arrays.fill(skippedBeforeElement, false);
 
         for (int i = 0; i < numBTrees; i++) {
             ILSMComponent component = operationalComponents.get(i);
@@ -352,6 +440,18 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
                 btreeAccessors[i].reset(btree, NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
                 rangeCursors[i].close();
             }
+            if (rangeCursors[i] instanceof DiskBTreeRangeSearchCursor) {
+                ((DiskBTreeRangeSearchCursor) rangeCursors[i])
+                        .setLeafSkippingEnabled(component.getType() == LSMComponentType.DISK);
+            }
+            bloomFilters[i] = component instanceof LSMBTreeWithBloomFilterDiskComponent
+                    ? ((LSMBTreeWithBloomFilterDiskComponent) component).getBloomFilter() : null;
+            if (component.getType() != LSMComponentType.DISK) {
+                lookupAccessors[i] = null;
+                lookupCursors[i] = null;
+            } else if (lookupAccessors[i] != null) {
+                lookupAccessors[i].reset(btree, NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+            }
             btreeAccessors[i].search(rangeCursors[i], searchPred);
         }
 
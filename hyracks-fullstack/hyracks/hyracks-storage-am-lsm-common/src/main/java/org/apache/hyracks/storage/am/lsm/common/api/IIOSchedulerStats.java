@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.api;
+
+/**
+ * The IO operations of an LSM index that wait in, or are executed by, an IO operation scheduler and the time they
+ * spent waiting to be executed.
+ */
+public interface IIOSchedulerStats {
+    /**
+     * @return the number of flushes waiting for the running flush of the index to complete
+     */
+    int getQueuedFlushes();
+
+    /**
+     * @return the number of merges waiting for the running merges on their device to complete
+     */
+    int getQueuedMerges();
+
+    int getRunningMerges();
+
+    /**
+     * @return the total time, in nanoseconds, flushes spent waiting to be executed
+     */
+    long getFlushStallTime();
+
+    /**
+     * @return the total time, in nanoseconds, merges spent waiting to be executed
+     */
+    long getMergeStallTime();
+}
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.api;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * Limits the rate at which IO operations transfer bytes.
+ */
+public interface IIOThrottle {
+    /**
+     * Acquire the given number of bytes, waiting if they exceed the rate of the throttle.
+     *
+     * @param numBytes
+     * @throws HyracksDataException
+     *             if the thread is interrupted while waiting
+     */
+    void acquire(long numBytes) throws HyracksDataException;
+
+    /**
+     * @return the maximum number of bytes per second, or 0 for no limit
+     */
+    long getRate();
+
+    /**
+     * @return the number of bytes acquired through this throttle
+     */
+    long getBytes();
+
+    /**
+     * @return the total time, in nanoseconds, operations waited for this throttle
+     */
+    long getThrottledTime();
+}
@@ -18,7 +18,11 @@
  */
 package org.apache.hyracks.storage.am.lsm.common.api;
 
+import java.util.Collections;
+import java.util.Map;
+
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IODeviceHandle;
 
 /**
  * Schedules IO operations for LSM indexes
@@ -26,4 +30,29 @@ import org.apache.hyracks.api.exceptions.HyracksDataException;
 @FunctionalInterface
 public interface ILSMIOOperationScheduler {
     void scheduleOperation(ILSMIOOperation operation) throws HyracksDataException;
+
+    /**
+     * @return the queue depths and stall times of the operations of each index, by index identifier, for the
+     *         schedulers that keep track of them
+     */
+    default Map<String, IIOSchedulerStats> getStats() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Drop what the scheduler keeps track of for an index that is no longer active.
+     *
+     * @param indexIdentifier
+     *            the identifier of the index, as returned by {@link ILSMIOOperation#getIndexIdentifier()}
+     */
+    default void unregisterIndex(String indexIdentifier) {
+        // no op
+    }
+
+    /**
+     * @return the throttles limiting the rate of the merges on each IO device, for the schedulers that throttle merges
+     */
+    default Map<IODeviceHandle, IIOThrottle> getMergeThrottles() {
+        return Collections.emptyMap();
+    }
 }
@@ -148,4 +148,15 @@ public interface ILSMIndex extends IIndex {
      * @return the {@link ILSMHarness} of the index
      */
     ILSMHarness getHarness();
+
+    /**
+     * @return the number of bytes written by the flushes of this index instance
+     */
+    long getFlushedBytes();
+
+    /**
+     * @return the number of bytes written by the merges of this index instance. Divided by
+     *         {@link #getFlushedBytes()}, this gives the write amplification caused by the merge policy.
+     */
+    long getMergedBytes();
 }
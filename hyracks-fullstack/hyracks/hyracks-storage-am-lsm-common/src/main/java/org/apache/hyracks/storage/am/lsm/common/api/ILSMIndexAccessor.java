@@ -26,6 +26,7 @@ import org.apache.hyracks.data.std.api.IValueReference;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.storage.common.IIndexAccessor;
 import org.apache.hyracks.storage.common.IIndexCursor;
+import org.apache.hyracks.storage.common.ISearchPredicate;
 
 /**
  * Client handle for performing operations
@@ -252,6 +253,17 @@ public interface ILSMIndexAccessor extends IIndexAccessor {
      */
     void scanDiskComponents(IIndexCursor cursor) throws HyracksDataException;
 
+    /**
+     * Create a cursor for looking up, in a single search, all the keys of a frame in the primary index.
+     * The cursor is to be opened by {@link #search(IIndexCursor, ISearchPredicate)} with a batch predicate over the
+     * frame, and returns at most one tuple per key, in the order of the keys in the frame.
+     * The keys are best sorted on the index key.
+     *
+     * @throws HyracksDataException
+     *             If the index is not a primary index.
+     */
+    IIndexCursor createBatchPointSearchCursor() throws HyracksDataException;
+
     /**
      * Delete components that match the passed predicate
      * NOTE: This call can only be made when the caller knows that data modification has been stopped
@@ -191,6 +191,7 @@ public abstract class AbstractLSMDiskComponent extends AbstractLSMComponent impl
     public IChainedComponentBulkLoader createFilterBulkLoader() throws HyracksDataException {
         return new FilterBulkLoader(getLSMComponentFilter(), getMetadataHolder(), getLsmIndex().getFilterManager(),
                 getLsmIndex().getTreeFields(), getLsmIndex().getFilterFields(),
+                getLsmIndex().getFilterExtractorFactory(),
                 MultiComparator.create(getLSMComponentFilter().getFilterCmpFactories()));
     }
 
@@ -207,7 +208,8 @@ public abstract class AbstractLSMDiskComponent extends AbstractLSMComponent impl
             throws HyracksDataException {
         ChainedLSMDiskComponentBulkLoader chainedBulkLoader =
                 new ChainedLSMDiskComponentBulkLoader(this, cleanupEmptyComponent);
-        if (withFilter && getLsmIndex().getFilterFields() != null) {
+        if (withFilter
+                && (getLsmIndex().getFilterFields() != null || getLsmIndex().getFilterExtractorFactory() != null)) {
             chainedBulkLoader.addBulkLoader(createFilterBulkLoader());
         }
         chainedBulkLoader
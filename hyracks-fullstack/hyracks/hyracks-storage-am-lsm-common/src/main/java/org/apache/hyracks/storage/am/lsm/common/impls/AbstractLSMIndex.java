@@ -19,6 +19,7 @@
 
 package org.apache.hyracks.storage.am.lsm.common.impls;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -27,6 +28,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.exceptions.ErrorCode;
@@ -36,6 +38,7 @@ import org.apache.hyracks.api.io.IIOManager;
 import org.apache.hyracks.api.replication.IReplicationJob.ReplicationExecutionType;
 import org.apache.hyracks.api.replication.IReplicationJob.ReplicationOperation;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.btree.api.ISynopsisFieldsExtractorFactory;
 import org.apache.hyracks.storage.am.common.impls.AbstractSearchPredicate;
 import org.apache.hyracks.storage.am.common.impls.NoOpIndexAccessParameters;
 import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
@@ -68,6 +71,7 @@ import org.apache.hyracks.storage.common.IIndexCursor;
 import org.apache.hyracks.storage.common.IModificationOperationCallback;
 import org.apache.hyracks.storage.common.ISearchOperationCallback;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.compression.CompressedFileManager;
 import org.apache.hyracks.util.trace.ITracer;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
@@ -101,6 +105,8 @@ public abstract class AbstractLSMIndex implements ILSMIndex {
     protected final AtomicBoolean[] flushRequests;
     protected boolean memoryComponentsAllocated = false;
     protected ITracer tracer;
+    private final AtomicLong flushedBytes = new AtomicLong();
+    private final AtomicLong mergedBytes = new AtomicLong();
     // Factory for creating on-disk index components during flush and merge.
     protected final ILSMDiskComponentFactory componentFactory;
     // Factory for creating on-disk index components during bulkload.
@@ -218,6 +224,7 @@ public abstract class AbstractLSMIndex implements ILSMIndex {
         }
         deactivateDiskComponents();
         deallocateMemoryComponents();
+        ioScheduler.unregisterIndex(fileManager.getBaseDir().getAbsolutePath());
         isActive = false;
     }
 
@@ -603,7 +610,14 @@ public abstract class AbstractLSMIndex implements ILSMIndex {
 
         //get set of files to be replicated for each component
         for (ILSMDiskComponent lsmComponent : lsmComponents) {
-            componentFiles.addAll(lsmComponent.getLSMComponentPhysicalFiles());
+            for (String file : lsmComponent.getLSMComponentPhysicalFiles()) {
+                componentFiles.add(file);
+                // a compressed file cannot be read without its look-aside file
+                File lookAsideFile = CompressedFileManager.getLookAsideFile(new File(file));
+                if (lookAsideFile.exists()) {
+                    componentFiles.add(lookAsideFile.getAbsolutePath());
+                }
+            }
         }
 
         ReplicationExecutionType executionType;
@@ -674,6 +688,13 @@ public abstract class AbstractLSMIndex implements ILSMIndex {
         return filterFields;
     }
 
+    /**
+     * @return extracts the filter values from the tuples, or null if they are read at the filter fields
+     */
+    public ISynopsisFieldsExtractorFactory getFilterExtractorFactory() {
+        return null;
+    }
+
     public int[] getTreeFields() {
         return treeFields;
     }
@@ -722,6 +743,9 @@ public abstract class AbstractLSMIndex implements ILSMIndex {
         ILSMDiskComponent component = null;
         try {
             component = doFlush(operation);
+            if (component != null) {
+                flushedBytes.addAndGet(component.getComponentSize());
+            }
             return component;
         } catch (Exception e) {
             LOGGER.error("Fail to execute flush " + this, e);
@@ -744,6 +768,9 @@ public abstract class AbstractLSMIndex implements ILSMIndex {
         try {
             component = opCtx.getOperation() == IndexOperation.DELETE_DISK_COMPONENTS ? EmptyComponent.INSTANCE
                     : doMerge(operation);
+            if (component != null) {
+                mergedBytes.addAndGet(component.getComponentSize());
+            }
             return component;
         } catch (Exception e) {
             LOGGER.error("Fail to execute merge " + this, e);
@@ -758,6 +785,16 @@ public abstract class AbstractLSMIndex implements ILSMIndex {
 
     }
 
+    @Override
+    public long getFlushedBytes() {
+        return flushedBytes.get();
+    }
+
+    @Override
+    public long getMergedBytes() {
+        return mergedBytes.get();
+    }
+
     protected void cleanUpFiles(ILSMIOOperation operation) throws HyracksDataException {
         LSMComponentFileReferences componentFiles = operation.getComponentFiles();
         if (componentFiles == null) {
@@ -42,6 +42,7 @@ import org.apache.hyracks.storage.am.common.api.ITreeIndexMetadataFrame;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexFileManager;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.compression.CompressedFileManager;
 import org.apache.hyracks.storage.common.file.BufferedFileHandle;
 
 public abstract class AbstractLSMIndexFileManager implements ILSMIndexFileManager {
@@ -146,10 +147,19 @@ public abstract class AbstractLSMIndexFileManager implements ILSMIndexFileManage
                 allFiles.add(new ComparableFileName(fileRef));
             } else if (idxState == TreeIndexState.INVALID) {
                 fileRef.delete();
+                CompressedFileManager.delete(fileRef);
             }
         }
     }
 
+    /**
+     * Delete a component file, together with its look-aside file if it is compressed
+     */
+    protected static void deleteComponentFile(File file) throws HyracksDataException {
+        IoUtil.delete(file);
+        CompressedFileManager.delete(file);
+    }
+
     static String[] listDirFiles(FileReference dir, FilenameFilter filter) throws HyracksDataException {
         /*
          * Returns null if this abstract pathname does not denote a directory, or if an I/O error occurs.
@@ -178,8 +188,7 @@ public abstract class AbstractLSMIndexFileManager implements ILSMIndexFileManage
             if (groundTruth.contains(file)) {
                 validFiles.add(cmpFileName);
             } else {
-                File invalidFile = new File(cmpFileName.fullPath);
-                IoUtil.delete(invalidFile);
+                deleteComponentFile(new File(cmpFileName.fullPath));
             }
         }
     }
@@ -253,6 +262,7 @@ public abstract class AbstractLSMIndexFileManager implements ILSMIndexFileManage
                 // last file. Thus the last file must contain at least as much information
                 // as the current file, so delete the current file.
                 current.fileRef.delete();
+                CompressedFileManager.delete(current.fileRef);
             } else {
                 // This scenario should not be possible since timestamps are monotonically increasing.
                 throw HyracksDataException.create(ErrorCode.FOUND_OVERLAPPING_LSM_FILES, baseDir);
@@ -354,8 +364,7 @@ public abstract class AbstractLSMIndexFileManager implements ILSMIndexFileManage
             FilenameFilter transactionFilter = createTransactionFilter(files[0], true);
             String[] componentsFiles = listDirFiles(baseDir, transactionFilter);
             for (String fileName : componentsFiles) {
-                FileReference file = baseDir.getChild(fileName);
-                IoUtil.delete(file);
+                deleteComponentFile(baseDir.getChild(fileName).getFile());
             }
             // delete the txn lock file
             IoUtil.delete(baseDir.getChild(files[0]));
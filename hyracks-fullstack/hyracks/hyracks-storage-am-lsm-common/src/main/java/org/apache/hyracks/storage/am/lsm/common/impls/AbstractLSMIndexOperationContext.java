@@ -64,9 +64,10 @@ public abstract class AbstractLSMIndexOperationContext implements ILSMIndexOpera
         this.componentHolder = new ArrayList<>();
         this.componentsToBeMerged = new ArrayList<>();
         this.componentsToBeReplicated = new ArrayList<>();
+        // the filter values may also be extracted from the tuples rather than read at filter fields
+        filterCmp = filterCmpFactories == null ? null : MultiComparator.create(filterCmpFactories);
         if (filterFields != null) {
             indexTuple = new PermutingTupleReference(treeFields);
-            filterCmp = MultiComparator.create(filterCmpFactories);
             filterTuple = new PermutingTupleReference(filterFields);
             allFields = new int[treeFields.length + filterFields.length];
             for (int i = 0; i < treeFields.length; i++) {
@@ -77,7 +78,6 @@ public abstract class AbstractLSMIndexOperationContext implements ILSMIndexOpera
             }
         } else {
             indexTuple = null;
-            filterCmp = null;
             filterTuple = null;
             allFields = null;
         }
@@ -22,24 +22,50 @@ package org.apache.hyracks.storage.am.lsm.common.impls;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.storage.am.btree.api.ISynopsisFieldsExtractorFactory;
 import org.apache.hyracks.storage.am.btree.impls.DiskBTree;
 import org.apache.hyracks.storage.am.common.api.IPageManagerFactory;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexFrameFactory;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.compression.ICompressorDecompressorFactory;
 
 public class DiskBTreeFactory extends TreeIndexFactory<DiskBTree> {
+    private final ICompressorDecompressorFactory compressorDecompressorFactory;
+    private final ISynopsisFieldsExtractorFactory synopsisExtractorFactory;
+    private final IBinaryComparatorFactory[] synopsisCmpFactories;
 
     public DiskBTreeFactory(IIOManager ioManager, IBufferCache bufferCache, IPageManagerFactory freePageManagerFactory,
             ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory leafFrameFactory,
             IBinaryComparatorFactory[] cmpFactories, int fieldCount) {
+        this(ioManager, bufferCache, freePageManagerFactory, interiorFrameFactory, leafFrameFactory, cmpFactories,
+                fieldCount, null);
+    }
+
+    public DiskBTreeFactory(IIOManager ioManager, IBufferCache bufferCache, IPageManagerFactory freePageManagerFactory,
+            ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory leafFrameFactory,
+            IBinaryComparatorFactory[] cmpFactories, int fieldCount,
+            ICompressorDecompressorFactory compressorDecompressorFactory) {
+        this(ioManager, bufferCache, freePageManagerFactory, interiorFrameFactory, leafFrameFactory, cmpFactories,
+                fieldCount, compressorDecompressorFactory, null, null);
+    }
+
+    public DiskBTreeFactory(IIOManager ioManager, IBufferCache bufferCache, IPageManagerFactory freePageManagerFactory,
+            ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory leafFrameFactory,
+            IBinaryComparatorFactory[] cmpFactories, int fieldCount,
+            ICompressorDecompressorFactory compressorDecompressorFactory,
+            ISynopsisFieldsExtractorFactory synopsisExtractorFactory, IBinaryComparatorFactory[] synopsisCmpFactories) {
         super(ioManager, bufferCache, freePageManagerFactory, interiorFrameFactory, leafFrameFactory, cmpFactories,
                 fieldCount);
+        this.compressorDecompressorFactory = compressorDecompressorFactory;
+        this.synopsisExtractorFactory = synopsisExtractorFactory;
+        this.synopsisCmpFactories = synopsisCmpFactories;
     }
 
     @Override
     public DiskBTree createIndexInstance(FileReference file) {
         return new DiskBTree(bufferCache, freePageManagerFactory.createPageManager(bufferCache), interiorFrameFactory,
-                leafFrameFactory, cmpFactories, fieldCount, file);
+                leafFrameFactory, cmpFactories, fieldCount, file, compressorDecompressorFactory,
+                synopsisExtractorFactory, synopsisCmpFactories);
     }
 
 }
@@ -20,6 +20,8 @@ package org.apache.hyracks.storage.am.lsm.common.impls;
 
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.btree.api.ISynopsisFieldsExtractor;
+import org.apache.hyracks.storage.am.btree.api.ISynopsisFieldsExtractorFactory;
 import org.apache.hyracks.storage.am.common.api.ITreeIndex;
 import org.apache.hyracks.storage.am.common.tuples.PermutingTupleReference;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilter;
@@ -33,23 +35,36 @@ public class FilterBulkLoader implements IChainedComponentBulkLoader {
     protected final ILSMComponentFilterManager filterManager;
     protected final PermutingTupleReference indexTuple;
     protected final PermutingTupleReference filterTuple;
+    protected final ISynopsisFieldsExtractor filterExtractor;
     protected final MultiComparator filterCmp;
 
     public FilterBulkLoader(ILSMComponentFilter filter, ITreeIndex treeIndex, ILSMComponentFilterManager filterManager,
             int[] indexFields, int[] filterFields, MultiComparator filterCmp) {
+        this(filter, treeIndex, filterManager, indexFields, filterFields, null, filterCmp);
+    }
+
+    /**
+     * @param indexFields
+     *            the fields of the tuples stored in the index, or null if all of them are
+     * @param filterExtractorFactory
+     *            extracts the filter values from the tuples, or null to read them at filterFields
+     */
+    public FilterBulkLoader(ILSMComponentFilter filter, ITreeIndex treeIndex, ILSMComponentFilterManager filterManager,
+            int[] indexFields, int[] filterFields, ISynopsisFieldsExtractorFactory filterExtractorFactory,
+            MultiComparator filterCmp) {
         this.filter = filter;
         this.treeIndex = treeIndex;
         this.filterManager = filterManager;
-        this.indexTuple = new PermutingTupleReference(indexFields);
-        this.filterTuple = new PermutingTupleReference(filterFields);
+        this.indexTuple = indexFields == null ? null : new PermutingTupleReference(indexFields);
+        this.filterTuple = filterExtractorFactory == null ? new PermutingTupleReference(filterFields) : null;
+        this.filterExtractor = filterExtractorFactory == null ? null : filterExtractorFactory.createExtractor();
         this.filterCmp = filterCmp;
     }
 
     @Override
     public ITupleReference delete(ITupleReference tuple) throws HyracksDataException {
-        indexTuple.reset(tuple);
         updateFilter(tuple);
-        return indexTuple;
+        return getIndexTuple(tuple);
     }
 
     @Override
@@ -59,9 +74,8 @@ public class FilterBulkLoader implements IChainedComponentBulkLoader {
 
     @Override
     public ITupleReference add(ITupleReference tuple) throws HyracksDataException {
-        indexTuple.reset(tuple);
         updateFilter(tuple);
-        return indexTuple;
+        return getIndexTuple(tuple);
     }
 
     @Override
@@ -74,7 +88,22 @@ public class FilterBulkLoader implements IChainedComponentBulkLoader {
         //Noop
     }
 
+    private ITupleReference getIndexTuple(ITupleReference tuple) {
+        if (indexTuple == null) {
+            return tuple;
+        }
+        indexTuple.reset(tuple);
+        return indexTuple;
+    }
+
     private void updateFilter(ITupleReference tuple) throws HyracksDataException {
+        if (filterExtractor != null) {
+            ITupleReference filterValues = filterExtractor.extract(tuple);
+            if (filterValues != null) {
+                filter.update(filterValues, filterCmp);
+            }
+            return;
+        }
         filterTuple.reset(tuple);
         filter.update(filterTuple, filterCmp);
     }
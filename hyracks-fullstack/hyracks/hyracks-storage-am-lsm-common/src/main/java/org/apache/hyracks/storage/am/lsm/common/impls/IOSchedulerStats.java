@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.hyracks.storage.am.lsm.common.api.IIOSchedulerStats;
+
+class IOSchedulerStats implements IIOSchedulerStats {
+    private final AtomicInteger queuedFlushes = new AtomicInteger();
+    private final AtomicInteger queuedMerges = new AtomicInteger();
+    private final AtomicInteger runningMerges = new AtomicInteger();
+    private final LongAdder flushStallTime = new LongAdder();
+    private final LongAdder mergeStallTime = new LongAdder();
+
+    @Override
+    public int getQueuedFlushes() {
+        return queuedFlushes.get();
+    }
+
+    @Override
+    public int getQueuedMerges() {
+        return queuedMerges.get();
+    }
+
+    @Override
+    public int getRunningMerges() {
+        return runningMerges.get();
+    }
+
+    @Override
+    public long getFlushStallTime() {
+        return flushStallTime.sum();
+    }
+
+    @Override
+    public long getMergeStallTime() {
+        return mergeStallTime.sum();
+    }
+
+    void flushQueued() {
+        queuedFlushes.incrementAndGet();
+    }
+
+    void flushDequeued(long stallTime) {
+        queuedFlushes.decrementAndGet();
+        flushStallTime.add(stallTime);
+    }
+
+    void mergeQueued() {
+        queuedMerges.incrementAndGet();
+    }
+
+    void mergeDequeued(long stallTime) {
+        queuedMerges.decrementAndGet();
+        mergeStallTime.add(stallTime);
+    }
+
+    void mergeStarted() {
+        runningMerges.incrementAndGet();
+    }
+
+    void mergeCompleted() {
+        runningMerges.decrementAndGet();
+    }
+
+    boolean isIdle() {
+        return queuedFlushes.get() == 0 && queuedMerges.get() == 0 && runningMerges.get() == 0;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.lsm.common.api.IIOThrottle;
+
+/**
+ * A token bucket that limits the rate at which IO operations transfer bytes. The bucket holds up to one second worth
+ * of bytes; an operation that takes more bytes than available goes into debt and sleeps until the debt is paid off,
+ * so that the operations sharing a throttle are delayed in the order they acquired their bytes.
+ */
+public class IOThrottle implements IIOThrottle {
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder throttledTime = new LongAdder();
+    private long rate;
+    private double available;
+    private long lastRefill = System.nanoTime();
+
+    /**
+     * @param rate
+     *            the maximum number of bytes per second, or 0 for no limit
+     */
+    public IOThrottle(long rate) {
+        this.rate = rate;
+        available = rate;
+    }
+
+    public synchronized void setRate(long rate) {
+        refill(System.nanoTime());
+        this.rate = rate;
+    }
+
+    @Override
+    public synchronized long getRate() {
+        return rate;
+    }
+
+    @Override
+    public void acquire(long numBytes) throws HyracksDataException {
+        bytes.add(numBytes);
+        long waitTime;
+        synchronized (this) {
+            if (rate <= 0) {
+                return;
+            }
+            refill(System.nanoTime());
+            available -= numBytes;
+            if (available >= 0) {
+                return;
+            }
+            waitTime = (long) (-available / rate * NANOS_PER_SECOND);
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw HyracksDataException.create(e);
+        } finally {
+            throttledTime.add(waitTime);
+        }
+    }
+
+    private void refill(long now) {
+        if (rate > 0) {
+            available = Math.min(rate, available + (now - lastRefill) / NANOS_PER_SECOND * rate);
+        }
+        lastRefill = now;
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    @Override
+    public long getThrottledTime() {
+        return throttledTime.sum();
+    }
+}
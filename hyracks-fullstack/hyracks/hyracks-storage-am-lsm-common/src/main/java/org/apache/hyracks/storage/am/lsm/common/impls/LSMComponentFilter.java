@@ -20,18 +20,29 @@ package org.apache.hyracks.storage.am.lsm.common.impls;
 
 import java.nio.ByteBuffer;
 
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleWriter;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilter;
 import org.apache.hyracks.storage.common.MultiComparator;
 
+/**
+ * A zone map of a component: the min tuple holds the smallest value of each filter field and the max tuple the
+ * largest, each field being tracked independently of the others. A search skips the component when, for any of the
+ * filter fields, its range does not overlap the range of the component. A field of the search bounds is unbounded
+ * when it is missing or empty.
+ */
 public class LSMComponentFilter implements ILSMComponentFilter {
 
     private final IBinaryComparatorFactory[] filterCmpFactories;
     private final ITreeIndexTupleWriter tupleWriter;
+    private final ArrayTupleBuilder boundBuilder;
+    private final ArrayTupleReference boundTuple;
 
     private ITupleReference minTuple;
     private ITupleReference maxTuple;
@@ -45,6 +56,8 @@ public class LSMComponentFilter implements ILSMComponentFilter {
     public LSMComponentFilter(ITreeIndexTupleWriter tupleWriter, IBinaryComparatorFactory[] filterCmpFactories) {
         this.filterCmpFactories = filterCmpFactories;
         this.tupleWriter = tupleWriter;
+        boundBuilder = new ArrayTupleBuilder(filterCmpFactories.length);
+        boundTuple = new ArrayTupleReference();
     }
 
     @Override
@@ -63,7 +76,8 @@ public class LSMComponentFilter implements ILSMComponentFilter {
     }
 
     @Override
-    public void update(ITupleReference tuple, MultiComparator cmp) throws HyracksDataException {
+    public synchronized void update(ITupleReference tuple, MultiComparator cmp) throws HyracksDataException {
+        // writers of a memory component update its filter concurrently
         if (minTuple == null) {
             int numBytes = tupleWriter.bytesRequired(tuple);
             minTupleBytes = new byte[numBytes];
@@ -71,19 +85,16 @@ public class LSMComponentFilter implements ILSMComponentFilter {
             minTupleBuf = ByteBuffer.wrap(minTupleBytes);
             minTuple = tupleWriter.createTupleReference();
             ((ITreeIndexTupleReference) minTuple).resetByTupleOffset(minTupleBuf.array(), 0);
-        } else {
-            int c = cmp.compare(tuple, minTuple);
-            if (c < 0) {
-                int numBytes = tupleWriter.bytesRequired(tuple);
-                if (minTupleBytes.length < numBytes) {
-                    minTupleBytes = new byte[numBytes];
-                    tupleWriter.writeTuple(tuple, minTupleBytes, 0);
-                    minTupleBuf = ByteBuffer.wrap(minTupleBytes);
-                } else {
-                    tupleWriter.writeTuple(tuple, minTupleBytes, 0);
-                }
-                ((ITreeIndexTupleReference) minTuple).resetByTupleOffset(minTupleBuf.array(), 0);
+        } else if (extend(tuple, minTuple, cmp, -1)) {
+            int numBytes = tupleWriter.bytesRequired(boundTuple);
+            if (minTupleBytes.length < numBytes) {
+                minTupleBytes = new byte[numBytes];
+                tupleWriter.writeTuple(boundTuple, minTupleBytes, 0);
+                minTupleBuf = ByteBuffer.wrap(minTupleBytes);
+            } else {
+                tupleWriter.writeTuple(boundTuple, minTupleBytes, 0);
             }
+            ((ITreeIndexTupleReference) minTuple).resetByTupleOffset(minTupleBuf.array(), 0);
         }
         if (maxTuple == null) {
             int numBytes = tupleWriter.bytesRequired(tuple);
@@ -92,22 +103,44 @@ public class LSMComponentFilter implements ILSMComponentFilter {
             maxTupleBuf = ByteBuffer.wrap(maxTupleBytes);
             maxTuple = tupleWriter.createTupleReference();
             ((ITreeIndexTupleReference) maxTuple).resetByTupleOffset(maxTupleBuf.array(), 0);
-        } else {
-            int c = cmp.compare(tuple, maxTuple);
-            if (c > 0) {
-                int numBytes = tupleWriter.bytesRequired(tuple);
-                if (maxTupleBytes.length < numBytes) {
-                    maxTupleBytes = new byte[numBytes];
-                    tupleWriter.writeTuple(tuple, maxTupleBytes, 0);
-                    maxTupleBuf = ByteBuffer.wrap(maxTupleBytes);
-                } else {
-                    tupleWriter.writeTuple(tuple, maxTupleBytes, 0);
-                }
-                ((ITreeIndexTupleReference) maxTuple).resetByTupleOffset(maxTupleBuf.array(), 0);
+        } else if (extend(tuple, maxTuple, cmp, 1)) {
+            int numBytes = tupleWriter.bytesRequired(boundTuple);
+            if (maxTupleBytes.length < numBytes) {
+                maxTupleBytes = new byte[numBytes];
+                tupleWriter.writeTuple(boundTuple, maxTupleBytes, 0);
+                maxTupleBuf = ByteBuffer.wrap(maxTupleBytes);
+            } else {
+                tupleWriter.writeTuple(boundTuple, maxTupleBytes, 0);
             }
+            ((ITreeIndexTupleReference) maxTuple).resetByTupleOffset(maxTupleBuf.array(), 0);
         }
     }
 
+    /**
+     * Builds, in {@link #boundTuple}, the bound that also covers the given tuple by taking each field of the tuple
+     * that is beyond the current bound in the given direction (-1 for the min bound, 1 for the max bound).
+     *
+     * @return true if the bound has to change, false if it already covers the tuple
+     */
+    private boolean extend(ITupleReference tuple, ITupleReference bound, MultiComparator cmp, int direction)
+            throws HyracksDataException {
+        IBinaryComparator[] cmps = cmp.getComparators();
+        boolean changed = false;
+        boundBuilder.reset();
+        for (int i = 0; i < cmps.length; i++) {
+            ITupleReference source = bound;
+            if (Integer.signum(compareField(cmps[i], tuple, bound, i)) == direction) {
+                source = tuple;
+                changed = true;
+            }
+            boundBuilder.addField(source.getFieldData(i), source.getFieldStart(i), source.getFieldLength(i));
+        }
+        if (changed) {
+            boundTuple.reset(boundBuilder.getFieldEndOffsets(), boundBuilder.getByteArray());
+        }
+        return changed;
+    }
+
     @Override
     public ITupleReference getMinTuple() {
         return minTuple;
@@ -121,19 +154,28 @@ public class LSMComponentFilter implements ILSMComponentFilter {
     @Override
     public boolean satisfy(ITupleReference minTuple, ITupleReference maxTuple, MultiComparator filterCmp)
             throws HyracksDataException {
-        if (maxTuple != null && this.minTuple != null) {
-            int c = filterCmp.compare(maxTuple, this.minTuple);
-            if (c < 0) {
+        IBinaryComparator[] cmps = filterCmp.getComparators();
+        for (int i = 0; i < cmps.length; i++) {
+            if (isBounded(maxTuple, i) && this.minTuple != null
+                    && compareField(cmps[i], maxTuple, this.minTuple, i) < 0) {
                 return false;
             }
-        }
-        if (minTuple != null && this.maxTuple != null) {
-            int c = filterCmp.compare(minTuple, this.maxTuple);
-            if (c > 0) {
+            if (isBounded(minTuple, i) && this.maxTuple != null
+                    && compareField(cmps[i], minTuple, this.maxTuple, i) > 0) {
                 return false;
             }
         }
         return true;
     }
 
+    private static boolean isBounded(ITupleReference tuple, int field) {
+        return tuple != null && field < tuple.getFieldCount() && tuple.getFieldLength(field) > 0;
+    }
+
+    private static int compareField(IBinaryComparator cmp, ITupleReference tupleA, ITupleReference tupleB, int field)
+            throws HyracksDataException {
+        return cmp.compare(tupleA.getFieldData(field), tupleA.getFieldStart(field), tupleA.getFieldLength(field),
+                tupleB.getFieldData(field), tupleB.getFieldStart(field), tupleB.getFieldLength(field));
+    }
+
 }
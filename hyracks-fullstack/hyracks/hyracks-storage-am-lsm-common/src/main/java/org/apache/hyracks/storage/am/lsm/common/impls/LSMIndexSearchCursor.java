@@ -183,18 +183,22 @@ public abstract class LSMIndexSearchCursor implements ILSMIndexCursor {
         return filter == null ? null : filter.getMaxTuple();
     }
 
-    protected void pushIntoQueueFromCursorAndReplaceThisElement(PriorityQueueElement e) throws HyracksDataException {
+    /**
+     * @return whether the cursor of the element had another tuple, which is then pushed into the queue
+     */
+    protected boolean pushIntoQueueFromCursorAndReplaceThisElement(PriorityQueueElement e) throws HyracksDataException {
         int cursorIndex = e.getCursorIndex();
         if (rangeCursors[cursorIndex].hasNext()) {
             rangeCursors[cursorIndex].next();
             e.reset(rangeCursors[cursorIndex].getTuple());
             outputPriorityQueue.offer(e);
-            return;
+            return true;
         }
         rangeCursors[cursorIndex].destroy();
         if (cursorIndex == 0) {
             includeMutableComponent = false;
         }
+        return false;
     }
 
     protected boolean isDeleted(PriorityQueueElement checkElement) throws HyracksDataException {
@@ -22,6 +22,7 @@ package org.apache.hyracks.storage.am.lsm.common.impls;
 import java.util.List;
 import java.util.function.Predicate;
 
+import org.apache.hyracks.api.exceptions.ErrorCode;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.data.std.api.IValueReference;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
@@ -50,11 +51,22 @@ public class LSMTreeIndexAccessor implements ILSMIndexAccessor {
     protected final ILSMHarness lsmHarness;
     protected final ILSMIndexOperationContext ctx;
     protected final ICursorFactory cursorFactory;
+    protected final ICursorFactory batchPointCursorFactory;
 
     public LSMTreeIndexAccessor(ILSMHarness lsmHarness, ILSMIndexOperationContext ctx, ICursorFactory cursorFactory) {
+        this(lsmHarness, ctx, cursorFactory, null);
+    }
+
+    /**
+     * @param batchPointCursorFactory
+     *            the factory of the cursors for batched point searches, or null if the index does not support them
+     */
+    public LSMTreeIndexAccessor(ILSMHarness lsmHarness, ILSMIndexOperationContext ctx, ICursorFactory cursorFactory,
+            ICursorFactory batchPointCursorFactory) {
         this.lsmHarness = lsmHarness;
         this.ctx = ctx;
         this.cursorFactory = cursorFactory;
+        this.batchPointCursorFactory = batchPointCursorFactory;
     }
 
     public ILSMIndexOperationContext getCtx() {
@@ -204,6 +216,14 @@ public class LSMTreeIndexAccessor implements ILSMIndexAccessor {
         return cursorFactory.create(ctx);
     }
 
+    @Override
+    public IIndexCursor createBatchPointSearchCursor() throws HyracksDataException {
+        if (batchPointCursorFactory == null) {
+            throw HyracksDataException.create(ErrorCode.BATCH_POINT_SEARCH_NOT_ALLOWED_FOR_SECONDARY_INDEX);
+        }
+        return batchPointCursorFactory.create(ctx);
+    }
+
     public void updateFilter(ITupleReference tuple) throws HyracksDataException {
         ctx.setOperation(IndexOperation.UPSERT);
         lsmHarness.updateFilter(ctx, tuple);
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.common.impls.NoOpIndexAccessParameters;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent.ComponentState;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMDiskComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndex;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMMergePolicy;
+import org.apache.hyracks.storage.am.lsm.common.util.ComponentUtils;
+
+/**
+ * A leveled merge policy. Level i holds components smaller than size-ratio^(i+1) times the size of a flushed
+ * component (see {@link ComponentUtils#getFlushedComponentSize(ILSMIndex)}), and each level holds at most one disk
+ * component: a new component is merged into the component of its level, and a level that grows into the next one is
+ * merged into it. Compared to {@link TieredMergePolicy}, records are rewritten up to size-ratio times per level, in
+ * exchange for keeping the number of components to search logarithmic in the size of the index.
+ */
+public class LeveledMergePolicy implements ILSMMergePolicy {
+    protected int sizeRatio;
+    protected int maxToleranceComponentCount;
+
+    @Override
+    public void diskComponentAdded(final ILSMIndex index, boolean fullMergeIsRequested) throws HyracksDataException {
+        List<ILSMDiskComponent> immutableComponents = index.getDiskComponents();
+        if (fullMergeIsRequested) {
+            if (areComponentsMergable(immutableComponents)) {
+                ILSMIndexAccessor accessor = index.createAccessor(NoOpIndexAccessParameters.INSTANCE);
+                accessor.scheduleFullMerge(index.getIOOperationCallback());
+            }
+            return;
+        }
+        scheduleMerge(index);
+    }
+
+    @Override
+    public void configure(Map<String, String> properties) {
+        sizeRatio = Integer.parseInt(properties.get(LeveledMergePolicyFactory.SIZE_RATIO));
+        maxToleranceComponentCount =
+                Integer.parseInt(properties.get(LeveledMergePolicyFactory.MAX_TOLERANCE_COMPONENT_COUNT));
+        if (sizeRatio < 2) {
+            throw new IllegalArgumentException("The size ratio of the leveled merge policy must be at least 2");
+        }
+    }
+
+    @Override
+    public boolean isMergeLagging(ILSMIndex index) throws HyracksDataException {
+        // see PrefixMergePolicy.isMergeLagging() for the rationale behind this code.
+        List<ILSMDiskComponent> immutableComponents = index.getDiskComponents();
+        if (immutableComponents.size() < maxToleranceComponentCount) {
+            return false;
+        }
+        if (isMergeOngoing(immutableComponents)) {
+            return true;
+        }
+        // every level is within its size, blocking the flush would not make any progress
+        return scheduleMerge(index);
+    }
+
+    /**
+     * Schedule a merge of the newest component into the levels that cannot hold what is newer than them.
+     *
+     * @return true if a merge is scheduled, false otherwise.
+     * @throws HyracksDataException
+     */
+    protected boolean scheduleMerge(ILSMIndex index) throws HyracksDataException {
+        List<ILSMDiskComponent> immutableComponents = index.getDiskComponents();
+        int numComponents = immutableComponents.size();
+        if (numComponents < 2 || immutableComponents.get(0).getState() != ComponentState.READABLE_UNWRITABLE) {
+            return false;
+        }
+        long flushSize = ComponentUtils.getFlushedComponentSize(index);
+        long newerSize = immutableComponents.get(0).getComponentSize();
+        int end = 1;
+        while (end < numComponents && immutableComponents.get(end).getState() == ComponentState.READABLE_UNWRITABLE) {
+            long componentSize = immutableComponents.get(end).getComponentSize();
+            if (getLevel(componentSize, flushSize) > getLevel(newerSize, flushSize)) {
+                break;
+            }
+            newerSize += componentSize;
+            end++;
+        }
+        if (end < 2) {
+            return false;
+        }
+        ILSMIndexAccessor accessor = index.createAccessor(NoOpIndexAccessParameters.INSTANCE);
+        accessor.scheduleMerge(index.getIOOperationCallback(), new ArrayList<>(immutableComponents.subList(0, end)));
+        return true;
+    }
+
+    /**
+     * @return the level of a component of the given size, i.e., the smallest i such that the size is less than
+     *         flushSize * sizeRatio^(i+1)
+     */
+    private int getLevel(long size, long flushSize) {
+        int level = 0;
+        long capacity = flushSize * sizeRatio;
+        while (size >= capacity && capacity <= Long.MAX_VALUE / sizeRatio) {
+            capacity *= sizeRatio;
+            level++;
+        }
+        return level;
+    }
+
+    private boolean areComponentsMergable(List<ILSMDiskComponent> immutableComponents) {
+        for (ILSMDiskComponent c : immutableComponents) {
+            if (c.getState() != ComponentState.READABLE_UNWRITABLE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isMergeOngoing(List<ILSMDiskComponent> immutableComponents) {
+        for (ILSMDiskComponent c : immutableComponents) {
+            if (c.getState() == ComponentState.READABLE_MERGING) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
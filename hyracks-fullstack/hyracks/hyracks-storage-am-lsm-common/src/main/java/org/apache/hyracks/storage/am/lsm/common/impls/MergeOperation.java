@@ -22,13 +22,19 @@ import java.util.List;
 
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.lsm.common.api.IIOThrottle;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperationCallback;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
 import org.apache.hyracks.storage.common.IIndexCursor;
 
 public abstract class MergeOperation extends AbstractIoOperation {
+    // the bytes are acquired from the throttle in batches to keep the synchronization off the per-tuple path
+    private static final int THROTTLE_BATCH_SIZE = 64 * 1024;
     protected final IIndexCursor cursor;
+    private IIOThrottle throttle;
+    private long unthrottledBytes;
 
     public MergeOperation(ILSMIndexAccessor accessor, FileReference target, ILSMIOOperationCallback callback,
             String indexIdentifier, IIndexCursor cursor) {
@@ -43,6 +49,8 @@ public abstract class MergeOperation extends AbstractIoOperation {
     @Override
     public Boolean call() throws HyracksDataException {
         accessor.merge(this);
+        // the last batch of a merge, or all of a small merge, is smaller than THROTTLE_BATCH_SIZE
+        acquireUnthrottledBytes();
         return true;
     }
 
@@ -54,4 +62,38 @@ public abstract class MergeOperation extends AbstractIoOperation {
     public IIndexCursor getCursor() {
         return cursor;
     }
+
+    /**
+     * Set the throttle that limits the rate at which this merge reads and writes data.
+     */
+    public void setThrottle(IIOThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    /**
+     * Account for a tuple read from the merged components and written to the new component, waiting if the merge
+     * exceeds the rate of its throttle.
+     *
+     * @param tuple
+     * @throws HyracksDataException
+     */
+    public void throttle(ITupleReference tuple) throws HyracksDataException {
+        if (throttle == null) {
+            return;
+        }
+        for (int i = 0; i < tuple.getFieldCount(); i++) {
+            unthrottledBytes += tuple.getFieldLength(i);
+        }
+        if (unthrottledBytes >= THROTTLE_BATCH_SIZE) {
+            acquireUnthrottledBytes();
+        }
+    }
+
+    private void acquireUnthrottledBytes() throws HyracksDataException {
+        if (throttle != null && unthrottledBytes > 0) {
+            // once read and once written
+            throttle.acquire(2 * unthrottledBytes);
+            unthrottledBytes = 0;
+        }
+    }
 }
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hyracks.api.io.IODeviceHandle;
+import org.apache.hyracks.storage.am.lsm.common.api.IIOSchedulerStats;
+import org.apache.hyracks.storage.am.lsm.common.api.IIOThrottle;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperation;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperationScheduler;
+
+/**
+ * An asynchronous scheduler that gives flushes priority over merges. As in {@link AsynchronousScheduler}, the flushes
+ * of an index are executed one at a time in the order they are scheduled, but they never wait for merges. Merges,
+ * including non-overlapping merges of the same index, run concurrently up to a maximum number of merges per IO device;
+ * the merges beyond it wait for a running merge on their device to complete. Writers waiting for a memory component
+ * only wait for flushes, so bounding the merges keeps them from competing with flushes for the device bandwidth.
+ * <p>
+ * The merges on a device can also share an {@link IOThrottle} that limits the rate at which they read and write. While
+ * flushes are queued on the device, the rate is raised in proportion to the backlog: a flush only waits for another
+ * flush of its index, which is itself waiting for lagging merges when the merge policy applies backpressure.
+ */
+public class PrioritizedScheduler implements ILSMIOOperationScheduler {
+    private final ExecutorService executor;
+    private final int maxConcurrentMergesPerDevice;
+    private final long maxMergeRate;
+    private final Set<String> runningFlushes = new HashSet<>();
+    private final Map<String, Deque<QueuedOperation>> waitingFlushes = new HashMap<>();
+    private final Map<IODeviceHandle, Integer> runningMerges = new HashMap<>();
+    private final Map<IODeviceHandle, Deque<QueuedOperation>> waitingMerges = new HashMap<>();
+    private final Map<IODeviceHandle, Integer> queuedFlushes = new HashMap<>();
+    private final Map<IODeviceHandle, IOThrottle> mergeThrottles = new HashMap<>();
+    private final Map<String, IOSchedulerStats> stats = new ConcurrentHashMap<>();
+
+    public PrioritizedScheduler(ThreadFactory threadFactory, int maxConcurrentMergesPerDevice) {
+        this(threadFactory, maxConcurrentMergesPerDevice, 0L);
+    }
+
+    /**
+     * @param maxMergeRate
+     *            the maximum number of bytes per second the merges on a device read and write when no flush is queued
+     *            on the device, or 0 for no limit
+     */
+    public PrioritizedScheduler(ThreadFactory threadFactory, int maxConcurrentMergesPerDevice, long maxMergeRate) {
+        if (maxConcurrentMergesPerDevice < 1) {
+            throw new IllegalArgumentException("The maximum number of concurrent merges per device must be positive");
+        }
+        this.maxConcurrentMergesPerDevice = maxConcurrentMergesPerDevice;
+        this.maxMergeRate = maxMergeRate;
+        // Creating an executor with the same configuration of Executors.newCachedThreadPool.
+        executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                threadFactory) {
+
+            @Override
+            protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+                return new LSMIOOperationTask<>(callable);
+            }
+
+            @Override
+            protected void afterExecute(Runnable r, Throwable t) {
+                super.afterExecute(r, t);
+                completed(((LSMIOOperationTask<?>) r).getOperation());
+            }
+        };
+    }
+
+    @Override
+    public synchronized void scheduleOperation(ILSMIOOperation operation) {
+        String id = operation.getIndexIdentifier();
+        IOSchedulerStats indexStats = getStats(id);
+        switch (operation.getIOOpertionType()) {
+            case FLUSH:
+                if (runningFlushes.add(id)) {
+                    executor.submit(operation);
+                } else {
+                    waitingFlushes.computeIfAbsent(id, k -> new ArrayDeque<>()).add(new QueuedOperation(operation));
+                    indexStats.flushQueued();
+                    updateFlushBacklog(operation.getDevice(), 1);
+                }
+                break;
+            case MERGE:
+                IODeviceHandle device = operation.getDevice();
+                if (maxMergeRate > 0 && operation instanceof MergeOperation) {
+                    ((MergeOperation) operation).setThrottle(getMergeThrottle(device));
+                }
+                if (runningMerges.getOrDefault(device, 0) < maxConcurrentMergesPerDevice) {
+                    runningMerges.merge(device, 1, Integer::sum);
+                    indexStats.mergeStarted();
+                    executor.submit(operation);
+                } else {
+                    waitingMerges.computeIfAbsent(device, k -> new ArrayDeque<>()).add(new QueuedOperation(operation));
+                    indexStats.mergeQueued();
+                }
+                break;
+            default:
+                // this should never happen
+                // just guard here to avoid silient failures in case of future extensions
+                throw new IllegalArgumentException("Unknown operation type " + operation.getIOOpertionType());
+        }
+    }
+
+    private synchronized void completed(ILSMIOOperation operation) {
+        switch (operation.getIOOpertionType()) {
+            case FLUSH:
+                String id = operation.getIndexIdentifier();
+                QueuedOperation nextFlush = poll(waitingFlushes, id);
+                if (nextFlush == null) {
+                    runningFlushes.remove(id);
+                } else {
+                    getStats(id).flushDequeued(nextFlush.getWaitTime());
+                    updateFlushBacklog(nextFlush.operation.getDevice(), -1);
+                    executor.submit(nextFlush.operation);
+                }
+                break;
+            case MERGE:
+                getStats(operation.getIndexIdentifier()).mergeCompleted();
+                IODeviceHandle device = operation.getDevice();
+                QueuedOperation nextMerge = poll(waitingMerges, device);
+                if (nextMerge == null) {
+                    runningMerges.computeIfPresent(device, (k, count) -> count > 1 ? count - 1 : null);
+                } else {
+                    IOSchedulerStats nextStats = getStats(nextMerge.operation.getIndexIdentifier());
+                    nextStats.mergeDequeued(nextMerge.getWaitTime());
+                    nextStats.mergeStarted();
+                    executor.submit(nextMerge.operation);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static <K> QueuedOperation poll(Map<K, Deque<QueuedOperation>> queues, K key) {
+        Deque<QueuedOperation> queue = queues.get(key);
+        if (queue == null) {
+            return null;
+        }
+        QueuedOperation next = queue.poll();
+        if (queue.isEmpty()) {
+            queues.remove(key);
+        }
+        return next;
+    }
+
+    private IOThrottle getMergeThrottle(IODeviceHandle device) {
+        return mergeThrottles.computeIfAbsent(device,
+                k -> new IOThrottle(maxMergeRate * (1 + queuedFlushes.getOrDefault(device, 0))));
+    }
+
+    private void updateFlushBacklog(IODeviceHandle device, int delta) {
+        int backlog = queuedFlushes.getOrDefault(device, 0) + delta;
+        if (backlog > 0) {
+            queuedFlushes.put(device, backlog);
+        } else {
+            queuedFlushes.remove(device);
+        }
+        IOThrottle throttle = mergeThrottles.get(device);
+        if (throttle != null) {
+            throttle.setRate(maxMergeRate * (1 + backlog));
+        }
+    }
+
+    private IOSchedulerStats getStats(String indexIdentifier) {
+        return stats.computeIfAbsent(indexIdentifier, k -> new IOSchedulerStats());
+    }
+
+    @Override
+    public Map<String, IIOSchedulerStats> getStats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    @Override
+    public synchronized void unregisterIndex(String indexIdentifier) {
+        // the stats of an index with pending operations are still needed when the operations complete
+        if (!runningFlushes.contains(indexIdentifier)) {
+            stats.computeIfPresent(indexIdentifier, (k, indexStats) -> indexStats.isIdle() ? null : indexStats);
+        }
+    }
+
+    @Override
+    public synchronized Map<IODeviceHandle, IIOThrottle> getMergeThrottles() {
+        return new HashMap<>(mergeThrottles);
+    }
+
+    public int getMaxConcurrentMergesPerDevice() {
+        return maxConcurrentMergesPerDevice;
+    }
+
+    private static class QueuedOperation {
+        private final ILSMIOOperation operation;
+        private final long queuedTime = System.nanoTime();
+
+        private QueuedOperation(ILSMIOOperation operation) {
+            this.operation = operation;
+        }
+
+        private long getWaitTime() {
+            return System.nanoTime() - queuedTime;
+        }
+    }
+}
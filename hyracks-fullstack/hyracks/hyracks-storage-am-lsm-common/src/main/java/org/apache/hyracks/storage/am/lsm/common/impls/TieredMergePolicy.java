@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.common.impls.NoOpIndexAccessParameters;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent.ComponentState;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMDiskComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndex;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMMergePolicy;
+import org.apache.hyracks.storage.am.lsm.common.util.ComponentUtils;
+
+/**
+ * A size-tiered merge policy. Tier i holds the disk components whose size is at least fanout^i and less than
+ * fanout^(i+1) times the size of a flushed component (see {@link ComponentUtils#getFlushedComponentSize(ILSMIndex)}).
+ * Once fanout consecutive components are in the same tier, they are merged into a single component which, being
+ * about fanout times larger, joins the next tier. Each record is rewritten once per tier, which keeps the write
+ * amplification low at the cost of more components to search.
+ */
+public class TieredMergePolicy implements ILSMMergePolicy {
+    protected int fanout;
+    protected int maxToleranceComponentCount;
+
+    @Override
+    public void diskComponentAdded(final ILSMIndex index, boolean fullMergeIsRequested) throws HyracksDataException {
+        List<ILSMDiskComponent> immutableComponents = index.getDiskComponents();
+        if (fullMergeIsRequested) {
+            if (areComponentsMergable(immutableComponents)) {
+                ILSMIndexAccessor accessor = index.createAccessor(NoOpIndexAccessParameters.INSTANCE);
+                accessor.scheduleFullMerge(index.getIOOperationCallback());
+            }
+            return;
+        }
+        scheduleMerge(index);
+    }
+
+    @Override
+    public void configure(Map<String, String> properties) {
+        fanout = Integer.parseInt(properties.get(TieredMergePolicyFactory.FANOUT));
+        maxToleranceComponentCount =
+                Integer.parseInt(properties.get(TieredMergePolicyFactory.MAX_TOLERANCE_COMPONENT_COUNT));
+        if (fanout < 2) {
+            throw new IllegalArgumentException("The fanout of the tiered merge policy must be at least 2");
+        }
+    }
+
+    @Override
+    public boolean isMergeLagging(ILSMIndex index) throws HyracksDataException {
+        // see PrefixMergePolicy.isMergeLagging() for the rationale behind this code.
+        List<ILSMDiskComponent> immutableComponents = index.getDiskComponents();
+        if (immutableComponents.size() < maxToleranceComponentCount) {
+            return false;
+        }
+        if (isMergeOngoing(immutableComponents)) {
+            return true;
+        }
+        // no tier is full, blocking the flush would not make any progress
+        return scheduleMerge(index);
+    }
+
+    /**
+     * Schedule a merge of the first full tier, looking from the newest components to the oldest ones.
+     *
+     * @return true if a merge is scheduled, false otherwise.
+     * @throws HyracksDataException
+     */
+    protected boolean scheduleMerge(ILSMIndex index) throws HyracksDataException {
+        List<ILSMDiskComponent> immutableComponents = index.getDiskComponents();
+        long flushSize = ComponentUtils.getFlushedComponentSize(index);
+        int numComponents = immutableComponents.size();
+        int start = 0;
+        while (start < numComponents) {
+            int end = getTierEnd(immutableComponents, start, flushSize);
+            if (end - start >= fanout) {
+                List<ILSMDiskComponent> mergableComponents = new ArrayList<>(immutableComponents.subList(start, end));
+                ILSMIndexAccessor accessor = index.createAccessor(NoOpIndexAccessParameters.INSTANCE);
+                accessor.scheduleMerge(index.getIOOperationCallback(), mergableComponents);
+                return true;
+            }
+            start = Math.max(end, start + 1);
+        }
+        return false;
+    }
+
+    /**
+     * Given disk components ordered from the newest to the oldest, find the tier starting at the given position: the
+     * consecutive mergable components that are in the same tier as the first one.
+     *
+     * @return the position following the last component of the tier
+     */
+    private int getTierEnd(List<ILSMDiskComponent> immutableComponents, int start, long flushSize) {
+        if (immutableComponents.get(start).getState() != ComponentState.READABLE_UNWRITABLE) {
+            return start;
+        }
+        int tier = getTier(immutableComponents.get(start).getComponentSize(), flushSize);
+        int end = start + 1;
+        while (end < immutableComponents.size()
+                && immutableComponents.get(end).getState() == ComponentState.READABLE_UNWRITABLE
+                && getTier(immutableComponents.get(end).getComponentSize(), flushSize) == tier) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * @return the tier of a component of the given size, i.e., the smallest i such that the size is less than
+     *         flushSize * fanout^(i+1)
+     */
+    private int getTier(long size, long flushSize) {
+        int tier = 0;
+        long capacity = flushSize * fanout;
+        while (size >= capacity && capacity <= Long.MAX_VALUE / fanout) {
+            capacity *= fanout;
+            tier++;
+        }
+        return tier;
+    }
+
+    private boolean areComponentsMergable(List<ILSMDiskComponent> immutableComponents) {
+        for (ILSMDiskComponent c : immutableComponents) {
+            if (c.getState() != ComponentState.READABLE_UNWRITABLE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isMergeOngoing(List<ILSMDiskComponent> immutableComponents) {
+        for (ILSMDiskComponent c : immutableComponents) {
+            if (c.getState() == ComponentState.READABLE_MERGING) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
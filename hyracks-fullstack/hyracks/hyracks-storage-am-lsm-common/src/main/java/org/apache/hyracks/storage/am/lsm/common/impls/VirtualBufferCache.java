@@ -44,6 +44,13 @@ import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+/**
+ * The pages of the memory components of LSM indexes. The memory components are B-trees on these pages, so an insert
+ * pins the pages of its root to leaf path: pins of existing pages find them without locking, and the bucket lock is
+ * only taken to allocate a page or to confirm a miss. Memory components are not backed by a lock-free structure such
+ * as a skip list: the operation contexts, search cursors, antimatter handling and flush of the LSM indexes are built
+ * on their being B-trees.
+ */
 public class VirtualBufferCache implements IVirtualBufferCache {
     private static final Logger LOGGER = LogManager.getLogger();
     private static final boolean DEBUG = true;
@@ -213,17 +220,20 @@ public class VirtualBufferCache implements IVirtualBufferCache {
 
     @Override
     public ICachedPage pin(long dpid, boolean newPage) throws HyracksDataException {
-        VirtualPage page;
         int hash = hash(dpid);
         CacheBucket bucket = buckets[hash];
+        // Pages are only linked at the head of a bucket, so pins of existing pages, which are most of the pins of a
+        // memory component, look the page up without taking the bucket lock. Unlinking the pages of a deleted file
+        // can make a concurrent lookup miss a page of another file, so a miss is confirmed under the lock.
+        VirtualPage page = findPage(bucket, dpid);
+        if (page != null) {
+            return page;
+        }
         bucket.bucketLock.lock();
         try {
-            page = bucket.cachedPage;
-            while (page != null) {
-                if (page.dpid() == dpid) {
-                    return page;
-                }
-                page = page.next();
+            page = findPage(bucket, dpid);
+            if (page != null) {
+                return page;
             }
             if (!newPage) {
                 int fileId = BufferedFileHandle.getFileId(dpid);
@@ -244,6 +254,14 @@ public class VirtualBufferCache implements IVirtualBufferCache {
         return page;
     }
 
+    private static VirtualPage findPage(CacheBucket bucket, long dpid) {
+        VirtualPage page = bucket.cachedPage;
+        while (page != null && page.dpid() != dpid) {
+            page = page.next();
+        }
+        return page;
+    }
+
     private int hash(long dpid) {
         int hashValue = (int) dpid ^ (Integer.reverse((int) (dpid >>> 32)) >>> 1);
         return hashValue % buckets.length;
@@ -380,7 +398,7 @@ public class VirtualBufferCache implements IVirtualBufferCache {
 
     private static class CacheBucket {
         private final ReentrantLock bucketLock;
-        private VirtualPage cachedPage;
+        private volatile VirtualPage cachedPage;
 
         public CacheBucket() {
             this.bucketLock = new ReentrantLock();
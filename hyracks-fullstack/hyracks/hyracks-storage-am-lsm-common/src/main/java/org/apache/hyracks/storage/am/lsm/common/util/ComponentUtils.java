@@ -45,6 +45,20 @@ public class ComponentUtils {
     private ComponentUtils() {
     }
 
+    /**
+     * The size of a flushed component, as used by merge policies that size their levels relative to it. It is the
+     * memory budget of a memory component of the index, which, unlike the size of the newest disk component, does not
+     * change when components are merged.
+     *
+     * @param index
+     *            the index
+     * @return the memory budget of a memory component of the index, or 1 if the index has no memory component
+     */
+    public static long getFlushedComponentSize(ILSMIndex index) {
+        List<ILSMMemoryComponent> memComponents = index.getMemoryComponents();
+        return memComponents.isEmpty() ? 1L : Math.max(1L, memComponents.get(0).getSize());
+    }
+
     /**
      * Get a long value from the metadata of a component or return a default value
      *
@@ -394,6 +394,7 @@ public class LSMInvertedIndex extends AbstractLSMIndex implements IInvertedIndex
                 cursor.next();
                 ITupleReference tuple = cursor.getTuple();
                 componentBulkLoader.add(tuple);
+                mergeOp.throttle(tuple);
             }
         } finally {
             cursor.destroy();
@@ -211,6 +211,11 @@ public class LSMInvertedIndexAccessor implements ILSMIndexAccessor, IInvertedInd
         throw HyracksDataException.create(ErrorCode.DISK_COMPONENT_SCAN_NOT_ALLOWED_FOR_SECONDARY_INDEX);
     }
 
+    @Override
+    public IIndexCursor createBatchPointSearchCursor() throws HyracksDataException {
+        throw HyracksDataException.create(ErrorCode.BATCH_POINT_SEARCH_NOT_ALLOWED_FOR_SECONDARY_INDEX);
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName() + ':' + lsmHarness.toString();
@@ -37,6 +37,7 @@ import org.apache.hyracks.storage.am.lsm.common.api.ILSMOperationTrackerFactory;
 import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCache;
 import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCacheProvider;
 import org.apache.hyracks.storage.am.lsm.common.dataflow.LsmResource;
+import org.apache.hyracks.storage.am.lsm.rtree.impls.RTreePackingPolicy;
 import org.apache.hyracks.storage.am.lsm.rtree.utils.LSMRTreeUtils;
 import org.apache.hyracks.storage.am.rtree.frames.RTreePolicyType;
 import org.apache.hyracks.storage.common.IIndex;
@@ -54,6 +55,8 @@ public class LSMRTreeLocalResource extends LsmResource {
     protected final int[] buddyBTreeFields;
     protected final boolean isPointMBR;
     protected final double bloomFilterFalsePositiveRate;
+    // null for all indexes created before the packing policy could be chosen
+    protected final RTreePackingPolicy packingPolicy;
 
     public LSMRTreeLocalResource(String path, IStorageManager storageManager, ITypeTraits[] typeTraits,
             IBinaryComparatorFactory[] rtreeCmpFactories, ITypeTraits[] filterTypeTraits,
@@ -65,6 +68,23 @@ public class LSMRTreeLocalResource extends LsmResource {
             IPrimitiveValueProviderFactory[] valueProviderFactories, RTreePolicyType rtreePolicyType,
             ILinearizeComparatorFactory linearizeCmpFactory, int[] rtreeFields, int[] buddyBTreeFields,
             boolean isPointMBR, double bloomFilterFalsePositiveRate) {
+        this(path, storageManager, typeTraits, rtreeCmpFactories, filterTypeTraits, filterCmpFactories, filterFields,
+                opTrackerProvider, ioOpCallbackFactory, metadataPageManagerFactory, vbcProvider, ioSchedulerProvider,
+                mergePolicyFactory, mergePolicyProperties, durable, btreeCmpFactories, valueProviderFactories,
+                rtreePolicyType, linearizeCmpFactory, rtreeFields, buddyBTreeFields, isPointMBR,
+                bloomFilterFalsePositiveRate, RTreePackingPolicy.LINEARIZED);
+    }
+
+    public LSMRTreeLocalResource(String path, IStorageManager storageManager, ITypeTraits[] typeTraits,
+            IBinaryComparatorFactory[] rtreeCmpFactories, ITypeTraits[] filterTypeTraits,
+            IBinaryComparatorFactory[] filterCmpFactories, int[] filterFields,
+            ILSMOperationTrackerFactory opTrackerProvider, ILSMIOOperationCallbackFactory ioOpCallbackFactory,
+            IMetadataPageManagerFactory metadataPageManagerFactory, IVirtualBufferCacheProvider vbcProvider,
+            ILSMIOOperationSchedulerProvider ioSchedulerProvider, ILSMMergePolicyFactory mergePolicyFactory,
+            Map<String, String> mergePolicyProperties, boolean durable, IBinaryComparatorFactory[] btreeCmpFactories,
+            IPrimitiveValueProviderFactory[] valueProviderFactories, RTreePolicyType rtreePolicyType,
+            ILinearizeComparatorFactory linearizeCmpFactory, int[] rtreeFields, int[] buddyBTreeFields,
+            boolean isPointMBR, double bloomFilterFalsePositiveRate, RTreePackingPolicy packingPolicy) {
         super(path, storageManager, typeTraits, rtreeCmpFactories, filterTypeTraits, filterCmpFactories, filterFields,
                 opTrackerProvider, ioOpCallbackFactory, metadataPageManagerFactory, vbcProvider, ioSchedulerProvider,
                 mergePolicyFactory, mergePolicyProperties, durable);
@@ -76,6 +96,7 @@ public class LSMRTreeLocalResource extends LsmResource {
         this.buddyBTreeFields = buddyBTreeFields;
         this.isPointMBR = isPointMBR;
         this.bloomFilterFalsePositiveRate = bloomFilterFalsePositiveRate;
+        this.packingPolicy = packingPolicy;
     }
 
     @Override
@@ -91,6 +112,6 @@ public class LSMRTreeLocalResource extends LsmResource {
                 opTrackerProvider.getOperationTracker(ncServiceCtx, this),
                 ioSchedulerProvider.getIoScheduler(ncServiceCtx), ioOpCallbackFactory, linearizeCmpFactory, rtreeFields,
                 buddyBTreeFields, filterTypeTraits, filterCmpFactories, filterFields, durable, isPointMBR,
-                metadataPageManagerFactory);
+                metadataPageManagerFactory, packingPolicy == null ? RTreePackingPolicy.LINEARIZED : packingPolicy);
     }
 }
@@ -310,6 +310,7 @@ public class ExternalRTree extends LSMRTree implements ITwoPCIndex {
                 cursor.next();
                 ITupleReference frameTuple = cursor.getTuple();
                 bulkLoader.add(frameTuple);
+                mergeOp.throttle(frameTuple);
             }
         } finally {
             cursor.destroy();
@@ -67,6 +67,7 @@ import org.apache.hyracks.util.trace.ITracer;
 
 public class LSMRTree extends AbstractLSMRTree {
     protected final int[] buddyBTreeFields;
+    protected final RTreePackingPolicy packingPolicy;
 
     public LSMRTree(IIOManager ioManager, List<IVirtualBufferCache> virtualBufferCaches,
             RTreeFrameFactory rtreeInteriorFrameFactory, RTreeFrameFactory rtreeLeafFrameFactory,
@@ -80,12 +81,34 @@ public class LSMRTree extends AbstractLSMRTree {
             ILSMOperationTracker opTracker, ILSMIOOperationScheduler ioScheduler,
             ILSMIOOperationCallbackFactory ioOpCallbackFactory, int[] rtreeFields, int[] buddyBTreeFields,
             int[] filterFields, boolean durable, boolean isPointMBR) throws HyracksDataException {
+        this(ioManager, virtualBufferCaches, rtreeInteriorFrameFactory, rtreeLeafFrameFactory,
+                btreeInteriorFrameFactory, btreeLeafFrameFactory, diskBufferCache, fileNameManager, componentFactory,
+                filterHelper, filterFrameFactory, filterManager, bloomFilterFalsePositiveRate, fieldCount,
+                rtreeCmpFactories, btreeCmpFactories, linearizer, comparatorFields, linearizerArray, mergePolicy,
+                opTracker, ioScheduler, ioOpCallbackFactory, rtreeFields, buddyBTreeFields, filterFields, durable,
+                isPointMBR, RTreePackingPolicy.LINEARIZED);
+    }
+
+    public LSMRTree(IIOManager ioManager, List<IVirtualBufferCache> virtualBufferCaches,
+            RTreeFrameFactory rtreeInteriorFrameFactory, RTreeFrameFactory rtreeLeafFrameFactory,
+            ITreeIndexFrameFactory btreeInteriorFrameFactory, ITreeIndexFrameFactory btreeLeafFrameFactory,
+            IBufferCache diskBufferCache, ILSMIndexFileManager fileNameManager,
+            ILSMDiskComponentFactory componentFactory, IComponentFilterHelper filterHelper,
+            ILSMComponentFilterFrameFactory filterFrameFactory, LSMComponentFilterManager filterManager,
+            double bloomFilterFalsePositiveRate, int fieldCount, IBinaryComparatorFactory[] rtreeCmpFactories,
+            IBinaryComparatorFactory[] btreeCmpFactories, ILinearizeComparatorFactory linearizer,
+            int[] comparatorFields, IBinaryComparatorFactory[] linearizerArray, ILSMMergePolicy mergePolicy,
+            ILSMOperationTracker opTracker, ILSMIOOperationScheduler ioScheduler,
+            ILSMIOOperationCallbackFactory ioOpCallbackFactory, int[] rtreeFields, int[] buddyBTreeFields,
+            int[] filterFields, boolean durable, boolean isPointMBR, RTreePackingPolicy packingPolicy)
+            throws HyracksDataException {
         super(ioManager, virtualBufferCaches, rtreeInteriorFrameFactory, rtreeLeafFrameFactory,
                 btreeInteriorFrameFactory, btreeLeafFrameFactory, diskBufferCache, fileNameManager, componentFactory,
                 componentFactory, fieldCount, rtreeCmpFactories, btreeCmpFactories, linearizer, comparatorFields,
                 linearizerArray, bloomFilterFalsePositiveRate, mergePolicy, opTracker, ioScheduler, ioOpCallbackFactory,
                 filterHelper, filterFrameFactory, filterManager, rtreeFields, filterFields, durable, isPointMBR);
         this.buddyBTreeFields = buddyBTreeFields;
+        this.packingPolicy = packingPolicy;
     }
 
     /*
@@ -106,6 +129,7 @@ public class LSMRTree extends AbstractLSMRTree {
                 btreeCmpFactories, linearizer, comparatorFields, linearizerArray, bloomFilterFalsePositiveRate,
                 mergePolicy, opTracker, ioScheduler, ioOpCallbackFactory, durable, isPointMBR, tracer);
         this.buddyBTreeFields = buddyBTreeFields;
+        this.packingPolicy = RTreePackingPolicy.LINEARIZED;
     }
 
     @Override
@@ -146,6 +170,54 @@ public class LSMRTree extends AbstractLSMRTree {
         ILSMDiskComponentBulkLoader componentBulkLoader =
                 component.createBulkLoader(1.0f, false, numBTreeTuples, false, false, false);
 
+        if (packingPolicy == RTreePackingPolicy.STR) {
+            STRTupleSorter strTupleSorter = createSTRTupleSorter();
+            try {
+                while (rtreeScanCursor.hasNext()) {
+                    rtreeScanCursor.next();
+                    strTupleSorter.insertTuple(rtreeScanCursor.getTuple());
+                    if (strTupleSorter.isFull()) {
+                        bulkLoadPacked(strTupleSorter, componentBulkLoader, null);
+                    }
+                }
+                bulkLoadPacked(strTupleSorter, componentBulkLoader, null);
+            } finally {
+                rtreeScanCursor.destroy();
+                strTupleSorter.destroy();
+            }
+        } else {
+            bulkLoadLinearized(flushingComponent, rtreeScanCursor, componentBulkLoader);
+        }
+
+        // scan the memory BTree
+        IIndexCursor btreeScanCursor = memBTreeAccessor.createSearchCursor(false);
+        memBTreeAccessor.search(btreeScanCursor, btreeNullPredicate);
+        try {
+            while (btreeScanCursor.hasNext()) {
+                btreeScanCursor.next();
+                ITupleReference frameTuple = btreeScanCursor.getTuple();
+                componentBulkLoader.delete(frameTuple);
+            }
+        } finally {
+            btreeScanCursor.destroy();
+        }
+
+        if (component.getLSMComponentFilter() != null) {
+            List<ITupleReference> filterTuples = new ArrayList<>();
+            filterTuples.add(flushingComponent.getLSMComponentFilter().getMinTuple());
+            filterTuples.add(flushingComponent.getLSMComponentFilter().getMaxTuple());
+            getFilterManager().updateFilter(component.getLSMComponentFilter(), filterTuples);
+            getFilterManager().writeFilter(component.getLSMComponentFilter(), component.getMetadataHolder());
+        }
+        // Note. If we change the filter to write to metadata object, we don't need the if block above
+        flushingComponent.getMetadata().copy(component.getMetadata());
+
+        componentBulkLoader.end();
+        return component;
+    }
+
+    private void bulkLoadLinearized(LSMRTreeMemoryComponent flushingComponent, RTreeSearchCursor rtreeScanCursor,
+            ILSMDiskComponentBulkLoader componentBulkLoader) throws HyracksDataException {
         ITreeIndexCursor cursor;
         IBinaryComparatorFactory[] linearizerArray = { linearizer };
 
@@ -180,32 +252,29 @@ public class LSMRTree extends AbstractLSMRTree {
                 cursor.destroy();
             }
         }
+    }
 
-        // scan the memory BTree
-        IIndexCursor btreeScanCursor = memBTreeAccessor.createSearchCursor(false);
-        memBTreeAccessor.search(btreeScanCursor, btreeNullPredicate);
-        try {
-            while (btreeScanCursor.hasNext()) {
-                btreeScanCursor.next();
-                ITupleReference frameTuple = btreeScanCursor.getTuple();
-                componentBulkLoader.delete(frameTuple);
-            }
-        } finally {
-            btreeScanCursor.destroy();
-        }
+    private STRTupleSorter createSTRTupleSorter() {
+        return new STRTupleSorter(diskBufferCache.getPageSize(), rtreeLeafFrameFactory.createFrame(),
+                rtreeInteriorFrameFactory.createFrame(),
+                ((RTreeFrameFactory) rtreeLeafFrameFactory).getKeyValueProviderFactories());
+    }
 
-        if (component.getLSMComponentFilter() != null) {
-            List<ITupleReference> filterTuples = new ArrayList<>();
-            filterTuples.add(flushingComponent.getLSMComponentFilter().getMinTuple());
-            filterTuples.add(flushingComponent.getLSMComponentFilter().getMaxTuple());
-            getFilterManager().updateFilter(component.getLSMComponentFilter(), filterTuples);
-            getFilterManager().writeFilter(component.getLSMComponentFilter(), component.getMetadataHolder());
+    /**
+     * Bulk loads the tuples of the sorter in STR order and empties it.
+     */
+    private static void bulkLoadPacked(STRTupleSorter strTupleSorter, ILSMDiskComponentBulkLoader componentBulkLoader,
+            LSMRTreeMergeOperation mergeOp) throws HyracksDataException {
+        strTupleSorter.sort();
+        while (strTupleSorter.hasNext()) {
+            strTupleSorter.next();
+            ITupleReference frameTuple = strTupleSorter.getTuple();
+            componentBulkLoader.add(frameTuple);
+            if (mergeOp != null) {
+                mergeOp.throttle(frameTuple);
+            }
         }
-        // Note. If we change the filter to write to metadata object, we don't need the if block above
-        flushingComponent.getMetadata().copy(component.getMetadata());
-
-        componentBulkLoader.end();
-        return component;
+        strTupleSorter.reset();
     }
 
     @Override
@@ -249,14 +318,34 @@ public class LSMRTree extends AbstractLSMRTree {
         }
 
         //search old rtree components
-        try {
-            while (cursor.hasNext()) {
-                cursor.next();
-                ITupleReference frameTuple = cursor.getTuple();
-                componentBulkLoader.add(frameTuple);
+        if (packingPolicy == RTreePackingPolicy.STR) {
+            // The merged components are read in windows of the linearized order, and every window is packed on its
+            // own to bound the memory used for the copies of the tuples.
+            STRTupleSorter strTupleSorter = createSTRTupleSorter();
+            try {
+                while (cursor.hasNext()) {
+                    cursor.next();
+                    strTupleSorter.insertTuple(cursor.getTuple());
+                    if (strTupleSorter.isFull()) {
+                        bulkLoadPacked(strTupleSorter, componentBulkLoader, mergeOp);
+                    }
+                }
+                bulkLoadPacked(strTupleSorter, componentBulkLoader, mergeOp);
+            } finally {
+                strTupleSorter.destroy();
+                cursor.destroy();
+            }
+        } else {
+            try {
+                while (cursor.hasNext()) {
+                    cursor.next();
+                    ITupleReference frameTuple = cursor.getTuple();
+                    componentBulkLoader.add(frameTuple);
+                    mergeOp.throttle(frameTuple);
+                }
+            } finally {
+                cursor.destroy();
             }
-        } finally {
-            cursor.destroy();
         }
 
         if (mergedComponent.getLSMComponentFilter() != null) {
@@ -191,6 +191,7 @@ public class LSMRTreeWithAntiMatterTuples extends AbstractLSMRTree {
                 cursor.next();
                 ITupleReference frameTuple = cursor.getTuple();
                 componentBulkLoader.add(frameTuple);
+                mergeOp.throttle(frameTuple);
             }
         } finally {
             cursor.destroy();
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.rtree.impls;
+
+/**
+ * The order in which the tuples of a flushed or merged component are bulk loaded into its disk R-tree. The bulk
+ * loader fills the leaves in that order and packs the interior levels on top of them, so the order decides how much
+ * the nodes overlap.
+ */
+public enum RTreePackingPolicy {
+    /**
+     * Sort the tuples on the index's space filling curve, e.g. the Hilbert curve for two-dimensional doubles.
+     */
+    LINEARIZED,
+    /**
+     * Sort-Tile-Recursive: sort the tuples on the center of their first dimension, cut them into slabs of about the
+     * same number of nodes and sort every slab on the next dimension. This is done for the children of every node,
+     * from the root down, so the nodes come out as tiles of similar extent in every dimension on all levels, which
+     * keeps window queries from visiting long thin nodes.
+     * <p>
+     * Only {@link LSMRTree}, whose deleted keys are kept in a buddy B-tree, packs its components this way. AsterixDB
+     * creates its R-tree indexes with antimatter tuples, and no DDL selects the policy.
+     */
+    STR
+}
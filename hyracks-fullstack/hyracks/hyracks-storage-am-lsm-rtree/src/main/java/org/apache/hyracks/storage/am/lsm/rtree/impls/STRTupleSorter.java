@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.rtree.impls;
+
+import java.util.Arrays;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.api.IPrimitiveValueProvider;
+import org.apache.hyracks.storage.am.common.api.IPrimitiveValueProviderFactory;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexCursor;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexFrame;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.storage.am.rtree.frames.RTreeNSMInteriorFrame;
+import org.apache.hyracks.storage.common.ICursorInitialState;
+import org.apache.hyracks.storage.common.ISearchPredicate;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+
+/**
+ * Orders R-tree leaf tuples for bulk loading with Sort-Tile-Recursive packing. Unlike {@link TreeTupleSorter}, which
+ * keeps pointers into the pages of a memory component, the sorter copies every tuple, together with the center of its
+ * MBR: the STR order jumps between the pages the tuples come from, and re-reading the pages of merged disk
+ * components in that order would pin them at random, long after the scan has moved past them.
+ * The sorter holds at most {@link #MAX_TUPLES} tuples and {@link #MAX_TUPLE_BYTES} bytes of tuples. Callers that may
+ * have more feed it in windows: once the sorter {@link #isFull()}, they read it, {@link #reset()} it and go on.
+ */
+public class STRTupleSorter implements ITreeIndexCursor {
+    public static final int MAX_TUPLES = 1 << 20;
+    public static final int MAX_TUPLE_BYTES = 32 << 20;
+    private static final int INITIAL_SIZE = 1024;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final int pageSize;
+    private final ITreeIndexFrame leafFrame;
+    private final ITreeIndexFrame interiorFrame;
+    private final ITreeIndexTupleReference frameTuple;
+    private final IPrimitiveValueProvider[] valueProviders;
+    private final int dim;
+    private final int maxTuples;
+    // the copies of the tuples, written by the leaf frame's tuple writer, and the offset of every copy
+    private byte[] tupleBytes;
+    private int tupleBytesLength;
+    private int[] tOffsets;
+    private double[] centers;
+    private int[] order;
+    private long leafTupleBytes;
+    private long interiorTupleBytes;
+    private int numTuples;
+    private int currentTupleIndex;
+    private boolean prepared;
+
+    /**
+     * @param pageSize
+     *            the page size of the R-tree being loaded, which decides how many tuples go to a leaf
+     */
+    public STRTupleSorter(int pageSize, ITreeIndexFrame leafFrame, ITreeIndexFrame interiorFrame,
+            IPrimitiveValueProviderFactory[] valueProviderFactories) {
+        this(pageSize, leafFrame, interiorFrame, valueProviderFactories, MAX_TUPLES);
+    }
+
+    public STRTupleSorter(int pageSize, ITreeIndexFrame leafFrame, ITreeIndexFrame interiorFrame,
+            IPrimitiveValueProviderFactory[] valueProviderFactories, int maxTuples) {
+        this.pageSize = pageSize;
+        this.leafFrame = leafFrame;
+        this.interiorFrame = interiorFrame;
+        this.frameTuple = leafFrame.createTupleReference();
+        this.valueProviders = new IPrimitiveValueProvider[valueProviderFactories.length];
+        for (int i = 0; i < valueProviderFactories.length; i++) {
+            valueProviders[i] = valueProviderFactories[i].createPrimitiveValueProvider();
+        }
+        this.dim = valueProviderFactories.length / 2;
+        this.maxTuples = maxTuples;
+        tOffsets = new int[INITIAL_SIZE];
+        centers = new double[INITIAL_SIZE * dim];
+        tupleBytes = new byte[INITIAL_SIZE * 64];
+    }
+
+    public void insertTuple(ITupleReference tuple) {
+        if (numTuples == tOffsets.length) {
+            tOffsets = Arrays.copyOf(tOffsets, tOffsets.length * 2);
+            centers = Arrays.copyOf(centers, centers.length * 2);
+        }
+        int tupleSize = leafFrame.getTupleWriter().bytesRequired(tuple);
+        if (tupleBytesLength + tupleSize > tupleBytes.length) {
+            tupleBytes = Arrays.copyOf(tupleBytes, Math.max(tupleBytes.length * 2, tupleBytesLength + tupleSize));
+        }
+        tOffsets[numTuples] = tupleBytesLength;
+        tupleBytesLength += leafFrame.getTupleWriter().writeTuple(tuple, tupleBytes, tupleBytesLength);
+        for (int i = 0; i < dim; i++) {
+            int j = dim + i;
+            double low = valueProviders[i].getValue(tuple.getFieldData(i), tuple.getFieldStart(i));
+            double high = valueProviders[j].getValue(tuple.getFieldData(j), tuple.getFieldStart(j));
+            centers[numTuples * dim + i] = low / 2 + high / 2;
+        }
+        leafTupleBytes += leafFrame.getBytesRequiredToWriteTuple(tuple);
+        // the MBR of a node is stored in its parent together with a child pointer and a slot
+        interiorTupleBytes += interiorFrame.getTupleWriter().bytesRequired(tuple, 0, dim * 2)
+                + RTreeNSMInteriorFrame.childPtrSize + interiorFrame.getSlotSize();
+        numTuples++;
+    }
+
+    public boolean isFull() {
+        return numTuples >= maxTuples || tupleBytesLength >= MAX_TUPLE_BYTES;
+    }
+
+    public boolean isEmpty() {
+        return numTuples == 0;
+    }
+
+    public void sort() {
+        if (order == null || order.length < numTuples) {
+            order = new int[tOffsets.length];
+        }
+        for (int i = 0; i < numTuples; i++) {
+            order[i] = i;
+        }
+        if (numTuples == 0) {
+            return;
+        }
+        int leafCapacity = capacity(leafFrame, leafTupleBytes);
+        // the bulk loader closes an interior node once there is no room left for two more entries
+        int fanout = Math.max(2, capacity(interiorFrame, interiorTupleBytes) - 1);
+        long childSize = leafCapacity;
+        while (childSize * fanout < numTuples) {
+            childSize *= fanout;
+        }
+        pack(0, numTuples, childSize, leafCapacity, fanout);
+    }
+
+    private int capacity(ITreeIndexFrame frame, long tupleBytes) {
+        int tupleSize = (int) (tupleBytes / numTuples);
+        return Math.max(1, (pageSize - frame.getPageHeaderSize()) / tupleSize);
+    }
+
+    /**
+     * Orders the tuples in [from, to) of a subtree whose children hold childSize tuples each. The bulk loader fills
+     * every node with consecutive entries, so plain STR on the leaves would give tiled leaves but interior nodes that
+     * are thin strips of a slab; tiling the children of every node top down keeps the nodes square on all levels.
+     */
+    private void pack(int from, int to, long childSize, int leafCapacity, int fanout) {
+        if (to - from <= leafCapacity) {
+            return;
+        }
+        tile(from, to, 0, childSize);
+        for (long start = from; start < to; start += childSize) {
+            pack((int) start, (int) Math.min(to, start + childSize), childSize / fanout, leafCapacity, fanout);
+        }
+    }
+
+    /**
+     * Sorts the tuples in [from, to) on dimension d and, unless d is the last dimension, cuts them into slabs of
+     * whole children and tiles every slab on the remaining dimensions.
+     */
+    private void tile(int from, int to, int d, long childSize) {
+        sort(from, to, d);
+        if (d == dim - 1) {
+            return;
+        }
+        long numChildren = (to - from + childSize - 1) / childSize;
+        long numSlabs = (long) Math.ceil(Math.pow(numChildren, 1.0 / (dim - d)));
+        long slabSize = (numChildren + numSlabs - 1) / numSlabs * childSize;
+        for (long start = from; start < to; start += slabSize) {
+            tile((int) start, (int) Math.min(to, start + slabSize), d + 1, childSize);
+        }
+    }
+
+    private void sort(int from, int to, int d) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            int mid = from + ((to - from) >>> 1);
+            double pivot = median(center(order[from], d), center(order[mid], d), center(order[to - 1], d));
+            // three-way partitioning: [from, lt) < pivot, [lt, gt) == pivot, [gt, to) > pivot
+            int lt = from;
+            int gt = to;
+            int i = from;
+            while (i < gt) {
+                int c = Double.compare(center(order[i], d), pivot);
+                if (c < 0) {
+                    swap(lt++, i++);
+                } else if (c > 0) {
+                    swap(i, --gt);
+                } else {
+                    i++;
+                }
+            }
+            // recurse into the smaller part to bound the stack depth
+            if (lt - from < to - gt) {
+                sort(from, lt, d);
+                from = gt;
+            } else {
+                sort(gt, to, d);
+                to = lt;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            for (int j = i; j > from && center(order[j - 1], d) > center(order[j], d); j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+    private double center(int tupleIndex, int d) {
+        return centers[tupleIndex * dim + d];
+    }
+
+    private static double median(double a, double b, double c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    private void swap(int i, int j) {
+        int t = order[i];
+        order[i] = order[j];
+        order[j] = t;
+    }
+
+    public void reset() {
+        prepared = false;
+        numTuples = 0;
+        tupleBytesLength = 0;
+        currentTupleIndex = 0;
+        leafTupleBytes = 0;
+        interiorTupleBytes = 0;
+    }
+
+    @Override
+    public boolean hasNext() throws HyracksDataException {
+        if (prepared) {
+            return true;
+        }
+        if (numTuples <= currentTupleIndex) {
+            return false;
+        }
+        frameTuple.resetByTupleOffset(tupleBytes, tOffsets[order[currentTupleIndex]]);
+        prepared = true;
+        return true;
+    }
+
+    @Override
+    public void next() {
+        prepared = false;
+        currentTupleIndex++;
+    }
+
+    @Override
+    public ITupleReference getTuple() {
+        return frameTuple;
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        reset();
+    }
+
+    @Override
+    public void open(ICursorInitialState initialState, ISearchPredicate searchPred) throws HyracksDataException {
+        // do nothing
+    }
+
+    @Override
+    public void destroy() throws HyracksDataException {
+        reset();
+    }
+
+    @Override
+    public void setBufferCache(IBufferCache bufferCache) {
+        // do nothing
+    }
+
+    @Override
+    public void setFileId(int fileId) {
+        // do nothing
+    }
+
+    @Override
+    public boolean isExclusiveLatchNodes() {
+        return false;
+    }
+}
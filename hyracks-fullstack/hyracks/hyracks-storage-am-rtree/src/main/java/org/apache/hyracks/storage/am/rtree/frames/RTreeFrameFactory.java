@@ -48,4 +48,8 @@ public abstract class RTreeFrameFactory implements ITreeIndexFrameFactory {
         return tupleWriterFactory;
     }
 
+    public IPrimitiveValueProviderFactory[] getKeyValueProviderFactories() {
+        return keyValueProviderFactories;
+    }
+
 }
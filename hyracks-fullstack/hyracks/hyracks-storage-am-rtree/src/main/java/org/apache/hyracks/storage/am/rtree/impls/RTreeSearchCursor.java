@@ -49,6 +49,7 @@ public class RTreeSearchCursor implements ITreeIndexCursor {
     private int tupleIndexInc = 0;
     private int currentTupleIndex = 0;
     private int pageId = -1;
+    private int numVisitedPages = 0;
 
     protected MultiComparator cmp;
 
@@ -87,6 +88,13 @@ public class RTreeSearchCursor implements ITreeIndexCursor {
         return pageId;
     }
 
+    /**
+     * @return the number of nodes, interior and leaf, the cursor has read since it was last opened
+     */
+    public int getNumVisitedPages() {
+        return numVisitedPages;
+    }
+
     protected boolean fetchNextLeafPage() throws HyracksDataException {
         boolean succeeded = false;
         if (readLatched) {
@@ -106,6 +114,7 @@ public class RTreeSearchCursor implements ITreeIndexCursor {
                 throw new IllegalStateException();
             }
             ICachedPage node = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, pageId), false);
+            numVisitedPages++;
             node.acquireReadLatch();
             readLatched = true;
             try {
@@ -235,6 +244,7 @@ public class RTreeSearchCursor implements ITreeIndexCursor {
 
         pathList.add(this.rootPage, -1, -1);
         tupleIndex = 0;
+        numVisitedPages = 0;
         fetchNextLeafPage();
     }
 
@@ -30,9 +30,17 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -45,8 +53,11 @@ import org.apache.hyracks.api.io.IIOManager;
 import org.apache.hyracks.api.lifecycle.ILifeCycleComponent;
 import org.apache.hyracks.api.replication.IIOReplicationManager;
 import org.apache.hyracks.api.util.IoUtil;
+import org.apache.hyracks.storage.common.compression.CompressedFileManager;
+import org.apache.hyracks.storage.common.compression.ICompressorDecompressorFactory;
 import org.apache.hyracks.storage.common.file.BufferedFileHandle;
 import org.apache.hyracks.storage.common.file.IFileMapManager;
+import org.apache.hyracks.storage.common.file.MappedFile;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -62,6 +73,11 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     private static final int MAX_PIN_ATTEMPT_CYCLES = 1000;
     private static final int MAX_PAGE_READ_ATTEMPTS = 5;
     private static final long PERIOD_BETWEEN_READ_ATTEMPTS = 100;
+    private static final int MAX_OPTIMISTIC_LOOKUP_HOPS = 64;
+    private static final int NUM_READ_AHEAD_THREADS = 4;
+    private static final long READ_AHEAD_THREAD_KEEP_ALIVE_SECONDS = 60;
+    private static final long READ_AHEAD_SHUTDOWN_TIMEOUT_SECONDS = 30;
+    public static final int MAX_READ_AHEAD_PAGES = 64;
     public static final boolean DEBUG = false;
 
     private final int pageSize;
@@ -74,6 +90,9 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     private final CleanerThread cleanerThread;
     private final Map<Integer, BufferedFileHandle> fileInfoMap;
     private final AsyncFIFOPageQueueManager fifoWriter;
+    private final ExecutorService readAheadExecutor;
+    private final AtomicLong readAheadPageCount = new AtomicLong();
+    private final AtomicLong readAheadHitCount = new AtomicLong();
     private final Queue<BufferCacheHeaderHelper> headerPageCache = new ConcurrentLinkedQueue<>();
 
     //DEBUG
@@ -83,7 +102,9 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     private HashMap<CachedPage, StackTraceElement[]> confiscatedPagesOwner;
     private ConcurrentHashMap<CachedPage, StackTraceElement[]> pinnedPageOwner;
     //!DEBUG
-    private IIOReplicationManager ioReplicationManager;
+    private final IIOReplicationManager ioReplicationManager;
+    private final boolean mappedReads;
+    private volatile ICachePartitionResolver cachePartitionResolver;
     private final List<ICachedPageInternal> cachedPages = new ArrayList<>();
     private final AtomicLong masterPinCount = new AtomicLong();
 
@@ -92,7 +113,29 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     public BufferCache(IIOManager ioManager, IPageReplacementStrategy pageReplacementStrategy,
             IPageCleanerPolicy pageCleanerPolicy, IFileMapManager fileMapManager, int maxOpenFiles,
             ThreadFactory threadFactory) {
+        this(ioManager, pageReplacementStrategy, pageCleanerPolicy, fileMapManager, maxOpenFiles, threadFactory, null);
+    }
+
+    //this constructor is used when replication is enabled to pass the IIOReplicationManager
+    public BufferCache(IIOManager ioManager, IPageReplacementStrategy pageReplacementStrategy,
+            IPageCleanerPolicy pageCleanerPolicy, IFileMapManager fileMapManager, int maxOpenFiles,
+            ThreadFactory threadFactory, IIOReplicationManager ioReplicationManager) {
+        this(ioManager, pageReplacementStrategy, pageCleanerPolicy, fileMapManager, maxOpenFiles, threadFactory,
+                ioReplicationManager, false);
+    }
+
+    /**
+     * @param mappedReads
+     *            whether cache misses on uncompressed files are served from a read-only memory mapping of the file
+     *            rather than by reading from the file channel. The operating system caches mapped pages, so the
+     *            cache gives them up first once they are unpinned instead of holding a second copy.
+     */
+    public BufferCache(IIOManager ioManager, IPageReplacementStrategy pageReplacementStrategy,
+            IPageCleanerPolicy pageCleanerPolicy, IFileMapManager fileMapManager, int maxOpenFiles,
+            ThreadFactory threadFactory, IIOReplicationManager ioReplicationManager, boolean mappedReads) {
         this.ioManager = ioManager;
+        this.ioReplicationManager = ioReplicationManager;
+        this.mappedReads = mappedReads;
         this.pageSize = pageReplacementStrategy.getPageSize();
         this.maxOpenFiles = maxOpenFiles;
         pageReplacementStrategy.setBufferCache(this);
@@ -105,9 +148,13 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         this.fileMapManager = fileMapManager;
 
         Executor executor = Executors.newCachedThreadPool(threadFactory);
-        fileInfoMap = new HashMap<>();
+        fileInfoMap = new ConcurrentHashMap<>();
         cleanerThread = new CleanerThread();
         executor.execute(cleanerThread);
+        ThreadPoolExecutor readAheadPool = new ThreadPoolExecutor(NUM_READ_AHEAD_THREADS, NUM_READ_AHEAD_THREADS,
+                READ_AHEAD_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        readAheadPool.allowCoreThreadTimeOut(true);
+        readAheadExecutor = readAheadPool;
         closed = false;
 
         fifoWriter = new AsyncFIFOPageQueueManager(this);
@@ -119,15 +166,6 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         }
     }
 
-    //this constructor is used when replication is enabled to pass the IIOReplicationManager
-    public BufferCache(IIOManager ioManager, IPageReplacementStrategy pageReplacementStrategy,
-            IPageCleanerPolicy pageCleanerPolicy, IFileMapManager fileMapManager, int maxOpenFiles,
-            ThreadFactory threadFactory, IIOReplicationManager ioReplicationManager) {
-
-        this(ioManager, pageReplacementStrategy, pageCleanerPolicy, fileMapManager, maxOpenFiles, threadFactory);
-        this.ioReplicationManager = ioReplicationManager;
-    }
-
     @Override
     public int getPageSize() {
         return pageSize;
@@ -150,10 +188,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
 
         // check whether file has been created and opened
         int fileId = BufferedFileHandle.getFileId(dpid);
-        BufferedFileHandle fInfo;
-        synchronized (fileInfoMap) {
-            fInfo = fileInfoMap.get(fileId);
-        }
+        BufferedFileHandle fInfo = fileInfoMap.get(fileId);
         if (fInfo == null) {
             throw new HyracksDataException("pin called on a fileId " + fileId + " that has not been created.");
         } else if (fInfo.getReferenceCount() <= 0) {
@@ -164,7 +199,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     @Override
     public ICachedPage pin(long dpid, boolean newPage) throws HyracksDataException {
         // Calling the pinSanityCheck should be used only for debugging, since
-        // the synchronized block over the fileInfoMap is a hot spot.
+        // it adds a map lookup to every pin.
         if (DEBUG) {
             pinSanityCheck(dpid);
         }
@@ -189,6 +224,11 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                     try {
                         tryRead(cPage);
                         cPage.valid = true;
+                        pageReplacementStrategy.notifyCachePageMiss(cPage);
+                        BufferCachePartition partition = assignCachePartition(cPage);
+                        if (partition != null) {
+                            partition.miss();
+                        }
                     } catch (Exception e) {
                         LOGGER.log(Level.WARN, "Failure while trying to read a page from disk", e);
                         throw e;
@@ -197,6 +237,15 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                             unpin(cPage);
                         }
                     }
+                } else {
+                    BufferCachePartition partition = cPage.getCachePartition();
+                    if (partition != null) {
+                        partition.hit();
+                    }
+                    if (cPage.readAhead) {
+                        cPage.readAhead = false;
+                        readAheadHitCount.incrementAndGet();
+                    }
                 }
             }
         } else {
@@ -214,13 +263,18 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     }
 
     private ICachedPage findPageInner(long dpid) {
-        CachedPage cPage;
         /*
          * Hash dpid to get a bucket and then check if the page exists in
-         * the bucket.
+         * the bucket. Hits are served without taking the bucket lock; the
+         * locked path below is only taken on a miss or when the page is
+         * concurrently being replaced.
          */
         int hash = hash(dpid);
         CacheBucket bucket = pageMap[hash];
+        CachedPage cPage = findPageOptimistic(dpid, bucket);
+        if (cPage != null) {
+            return cPage;
+        }
         bucket.bucketLock.lock();
         try {
             cPage = bucket.cachedPage;
@@ -288,27 +342,31 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                 }
                 // now that we have the pin, ensure the victim's dpid still is < 0, if it's not, decrement
                 // pin count and try again
-                if (victim.dpid >= 0) {
+                if (victim.dpid >= 0 || !victim.beginIdentityChange()) {
                     victim.pinCount.decrementAndGet();
                     return null;
                 }
-                if (DEBUG) {
-                    confiscateLock.lock();
-                    try {
-                        if (confiscatedPages.contains(victim)) {
-                            throw new IllegalStateException();
+                try {
+                    if (DEBUG) {
+                        confiscateLock.lock();
+                        try {
+                            if (confiscatedPages.contains(victim)) {
+                                throw new IllegalStateException();
+                            }
+                        } finally {
+                            confiscateLock.unlock();
                         }
-                    } finally {
-                        confiscateLock.unlock();
                     }
+                    cPage = findTargetInBucket(dpid, bucket.cachedPage, victim);
+                    if (cPage != null) {
+                        return cPage;
+                    }
+                    victim.reset(dpid);
+                    victim.next = bucket.cachedPage;
+                    bucket.cachedPage = victim;
+                } finally {
+                    victim.endIdentityChange();
                 }
-                cPage = findTargetInBucket(dpid, bucket.cachedPage, victim);
-                if (cPage != null) {
-                    return cPage;
-                }
-                victim.reset(dpid);
-                victim.next = bucket.cachedPage;
-                bucket.cachedPage = victim;
             } finally {
                 bucket.bucketLock.unlock();
             }
@@ -330,25 +388,29 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                 }
                 // now that we have the pin, ensure the victim's bucket hasn't changed, if it has, decrement
                 // pin count and try again
-                if (victimHash != hash(victim.dpid)) {
+                if (victimHash != hash(victim.dpid) || !victim.beginIdentityChange()) {
                     victim.pinCount.decrementAndGet();
                     return null;
                 }
-                if (DEBUG) {
-                    confiscateLock.lock();
-                    try {
-                        if (confiscatedPages.contains(victim)) {
-                            throw new IllegalStateException();
+                try {
+                    if (DEBUG) {
+                        confiscateLock.lock();
+                        try {
+                            if (confiscatedPages.contains(victim)) {
+                                throw new IllegalStateException();
+                            }
+                        } finally {
+                            confiscateLock.unlock();
                         }
-                    } finally {
-                        confiscateLock.unlock();
                     }
+                    cPage = findTargetInBucket(dpid, bucket.cachedPage, victim);
+                    if (cPage != null) {
+                        return cPage;
+                    }
+                    victim.reset(dpid);
+                } finally {
+                    victim.endIdentityChange();
                 }
-                cPage = findTargetInBucket(dpid, bucket.cachedPage, victim);
-                if (cPage != null) {
-                    return cPage;
-                }
-                victim.reset(dpid);
             } finally {
                 bucket.bucketLock.unlock();
             }
@@ -374,32 +436,36 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                 }
                 // now that we have the pin, ensure the victim's bucket hasn't changed, if it has, decrement
                 // pin count and try again
-                if (victimHash != hash(victim.dpid)) {
+                if (victimHash != hash(victim.dpid) || !victim.beginIdentityChange()) {
                     victim.pinCount.decrementAndGet();
                     return null;
                 }
-                if (DEBUG && confiscatedPages.contains(victim)) {
-                    throw new IllegalStateException();
-                }
-                cPage = findTargetInBucket(dpid, bucket.cachedPage, victim);
-                if (cPage != null) {
-                    return cPage;
-                }
-                if (victimBucket.cachedPage == victim) {
-                    victimBucket.cachedPage = victim.next;
-                } else {
-                    CachedPage victimPrev = victimBucket.cachedPage;
-                    while (victimPrev.next != victim) {
-                        victimPrev = victimPrev.next;
-                        if (victimPrev == null) {
-                            throw new IllegalStateException();
+                try {
+                    if (DEBUG && confiscatedPages.contains(victim)) {
+                        throw new IllegalStateException();
+                    }
+                    cPage = findTargetInBucket(dpid, bucket.cachedPage, victim);
+                    if (cPage != null) {
+                        return cPage;
+                    }
+                    if (victimBucket.cachedPage == victim) {
+                        victimBucket.cachedPage = victim.next;
+                    } else {
+                        CachedPage victimPrev = victimBucket.cachedPage;
+                        while (victimPrev.next != victim) {
+                            victimPrev = victimPrev.next;
+                            if (victimPrev == null) {
+                                throw new IllegalStateException();
+                            }
                         }
+                        victimPrev.next = victim.next;
                     }
-                    victimPrev.next = victim.next;
+                    victim.reset(dpid);
+                    victim.next = bucket.cachedPage;
+                    bucket.cachedPage = victim;
+                } finally {
+                    victim.endIdentityChange();
                 }
-                victim.reset(dpid);
-                victim.next = bucket.cachedPage;
-                bucket.cachedPage = victim;
             } finally {
                 victimBucket.bucketLock.unlock();
                 bucket.bucketLock.unlock();
@@ -411,6 +477,34 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         }
     }
 
+    /**
+     * Lock-free lookup of a page in its bucket. The bucket chain is traversed without the bucket lock and the page
+     * is pinned speculatively; the pin is kept only if the page's identity stamp did not change while it was being
+     * taken. Pages re-purposed by the replacement path are detected through {@link CachedPage#beginIdentityChange()}.
+     *
+     * @return the pinned page, or null if the page was not found or the lookup raced with a replacement
+     */
+    private CachedPage findPageOptimistic(long dpid, CacheBucket bucket) {
+        CachedPage cPage = bucket.cachedPage;
+        // chains can be relinked underneath us, so bound the walk and let the locked path deal with the rest
+        for (int hops = 0; cPage != null && hops < MAX_OPTIMISTIC_LOOKUP_HOPS; hops++) {
+            if (cPage.dpid == dpid) {
+                final int version = cPage.version.get();
+                if ((version & 1) != 0) {
+                    return null;
+                }
+                cPage.pinCount.incrementAndGet();
+                if (cPage.version.get() == version && cPage.dpid == dpid && !cPage.confiscated.get()) {
+                    return cPage;
+                }
+                cPage.pinCount.decrementAndGet();
+                return null;
+            }
+            cPage = cPage.next;
+        }
+        return null;
+    }
+
     private CachedPage findTargetInBucket(long dpid, CachedPage cPage, CachedPage victim) {
         while (cPage != null) {
             if (cPage.dpid == dpid) {
@@ -433,6 +527,19 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         buffer.append("Number of physical pages: ").append(pageReplacementStrategy.getMaxAllowedNumPages())
                 .append('\n');
         buffer.append("Hash table size: ").append(pageMap.length).append('\n');
+        buffer.append("Page replacement strategy: ").append(pageReplacementStrategy.getClass().getSimpleName())
+                .append(", hits: ").append(pageReplacementStrategy.getHitCount()).append(", misses: ")
+                .append(pageReplacementStrategy.getMissCount()).append('\n');
+        buffer.append("Read-ahead pages: ").append(readAheadPageCount.get()).append(", hits: ")
+                .append(readAheadHitCount.get()).append('\n');
+        ICachePartitionResolver resolver = cachePartitionResolver;
+        if (resolver != null) {
+            for (BufferCachePartition partition : resolver.getCachePartitions()) {
+                buffer.append("Partition ").append(partition).append(", hits: ").append(partition.getHitCount())
+                        .append(", misses: ").append(partition.getMissCount()).append(", evictions: ")
+                        .append(partition.getEvictionCount()).append('\n');
+            }
+        }
         buffer.append("Page Map:\n");
         buffer.append("cpid -> [fileId:pageId, pinCount, valid/invalid, confiscated/physical, dirty/clean]");
         int nCachedPages = 0;
@@ -543,10 +650,14 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     private void read(CachedPage cPage) throws HyracksDataException {
         BufferedFileHandle fInfo = getFileInfo(cPage);
         cPage.buffer.clear();
+        if (fInfo.isCompressed()) {
+            readCompressed(fInfo, cPage);
+            return;
+        }
         BufferCacheHeaderHelper header = checkoutHeaderHelper();
         try {
-            long bytesRead = ioManager.syncRead(fInfo.getFileHandle(),
-                    getOffsetForPage(BufferedFileHandle.getPageId(cPage.dpid)), header.prepareRead());
+            long bytesRead = readFromFile(fInfo, getOffsetForPage(BufferedFileHandle.getPageId(cPage.dpid)),
+                    header.prepareRead());
 
             if (bytesRead != getPageSizeWithHeader()) {
                 if (bytesRead == -1) {
@@ -561,13 +672,187 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                 pageReplacementStrategy.fixupCapacityOnLargeRead(cPage);
                 cPage.buffer.position(pageSize);
                 cPage.buffer.limit(totalPages * pageSize);
-                ioManager.syncRead(fInfo.getFileHandle(), getOffsetForPage(cPage.getExtraBlockPageId()), cPage.buffer);
+                readFromFile(fInfo, getOffsetForPage(cPage.getExtraBlockPageId()), cPage.buffer);
             }
+            cPage.mapped = fInfo.getMappedFile() != null;
         } finally {
             returnHeaderHelper(header);
         }
     }
 
+    private int readFromFile(BufferedFileHandle fInfo, long offset, ByteBuffer data) throws HyracksDataException {
+        MappedFile mappedFile = fInfo.getMappedFile();
+        if (mappedFile != null) {
+            return mappedFile.read(offset, data);
+        }
+        return ioManager.syncRead(fInfo.getFileHandle(), offset, data);
+    }
+
+    private void readCompressed(BufferedFileHandle fInfo, CachedPage cPage) throws HyracksDataException {
+        CompressedFileManager compressedFileManager = fInfo.getCompressedFileManager();
+        ByteBuffer stored =
+                compressedFileManager.readPage(fInfo.getFileHandle(), BufferedFileHandle.getPageId(cPage.dpid));
+        if (stored == null) {
+            // same as reading past the end of an uncompressed file
+            return;
+        }
+        int totalPages = CompressedFileManager.getFrameSizeMultiplier(stored);
+        cPage.setFrameSizeMultiplier(totalPages);
+        cPage.setExtraBlockPageId(CompressedFileManager.getExtraBlockPageId(stored));
+        if (totalPages > 1) {
+            pageReplacementStrategy.fixupCapacityOnLargeRead(cPage);
+        }
+        cPage.buffer.position(0);
+        cPage.buffer.limit(totalPages * pageSize);
+        compressedFileManager.uncompress(stored, cPage.buffer);
+    }
+
+    @Override
+    public IReadAheadRequest readAhead(int fileId, int startPageId, int numPages) {
+        if (closed || numPages <= 0) {
+            return IReadAheadRequest.NO_OP;
+        }
+        // FutureTask.cancel() does not stop a running task, so the task and the canceller race to claim it instead
+        AtomicBoolean claimed = new AtomicBoolean();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            if (claimed.compareAndSet(false, true)) {
+                readAheadPages(fileId, startPageId, Math.min(numPages, MAX_READ_AHEAD_PAGES));
+            }
+            return null;
+        });
+        try {
+            readAheadExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // the cache is closing
+            return IReadAheadRequest.NO_OP;
+        }
+        return () -> {
+            if (!claimed.compareAndSet(false, true)) {
+                try {
+                    task.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw HyracksDataException.create(e);
+                } catch (ExecutionException e) {
+                    // read-ahead is only a hint, the reader reads the page itself and reports the failure
+                    LOGGER.log(Level.DEBUG, "Read-ahead failed", e.getCause());
+                }
+            }
+        };
+    }
+
+    private void readAheadPages(int fileId, int startPageId, int numPages) throws HyracksDataException {
+        BufferedFileHandle fInfo = fileInfoMap.get(fileId);
+        if (fInfo == null || fInfo.fileHasBeenDeleted()) {
+            return;
+        }
+        int pageId = startPageId;
+        int endPageId = Math.min(startPageId + numPages, getNumPagesOfFile(fileId));
+        // the reader may have caught up with the read-ahead already
+        while (pageId < endPageId && isCached(BufferedFileHandle.getDiskPageId(fileId, pageId))) {
+            pageId++;
+        }
+        if (pageId >= endPageId) {
+            return;
+        }
+        if (fInfo.isCompressed()) {
+            // the pages of a compressed file are not adjacent on disk, read them one at a time
+            for (; pageId < endPageId; pageId++) {
+                readAheadPage(BufferedFileHandle.getDiskPageId(fileId, pageId), null, 0);
+            }
+            return;
+        }
+        // a single read of the whole run, which is then copied into the pages
+        ByteBuffer run = ByteBuffer.allocate((endPageId - pageId) * getPageSizeWithHeader());
+        long bytesRead = readFromFile(fInfo, getOffsetForPage(pageId), run);
+        int pagesRead = (int) (Math.max(bytesRead, 0) / getPageSizeWithHeader());
+        for (int i = 0; i < pagesRead; i++) {
+            readAheadPage(BufferedFileHandle.getDiskPageId(fileId, pageId + i), run, i * getPageSizeWithHeader());
+        }
+    }
+
+    private void readAheadPage(long dpid, ByteBuffer run, int offset) throws HyracksDataException {
+        CachedPage cPage = findPage(dpid);
+        try {
+            synchronized (cPage) {
+                if (cPage.valid) {
+                    return;
+                }
+                if (run == null) {
+                    tryRead(cPage);
+                } else if (run.getInt(offset + BufferCacheHeaderHelper.FRAME_MULTIPLIER_OFF) == 1) {
+                    ByteBuffer src = run.duplicate();
+                    src.limit(offset + getPageSizeWithHeader());
+                    src.position(offset + RESERVED_HEADER_BYTES);
+                    cPage.buffer.clear();
+                    cPage.buffer.put(src);
+                    cPage.setFrameSizeMultiplier(1);
+                    cPage.setExtraBlockPageId(run.getInt(offset + BufferCacheHeaderHelper.EXTRA_BLOCK_PAGE_ID_OFF));
+                } else {
+                    // large pages span other blocks of the file, leave them to the reader
+                    return;
+                }
+                cPage.readAhead = true;
+                cPage.valid = true;
+                assignCachePartition(cPage);
+                readAheadPageCount.incrementAndGet();
+            }
+        } finally {
+            unpin(cPage);
+        }
+    }
+
+    private BufferCachePartition assignCachePartition(CachedPage cPage) {
+        BufferedFileHandle fInfo = fileInfoMap.get(BufferedFileHandle.getFileId(cPage.dpid));
+        BufferCachePartition partition = fInfo == null ? null : fInfo.getCachePartition();
+        cPage.setCachePartition(partition);
+        return partition;
+    }
+
+    private boolean isCached(long dpid) {
+        CachedPage cPage = pageMap[hash(dpid)].cachedPage;
+        for (int hops = 0; cPage != null && hops < MAX_OPTIMISTIC_LOOKUP_HOPS; hops++) {
+            if (cPage.dpid == dpid) {
+                return cPage.valid;
+            }
+            cPage = cPage.next;
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of pages that were read into the cache by read-ahead
+     */
+    public long getReadAheadPageCount() {
+        return readAheadPageCount.get();
+    }
+
+    /**
+     * @return the number of pages read by read-ahead that were pinned before being evicted
+     */
+    public long getReadAheadHitCount() {
+        return readAheadHitCount.get();
+    }
+
+    @Override
+    public void setCachePartitionResolver(ICachePartitionResolver resolver) {
+        this.cachePartitionResolver = resolver;
+    }
+
+    @Override
+    public int getDirtyPageCount(BufferCachePartition partition) {
+        int count = 0;
+        synchronized (cachedPages) {
+            for (ICachedPageInternal page : cachedPages) {
+                CachedPage cPage = (CachedPage) page;
+                if (cPage != null && cPage.getCachePartition() == partition && cPage.dirty.get()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
     private long getOffsetForPage(long pageId) {
         return pageId * getPageSizeWithHeader();
     }
@@ -583,10 +868,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     }
 
     BufferedFileHandle getFileInfo(int fileId) throws HyracksDataException {
-        BufferedFileHandle fInfo;
-        synchronized (fileInfoMap) {
-            fInfo = fileInfoMap.get(fileId);
-        }
+        BufferedFileHandle fInfo = fileInfoMap.get(fileId);
         if (fInfo == null) {
             throw new HyracksDataException("No such file mapped");
         }
@@ -609,7 +891,14 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         BufferedFileHandle fInfo = getFileInfo(cPage);
         // synchronize on fInfo to prevent the file handle from being deleted until the page is written.
         synchronized (fInfo) {
-            if (!fInfo.fileHasBeenDeleted()) {
+            if (!fInfo.fileHasBeenDeleted() && fInfo.isCompressed()) {
+                ByteBuffer buf = cPage.buffer.duplicate();
+                buf.limit(cPage.getFrameSizeMultiplier() * pageSize);
+                buf.position(0);
+                fInfo.getCompressedFileManager().writePage(fInfo.getFileHandle(),
+                        BufferedFileHandle.getPageId(cPage.dpid), cPage.getFrameSizeMultiplier(),
+                        cPage.getExtraBlockPageId(), buf);
+            } else if (!fInfo.fileHasBeenDeleted()) {
                 ByteBuffer buf = cPage.buffer.duplicate();
                 final int totalPages = cPage.getFrameSizeMultiplier();
                 final int extraBlockPageId = cPage.getExtraBlockPageId();
@@ -643,7 +932,13 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         if (closed) {
             throw new HyracksDataException("unpin called on a closed cache");
         }
-        int pinCount = ((CachedPage) page).pinCount.decrementAndGet();
+        CachedPage cPage = (CachedPage) page;
+        int pinCount = cPage.pinCount.decrementAndGet();
+        if (pinCount == 0 && cPage.mapped) {
+            // the operating system caches the page already, keeping it here as well would only take the place of a
+            // page that is not mapped
+            pageReplacementStrategy.adviseWontNeed(cPage);
+        }
         if (DEBUG && pinCount == 0) {
             pinnedPageOwner.remove(page);
         }
@@ -656,7 +951,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
 
     private static class CacheBucket {
         private final Lock bucketLock;
-        private CachedPage cachedPage;
+        private volatile CachedPage cachedPage;
 
         public CacheBucket() {
             bucketLock = new ReentrantLock();
@@ -770,6 +1065,13 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     @Override
     public void close() {
         closed = true;
+        // not shutdownNow(): interrupting a thread in a channel read would close the channel under other readers
+        readAheadExecutor.shutdown();
+        try {
+            readAheadExecutor.awaitTermination(READ_AHEAD_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
         fifoWriter.destroyQueue();
         try {
             synchronized (cleanerThread.threadLock) {
@@ -789,7 +1091,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                     boolean fileHasBeenDeleted = value.fileHasBeenDeleted();
                     sweepAndFlush(key, !fileHasBeenDeleted);
                     if (!fileHasBeenDeleted) {
-                        ioManager.close(value.getFileHandle());
+                        closeFileHandle(value);
                     }
                 } catch (HyracksDataException e) {
                     if (LOGGER.isWarnEnabled()) {
@@ -803,17 +1105,27 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
 
     @Override
     public int createFile(FileReference fileRef) throws HyracksDataException {
+        return createFile(fileRef, null);
+    }
+
+    @Override
+    public int createFile(FileReference fileRef, ICompressorDecompressorFactory compressorDecompressorFactory)
+            throws HyracksDataException {
         if (LOGGER.isEnabled(fileOpsLevel)) {
             LOGGER.log(fileOpsLevel, "Creating file: " + fileRef + " in cache: " + this);
         }
         IoUtil.create(fileRef);
         try {
+            if (compressorDecompressorFactory != null) {
+                CompressedFileManager.create(ioManager, fileRef, compressorDecompressorFactory);
+            }
             synchronized (fileInfoMap) {
                 return fileMapManager.registerFile(fileRef);
             }
         } catch (Exception e) {
             // If file registration failed for any reason, we need to undo the file creation
             try {
+                CompressedFileManager.delete(fileRef);
                 IoUtil.delete(fileRef);
             } catch (Exception deleteException) {
                 e.addSuppressed(deleteException);
@@ -858,7 +1170,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                             boolean fileHasBeenDeleted = entry.getValue().fileHasBeenDeleted();
                             sweepAndFlush(entryFileId, !fileHasBeenDeleted);
                             if (!fileHasBeenDeleted) {
-                                ioManager.close(entry.getValue().getFileHandle());
+                                closeFileHandle(entry.getValue());
                             }
                             fileInfoMap.remove(entryFileId);
                             unreferencedFileFound = true;
@@ -876,13 +1188,42 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                 FileReference fileRef = fileMapManager.lookupFileName(fileId);
                 IFileHandle fh = ioManager.open(fileRef, IIOManager.FileReadWriteMode.READ_WRITE,
                         IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
-                fInfo = new BufferedFileHandle(fileId, fh);
+                try {
+                    fInfo = new BufferedFileHandle(fileId, fh, CompressedFileManager.open(ioManager, fileRef));
+                    if (mappedReads && !fInfo.isCompressed()) {
+                        fInfo.setMappedFile(new MappedFile(ioManager, fh));
+                    }
+                    ICachePartitionResolver resolver = cachePartitionResolver;
+                    if (resolver != null) {
+                        fInfo.setCachePartition(resolver.getCachePartition(fileRef));
+                    }
+                } catch (HyracksDataException e) {
+                    ioManager.close(fh);
+                    throw e;
+                }
                 fileInfoMap.put(fileId, fInfo);
             }
             fInfo.incReferenceCount();
         }
     }
 
+    private void closeFileHandle(BufferedFileHandle fInfo) throws HyracksDataException {
+        if (fInfo.isCompressed()) {
+            // as in force(fileId), the page images must be durable before the look-aside file points to them
+            ioManager.sync(fInfo.getFileHandle(), false);
+            fInfo.getCompressedFileManager().force();
+        }
+        unmapFile(fInfo);
+        ioManager.close(fInfo.getFileHandle());
+    }
+
+    private static void unmapFile(BufferedFileHandle fInfo) {
+        MappedFile mappedFile = fInfo.getMappedFile();
+        if (mappedFile != null) {
+            mappedFile.close();
+        }
+    }
+
     private void sweepAndFlush(int fileId, boolean flushDirtyPages) throws HyracksDataException {
         for (final CacheBucket bucket : pageMap) {
             bucket.bucketLock.lock();
@@ -916,22 +1257,28 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
             throws HyracksDataException {
         if (BufferedFileHandle.getFileId(cPage.dpid) == fileId) {
             int pinCount;
-            if (cPage.dirty.get()) {
-                if (flushDirtyPages) {
-                    write(cPage);
+            // fence off lock-free lookups before checking that nobody holds the page
+            cPage.version.incrementAndGet();
+            try {
+                if (cPage.dirty.get()) {
+                    if (flushDirtyPages) {
+                        write(cPage);
+                    }
+                    cPage.dirty.set(false);
+                    pinCount = cPage.pinCount.decrementAndGet();
+                } else {
+                    pinCount = cPage.pinCount.get();
                 }
-                cPage.dirty.set(false);
-                pinCount = cPage.pinCount.decrementAndGet();
-            } else {
-                pinCount = cPage.pinCount.get();
-            }
-            if (pinCount > 0) {
-                throw new IllegalStateException("Page " + BufferedFileHandle.getFileId(cPage.dpid) + ":"
-                        + BufferedFileHandle.getPageId(cPage.dpid)
-                        + " is pinned and file is being closed. Pincount is: " + pinCount + " Page is confiscated: "
-                        + cPage.confiscated);
+                if (pinCount > 0) {
+                    throw new IllegalStateException("Page " + BufferedFileHandle.getFileId(cPage.dpid) + ":"
+                            + BufferedFileHandle.getPageId(cPage.dpid)
+                            + " is pinned and file is being closed. Pincount is: " + pinCount + " Page is confiscated: "
+                            + cPage.confiscated);
+                }
+                cPage.invalidate();
+            } finally {
+                cPage.endIdentityChange();
             }
-            cPage.invalidate();
             return true;
         }
         return false;
@@ -968,11 +1315,12 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
 
     @Override
     public void force(int fileId, boolean metadata) throws HyracksDataException {
-        BufferedFileHandle fInfo;
-        synchronized (fileInfoMap) {
-            fInfo = fileInfoMap.get(fileId);
-        }
+        BufferedFileHandle fInfo = fileInfoMap.get(fileId);
         ioManager.sync(fInfo.getFileHandle(), metadata);
+        if (fInfo.isCompressed()) {
+            // the page images must be durable before the look-aside file points to them
+            fInfo.getCompressedFileManager().force();
+        }
     }
 
     @Override
@@ -983,6 +1331,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                 deleteFile(fileId);
                 return;
             } else {
+                CompressedFileManager.delete(fileRef);
                 IoUtil.delete(fileRef);
             }
         }
@@ -1012,12 +1361,14 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                         // the pages are not flushed to disk but only invalidated.
                         synchronized (fInfo) {
                             if (!fInfo.fileHasBeenDeleted()) {
+                                unmapFile(fInfo);
                                 ioManager.close(fInfo.getFileHandle());
                                 fInfo.markAsDeleted();
                             }
                         }
                     }
                 } finally {
+                    CompressedFileManager.delete(fileRef);
                     IoUtil.delete(fileRef);
                 }
             }
@@ -1025,14 +1376,12 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     }
 
     @Override
-    public synchronized int getFileReferenceCount(int fileId) {
-        synchronized (fileInfoMap) {
-            BufferedFileHandle fInfo = fileInfoMap.get(fileId);
-            if (fInfo != null) {
-                return fInfo.getReferenceCount();
-            } else {
-                return 0;
-            }
+    public int getFileReferenceCount(int fileId) {
+        BufferedFileHandle fInfo = fileInfoMap.get(fileId);
+        if (fInfo != null) {
+            return fInfo.getReferenceCount();
+        } else {
+            return 0;
         }
     }
 
@@ -1075,7 +1424,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
             }
             // now that we have the pin, ensure the victim's dpid still is < 0, if it's not, decrement
             // pin count and try again
-            if (victim.dpid >= 0) {
+            if (victim.dpid >= 0 || !victim.beginIdentityChange()) {
                 victim.pinCount.decrementAndGet();
                 return false;
             }
@@ -1090,7 +1439,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                 }
                 // now that we have the pin, ensure the victim's bucket hasn't changed, if it has, decrement
                 // pin count and try again
-                if (pageHash != hash(victim.dpid)) {
+                if (pageHash != hash(victim.dpid) || !victim.beginIdentityChange()) {
                     victim.pinCount.decrementAndGet();
                     return false;
                 }
@@ -1131,6 +1480,9 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                 bucket.bucketLock.unlock();
             }
         }
+        victim.releaseCachePartition();
+        // the identity change is intentionally never ended: the page is dropped, and an odd stamp keeps any
+        // lock-free lookup still holding a reference to it from pinning it
         synchronized (cachedPages) {
             ICachedPageInternal old = cachedPages.set(victim.cpid, null);
             if (DEBUG) {
@@ -1147,16 +1499,17 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
 
     @Override
     public int getNumPagesOfFile(int fileId) throws HyracksDataException {
-        synchronized (fileInfoMap) {
-            BufferedFileHandle fInfo = fileInfoMap.get(fileId);
-            if (fInfo == null) {
-                throw new HyracksDataException("No such file mapped for fileId:" + fileId);
-            }
-            if (DEBUG) {
-                assert ioManager.getSize(fInfo.getFileHandle()) % getPageSizeWithHeader() == 0;
-            }
-            return (int) (ioManager.getSize(fInfo.getFileHandle()) / getPageSizeWithHeader());
+        BufferedFileHandle fInfo = fileInfoMap.get(fileId);
+        if (fInfo == null) {
+            throw new HyracksDataException("No such file mapped for fileId:" + fileId);
+        }
+        if (fInfo.isCompressed()) {
+            return fInfo.getCompressedFileManager().getNumPages();
+        }
+        if (DEBUG) {
+            assert ioManager.getSize(fInfo.getFileHandle()) % getPageSizeWithHeader() == 0;
         }
+        return (int) (ioManager.getSize(fInfo.getFileHandle()) / getPageSizeWithHeader());
     }
 
     @Override
@@ -1193,12 +1546,15 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
             }
             // now that we have the pin, ensure the victim's dpid still is < 0, if it's not, decrement
             // pin count and try again
-            if (victim.dpid >= 0) {
+            if (victim.dpid >= 0 || !victim.beginIdentityChange()) {
                 victim.pinCount.decrementAndGet();
                 return null;
             }
+            victim.releaseCachePartition();
+            victim.dpid = dpid;
+            victim.confiscated.set(true);
+            victim.endIdentityChange();
             returnPage = victim;
-            ((CachedPage) returnPage).dpid = dpid;
         } else {
             // Case 2a/b
             int pageHash = hash(victim.getDiskPageId());
@@ -1217,6 +1573,10 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                         if (!victim.pinCount.compareAndSet(0, 1)) {
                             break;
                         }
+                        if (!victim.beginIdentityChange()) {
+                            victim.pinCount.decrementAndGet();
+                            break;
+                        }
                         if (DEBUG) {
                             assert curr != curr.next;
                         }
@@ -1240,8 +1600,11 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                     curr = curr.next;
                 }
                 if (found) {
+                    victim.releaseCachePartition();
+                    victim.dpid = dpid;
+                    victim.confiscated.set(true);
+                    victim.endIdentityChange();
                     returnPage = victim;
-                    ((CachedPage) returnPage).dpid = dpid;
                 } //otherwise, someone took the same victim before we acquired the lock. try again!
             } finally {
                 bucket.bucketLock.unlock();
@@ -1249,7 +1612,6 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         }
         // if we found a page after all that, go ahead and finish
         if (returnPage != null) {
-            ((CachedPage) returnPage).confiscated.set(true);
             if (DEBUG) {
                 confiscateLock.lock();
                 try {
@@ -1407,7 +1769,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         synchronized (fileInfoMap) {
             BufferedFileHandle fh = fileInfoMap.get(fileId);
             if (fh != null) {
-                ioManager.close(fh.getFileHandle());
+                closeFileHandle(fh);
                 fileInfoMap.remove(fileId);
                 fileMapManager.unregisterFile(fileId);
             }
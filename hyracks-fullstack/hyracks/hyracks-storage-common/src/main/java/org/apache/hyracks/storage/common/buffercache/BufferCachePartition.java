@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.buffercache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A named share of the buffer cache. Pages read on behalf of the files assigned to a partition are accounted to it;
+ * as long as a partition holds no more than its reserved number of pages, the replacement strategy skips its pages
+ * when looking for a victim, so that scans of other files cannot push them out. Reserved pages are not set aside:
+ * a partition that does not use its reservation leaves the pages to everyone else.
+ */
+public class BufferCachePartition {
+    private final String name;
+    private final int reservedPages;
+    private final AtomicInteger numPages = new AtomicInteger();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public BufferCachePartition(String name, int reservedPages) {
+        this.name = name;
+        this.reservedPages = reservedPages;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getReservedPages() {
+        return reservedPages;
+    }
+
+    /**
+     * @return the number of cached pages currently accounted to this partition
+     */
+    public int getNumPages() {
+        return numPages.get();
+    }
+
+    public boolean isWithinReservation() {
+        return numPages.get() <= reservedPages;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    void pageAdded() {
+        numPages.incrementAndGet();
+    }
+
+    void pageEvicted() {
+        numPages.decrementAndGet();
+        evictionCount.increment();
+    }
+
+    void hit() {
+        hitCount.increment();
+    }
+
+    void miss() {
+        missCount.increment();
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + numPages.get() + "/" + reservedPages + " pages)";
+    }
+}
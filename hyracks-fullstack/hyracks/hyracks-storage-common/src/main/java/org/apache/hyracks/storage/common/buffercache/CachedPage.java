@@ -21,6 +21,7 @@ package org.apache.hyracks.storage.common.buffercache;
 import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
@@ -35,9 +36,17 @@ public class CachedPage implements ICachedPageInternal {
     private final Object replacementStrategyObject;
     private final IPageReplacementStrategy pageReplacementStrategy;
     volatile long dpid; // disk page id (composed of file id and page id)
-    CachedPage next;
+    volatile CachedPage next;
+    // identity stamp for lock-free lookups: odd while the page is being re-purposed (see BufferCache#findPageInner)
+    final AtomicInteger version;
     volatile boolean valid;
+    // set when the page was read by read-ahead and has not been pinned since
+    volatile boolean readAhead;
+    // set when the page was read from a file mapping, it can be read again from the page cache of the OS
+    volatile boolean mapped;
     final AtomicBoolean confiscated;
+    // the partition the page is accounted to while it holds a page of one of the partition's files
+    private final AtomicReference<BufferCachePartition> cachePartition;
     private IQueueInfo queueInfo;
     private int multiplier;
     private int extraBlockPageId;
@@ -53,9 +62,11 @@ public class CachedPage implements ICachedPageInternal {
         this.dirty = new AtomicBoolean(false);
         this.confiscated = new AtomicBoolean(true);
         pinCount = null;
+        version = null;
         queueInfo = null;
         replacementStrategyObject = null;
         latch = null;
+        cachePartition = null;
         ctorStack = DEBUG ? new Throwable().getStackTrace() : null;
     }
 
@@ -68,20 +79,25 @@ public class CachedPage implements ICachedPageInternal {
         this.buffer = buffer;
         this.pageReplacementStrategy = pageReplacementStrategy;
         pinCount = new AtomicInteger();
+        version = new AtomicInteger();
         dirty = new AtomicBoolean();
         latch = new ReentrantReadWriteLock(true);
         replacementStrategyObject = pageReplacementStrategy.createPerPageStrategyObject(cpid);
         dpid = -1;
         valid = false;
         confiscated = new AtomicBoolean(false);
+        cachePartition = new AtomicReference<>();
         queueInfo = null;
         ctorStack = DEBUG ? new Throwable().getStackTrace() : null;
     }
 
     public void reset(long dpid) {
+        releaseCachePartition();
         this.dpid = dpid;
         dirty.set(false);
         valid = false;
+        readAhead = false;
+        mapped = false;
         confiscated.set(false);
         pageReplacementStrategy.notifyCachePageReset(this);
         queueInfo = null;
@@ -91,6 +107,26 @@ public class CachedPage implements ICachedPageInternal {
         reset(-1);
     }
 
+    /**
+     * Starts changing the identity (dpid) of a page on which the caller holds the only pin.
+     * Must be paired with {@link #endIdentityChange()} when it succeeds.
+     *
+     * @return false if a concurrent lock-free lookup has pinned the page, in which case the
+     *         identity change must be abandoned
+     */
+    boolean beginIdentityChange() {
+        version.incrementAndGet();
+        if (pinCount.get() != 1) {
+            version.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    void endIdentityChange() {
+        version.incrementAndGet();
+    }
+
     @Override
     public ByteBuffer getBuffer() {
         return buffer;
@@ -192,6 +228,32 @@ public class CachedPage implements ICachedPageInternal {
         return next;
     }
 
+    @Override
+    public boolean isReserved() {
+        BufferCachePartition partition = cachePartition.get();
+        return valid && partition != null && partition.isWithinReservation();
+    }
+
+    BufferCachePartition getCachePartition() {
+        return cachePartition.get();
+    }
+
+    void setCachePartition(BufferCachePartition partition) {
+        BufferCachePartition old = cachePartition.getAndSet(partition);
+        if (old != partition) {
+            if (old != null) {
+                old.pageEvicted();
+            }
+            if (partition != null) {
+                partition.pageAdded();
+            }
+        }
+    }
+
+    void releaseCachePartition() {
+        setCachePartition(null);
+    }
+
     void setNext(CachedPage next) {
         this.next = next;
     }
@@ -22,6 +22,7 @@ import java.nio.ByteBuffer;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.logging.log4j.LogManager;
@@ -30,6 +31,8 @@ import org.apache.logging.log4j.Logger;
 public class ClockPageReplacementStrategy implements IPageReplacementStrategy {
     private static final Logger LOGGER = LogManager.getLogger();
     private static final int MAX_UNSUCCESSFUL_CYCLE_COUNT = 3;
+    // the first cycle may only clear reference bits, so reserved pages are spared for two cycles
+    private static final int RESERVED_PAGES_SPARED_CYCLE_COUNT = 2;
 
     private IBufferCacheInternal bufferCache;
     private AtomicInteger clockPtr;
@@ -39,6 +42,8 @@ public class ClockPageReplacementStrategy implements IPageReplacementStrategy {
     private final int pageSize;
     private final int maxAllowedNumPages;
     private final ConcurrentLinkedQueue<Integer> cpIdFreeList;
+    private final AtomicLong accessCount;
+    private final AtomicLong missCount;
 
     public ClockPageReplacementStrategy(ICacheMemoryAllocator allocator, int pageSize, int maxAllowedNumPages) {
         this.allocator = allocator;
@@ -48,6 +53,8 @@ public class ClockPageReplacementStrategy implements IPageReplacementStrategy {
         this.numPages = new AtomicInteger(0);
         this.cpIdCounter = new AtomicInteger(0);
         cpIdFreeList = new ConcurrentLinkedQueue<>();
+        accessCount = new AtomicLong();
+        missCount = new AtomicLong();
     }
 
     @Override
@@ -72,9 +79,25 @@ public class ClockPageReplacementStrategy implements IPageReplacementStrategy {
 
     @Override
     public void notifyCachePageAccess(ICachedPageInternal cPage) {
+        accessCount.incrementAndGet();
         getPerPageObject(cPage).set(true);
     }
 
+    @Override
+    public void notifyCachePageMiss(ICachedPageInternal cPage) {
+        missCount.incrementAndGet();
+    }
+
+    @Override
+    public long getHitCount() {
+        return accessCount.get() - missCount.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.get();
+    }
+
     @Override
     public ICachedPageInternal findVictim() {
         return findVictim(1);
@@ -109,21 +132,10 @@ public class ClockPageReplacementStrategy implements IPageReplacementStrategy {
         boolean looped = false;
         while (true) {
             ICachedPageInternal cPage = bufferCache.getPage(clockPtr);
-            if (cPage != null) {
-                /*
-                 * We do two things here:
-                 * 1. If the page has been accessed, then we skip it -- The CAS would return
-                 * false if the current value is false which makes the page a possible candidate
-                 * for replacement.
-                 * 2. We check with the buffer manager if it feels it's a good idea to use this
-                 * page as a victim.
-                 */
-                AtomicBoolean accessedFlag = getPerPageObject(cPage);
-                if (!accessedFlag.compareAndSet(true, false)) {
-                    if (cPage.isGoodVictim()) {
-                        return cPage;
-                    }
-                }
+            // pages of partitions within their reservation are spared unless nothing else can be evicted
+            if (cPage != null && (cycleCount >= RESERVED_PAGES_SPARED_CYCLE_COUNT || !cPage.isReserved())
+                    && isVictim(cPage, cycleCount)) {
+                return cPage;
             }
             if (clockPtr < lastClockPtr) {
                 looped = true;
@@ -144,6 +156,25 @@ public class ClockPageReplacementStrategy implements IPageReplacementStrategy {
         }
     }
 
+    /**
+     * Decides whether the page under the clock hand should be evicted.
+     *
+     * @param cycleCount
+     *            the number of full clock cycles completed without finding a victim
+     */
+    protected boolean isVictim(ICachedPageInternal cPage, int cycleCount) {
+        /*
+         * We do two things here:
+         * 1. If the page has been accessed, then we skip it -- The CAS would return
+         * false if the current value is false which makes the page a possible candidate
+         * for replacement.
+         * 2. We check with the buffer manager if it feels it's a good idea to use this
+         * page as a victim.
+         */
+        AtomicBoolean accessedFlag = getPerPageObject(cPage);
+        return !accessedFlag.compareAndSet(true, false) && cPage.isGoodVictim();
+    }
+
     @Override
     public int getNumPages() {
         return numPages.get();
@@ -24,6 +24,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.api.replication.IIOReplicationManager;
+import org.apache.hyracks.storage.common.compression.ICompressorDecompressorFactory;
 
 /**
  * Implementation of an IBufferCache that counts the number of pins/unpins,
@@ -58,6 +59,29 @@ public class DebugBufferCache implements IBufferCache {
         return fileId;
     }
 
+    @Override
+    public int createFile(FileReference fileRef, ICompressorDecompressorFactory compressorDecompressorFactory)
+            throws HyracksDataException {
+        int fileId = bufferCache.createFile(fileRef, compressorDecompressorFactory);
+        createFileCount.addAndGet(1);
+        return fileId;
+    }
+
+    @Override
+    public IReadAheadRequest readAhead(int fileId, int startPageId, int numPages) {
+        return bufferCache.readAhead(fileId, startPageId, numPages);
+    }
+
+    @Override
+    public void setCachePartitionResolver(ICachePartitionResolver resolver) {
+        bufferCache.setCachePartitionResolver(resolver);
+    }
+
+    @Override
+    public int getDirtyPageCount(BufferCachePartition partition) {
+        return bufferCache.getDirtyPageCount(partition);
+    }
+
     @Override
     public void openFile(int fileId) throws HyracksDataException {
         bufferCache.openFile(fileId);
@@ -21,6 +21,7 @@ package org.apache.hyracks.storage.common.buffercache;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.api.replication.IIOReplicationManager;
+import org.apache.hyracks.storage.common.compression.ICompressorDecompressorFactory;
 
 public interface IBufferCache {
 
@@ -39,6 +40,55 @@ public interface IBufferCache {
      */
     int createFile(FileReference fileRef) throws HyracksDataException;
 
+    /**
+     * Create file on disk whose pages are stored compressed. Caches that never write pages to disk ignore the
+     * compression scheme.
+     *
+     * @param fileRef
+     *            the file to create
+     * @param compressorDecompressorFactory
+     *            the compression scheme of the file, or null to create an uncompressed file
+     * @return the file id
+     * @throws HyracksDataException
+     *             if the file already exists or attempt to create the file failed
+     */
+    default int createFile(FileReference fileRef, ICompressorDecompressorFactory compressorDecompressorFactory)
+            throws HyracksDataException {
+        return createFile(fileRef);
+    }
+
+    /**
+     * Asynchronously read pages of a file into the cache ahead of their use, typically because a scan is about to
+     * read them in order. Pages that are cached already are left untouched. Caches that never read pages from disk
+     * ignore the request.
+     *
+     * @param fileId
+     *            the file id of an open file
+     * @param startPageId
+     *            the first page to read
+     * @param numPages
+     *            the number of pages to read; requests beyond the end of the file are truncated
+     * @return the request, which must be cancelled before the file is closed
+     */
+    default IReadAheadRequest readAhead(int fileId, int startPageId, int numPages) {
+        return IReadAheadRequest.NO_OP;
+    }
+
+    /**
+     * Set the resolver that assigns files to buffer cache partitions. Only files opened afterwards are assigned.
+     * Caches that do not support partitions ignore the resolver.
+     */
+    default void setCachePartitionResolver(ICachePartitionResolver resolver) {
+        // no partitions by default
+    }
+
+    /**
+     * @return the number of dirty pages currently accounted to the partition
+     */
+    default int getDirtyPageCount(BufferCachePartition partition) {
+        return 0;
+    }
+
     /**
      * Open the file and register it (if not registered) with the file map manager
      *
@@ -27,6 +27,11 @@ public interface ICachedPageInternal extends ICachedPage {
 
     public boolean isGoodVictim();
 
+    /**
+     * @return true if the page belongs to a {@link BufferCachePartition} that does not exceed its reservation
+     */
+    public boolean isReserved();
+
     void setFrameSizeMultiplier(int multiplier);
 
     int getExtraBlockPageId();
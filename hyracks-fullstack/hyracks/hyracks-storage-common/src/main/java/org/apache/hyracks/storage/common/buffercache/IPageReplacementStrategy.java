@@ -31,6 +31,12 @@ public interface IPageReplacementStrategy {
 
     public void notifyCachePageAccess(ICachedPageInternal cPage);
 
+    /**
+     * Called in addition to {@link #notifyCachePageAccess(ICachedPageInternal)} when the accessed page had to be
+     * read from disk.
+     */
+    public void notifyCachePageMiss(ICachedPageInternal cPage);
+
     public void adviseWontNeed(ICachedPageInternal cPage);
 
     public ICachedPageInternal findVictim();
@@ -45,6 +51,16 @@ public interface IPageReplacementStrategy {
 
     public int getMaxAllowedNumPages();
 
+    /**
+     * @return the number of page accesses that were served from the cache
+     */
+    public long getHitCount();
+
+    /**
+     * @return the number of page accesses that required reading the page from disk
+     */
+    public long getMissCount();
+
     void resizePage(ICachedPageInternal page, int multiplier, IExtraPageBlockHelper extraPageBlockHelper)
             throws HyracksDataException;
 }
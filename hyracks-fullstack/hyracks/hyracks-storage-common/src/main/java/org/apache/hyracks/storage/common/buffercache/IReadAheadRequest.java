@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.buffercache;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A pending asynchronous read of pages into the buffer cache.
+ * Read-ahead pins the pages it reads while it fills them, so it must be cancelled before the file is closed.
+ */
+@FunctionalInterface
+public interface IReadAheadRequest {
+    IReadAheadRequest NO_OP = () -> {
+    };
+
+    /**
+     * Cancel the request if it has not started yet, or wait for it to complete otherwise
+     */
+    void cancel() throws HyracksDataException;
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.buffercache;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A scan-resistant variant of the clock strategy modeled after 2Q.
+ * Pages enter the cache "cold" and are evicted in clock order regardless of how often they are accessed while cold,
+ * so a single pass over a large file only recycles the cold pages. The disk page ids of evicted cold pages are
+ * remembered in a bounded ghost queue; a page that is read again while its id is still in the ghost queue enters
+ * the cache "hot". Hot pages are managed with the regular clock second-chance policy and are only evicted while the
+ * cold pages occupy less than their share of the cache.
+ */
+public class TwoQueuePageReplacementStrategy extends ClockPageReplacementStrategy {
+    // fraction of the cache reserved for pages that were accessed only once (Kin in the 2Q paper)
+    private static final double COLD_FRACTION = 0.25;
+    // number of evicted cold pages remembered, relative to the cache size (Kout in the 2Q paper)
+    private static final double GHOST_FRACTION = 0.5;
+
+    private final int coldTarget;
+    private final AtomicInteger hotPages;
+    private final GhostQueue ghosts;
+
+    public TwoQueuePageReplacementStrategy(ICacheMemoryAllocator allocator, int pageSize, int maxAllowedNumPages) {
+        super(allocator, pageSize, maxAllowedNumPages);
+        coldTarget = Math.max(1, (int) (maxAllowedNumPages * COLD_FRACTION));
+        hotPages = new AtomicInteger();
+        ghosts = new GhostQueue(Math.max(1, (int) (maxAllowedNumPages * GHOST_FRACTION)));
+    }
+
+    @Override
+    public Object createPerPageStrategyObject(int cpid) {
+        return new PageState();
+    }
+
+    @Override
+    public void notifyCachePageReset(ICachedPageInternal cPage) {
+        super.notifyCachePageReset(cPage);
+        long dpid = cPage.getDiskPageId();
+        setHot(getPageState(cPage), dpid >= 0 && ghosts.remove(dpid));
+    }
+
+    @Override
+    protected boolean isVictim(ICachedPageInternal cPage, int cycleCount) {
+        PageState state = getPageState(cPage);
+        // after a full unsuccessful cycle, accept a victim from either queue
+        boolean evictCold = cycleCount > 0 || getNumPages() - hotPages.get() > coldTarget;
+        if (!state.hot) {
+            // cold pages get no second chance: re-references while cold do not protect them
+            if (evictCold && cPage.isGoodVictim()) {
+                long dpid = cPage.getDiskPageId();
+                if (dpid >= 0) {
+                    ghosts.add(dpid);
+                }
+                return true;
+            }
+            return false;
+        }
+        if (!state.compareAndSet(true, false) && (!evictCold || cycleCount > 0) && cPage.isGoodVictim()) {
+            // demote right away, so that pages removed rather than reset (large pages) keep the count accurate.
+            // should the buffer cache lose the race for this victim, the page simply stays cold until re-read.
+            setHot(state, false);
+            return true;
+        }
+        return false;
+    }
+
+    private void setHot(PageState state, boolean hot) {
+        if (state.hot != hot) {
+            synchronized (state) {
+                if (state.hot != hot) {
+                    state.hot = hot;
+                    hotPages.addAndGet(hot ? 1 : -1);
+                }
+            }
+        }
+    }
+
+    public int getNumHotPages() {
+        return hotPages.get();
+    }
+
+    private static PageState getPageState(ICachedPageInternal cPage) {
+        return (PageState) cPage.getReplacementStrategyObject();
+    }
+
+    /**
+     * The inherited flag is the clock reference bit; {@link #hot} tells which of the two queues the page belongs to.
+     */
+    private static class PageState extends AtomicBoolean {
+        private static final long serialVersionUID = 1L;
+        private volatile boolean hot;
+    }
+
+    /**
+     * Bounded FIFO of recently evicted disk page ids. Only touched on cache misses, which are about to do I/O anyway.
+     */
+    private static class GhostQueue {
+        private final long[] ring;
+        private final Set<Long> members;
+        private int head;
+        private int size;
+
+        GhostQueue(int capacity) {
+            ring = new long[capacity];
+            members = new HashSet<>();
+        }
+
+        synchronized void add(long dpid) {
+            if (!members.add(dpid)) {
+                return;
+            }
+            if (size == ring.length) {
+                // the oldest slot may be stale (removed by a hit, then re-added); at worst this forgets a ghost
+                // early, which only costs a missed promotion
+                members.remove(ring[head]);
+                size--;
+                head = (head + 1) % ring.length;
+            }
+            ring[(head + size) % ring.length] = dpid;
+            size++;
+        }
+
+        synchronized boolean remove(long dpid) {
+            return members.remove(dpid);
+        }
+    }
+}
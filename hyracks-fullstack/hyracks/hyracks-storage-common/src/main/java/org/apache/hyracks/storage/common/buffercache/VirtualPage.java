@@ -27,7 +27,7 @@ public class VirtualPage implements ICachedPage {
     private ByteBuffer buffer;
     private volatile long dpid;
     private int multiplier;
-    private VirtualPage next;
+    private volatile VirtualPage next;
 
     public VirtualPage(ByteBuffer buffer, int pageSize) {
         this.buffer = buffer;
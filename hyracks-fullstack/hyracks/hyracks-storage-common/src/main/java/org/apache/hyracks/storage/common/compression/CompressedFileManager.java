@@ -0,0 +1,395 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.compression;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.io.IFileHandle;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.api.util.IoUtil;
+
+/**
+ * Maps the logical pages of a compressed file to their location in the file.
+ * Compressed pages have variable sizes, so the offset and length of the latest image of every page are kept in a
+ * look-aside file (LAF) next to the data file. The LAF is a hidden file (its name starts with a '.') so that it is
+ * never mistaken for an index file of its own. It starts with a header holding the codec name and the number of
+ * pages, followed by one fixed size entry per page id, so that only the entries of the pages written since the last
+ * {@link #force()} are written back.
+ * A page image is written to the first free extent of the data file that is large enough, or appended to the file.
+ * The extent of the image it replaces is only reused once the LAF no longer points to it on disk.
+ * Every stored page image starts with the frame size multiplier and the extra block page id of the page, followed
+ * by the compressed page content, or by the raw content if it did not compress.
+ */
+public class CompressedFileManager {
+    public static final String LAF_SUFFIX = ".laf";
+    private static final int LAF_MAGIC = 0x4C414632;
+    private static final int STORED_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+    private static final int INITIAL_NUM_ENTRIES = 64;
+
+    private final IIOManager ioManager;
+    private final FileReference lafRef;
+    private final ICompressorDecompressorFactory factory;
+    private final ICompressorDecompressor compressor;
+    // offset of the number of pages in the LAF, the entries follow it
+    private final int numPagesOffset;
+    private long[] offsets;
+    private int[] lengths;
+    // number of page ids in use, including those of extra page blocks which are stored with their first page
+    private int numPages;
+    private long nextOffset;
+    // free extents of the data file by offset, and extents that become free once the LAF is forced
+    private final TreeMap<Long, Integer> freeExtents = new TreeMap<>();
+    private final List<long[]> pendingFreeExtents = new ArrayList<>();
+    private final BitSet dirtyEntries = new BitSet();
+    private boolean numPagesDirty;
+
+    private CompressedFileManager(IIOManager ioManager, FileReference lafRef, ICompressorDecompressorFactory factory,
+            int numPages, long[] offsets, int[] lengths) {
+        this.ioManager = ioManager;
+        this.lafRef = lafRef;
+        this.factory = factory;
+        this.compressor = factory.createInstance();
+        this.numPagesOffset = Integer.BYTES + Short.BYTES + getNameBytes(factory).length;
+        this.numPages = numPages;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        computeFreeExtents();
+    }
+
+    public static FileReference getLookAsideFileReference(FileReference fileRef) {
+        String path = fileRef.getRelativePath();
+        int nameStart = path.lastIndexOf(File.separatorChar) + 1;
+        return new FileReference(fileRef.getDeviceHandle(),
+                path.substring(0, nameStart) + '.' + path.substring(nameStart) + LAF_SUFFIX);
+    }
+
+    public static File getLookAsideFile(File file) {
+        return new File(file.getParentFile(), '.' + file.getName() + LAF_SUFFIX);
+    }
+
+    /**
+     * Create an empty look-aside file, making {@code fileRef} a compressed file
+     */
+    public static void create(IIOManager ioManager, FileReference fileRef, ICompressorDecompressorFactory factory)
+            throws HyracksDataException {
+        FileReference lafRef = getLookAsideFileReference(fileRef);
+        IoUtil.create(lafRef);
+        byte[] name = getNameBytes(factory);
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + Short.BYTES + name.length + Integer.BYTES);
+        header.putInt(LAF_MAGIC);
+        header.putShort((short) name.length);
+        header.put(name);
+        header.putInt(0);
+        header.flip();
+        IFileHandle handle = ioManager.open(lafRef, IIOManager.FileReadWriteMode.READ_WRITE,
+                IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
+        try {
+            ioManager.syncWrite(handle, 0, header);
+            ioManager.sync(handle, true);
+        } finally {
+            ioManager.close(handle);
+        }
+    }
+
+    /**
+     * @return the manager of the compressed file {@code fileRef}, or null if the file is not compressed
+     */
+    public static CompressedFileManager open(IIOManager ioManager, FileReference fileRef) throws HyracksDataException {
+        FileReference lafRef = getLookAsideFileReference(fileRef);
+        if (!lafRef.getFile().exists()) {
+            return null;
+        }
+        ByteBuffer laf;
+        IFileHandle handle = ioManager.open(lafRef, IIOManager.FileReadWriteMode.READ_ONLY,
+                IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
+        try {
+            laf = ByteBuffer.allocate((int) ioManager.getSize(handle));
+            ioManager.syncRead(handle, 0, laf);
+            laf.flip();
+        } finally {
+            ioManager.close(handle);
+        }
+        if (laf.remaining() < Integer.BYTES || laf.getInt() != LAF_MAGIC) {
+            throw new HyracksDataException("Corrupted look-aside file " + lafRef);
+        }
+        byte[] name = new byte[laf.getShort()];
+        laf.get(name);
+        ICompressorDecompressorFactory factory = CompressionSchemes.get(new String(name, StandardCharsets.UTF_8));
+        int numPages = laf.getInt();
+        int numEntries = laf.remaining() / ENTRY_SIZE;
+        long[] offsets = new long[numEntries];
+        int[] lengths = new int[numEntries];
+        for (int i = 0; i < numEntries; i++) {
+            offsets[i] = laf.getLong();
+            lengths[i] = laf.getInt();
+        }
+        return new CompressedFileManager(ioManager, lafRef, factory, numPages, offsets, lengths);
+    }
+
+    public static void delete(FileReference fileRef) throws HyracksDataException {
+        FileReference lafRef = getLookAsideFileReference(fileRef);
+        if (lafRef.getFile().exists()) {
+            IoUtil.delete(lafRef);
+        }
+    }
+
+    /**
+     * Delete the look-aside file of {@code file}, if it has one
+     */
+    public static void delete(File file) throws HyracksDataException {
+        File laf = getLookAsideFile(file);
+        if (laf.exists()) {
+            IoUtil.delete(laf);
+        }
+    }
+
+    public ICompressorDecompressorFactory getCompressorDecompressorFactory() {
+        return factory;
+    }
+
+    public synchronized int getNumPages() {
+        return numPages;
+    }
+
+    /**
+     * @return the number of bytes of the data file that do not hold the latest image of any page
+     */
+    public synchronized long getFreeSpace() {
+        long free = 0L;
+        for (int length : freeExtents.values()) {
+            free += length;
+        }
+        for (long[] extent : pendingFreeExtents) {
+            free += extent[1];
+        }
+        return free;
+    }
+
+    /**
+     * Compress the page content in {@code page} (from position 0 up to its limit) and write it to the data file.
+     */
+    public void writePage(IFileHandle fileHandle, int pageId, int multiplier, int extraBlockPageId, ByteBuffer page)
+            throws HyracksDataException {
+        int rawLength = page.limit();
+        byte[] raw;
+        if (page.hasArray() && page.arrayOffset() == 0) {
+            raw = page.array();
+        } else {
+            raw = new byte[rawLength];
+            page.duplicate().get(raw);
+        }
+        byte[] stored = new byte[STORED_HEADER_SIZE + compressor.computeCompressedBufferSize(rawLength)];
+        int length = compressor.compress(raw, 0, rawLength, stored, STORED_HEADER_SIZE);
+        if (length >= rawLength) {
+            System.arraycopy(raw, 0, stored, STORED_HEADER_SIZE, rawLength);
+            length = rawLength;
+        }
+        ByteBuffer storedBuffer = ByteBuffer.wrap(stored, 0, STORED_HEADER_SIZE + length);
+        storedBuffer.putInt(0, multiplier);
+        storedBuffer.putInt(Integer.BYTES, extraBlockPageId);
+        long offset = allocate(storedBuffer.remaining());
+        int bytesWritten = ioManager.syncWrite(fileHandle, offset, storedBuffer);
+        if (bytesWritten != STORED_HEADER_SIZE + length) {
+            throw new HyracksDataException("Failed to write completely: " + bytesWritten);
+        }
+        int lastPageId = multiplier > 1 ? Math.max(pageId, extraBlockPageId + multiplier - 2) : pageId;
+        setEntry(pageId, offset, STORED_HEADER_SIZE + length, lastPageId + 1);
+    }
+
+    /**
+     * @return the stored image of the page, to be passed to {@link #uncompress(ByteBuffer, ByteBuffer)}, or null if
+     *         the page was never written
+     */
+    public ByteBuffer readPage(IFileHandle fileHandle, int pageId) throws HyracksDataException {
+        long offset;
+        int length;
+        synchronized (this) {
+            if (pageId >= lengths.length || lengths[pageId] == 0) {
+                return null;
+            }
+            offset = offsets[pageId];
+            length = lengths[pageId];
+        }
+        ByteBuffer stored = ByteBuffer.allocate(length);
+        int bytesRead = ioManager.syncRead(fileHandle, offset, stored);
+        if (bytesRead != length) {
+            throw new HyracksDataException("Failed to read a complete page: " + bytesRead);
+        }
+        stored.flip();
+        return stored;
+    }
+
+    public static int getFrameSizeMultiplier(ByteBuffer stored) {
+        return stored.getInt(0);
+    }
+
+    public static int getExtraBlockPageId(ByteBuffer stored) {
+        return stored.getInt(Integer.BYTES);
+    }
+
+    /**
+     * Restore the page content of a stored image into {@code page}, from position 0 up to its limit.
+     */
+    public void uncompress(ByteBuffer stored, ByteBuffer page) throws HyracksDataException {
+        int rawLength = page.limit();
+        int storedLength = stored.limit() - STORED_HEADER_SIZE;
+        if (storedLength == rawLength) {
+            page.position(0);
+            page.put(stored.array(), STORED_HEADER_SIZE, rawLength);
+            return;
+        }
+        boolean inPlace = page.hasArray() && page.arrayOffset() == 0;
+        byte[] raw = inPlace ? page.array() : new byte[rawLength];
+        int length = compressor.uncompress(stored.array(), STORED_HEADER_SIZE, storedLength, raw, 0, rawLength);
+        if (length != rawLength) {
+            throw new HyracksDataException("Uncompressed page size " + length + " does not match " + rawLength);
+        }
+        if (!inPlace) {
+            page.position(0);
+            page.put(raw, 0, rawLength);
+        }
+    }
+
+    /**
+     * Write the entries of the pages written since the last force to the look-aside file. Once they are durable, the
+     * extents of the page images they replaced can be reused.
+     */
+    public synchronized void force() throws HyracksDataException {
+        if (!numPagesDirty && dirtyEntries.isEmpty()) {
+            return;
+        }
+        IFileHandle handle = ioManager.open(lafRef, IIOManager.FileReadWriteMode.READ_WRITE,
+                IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
+        try {
+            if (numPagesDirty) {
+                ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+                buffer.putInt(0, numPages);
+                ioManager.syncWrite(handle, numPagesOffset, buffer);
+            }
+            // write every run of consecutive dirty entries with a single write
+            for (int start = dirtyEntries.nextSetBit(0); start >= 0; start = dirtyEntries.nextSetBit(start)) {
+                int end = dirtyEntries.nextClearBit(start);
+                ByteBuffer buffer = ByteBuffer.allocate((end - start) * ENTRY_SIZE);
+                for (int i = start; i < end; i++) {
+                    buffer.putLong(offsets[i]);
+                    buffer.putInt(lengths[i]);
+                }
+                buffer.flip();
+                ioManager.syncWrite(handle, numPagesOffset + Integer.BYTES + (long) start * ENTRY_SIZE, buffer);
+                start = end;
+            }
+            ioManager.sync(handle, true);
+        } finally {
+            ioManager.close(handle);
+        }
+        numPagesDirty = false;
+        dirtyEntries.clear();
+        for (long[] extent : pendingFreeExtents) {
+            free(extent[0], (int) extent[1]);
+        }
+        pendingFreeExtents.clear();
+    }
+
+    private synchronized long allocate(int length) {
+        for (Map.Entry<Long, Integer> extent : freeExtents.entrySet()) {
+            if (extent.getValue() >= length) {
+                long offset = extent.getKey();
+                freeExtents.remove(offset);
+                if (extent.getValue() > length) {
+                    freeExtents.put(offset + length, extent.getValue() - length);
+                }
+                return offset;
+            }
+        }
+        long offset = nextOffset;
+        nextOffset += length;
+        return offset;
+    }
+
+    private void free(long offset, int length) {
+        Map.Entry<Long, Integer> before = freeExtents.floorEntry(offset);
+        if (before != null && before.getKey() + before.getValue() == offset) {
+            freeExtents.remove(before.getKey());
+            offset = before.getKey();
+            length += before.getValue();
+        }
+        Integer after = freeExtents.remove(offset + length);
+        if (after != null) {
+            length += after;
+        }
+        if (offset + length == nextOffset) {
+            // the file tail is reused by the next append
+            nextOffset = offset;
+        } else {
+            freeExtents.put(offset, length);
+        }
+    }
+
+    private synchronized void setEntry(int pageId, long offset, int length, int pageCount) {
+        if (pageId >= lengths.length) {
+            int newLength = Math.max(Math.max(INITIAL_NUM_ENTRIES, lengths.length * 2), pageId + 1);
+            offsets = Arrays.copyOf(offsets, newLength);
+            lengths = Arrays.copyOf(lengths, newLength);
+        }
+        if (lengths[pageId] > 0) {
+            pendingFreeExtents.add(new long[] { offsets[pageId], lengths[pageId] });
+        }
+        offsets[pageId] = offset;
+        lengths[pageId] = length;
+        dirtyEntries.set(pageId);
+        if (pageCount > numPages) {
+            numPages = pageCount;
+            numPagesDirty = true;
+        }
+    }
+
+    private void computeFreeExtents() {
+        long[][] extents = new long[lengths.length][];
+        int numExtents = 0;
+        for (int i = 0; i < lengths.length; i++) {
+            if (lengths[i] > 0) {
+                extents[numExtents++] = new long[] { offsets[i], lengths[i] };
+            }
+        }
+        Arrays.sort(extents, 0, numExtents, (a, b) -> Long.compare(a[0], b[0]));
+        long end = 0L;
+        for (int i = 0; i < numExtents; i++) {
+            if (extents[i][0] > end) {
+                freeExtents.put(end, (int) (extents[i][0] - end));
+            }
+            end = Math.max(end, extents[i][0] + extents[i][1]);
+        }
+        nextOffset = end;
+    }
+
+    private static byte[] getNameBytes(ICompressorDecompressorFactory factory) {
+        return factory.getName().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.compression;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * The compression schemes known to the storage layer, by name. The name of the scheme used for a file is persisted
+ * with the file, so schemes may be added but never renamed.
+ */
+public class CompressionSchemes {
+    private static final Map<String, ICompressorDecompressorFactory> SCHEMES;
+
+    static {
+        Map<String, ICompressorDecompressorFactory> schemes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        schemes.put(Lz4CompressorDecompressorFactory.NAME, Lz4CompressorDecompressorFactory.INSTANCE);
+        SCHEMES = Collections.unmodifiableMap(schemes);
+    }
+
+    private CompressionSchemes() {
+    }
+
+    public static boolean isSupported(String name) {
+        return SCHEMES.containsKey(name);
+    }
+
+    public static Set<String> getNames() {
+        return SCHEMES.keySet();
+    }
+
+    public static ICompressorDecompressorFactory get(String name) throws HyracksDataException {
+        ICompressorDecompressorFactory factory = SCHEMES.get(name);
+        if (factory == null) {
+            throw new HyracksDataException("Unknown compression scheme: " + name);
+        }
+        return factory;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.compression;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A self-contained implementation of the LZ4 block format. It uses the single-probe hash table of the LZ4 "fast"
+ * compressor, which trades some compression ratio for speed: index pages compress well enough and the decompressor,
+ * which is on the read path, is a simple copy loop.
+ */
+public class Lz4CompressorDecompressor implements ICompressorDecompressor {
+    public static final Lz4CompressorDecompressor INSTANCE = new Lz4CompressorDecompressor();
+
+    private static final int MIN_MATCH = 4;
+    // the last literals of a block are never encoded as part of a match (format requirement)
+    private static final int LAST_LITERALS = 5;
+    private static final int MATCH_FIND_LIMIT = 12;
+    private static final int MAX_DISTANCE = (1 << 16) - 1;
+    private static final int HASH_LOG = 12;
+    private static final int RUN_MASK = 0x0F;
+
+    private final ThreadLocal<int[]> hashTables = ThreadLocal.withInitial(() -> new int[1 << HASH_LOG]);
+
+    private Lz4CompressorDecompressor() {
+    }
+
+    @Override
+    public int computeCompressedBufferSize(int uncompressedLength) {
+        return uncompressedLength + uncompressedLength / 255 + 16;
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset) {
+        final int srcEnd = srcOffset + srcLength;
+        final int matchFindLimit = srcEnd - MATCH_FIND_LIMIT;
+        final int matchLimit = srcEnd - LAST_LITERALS;
+        int anchor = srcOffset;
+        int op = destOffset;
+        if (srcLength >= MATCH_FIND_LIMIT + 1) {
+            int[] hashTable = hashTables.get();
+            // offsets are stored relative to the start of the input, so stale entries of a previous call are
+            // only a wasted probe: they are range and content checked like any other candidate
+            int ip = srcOffset;
+            hashTable[hash(readInt(src, ip))] = 0;
+            ip++;
+            while (ip < matchFindLimit) {
+                int h = hash(readInt(src, ip));
+                int ref = srcOffset + hashTable[h];
+                hashTable[h] = ip - srcOffset;
+                if (ref >= ip || ip - ref > MAX_DISTANCE || readInt(src, ref) != readInt(src, ip)) {
+                    ip++;
+                    continue;
+                }
+                // extend the match backwards over pending literals
+                while (ip > anchor && ref > srcOffset && src[ip - 1] == src[ref - 1]) {
+                    ip--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH;
+                while (ip + matchLength < matchLimit && src[ref + matchLength] == src[ip + matchLength]) {
+                    matchLength++;
+                }
+                op = writeSequence(src, anchor, ip - anchor, ip - ref, matchLength, dest, op);
+                ip += matchLength;
+                anchor = ip;
+            }
+        }
+        return writeLastLiterals(src, anchor, srcEnd - anchor, dest, op) - destOffset;
+    }
+
+    @Override
+    public int uncompress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset, int destLength)
+            throws HyracksDataException {
+        final int srcEnd = srcOffset + srcLength;
+        final int destEnd = destOffset + destLength;
+        int ip = srcOffset;
+        int op = destOffset;
+        try {
+            while (true) {
+                int token = src[ip++] & 0xFF;
+                int literalLength = token >>> 4;
+                if (literalLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xFF;
+                        literalLength += b;
+                    } while (b == 0xFF);
+                }
+                if (ip + literalLength > srcEnd || op + literalLength > destEnd) {
+                    throw new HyracksDataException("Malformed LZ4 input: literals out of bounds");
+                }
+                System.arraycopy(src, ip, dest, op, literalLength);
+                ip += literalLength;
+                op += literalLength;
+                if (ip == srcEnd) {
+                    return op - destOffset;
+                }
+                int distance = (src[ip] & 0xFF) | ((src[ip + 1] & 0xFF) << 8);
+                ip += 2;
+                int matchLength = token & RUN_MASK;
+                if (matchLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xFF;
+                        matchLength += b;
+                    } while (b == 0xFF);
+                }
+                matchLength += MIN_MATCH;
+                int ref = op - distance;
+                if (distance == 0 || ref < destOffset || op + matchLength > destEnd) {
+                    throw new HyracksDataException("Malformed LZ4 input: match out of bounds");
+                }
+                if (distance >= matchLength) {
+                    System.arraycopy(dest, ref, dest, op, matchLength);
+                    op += matchLength;
+                } else {
+                    // overlapping copy repeats the last distance bytes
+                    for (int i = 0; i < matchLength; i++) {
+                        dest[op++] = dest[ref++];
+                    }
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new HyracksDataException("Malformed LZ4 input: truncated block", e);
+        }
+    }
+
+    private static int writeSequence(byte[] src, int literalOffset, int literalLength, int distance, int matchLength,
+            byte[] dest, int op) {
+        int tokenPos = op++;
+        int token = (Math.min(literalLength, RUN_MASK) << 4) | Math.min(matchLength - MIN_MATCH, RUN_MASK);
+        dest[tokenPos] = (byte) token;
+        op = writeLength(literalLength, dest, op);
+        System.arraycopy(src, literalOffset, dest, op, literalLength);
+        op += literalLength;
+        dest[op++] = (byte) distance;
+        dest[op++] = (byte) (distance >>> 8);
+        return writeLength(matchLength - MIN_MATCH, dest, op);
+    }
+
+    private static int writeLastLiterals(byte[] src, int literalOffset, int literalLength, byte[] dest, int op) {
+        dest[op++] = (byte) (Math.min(literalLength, RUN_MASK) << 4);
+        op = writeLength(literalLength, dest, op);
+        System.arraycopy(src, literalOffset, dest, op, literalLength);
+        return op + literalLength;
+    }
+
+    private static int writeLength(int length, byte[] dest, int op) {
+        if (length >= RUN_MASK) {
+            int remaining = length - RUN_MASK;
+            while (remaining >= 0xFF) {
+                dest[op++] = (byte) 0xFF;
+                remaining -= 0xFF;
+            }
+            dest[op++] = (byte) remaining;
+        }
+        return op;
+    }
+
+    private static int readInt(byte[] b, int offset) {
+        return (b[offset] & 0xFF) | ((b[offset + 1] & 0xFF) << 8) | ((b[offset + 2] & 0xFF) << 16)
+                | ((b[offset + 3] & 0xFF) << 24);
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+}
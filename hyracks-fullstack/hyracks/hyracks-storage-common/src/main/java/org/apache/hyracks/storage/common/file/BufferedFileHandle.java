@@ -21,15 +21,25 @@ package org.apache.hyracks.storage.common.file;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hyracks.api.io.IFileHandle;
+import org.apache.hyracks.storage.common.buffercache.BufferCachePartition;
+import org.apache.hyracks.storage.common.compression.CompressedFileManager;
 
 public class BufferedFileHandle {
     private final int fileId;
     private IFileHandle handle;
     private final AtomicInteger refCount;
+    private final CompressedFileManager compressedFileManager;
+    private volatile MappedFile mappedFile;
+    private volatile BufferCachePartition cachePartition;
 
     public BufferedFileHandle(int fileId, IFileHandle handle) {
+        this(fileId, handle, null);
+    }
+
+    public BufferedFileHandle(int fileId, IFileHandle handle, CompressedFileManager compressedFileManager) {
         this.fileId = fileId;
         this.handle = handle;
+        this.compressedFileManager = compressedFileManager;
         refCount = new AtomicInteger();
     }
 
@@ -41,6 +51,39 @@ public class BufferedFileHandle {
         return handle;
     }
 
+    /**
+     * @return the page map of a compressed file, or null if the file is not compressed
+     */
+    public CompressedFileManager getCompressedFileManager() {
+        return compressedFileManager;
+    }
+
+    public boolean isCompressed() {
+        return compressedFileManager != null;
+    }
+
+    /**
+     * @return the read-only mapping used to read the file, or null if the file is read through its handle
+     */
+    public MappedFile getMappedFile() {
+        return mappedFile;
+    }
+
+    public void setMappedFile(MappedFile mappedFile) {
+        this.mappedFile = mappedFile;
+    }
+
+    /**
+     * @return the buffer cache partition the pages of the file are accounted to, or null
+     */
+    public BufferCachePartition getCachePartition() {
+        return cachePartition;
+    }
+
+    public void setCachePartition(BufferCachePartition cachePartition) {
+        this.cachePartition = cachePartition;
+    }
+
     public void markAsDeleted() {
         handle = null;
     }
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.file;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.hyracks.api.exceptions.ErrorCode;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IFileHandle;
+import org.apache.hyracks.api.io.IIOManager;
+
+/**
+ * A read-only memory mapping of a file, used by the buffer cache to serve misses with a memory copy instead of a read
+ * system call. Pages are still copied into the heap buffers of the cache, this saves the system call and not the copy;
+ * the cache evicts them first once they are unpinned, so that they are not cached twice.
+ * The file is mapped in regions of at most {@link #REGION_SIZE} bytes since a single mapping is limited to 2GB. Writes
+ * keep going through the file channel; they are visible through the mapping since both share the operating system
+ * page cache. When a read goes past the mapped part of the file, the mapping is extended to the current file size.
+ * The regions are unmapped by {@link #close()}; reads hold a shared lock so that no copy is in flight at that point.
+ */
+public class MappedFile {
+    static final int REGION_SIZE = 1 << 30;
+
+    private final IIOManager ioManager;
+    private final IFileHandle handle;
+    private final int regionSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private ByteBuffer[] regions;
+    private long mappedSize;
+    private boolean closed;
+
+    public MappedFile(IIOManager ioManager, IFileHandle handle) throws HyracksDataException {
+        this(ioManager, handle, REGION_SIZE);
+    }
+
+    MappedFile(IIOManager ioManager, IFileHandle handle, int regionSize) throws HyracksDataException {
+        this.ioManager = ioManager;
+        this.handle = handle;
+        this.regionSize = regionSize;
+        regions = new ByteBuffer[0];
+        remap();
+    }
+
+    /**
+     * Copy the file content starting at the given offset into the remaining space of the destination buffer.
+     * Follows the contract of {@link IIOManager#syncRead(IFileHandle, long, ByteBuffer)}.
+     *
+     * @return the number of bytes copied, or -1 if the offset is at or beyond the end of the file
+     * @throws HyracksDataException
+     */
+    public int read(long offset, ByteBuffer dest) throws HyracksDataException {
+        lock.readLock().lock();
+        try {
+            if (offset + dest.remaining() > mappedSize) {
+                lock.readLock().unlock();
+                try {
+                    remap();
+                } finally {
+                    lock.readLock().lock();
+                }
+            }
+            if (closed) {
+                throw HyracksDataException.create(ErrorCode.CANNOT_READ_CLOSED_FILE, handle.getFileReference());
+            }
+            if (offset >= mappedSize) {
+                return -1;
+            }
+            int n = (int) Math.min(dest.remaining(), mappedSize - offset);
+            int copied = 0;
+            while (copied < n) {
+                long position = offset + copied;
+                ByteBuffer region = regions[(int) (position / regionSize)].duplicate();
+                region.position((int) (position % regionSize));
+                int len = Math.min(n - copied, region.remaining());
+                region.limit(region.position() + len);
+                dest.put(region);
+                copied += len;
+            }
+            return n;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void remap() throws HyracksDataException {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            long size = ioManager.getSize(handle);
+            if (size <= mappedSize) {
+                return;
+            }
+            int numRegions = (int) ((size + regionSize - 1) / regionSize);
+            ByteBuffer[] newRegions = Arrays.copyOf(regions, numRegions);
+            // the last region may have been mapped partially while the file was smaller, map it again along with
+            // the new ones
+            int firstRemapped = (int) (mappedSize / regionSize);
+            for (int i = firstRemapped; i < numRegions; i++) {
+                long start = (long) i * regionSize;
+                newRegions[i] = ioManager.mapForRead(handle, start, Math.min(regionSize, size - start));
+            }
+            if (firstRemapped < regions.length) {
+                ioManager.unmap(regions[firstRemapped]);
+            }
+            regions = newRegions;
+            mappedSize = size;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Unmap the file. Must be called before the file handle is closed; reads fail from then on.
+     */
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (ByteBuffer region : regions) {
+                ioManager.unmap(region);
+            }
+            regions = new ByteBuffer[0];
+            mappedSize = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long getMappedSize() {
+        lock.readLock().lock();
+        try {
+            return mappedSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
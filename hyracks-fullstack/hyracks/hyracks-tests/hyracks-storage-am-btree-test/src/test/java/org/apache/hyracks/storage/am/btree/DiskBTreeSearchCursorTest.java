@@ -25,7 +25,9 @@ import java.io.DataInputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
@@ -39,18 +41,25 @@ import org.apache.hyracks.storage.am.btree.api.IBTreeInteriorFrame;
 import org.apache.hyracks.storage.am.btree.api.IBTreeLeafFrame;
 import org.apache.hyracks.storage.am.btree.frames.BTreeNSMInteriorFrameFactory;
 import org.apache.hyracks.storage.am.btree.frames.BTreeNSMLeafFrameFactory;
+import org.apache.hyracks.storage.am.btree.frames.BTreeTruncatedInteriorFrameFactory;
 import org.apache.hyracks.storage.am.btree.impls.BTree;
 import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeAccessor;
 import org.apache.hyracks.storage.am.btree.impls.DiskBTree;
+import org.apache.hyracks.storage.am.btree.impls.DiskBTreeRangeSearchCursor;
 import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.btree.impls.TupleSynopsisFieldsExtractorFactory;
 import org.apache.hyracks.storage.am.common.TestOperationCallback;
 import org.apache.hyracks.storage.am.common.api.IMetadataPageManager;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexFrameFactory;
+import org.apache.hyracks.storage.am.common.freepage.AppendOnlyLinkedMetadataPageManager;
 import org.apache.hyracks.storage.am.common.freepage.LinkedMetaDataPageManager;
 import org.apache.hyracks.storage.am.common.impls.IndexAccessParameters;
 import org.apache.hyracks.storage.common.IIndexBulkLoader;
 import org.apache.hyracks.storage.common.IIndexCursor;
+import org.apache.hyracks.storage.common.MultiComparator;
+import org.apache.hyracks.storage.common.buffercache.DebugBufferCache;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.IReadAheadRequest;
 import org.junit.Assert;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
@@ -86,6 +95,246 @@ public class DiskBTreeSearchCursorTest extends BTreeSearchCursorTest {
         batchPointLookupTest(100, 200, -1000, 1000);
     }
 
+    @Test
+    public void leafSkippingTest() throws Exception {
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("TESTING RANGE CURSOR WITH LEAF SYNOPSES ON MULTI-LEVEL INDEX");
+        }
+        IBufferCache bufferCache = harness.getBufferCache();
+        IBinaryComparatorFactory[] cmpFactories =
+                new IBinaryComparatorFactory[] { PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY) };
+        ITreeIndexFrameFactory leafFrameFactory = new BTreeNSMLeafFrameFactory(tupleWriterFactory);
+        ITreeIndexFrameFactory interiorFrameFactory = new BTreeNSMInteriorFrameFactory(tupleWriterFactory);
+        IMetadataPageManager freePageManager = new AppendOnlyLinkedMetadataPageManager(bufferCache, metaFrameFactory);
+
+        // the synopses are kept on the second field, which is the position of the key in the sorted keys
+        DiskBTree btree = new DiskBTree(bufferCache, freePageManager, interiorFrameFactory, leafFrameFactory,
+                cmpFactories, fieldCount, harness.getFileReference(), null,
+                new TupleSynopsisFieldsExtractorFactory(new int[] { 1 }), cmpFactories);
+        btree.create();
+        btree.activate();
+
+        TreeSet<Integer> uniqueKeys = new TreeSet<>();
+        while (uniqueKeys.size() < 10000) {
+            uniqueKeys.add(rnd.nextInt() % 20000);
+        }
+        ArrayList<Integer> keys = new ArrayList<>(uniqueKeys);
+        insertBTree(keys, btree);
+        Assert.assertNotNull(btree.getLeafSynopses());
+
+        // a full scan and a scan starting in a leaf that is out of the filter bounds
+        Assert.assertTrue(performLeafSkippingScan(btree, null, 4000, 4100) > 0);
+        Assert.assertTrue(performLeafSkippingScan(btree, keys.get(100), 4000, 4100) > 0);
+        // nothing is skipped without filter bounds
+        Assert.assertEquals(0, performLeafSkippingScan(btree, null, null, null));
+
+        btree.deactivate();
+        btree.destroy();
+    }
+
+    @Test
+    public void readAheadCancelledOnCloseTest() throws Exception {
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("TESTING READ-AHEAD CANCELLATION WHEN CLOSING A RANGE CURSOR");
+        }
+        AtomicInteger pendingReadAheads = new AtomicInteger();
+        IBufferCache bufferCache = new DebugBufferCache(harness.getBufferCache()) {
+            @Override
+            public IReadAheadRequest readAhead(int fileId, int startPageId, int numPages) {
+                IReadAheadRequest request = super.readAhead(fileId, startPageId, numPages);
+                pendingReadAheads.incrementAndGet();
+                return () -> {
+                    request.cancel();
+                    pendingReadAheads.decrementAndGet();
+                };
+            }
+        };
+        IBinaryComparatorFactory[] cmpFactories =
+                new IBinaryComparatorFactory[] { PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY) };
+        ITreeIndexFrameFactory leafFrameFactory = new BTreeNSMLeafFrameFactory(tupleWriterFactory);
+        ITreeIndexFrameFactory interiorFrameFactory = new BTreeNSMInteriorFrameFactory(tupleWriterFactory);
+        IMetadataPageManager freePageManager = new AppendOnlyLinkedMetadataPageManager(bufferCache, metaFrameFactory);
+        DiskBTree btree = new DiskBTree(bufferCache, freePageManager, interiorFrameFactory, leafFrameFactory,
+                cmpFactories, fieldCount, harness.getFileReference());
+        btree.create();
+        btree.activate();
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            keys.add(i);
+        }
+        insertBTree(keys, btree);
+
+        MultiComparator searchCmp = MultiComparator.create(cmpFactories);
+        RangePredicate rangePred = new RangePredicate(null, null, true, true, searchCmp, searchCmp);
+        BTreeAccessor indexAccessor = btree.createAccessor(
+                new IndexAccessParameters(TestOperationCallback.INSTANCE, TestOperationCallback.INSTANCE));
+        IIndexCursor cursor = indexAccessor.createSearchCursor(false);
+        // the cursor is closed in the middle of a scan, then reused for another search, like LSM cursors do
+        for (int round = 0; round < 2; round++) {
+            indexAccessor.search(cursor, rangePred);
+            for (int i = 0; i < keys.size() / 2 && cursor.hasNext(); i++) {
+                cursor.next();
+            }
+            Assert.assertTrue(pendingReadAheads.get() > 0);
+            cursor.close();
+            Assert.assertEquals(0, pendingReadAheads.get());
+        }
+        cursor.destroy();
+
+        btree.deactivate();
+        btree.destroy();
+    }
+
+    @Test
+    public void truncatedInteriorKeysTest() throws Exception {
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("TESTING RANGE AND POINT CURSORS WITH TRUNCATED INTERIOR KEYS ON MULTI-LEVEL INDEX");
+        }
+        IBufferCache bufferCache = harness.getBufferCache();
+        // both fields are key fields, so that the separators can be cut after the first one
+        IBinaryComparatorFactory[] cmpFactories =
+                new IBinaryComparatorFactory[] { PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY),
+                        PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY) };
+        ITreeIndexFrameFactory leafFrameFactory = new BTreeNSMLeafFrameFactory(tupleWriterFactory);
+        ITreeIndexFrameFactory interiorFrameFactory = new BTreeTruncatedInteriorFrameFactory(tupleWriterFactory);
+        IMetadataPageManager freePageManager = new LinkedMetaDataPageManager(bufferCache, metaFrameFactory);
+        DiskBTree btree = new DiskBTree(bufferCache, freePageManager, interiorFrameFactory, leafFrameFactory,
+                cmpFactories, fieldCount, harness.getFileReference());
+        btree.create();
+        btree.activate();
+
+        // many keys share their first field, some leaves start with a new first field and some do not
+        TreeSet<Long> uniqueKeys = new TreeSet<>();
+        while (uniqueKeys.size() < 10000) {
+            uniqueKeys.add(((long) rnd.nextInt(2000) << 32) | rnd.nextInt(20));
+        }
+        ArrayList<Long> keys = new ArrayList<>(uniqueKeys);
+        IIndexBulkLoader bulkloader = btree.createBulkLoader(1, true, 0, true);
+        for (Long key : keys) {
+            bulkloader.add(TupleUtils.createIntegerTuple(false, (int) (key >> 32), key.intValue()));
+        }
+        bulkloader.end();
+
+        BTreeAccessor indexAccessor = btree.createAccessor(
+                new IndexAccessParameters(TestOperationCallback.INSTANCE, TestOperationCallback.INSTANCE));
+        for (int i = -10; i < 2010; i += 7) {
+            // search keys with one and with two fields
+            assertRangeSearch(indexAccessor, keys, new int[] { i }, new int[] { i + 3 }, true, true);
+            assertRangeSearch(indexAccessor, keys, new int[] { i }, new int[] { i + 3 }, false, false);
+            assertRangeSearch(indexAccessor, keys, new int[] { i, 10 }, new int[] { i + 2, 5 }, true, false);
+            assertRangeSearch(indexAccessor, keys, new int[] { i, 10 }, new int[] { i + 2, 5 }, false, true);
+        }
+
+        // consecutive point lookups start from the pages of the previous one
+        IIndexCursor pointCursor = indexAccessor.createPointCursor(false);
+        try {
+            for (int i = -5; i < 2005; i++) {
+                for (int j = 0; j < 20; j += 3) {
+                    RangePredicate pred =
+                            createCompositeRangePredicate(new int[] { i, j }, new int[] { i, j }, true, true);
+                    indexAccessor.search(pointCursor, pred);
+                    boolean found = pointCursor.hasNext();
+                    Assert.assertEquals(uniqueKeys.contains(((long) i << 32) | j), found);
+                    if (found) {
+                        pointCursor.next();
+                        ITupleReference tuple = pointCursor.getTuple();
+                        Assert.assertEquals(i,
+                                IntegerPointable.getInteger(tuple.getFieldData(0), tuple.getFieldStart(0)));
+                        Assert.assertEquals(j,
+                                IntegerPointable.getInteger(tuple.getFieldData(1), tuple.getFieldStart(1)));
+                    }
+                }
+            }
+        } finally {
+            pointCursor.close();
+        }
+
+        btree.deactivate();
+        btree.destroy();
+    }
+
+    private void assertRangeSearch(BTreeAccessor indexAccessor, List<Long> keys, int[] lowKey, int[] highKey,
+            boolean lowKeyInclusive, boolean highKeyInclusive) throws Exception {
+        List<Long> expected = new ArrayList<>();
+        for (Long key : keys) {
+            int lowCmp = compareComposite(key, lowKey);
+            int highCmp = compareComposite(key, highKey);
+            if ((lowKeyInclusive ? lowCmp >= 0 : lowCmp > 0) && (highKeyInclusive ? highCmp <= 0 : highCmp < 0)) {
+                expected.add(key);
+            }
+        }
+        List<Long> results = new ArrayList<>();
+        IIndexCursor cursor = indexAccessor.createSearchCursor(false);
+        try {
+            indexAccessor.search(cursor,
+                    createCompositeRangePredicate(lowKey, highKey, lowKeyInclusive, highKeyInclusive));
+            while (cursor.hasNext()) {
+                cursor.next();
+                ITupleReference tuple = cursor.getTuple();
+                results.add(((long) IntegerPointable.getInteger(tuple.getFieldData(0), tuple.getFieldStart(0)) << 32)
+                        | IntegerPointable.getInteger(tuple.getFieldData(1), tuple.getFieldStart(1)));
+            }
+        } finally {
+            cursor.close();
+        }
+        Assert.assertEquals(expected, results);
+    }
+
+    private static int compareComposite(long key, int[] searchKey) {
+        int c = Integer.compare((int) (key >> 32), searchKey[0]);
+        return c != 0 || searchKey.length == 1 ? c : Integer.compare((int) key, searchKey[1]);
+    }
+
+    private static RangePredicate createCompositeRangePredicate(int[] lowKey, int[] highKey, boolean lowKeyInclusive,
+            boolean highKeyInclusive) throws HyracksDataException {
+        return new RangePredicate(TupleUtils.createIntegerTuple(false, lowKey),
+                TupleUtils.createIntegerTuple(false, highKey), lowKeyInclusive, highKeyInclusive,
+                createSearchComparator(lowKey.length), createSearchComparator(highKey.length));
+    }
+
+    private static MultiComparator createSearchComparator(int numFields) {
+        IBinaryComparator[] cmps = new IBinaryComparator[numFields];
+        for (int i = 0; i < numFields; i++) {
+            cmps[i] = PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY).createBinaryComparator();
+        }
+        return new MultiComparator(cmps);
+    }
+
+    private long performLeafSkippingScan(DiskBTree btree, Integer lowKey, Integer minValue, Integer maxValue)
+            throws Exception {
+        IBinaryComparator[] searchCmps = new IBinaryComparator[] {
+                PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY).createBinaryComparator() };
+        MultiComparator searchCmp = new MultiComparator(searchCmps);
+        RangePredicate rangePred = new RangePredicate(
+                lowKey == null ? null : TupleUtils.createIntegerTuple(false, lowKey), null, true, true, searchCmp,
+                searchCmp, minValue == null ? null : TupleUtils.createIntegerTuple(false, minValue),
+                maxValue == null ? null : TupleUtils.createIntegerTuple(false, maxValue));
+        BTreeAccessor indexAccessor = btree.createAccessor(
+                new IndexAccessParameters(TestOperationCallback.INSTANCE, TestOperationCallback.INSTANCE));
+        DiskBTreeRangeSearchCursor cursor = (DiskBTreeRangeSearchCursor) indexAccessor.createSearchCursor(false);
+        cursor.setLeafSkippingEnabled(true);
+        int qualifying = 0;
+        try {
+            indexAccessor.search(cursor, rangePred);
+            while (cursor.hasNext()) {
+                cursor.next();
+                ITupleReference tuple = cursor.getTuple();
+                int key = IntegerPointable.getInteger(tuple.getFieldData(0), tuple.getFieldStart(0));
+                int value = IntegerPointable.getInteger(tuple.getFieldData(1), tuple.getFieldStart(1));
+                Assert.assertTrue(lowKey == null || key >= lowKey);
+                if ((minValue == null || value >= minValue) && (maxValue == null || value <= maxValue)) {
+                    qualifying++;
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        // every tuple within the bounds is found
+        int expected = (maxValue == null ? 9999 : maxValue) - (minValue == null ? 0 : minValue) + 1;
+        Assert.assertEquals(expected, qualifying);
+        return cursor.getSkippedLeaves();
+    }
+
     private void batchPointLookupTest(int numKeys, int maxKey, int minSearchKey, int maxSearchKey) throws Exception {
 
         IBufferCache bufferCache = harness.getBufferCache();
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.btree.perf;
+
+import java.util.Random;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.data.std.primitive.UTF8StringPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.storage.am.btree.frames.BTreeNSMInteriorFrameFactory;
+import org.apache.hyracks.storage.am.btree.frames.BTreeNSMLeafFrameFactory;
+import org.apache.hyracks.storage.am.btree.frames.BTreeTruncatedInteriorFrameFactory;
+import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeAccessor;
+import org.apache.hyracks.storage.am.btree.impls.DiskBTree;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.btree.tuples.BTreeTypeAwareTupleWriterFactory;
+import org.apache.hyracks.storage.am.common.TestOperationCallback;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexFrame;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexFrameFactory;
+import org.apache.hyracks.storage.am.common.freepage.LinkedMetaDataPageManager;
+import org.apache.hyracks.storage.am.common.frames.LIFOMetaDataFrameFactory;
+import org.apache.hyracks.storage.am.common.impls.IndexAccessParameters;
+import org.apache.hyracks.storage.common.IIndexBulkLoader;
+import org.apache.hyracks.storage.common.IIndexCursor;
+import org.apache.hyracks.storage.common.MultiComparator;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.test.support.TestStorageManagerComponentHolder;
+import org.apache.hyracks.test.support.TestUtils;
+
+/**
+ * Compares disk B-trees whose interior pages hold whole keys with disk B-trees whose interior pages hold truncated,
+ * prefix compressed separators. The keys are long strings sharing most of their bytes, followed by an integer, as
+ * in an index on (url, version).
+ */
+public class DiskBTreeInteriorKeyPerf {
+    private static final int PAGE_SIZE = 4096;
+    private static final int NUM_PAGES = 32768;
+    private static final int MAX_OPEN_FILES = 10;
+    private static final int NUM_KEYS = 1000000;
+    private static final int VERSIONS_PER_URL = 4;
+    private static final int NUM_LOOKUPS = 200000;
+    private static final String URL_PREFIX = "https://www.example.org/catalog/products/category/subcategory/item-";
+    private static final UTF8StringSerializerDeserializer STRING_SERDE = new UTF8StringSerializerDeserializer();
+
+    public static void main(String[] args) throws Exception {
+        IHyracksTaskContext ctx = TestUtils.create(PAGE_SIZE);
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        IBufferCache bufferCache =
+                TestStorageManagerComponentHolder.getBufferCache(ctx.getJobletContext().getServiceContext());
+        IIOManager ioManager = TestStorageManagerComponentHolder.getIOManager();
+        ITypeTraits[] typeTraits = new ITypeTraits[] { UTF8StringPointable.TYPE_TRAITS, IntegerPointable.TYPE_TRAITS };
+        BTreeTypeAwareTupleWriterFactory tupleWriterFactory = new BTreeTypeAwareTupleWriterFactory(typeTraits, false);
+        ITreeIndexFrameFactory[] interiorFrameFactories =
+                new ITreeIndexFrameFactory[] { new BTreeNSMInteriorFrameFactory(tupleWriterFactory),
+                        new BTreeTruncatedInteriorFrameFactory(tupleWriterFactory) };
+        IBinaryComparatorFactory[] cmpFactories =
+                new IBinaryComparatorFactory[] { PointableBinaryComparatorFactory.of(UTF8StringPointable.FACTORY),
+                        PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY) };
+        for (ITreeIndexFrameFactory interiorFrameFactory : interiorFrameFactories) {
+            DiskBTree btree = new DiskBTree(bufferCache,
+                    new LinkedMetaDataPageManager(bufferCache, new LIFOMetaDataFrameFactory()), interiorFrameFactory,
+                    new BTreeNSMLeafFrameFactory(tupleWriterFactory), cmpFactories, typeTraits.length,
+                    ioManager.resolve("interiorkeyperf-" + System.nanoTime()));
+            btree.create();
+            btree.activate();
+            try {
+                load(btree);
+                // warm-up round, then the measured round
+                runLookups(btree, cmpFactories);
+                long nanos = runLookups(btree, cmpFactories);
+                System.out.println("INTERIOR FRAME: " + interiorFrameFactory.getClass().getSimpleName() + " HEIGHT: "
+                        + getHeight(btree, bufferCache, interiorFrameFactory.createFrame()) + " LOOKUP NS: "
+                        + (nanos / NUM_LOOKUPS));
+            } finally {
+                btree.deactivate();
+                btree.destroy();
+            }
+        }
+        bufferCache.close();
+    }
+
+    private static void load(DiskBTree btree) throws Exception {
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(2);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        IIndexBulkLoader bulkLoader = btree.createBulkLoader(1.0f, false, NUM_KEYS, true);
+        for (int i = 0; i < NUM_KEYS; i++) {
+            setKey(tupleBuilder, tuple, i);
+            bulkLoader.add(tuple);
+        }
+        bulkLoader.end();
+    }
+
+    private static long runLookups(DiskBTree btree, IBinaryComparatorFactory[] cmpFactories) throws Exception {
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(2);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        MultiComparator cmp = MultiComparator.create(cmpFactories);
+        RangePredicate pred = new RangePredicate(tuple, tuple, true, true, cmp, cmp);
+        BTreeAccessor accessor = btree.createAccessor(
+                new IndexAccessParameters(TestOperationCallback.INSTANCE, TestOperationCallback.INSTANCE));
+        IIndexCursor cursor = accessor.createSearchCursor(false);
+        Random rnd = new Random(0);
+        long start = System.nanoTime();
+        for (int i = 0; i < NUM_LOOKUPS; i++) {
+            setKey(tupleBuilder, tuple, rnd.nextInt(NUM_KEYS));
+            accessor.search(cursor, pred);
+            try {
+                if (!cursor.hasNext()) {
+                    throw new IllegalStateException("key not found");
+                }
+                cursor.next();
+            } finally {
+                cursor.close();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void setKey(ArrayTupleBuilder tupleBuilder, ArrayTupleReference tuple, int i) throws Exception {
+        tupleBuilder.reset();
+        tupleBuilder.addField(STRING_SERDE, URL_PREFIX + String.format("%09d", i / VERSIONS_PER_URL));
+        tupleBuilder.addField(IntegerSerializerDeserializer.INSTANCE, i % VERSIONS_PER_URL);
+        tuple.reset(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray());
+    }
+
+    private static int getHeight(DiskBTree btree, IBufferCache bufferCache, ITreeIndexFrame frame) throws Exception {
+        ICachedPage root =
+                bufferCache.pin(BufferedFileHandle.getDiskPageId(btree.getFileId(), btree.getRootPageId()), false);
+        try {
+            frame.setPage(root);
+            return frame.getLevel() + 1;
+        } finally {
+            bufferCache.unpin(root);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree;
+
+import java.util.TreeMap;
+
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+import org.apache.hyracks.storage.am.btree.impls.BatchPredicate;
+import org.apache.hyracks.storage.am.common.impls.NoOpIndexAccessParameters;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTree;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTreeBatchPointSearchCursor;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestContext;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestHarness;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndex;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.common.MultiComparator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("rawtypes")
+public class LSMBTreeBatchPointSearchCursorTest {
+    private static final int NUM_KEYS = 3000;
+    private static final int FRAME_SIZE = 32 * 1024;
+
+    private final LSMBTreeTestHarness harness = new LSMBTreeTestHarness();
+    private final ISerializerDeserializer[] fieldSerdes =
+            { IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE };
+
+    @Before
+    public void setUp() throws HyracksDataException {
+        harness.setUp();
+    }
+
+    @After
+    public void tearDown() throws HyracksDataException {
+        harness.tearDown();
+    }
+
+    @Test
+    public void batchPointSearch() throws Exception {
+        LSMBTreeTestContext ctx = LSMBTreeTestContext.create(harness.getIOManager(), harness.getVirtualBufferCaches(),
+                harness.getFileReference(), harness.getDiskBufferCache(), fieldSerdes, 1,
+                harness.getBoomFilterFalsePositiveRate(), harness.getMergePolicy(), harness.getOperationTracker(),
+                harness.getIOScheduler(), harness.getIOOperationCallbackFactory(),
+                harness.getMetadataPageManagerFactory(), false, true, false);
+        ctx.getIndex().create();
+        ctx.getIndex().activate();
+        // the test context's search callback never lets a search proceed, use one that does
+        ILSMIndexAccessor accessor = ((LSMBTree) ctx.getIndex()).createAccessor(NoOpIndexAccessParameters.INSTANCE);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+
+        // an older disk component with the even keys
+        for (int key = 0; key < NUM_KEYS; key += 2) {
+            upsert(accessor, expected, key, key);
+        }
+        accessor.scheduleFlush(((ILSMIndex) ctx.getIndex()).getIOOperationCallback());
+        // a newer disk component that updates the multiples of 3 and deletes the multiples of 10
+        for (int key = 0; key < NUM_KEYS; key += 3) {
+            upsert(accessor, expected, key, -key);
+        }
+        for (int key = 0; key < NUM_KEYS; key += 10) {
+            accessor.delete(TupleUtils.createIntegerTuple(false, key));
+            expected.remove(key);
+        }
+        accessor.scheduleFlush(((ILSMIndex) ctx.getIndex()).getIOOperationCallback());
+        // the memory component updates the multiples of 7
+        for (int key = 0; key < NUM_KEYS; key += 7) {
+            upsert(accessor, expected, key, 7);
+        }
+
+        VSizeFrame frame = new VSizeFrame(harness.getHyracksTastContext(), FRAME_SIZE);
+        FrameTupleAppender appender = new FrameTupleAppender(frame, true);
+        FrameTupleAccessor frameAccessor =
+                new FrameTupleAccessor(new RecordDescriptor(new ISerializerDeserializer[] { fieldSerdes[0] }));
+        MultiComparator keyCmp = MultiComparator.create(((LSMBTree) ctx.getIndex()).getComparatorFactories());
+        BatchPredicate predicate = new BatchPredicate(new int[] { 0 }, keyCmp);
+        LSMBTreeBatchPointSearchCursor cursor =
+                (LSMBTreeBatchPointSearchCursor) accessor.createBatchPointSearchCursor();
+        int numFound = 0;
+        int key = -1;
+        while (key < NUM_KEYS) {
+            // a batch of sorted keys, including absent ones
+            while (key < NUM_KEYS && appender.append(TupleUtils.createIntegerTuple(false, key))) {
+                key++;
+            }
+            frameAccessor.reset(appender.getBuffer());
+            predicate.reset(frameAccessor);
+            accessor.search(cursor, predicate);
+            try {
+                while (cursor.hasNext()) {
+                    cursor.next();
+                    ITupleReference tuple = cursor.getTuple();
+                    int foundKey = IntegerPointable.getInteger(tuple.getFieldData(0), tuple.getFieldStart(0));
+                    int searchKey = IntegerPointable.getInteger(frameAccessor.getBuffer().array(),
+                            frameAccessor.getAbsoluteFieldStartOffset(cursor.getKeyIndex(), 0));
+                    Assert.assertEquals(searchKey, foundKey);
+                    Assert.assertEquals(expected.get(foundKey).intValue(),
+                            IntegerPointable.getInteger(tuple.getFieldData(1), tuple.getFieldStart(1)));
+                    numFound++;
+                }
+            } finally {
+                cursor.close();
+            }
+            appender.reset(frame, true);
+        }
+        Assert.assertEquals(expected.size(), numFound);
+
+        ctx.getIndex().deactivate();
+        ctx.getIndex().destroy();
+    }
+
+    private static void upsert(ILSMIndexAccessor accessor, TreeMap<Integer, Integer> expected, int key, int value)
+            throws HyracksDataException {
+        accessor.upsert(TupleUtils.createIntegerTuple(false, key, value));
+        expected.put(key, value);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree;
+
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.exceptions.ErrorCode;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+import org.apache.hyracks.storage.am.common.impls.NoOpIndexAccessParameters;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTree;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTreeOpContext;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestContext;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestHarness;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndex;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("rawtypes")
+public class LSMBTreeDiskDuplicateCheckTest {
+    private static final int NUM_KEYS = 100;
+
+    private final LSMBTreeTestHarness harness = new LSMBTreeTestHarness();
+    private final ISerializerDeserializer[] fieldSerdes =
+            { IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE };
+
+    @Before
+    public void setUp() throws HyracksDataException {
+        harness.setUp();
+    }
+
+    @After
+    public void tearDown() throws HyracksDataException {
+        harness.tearDown();
+    }
+
+    @Test
+    public void insertWithoutDiskDuplicateCheck() throws Exception {
+        LSMBTreeTestContext ctx = LSMBTreeTestContext.create(harness.getIOManager(), harness.getVirtualBufferCaches(),
+                harness.getFileReference(), harness.getDiskBufferCache(), fieldSerdes, 1,
+                harness.getBoomFilterFalsePositiveRate(), harness.getMergePolicy(), harness.getOperationTracker(),
+                harness.getIOScheduler(), harness.getIOOperationCallbackFactory(),
+                harness.getMetadataPageManagerFactory(), false, true, false);
+        ctx.getIndex().create();
+        ctx.getIndex().activate();
+        ILSMIndexAccessor accessor = ((LSMBTree) ctx.getIndex()).createAccessor(NoOpIndexAccessParameters.INSTANCE);
+        LSMBTreeOpContext opCtx = (LSMBTreeOpContext) accessor.getOpContext();
+        for (int key = 0; key < NUM_KEYS; key++) {
+            accessor.insert(TupleUtils.createIntegerTuple(false, key, key));
+        }
+        accessor.scheduleFlush(((ILSMIndex) ctx.getIndex()).getIOOperationCallback());
+
+        // the disk component is checked by default
+        assertDuplicate(accessor, 0);
+        // a caller that knows the key is new skips the disk components, the memory component is still checked
+        opCtx.setDiskDuplicateCheck(false);
+        accessor.insert(TupleUtils.createIntegerTuple(false, NUM_KEYS, NUM_KEYS));
+        assertDuplicate(accessor, NUM_KEYS);
+        opCtx.setDiskDuplicateCheck(true);
+        assertDuplicate(accessor, NUM_KEYS - 1);
+
+        ctx.getIndex().deactivate();
+        ctx.getIndex().destroy();
+    }
+
+    private static void assertDuplicate(ILSMIndexAccessor accessor, int key) throws HyracksDataException {
+        try {
+            accessor.insert(TupleUtils.createIntegerTuple(false, key, key));
+            Assert.fail("inserted a duplicate of key " + key);
+        } catch (HyracksDataException e) {
+            Assert.assertEquals(ErrorCode.DUPLICATE_KEY, e.getErrorCode());
+        }
+    }
+}
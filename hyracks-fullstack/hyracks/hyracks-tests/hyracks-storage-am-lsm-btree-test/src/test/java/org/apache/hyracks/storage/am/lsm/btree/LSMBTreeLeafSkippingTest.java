@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree;
+
+import java.util.List;
+import java.util.TreeMap;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.utils.SerdeUtils;
+import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.btree.impls.TupleSynopsisFieldsExtractorFactory;
+import org.apache.hyracks.storage.am.common.impls.NoOpIndexAccessParameters;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTree;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestHarness;
+import org.apache.hyracks.storage.am.lsm.btree.utils.LSMBTreeUtil;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMDiskComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.impls.LSMTreeIndexAccessor;
+import org.apache.hyracks.storage.common.IIndexBulkLoader;
+import org.apache.hyracks.storage.common.IIndexCursor;
+import org.apache.hyracks.storage.common.MultiComparator;
+import org.apache.hyracks.util.trace.ITracer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("rawtypes")
+public class LSMBTreeLeafSkippingTest {
+    private static final int NUM_KEYS = 1500;
+    private static final int MIN_VALUE = 500;
+    private static final int MAX_VALUE = 999;
+
+    private final LSMBTreeTestHarness harness = new LSMBTreeTestHarness();
+    private final ISerializerDeserializer[] fieldSerdes =
+            { IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE };
+
+    @Before
+    public void setUp() throws HyracksDataException {
+        harness.setUp();
+    }
+
+    @After
+    public void tearDown() throws HyracksDataException {
+        harness.tearDown();
+    }
+
+    @Test
+    public void leafSkippingInNewerComponents() throws Exception {
+        ITypeTraits[] typeTraits = SerdeUtils.serdesToTypeTraits(fieldSerdes);
+        IBinaryComparatorFactory[] cmpFactories = SerdeUtils.serdesToComparatorFactories(fieldSerdes, 1);
+        IBinaryComparatorFactory[] valueCmpFactories = SerdeUtils.serdesToComparatorFactories(fieldSerdes, 2);
+        // the synopses are kept on the value field
+        LSMBTree lsmTree = LSMBTreeUtil.createLSMTree(harness.getIOManager(), harness.getVirtualBufferCaches(),
+                harness.getFileReference(), harness.getDiskBufferCache(), typeTraits, cmpFactories, new int[] { 0 },
+                harness.getBoomFilterFalsePositiveRate(), harness.getMergePolicy(), harness.getOperationTracker(),
+                harness.getIOScheduler(), harness.getIOOperationCallbackFactory(), false, true, null, null, null, null,
+                true, harness.getMetadataPageManagerFactory(), false, ITracer.NONE, null,
+                new TupleSynopsisFieldsExtractorFactory(new int[] { 1 }),
+                new IBinaryComparatorFactory[] { valueCmpFactories[1] }, false);
+        lsmTree.create();
+        lsmTree.activate();
+        ILSMIndexAccessor accessor = lsmTree.createAccessor(NoOpIndexAccessParameters.INSTANCE);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+
+        // an older disk component in which the values follow the keys
+        for (int key = 0; key < NUM_KEYS; key++) {
+            upsert(accessor, expected, key, key);
+        }
+        accessor.scheduleFlush(lsmTree.getIOOperationCallback());
+        // a newer disk component that moves a run of keys out of the bounds, moves a few others into them and deletes
+        // some. the leaves of the moved out keys are skipped, and so must be their older versions
+        for (int key = 500; key < 750; key++) {
+            upsert(accessor, expected, key, -1);
+        }
+        for (int key = 1200; key < 1250; key++) {
+            upsert(accessor, expected, key, 600);
+        }
+        for (int key = 900; key < 910; key++) {
+            accessor.delete(TupleUtils.createIntegerTuple(false, key));
+            expected.remove(key);
+        }
+        accessor.scheduleFlush(lsmTree.getIOOperationCallback());
+
+        MultiComparator keyCmp = MultiComparator.create(cmpFactories);
+        RangePredicate predicate = new RangePredicate(null, null, true, true, keyCmp, keyCmp,
+                TupleUtils.createIntegerTuple(false, MIN_VALUE), TupleUtils.createIntegerTuple(false, MAX_VALUE));
+        IIndexCursor cursor = accessor.createSearchCursor(false);
+        TreeMap<Integer, Integer> found = new TreeMap<>();
+        int movedOut = 0;
+        accessor.search(cursor, predicate);
+        try {
+            while (cursor.hasNext()) {
+                cursor.next();
+                ITupleReference tuple = cursor.getTuple();
+                int key = IntegerPointable.getInteger(tuple.getFieldData(0), tuple.getFieldStart(0));
+                int value = IntegerPointable.getInteger(tuple.getFieldData(1), tuple.getFieldStart(1));
+                Assert.assertEquals(expected.get(key).intValue(), value);
+                if (value < 0) {
+                    movedOut++;
+                } else if (value >= MIN_VALUE && value <= MAX_VALUE) {
+                    found.put(key, value);
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        // the search returns whole leaves, the caller applies the bounds to their tuples
+        Assert.assertTrue(movedOut < 250);
+        expected.values().removeIf(value -> value < MIN_VALUE || value > MAX_VALUE);
+        Assert.assertEquals(expected, found);
+
+        lsmTree.deactivate();
+        lsmTree.destroy();
+    }
+
+    @Test
+    public void componentPruningOnExtractedFilter() throws Exception {
+        ITypeTraits[] typeTraits = SerdeUtils.serdesToTypeTraits(fieldSerdes);
+        IBinaryComparatorFactory[] cmpFactories = SerdeUtils.serdesToComparatorFactories(fieldSerdes, 1);
+        IBinaryComparatorFactory[] valueCmpFactories =
+                new IBinaryComparatorFactory[] { SerdeUtils.serdesToComparatorFactories(fieldSerdes, 2)[1] };
+        // the component filters are kept on the value field, which the tuples carry as a regular field
+        LSMBTree lsmTree = LSMBTreeUtil.createLSMTree(harness.getIOManager(), harness.getVirtualBufferCaches(),
+                harness.getFileReference(), harness.getDiskBufferCache(), typeTraits, cmpFactories, new int[] { 0 },
+                harness.getBoomFilterFalsePositiveRate(), harness.getMergePolicy(), harness.getOperationTracker(),
+                harness.getIOScheduler(), harness.getIOOperationCallbackFactory(), false, true,
+                new ITypeTraits[] { typeTraits[1] }, valueCmpFactories, null, null, true,
+                harness.getMetadataPageManagerFactory(), false, ITracer.NONE, null,
+                new TupleSynopsisFieldsExtractorFactory(new int[] { 1 }), valueCmpFactories, true);
+        lsmTree.create();
+        lsmTree.activate();
+        ILSMIndexAccessor accessor = lsmTree.createAccessor(NoOpIndexAccessParameters.INSTANCE);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+
+        // a bulk loaded component with the values [0, NUM_KEYS)
+        IIndexBulkLoader bulkLoader = lsmTree.createBulkLoader(1.0f, false, NUM_KEYS, false);
+        for (int key = 0; key < NUM_KEYS; key++) {
+            bulkLoader.add(TupleUtils.createIntegerTuple(false, key, key));
+            expected.put(key, key);
+        }
+        bulkLoader.end();
+        // flushed components with the values [10 * NUM_KEYS, 11 * NUM_KEYS), the last of which also holds a key that
+        // moves out of the loaded component, whose filter is extended with the previous value the way an upsert of a
+        // record does
+        for (int key = NUM_KEYS; key < 2 * NUM_KEYS; key++) {
+            upsert(accessor, expected, key, 9 * NUM_KEYS + key);
+        }
+        upsert(accessor, expected, 5, 10 * NUM_KEYS);
+        ((LSMTreeIndexAccessor) accessor).updateFilter(TupleUtils.createIntegerTuple(false, 5, 5));
+        accessor.scheduleFlush(lsmTree.getIOOperationCallback());
+
+        List<ILSMDiskComponent> diskComponents = lsmTree.getDiskComponents();
+        ILSMDiskComponent loadedComponent = diskComponents.get(diskComponents.size() - 1);
+        ILSMDiskComponent movedKeyComponent = diskComponents.get(0);
+
+        // only the flushed components can hold the upper values
+        Assert.assertEquals(expected.subMap(NUM_KEYS + 100, true, NUM_KEYS + 200, true), search(accessor, cmpFactories,
+                10 * NUM_KEYS + 100, 10 * NUM_KEYS + 200, NUM_KEYS + 100, NUM_KEYS + 200));
+        Assert.assertFalse(isSearched(accessor, loadedComponent));
+        // the component of the moved key may hold lower values. its newer version hides the older one, which is
+        // returned if that component is pruned
+        TreeMap<Integer, Integer> found = search(accessor, cmpFactories, 0, 9, 0, 9);
+        Assert.assertTrue(isSearched(accessor, loadedComponent));
+        Assert.assertTrue(isSearched(accessor, movedKeyComponent));
+        found.values().removeIf(value -> value > 9);
+        expected.values().removeIf(value -> value > 9);
+        Assert.assertEquals(expected.subMap(0, true, 9, true), found);
+
+        lsmTree.deactivate();
+        lsmTree.destroy();
+    }
+
+    /**
+     * @return the tuples with keys in [lowKey, highKey] that the components satisfying the value bounds hold
+     */
+    private static TreeMap<Integer, Integer> search(ILSMIndexAccessor accessor, IBinaryComparatorFactory[] cmpFactories,
+            int minValue, int maxValue, int lowKey, int highKey) throws HyracksDataException {
+        MultiComparator keyCmp = MultiComparator.create(cmpFactories);
+        RangePredicate predicate = new RangePredicate(TupleUtils.createIntegerTuple(false, lowKey),
+                TupleUtils.createIntegerTuple(false, highKey), true, true, keyCmp, keyCmp,
+                TupleUtils.createIntegerTuple(false, minValue), TupleUtils.createIntegerTuple(false, maxValue));
+        IIndexCursor cursor = accessor.createSearchCursor(false);
+        TreeMap<Integer, Integer> found = new TreeMap<>();
+        accessor.search(cursor, predicate);
+        try {
+            while (cursor.hasNext()) {
+                cursor.next();
+                ITupleReference tuple = cursor.getTuple();
+                found.put(IntegerPointable.getInteger(tuple.getFieldData(0), tuple.getFieldStart(0)),
+                        IntegerPointable.getInteger(tuple.getFieldData(1), tuple.getFieldStart(1)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return found;
+    }
+
+    private static boolean isSearched(ILSMIndexAccessor accessor, ILSMDiskComponent component) {
+        return accessor.getOpContext().getComponentHolder().contains(component);
+    }
+
+    private static void upsert(ILSMIndexAccessor accessor, TreeMap<Integer, Integer> expected, int key, int value)
+            throws HyracksDataException {
+        accessor.upsert(TupleUtils.createIntegerTuple(false, key, value));
+        expected.put(key, value);
+    }
+}
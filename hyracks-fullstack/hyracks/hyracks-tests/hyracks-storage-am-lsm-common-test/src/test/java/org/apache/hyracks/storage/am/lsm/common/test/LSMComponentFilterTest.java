@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.test;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+import org.apache.hyracks.storage.am.common.tuples.TypeAwareTupleWriter;
+import org.apache.hyracks.storage.am.lsm.common.impls.LSMComponentFilter;
+import org.apache.hyracks.storage.common.MultiComparator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LSMComponentFilterTest {
+    private static final IBinaryComparatorFactory[] CMP_FACTORIES =
+            { PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY),
+                    PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY) };
+    private static final ITypeTraits[] TYPE_TRAITS = { IntegerPointable.TYPE_TRAITS, IntegerPointable.TYPE_TRAITS };
+    private static final ISerializerDeserializer[] SERDES =
+            { IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE };
+
+    @Test
+    public void fieldsAreTrackedIndependently() throws HyracksDataException {
+        LSMComponentFilter filter = createFilter();
+        MultiComparator cmp = MultiComparator.create(CMP_FACTORIES);
+        filter.update(tuple(10, 500), cmp);
+        filter.update(tuple(20, 100), cmp);
+        filter.update(tuple(5, 300), cmp);
+        filter.update(tuple(15, 900), cmp);
+        Assert.assertArrayEquals(new Object[] { 5, 100 }, TupleUtils.deserializeTuple(filter.getMinTuple(), SERDES));
+        Assert.assertArrayEquals(new Object[] { 20, 900 }, TupleUtils.deserializeTuple(filter.getMaxTuple(), SERDES));
+    }
+
+    @Test
+    public void componentIsSkippedOnAnyField() throws HyracksDataException {
+        LSMComponentFilter filter = createFilter();
+        MultiComparator cmp = MultiComparator.create(CMP_FACTORIES);
+        filter.update(tuple(10, 100), cmp);
+        filter.update(tuple(20, 200), cmp);
+        // overlaps on both fields
+        Assert.assertTrue(filter.satisfy(tuple(15, 150), tuple(30, 300), cmp));
+        // the first field overlaps but the second does not; lexicographic bounds would not skip the component
+        Assert.assertFalse(filter.satisfy(tuple(15, 250), tuple(30, 300), cmp));
+        Assert.assertFalse(filter.satisfy(tuple(0, 0), tuple(30, 50), cmp));
+        // only the first field is bounded
+        Assert.assertTrue(filter.satisfy(tuple(15), tuple(30), cmp));
+        Assert.assertFalse(filter.satisfy(tuple(25), null, cmp));
+        // only the second field is bounded, the first one is left empty
+        Assert.assertTrue(filter.satisfy(null, secondFieldOnly(150), cmp));
+        Assert.assertFalse(filter.satisfy(null, secondFieldOnly(50), cmp));
+        Assert.assertFalse(filter.satisfy(secondFieldOnly(250), null, cmp));
+    }
+
+    private static LSMComponentFilter createFilter() {
+        return new LSMComponentFilter(new TypeAwareTupleWriter(TYPE_TRAITS), CMP_FACTORIES);
+    }
+
+    private static ITupleReference tuple(int... fields) throws HyracksDataException {
+        return TupleUtils.createIntegerTuple(fields);
+    }
+
+    private static ITupleReference secondFieldOnly(int value) throws HyracksDataException {
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(2);
+        tb.addFieldEndOffset();
+        tb.addField(IntegerSerializerDeserializer.INSTANCE, value);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        tuple.reset(tb.getFieldEndOffsets(), tb.getByteArray());
+        return tuple;
+    }
+}
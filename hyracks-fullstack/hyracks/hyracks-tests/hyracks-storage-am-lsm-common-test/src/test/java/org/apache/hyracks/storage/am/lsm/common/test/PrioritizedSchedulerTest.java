@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.test;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hyracks.api.io.IODeviceHandle;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+import org.apache.hyracks.storage.am.lsm.common.api.IIOSchedulerStats;
+import org.apache.hyracks.storage.am.lsm.common.api.IIOThrottle;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperation;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperation.LSMIOOperationType;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.impls.IOThrottle;
+import org.apache.hyracks.storage.am.lsm.common.impls.LSMComponentFileReferences;
+import org.apache.hyracks.storage.am.lsm.common.impls.MergeOperation;
+import org.apache.hyracks.storage.am.lsm.common.impls.PrioritizedScheduler;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class PrioritizedSchedulerTest {
+    private static final long TIMEOUT_SECONDS = 10;
+    private final IODeviceHandle device1 = new IODeviceHandle(new File("device1"), "workspace");
+    private final IODeviceHandle device2 = new IODeviceHandle(new File("device2"), "workspace");
+
+    @Test
+    public void testMergesPerDevice() throws Exception {
+        PrioritizedScheduler scheduler = new PrioritizedScheduler(Executors.defaultThreadFactory(), 2);
+        BlockingOperation merge1 = new BlockingOperation(LSMIOOperationType.MERGE, "index1", device1);
+        BlockingOperation merge2 = new BlockingOperation(LSMIOOperationType.MERGE, "index1", device1);
+        BlockingOperation merge3 = new BlockingOperation(LSMIOOperationType.MERGE, "index2", device1);
+        BlockingOperation merge4 = new BlockingOperation(LSMIOOperationType.MERGE, "index2", device2);
+        BlockingOperation flush = new BlockingOperation(LSMIOOperationType.FLUSH, "index2", device1);
+        scheduler.scheduleOperation(merge1.operation);
+        scheduler.scheduleOperation(merge2.operation);
+        scheduler.scheduleOperation(merge3.operation);
+        scheduler.scheduleOperation(merge4.operation);
+        scheduler.scheduleOperation(flush.operation);
+        // two merges of the same index run concurrently, the third merge on the device waits
+        merge1.awaitStarted();
+        merge2.awaitStarted();
+        merge4.awaitStarted();
+        // flushes do not wait for merges
+        flush.awaitStarted();
+        flush.complete();
+        Assert.assertFalse(merge3.started.await(100, TimeUnit.MILLISECONDS));
+        IIOSchedulerStats index1Stats = scheduler.getStats().get("index1");
+        IIOSchedulerStats index2Stats = scheduler.getStats().get("index2");
+        Assert.assertEquals(2, index1Stats.getRunningMerges());
+        Assert.assertEquals(1, index2Stats.getRunningMerges());
+        Assert.assertEquals(1, index2Stats.getQueuedMerges());
+
+        merge1.complete();
+        merge3.awaitStarted();
+        Assert.assertEquals(0, index2Stats.getQueuedMerges());
+        Assert.assertTrue(index2Stats.getMergeStallTime() >= TimeUnit.MILLISECONDS.toNanos(100));
+        merge2.complete();
+        merge3.complete();
+        merge4.complete();
+    }
+
+    @Test
+    public void testFlushesPerIndex() throws Exception {
+        PrioritizedScheduler scheduler = new PrioritizedScheduler(Executors.defaultThreadFactory(), 1);
+        BlockingOperation flush1 = new BlockingOperation(LSMIOOperationType.FLUSH, "index1", device1);
+        BlockingOperation flush2 = new BlockingOperation(LSMIOOperationType.FLUSH, "index1", device1);
+        BlockingOperation flush3 = new BlockingOperation(LSMIOOperationType.FLUSH, "index2", device1);
+        scheduler.scheduleOperation(flush1.operation);
+        scheduler.scheduleOperation(flush2.operation);
+        scheduler.scheduleOperation(flush3.operation);
+        flush1.awaitStarted();
+        flush3.awaitStarted();
+        // the flushes of an index are executed in order
+        Assert.assertFalse(flush2.started.await(100, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(1, scheduler.getStats().get("index1").getQueuedFlushes());
+        flush1.complete();
+        flush2.awaitStarted();
+        Assert.assertEquals(0, scheduler.getStats().get("index1").getQueuedFlushes());
+        Assert.assertTrue(scheduler.getStats().get("index1").getFlushStallTime() > 0);
+        flush2.complete();
+        flush3.complete();
+    }
+
+    @Test
+    public void testUnregisterIndex() throws Exception {
+        PrioritizedScheduler scheduler = new PrioritizedScheduler(Executors.defaultThreadFactory(), 1);
+        BlockingOperation flush = new BlockingOperation(LSMIOOperationType.FLUSH, "index1", device1);
+        BlockingOperation merge = new BlockingOperation(LSMIOOperationType.MERGE, "index2", device1);
+        scheduler.scheduleOperation(flush.operation);
+        scheduler.scheduleOperation(merge.operation);
+        flush.awaitStarted();
+        merge.awaitStarted();
+        // indexes with pending operations keep their stats
+        scheduler.unregisterIndex("index1");
+        scheduler.unregisterIndex("index2");
+        Assert.assertTrue(scheduler.getStats().containsKey("index1"));
+        Assert.assertTrue(scheduler.getStats().containsKey("index2"));
+        flush.complete();
+        merge.complete();
+        // the operations are done once the executor reported them completed
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!scheduler.getStats().isEmpty() && System.nanoTime() < deadline) {
+            scheduler.unregisterIndex("index1");
+            scheduler.unregisterIndex("index2");
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(scheduler.getStats().isEmpty());
+    }
+
+    @Test
+    public void testMergeRateFollowsFlushBacklog() throws Exception {
+        PrioritizedScheduler scheduler = new PrioritizedScheduler(Executors.defaultThreadFactory(), 1, 1000);
+        BlockingOperation flush1 = new BlockingOperation(LSMIOOperationType.FLUSH, "index1", device1);
+        BlockingOperation flush2 = new BlockingOperation(LSMIOOperationType.FLUSH, "index1", device1);
+        BlockingOperation merge =
+                new BlockingOperation(MergeOperation.class, LSMIOOperationType.MERGE, "index2", device1);
+        scheduler.scheduleOperation(merge.operation);
+        merge.awaitStarted();
+        IIOThrottle throttle = scheduler.getMergeThrottles().get(device1);
+        Assert.assertEquals(1000, throttle.getRate());
+        scheduler.scheduleOperation(flush1.operation);
+        scheduler.scheduleOperation(flush2.operation);
+        flush1.awaitStarted();
+        // merges speed up while flushes are queued behind a flush that may be waiting for them
+        Assert.assertEquals(2000, throttle.getRate());
+        flush1.complete();
+        flush2.awaitStarted();
+        Assert.assertEquals(1000, throttle.getRate());
+        flush2.complete();
+        merge.complete();
+    }
+
+    @Test
+    public void testThrottle() throws Exception {
+        IOThrottle throttle = new IOThrottle(1000);
+        // the bucket starts full
+        throttle.acquire(1000);
+        Assert.assertEquals(0, throttle.getThrottledTime());
+        long start = System.nanoTime();
+        throttle.acquire(200);
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(150));
+        Assert.assertTrue(throttle.getThrottledTime() >= TimeUnit.MILLISECONDS.toNanos(150));
+        Assert.assertEquals(1200, throttle.getBytes());
+        throttle.setRate(0);
+        start = System.nanoTime();
+        throttle.acquire(Long.MAX_VALUE / 2);
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    public void testSmallMergesAreThrottled() throws Exception {
+        ILSMIndexAccessor accessor = Mockito.mock(ILSMIndexAccessor.class);
+        MergeOperation merge = new MergeOperation(accessor, null, null, "index1", null) {
+            @Override
+            public LSMComponentFileReferences getComponentFiles() {
+                return null;
+            }
+        };
+        ITupleReference tuple = TupleUtils.createIntegerTuple(1, 2, 3);
+        Mockito.doAnswer(invocation -> {
+            merge.throttle(tuple);
+            return null;
+        }).when(accessor).merge(merge);
+        IOThrottle throttle = new IOThrottle(0);
+        merge.setThrottle(throttle);
+        merge.call();
+        // the bytes of the last batch are acquired when the merge completes
+        Assert.assertEquals(2 * 3 * Integer.BYTES, throttle.getBytes());
+    }
+
+    private static class BlockingOperation {
+        private final ILSMIOOperation operation;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        private BlockingOperation(LSMIOOperationType type, String indexIdentifier, IODeviceHandle device)
+                throws Exception {
+            this(ILSMIOOperation.class, type, indexIdentifier, device);
+        }
+
+        private BlockingOperation(Class<? extends ILSMIOOperation> clazz, LSMIOOperationType type,
+                String indexIdentifier, IODeviceHandle device) throws Exception {
+            operation = Mockito.mock(clazz);
+            Mockito.when(operation.getIOOpertionType()).thenReturn(type);
+            Mockito.when(operation.getIndexIdentifier()).thenReturn(indexIdentifier);
+            Mockito.when(operation.getDevice()).thenReturn(device);
+            Mockito.when(operation.call()).thenAnswer(invocation -> {
+                started.countDown();
+                return completed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            });
+        }
+
+        private void awaitStarted() throws InterruptedException {
+            Assert.assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+
+        private void complete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent.ComponentState;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMDiskComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperationCallback;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndex;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMMemoryComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMMergePolicy;
+import org.apache.hyracks.storage.am.lsm.common.impls.LeveledMergePolicy;
+import org.apache.hyracks.storage.am.lsm.common.impls.LeveledMergePolicyFactory;
+import org.apache.hyracks.storage.am.lsm.common.impls.TieredMergePolicy;
+import org.apache.hyracks.storage.am.lsm.common.impls.TieredMergePolicyFactory;
+import org.apache.hyracks.storage.common.IIndexAccessParameters;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TieredAndLeveledMergePolicyTest {
+
+    private static final int FANOUT = 4;
+
+    private static final int SIZE_RATIO = 4;
+
+    private static final int MAX_COMPONENT_COUNT = 20;
+
+    private static final int NUM_FLUSHES = 1024;
+
+    // the memory budget of the mocked indexes, which is the size of a flushed component
+    private static final long FLUSH_SIZE = 1L;
+
+    @Test
+    public void testMergeFullTier() throws HyracksDataException {
+        List<Long> sizes = new ArrayList<>(Arrays.asList(1L, 1L, 2L, 1L, 16L));
+        List<Long> resultSizes = new ArrayList<>();
+        tieredMergePolicy().diskComponentAdded(mockIndex(sizes, resultSizes), false);
+        Assert.assertEquals(Arrays.asList(1L, 1L, 2L, 1L), resultSizes);
+        Assert.assertEquals(Arrays.asList(5L, 16L), sizes);
+    }
+
+    @Test
+    public void testMergeOlderTier() throws HyracksDataException {
+        List<Long> sizes = new ArrayList<>(Arrays.asList(1L, 1L, 4L, 4L, 5L, 4L, 64L));
+        List<Long> resultSizes = new ArrayList<>();
+        tieredMergePolicy().diskComponentAdded(mockIndex(sizes, resultSizes), false);
+        Assert.assertEquals(Arrays.asList(4L, 4L, 5L, 4L), resultSizes);
+        Assert.assertEquals(Arrays.asList(1L, 1L, 17L, 64L), sizes);
+    }
+
+    @Test
+    public void testNoFullTier() throws HyracksDataException {
+        List<Long> sizes = new ArrayList<>(Arrays.asList(1L, 1L, 1L, 4L, 4L, 16L));
+        List<Long> resultSizes = new ArrayList<>();
+        ILSMIndex index = mockIndex(sizes, resultSizes);
+        ILSMMergePolicy policy = tieredMergePolicy();
+        policy.diskComponentAdded(index, false);
+        Assert.assertTrue(resultSizes.isEmpty());
+        Assert.assertFalse(policy.isMergeLagging(index));
+    }
+
+    @Test
+    public void testTiersDoNotDependOnNewestComponent() throws HyracksDataException {
+        // the newest component comes from a merge, it is in a higher tier than the flushed components that follow it
+        List<Long> sizes = new ArrayList<>(Arrays.asList(5L, 1L, 1L, 1L));
+        List<Long> resultSizes = new ArrayList<>();
+        tieredMergePolicy().diskComponentAdded(mockIndex(sizes, resultSizes), false);
+        Assert.assertTrue(resultSizes.isEmpty());
+    }
+
+    @Test
+    public void testSkipMergingComponents() throws HyracksDataException {
+        List<Long> sizes = new ArrayList<>(Arrays.asList(1L, 1L, 1L, 1L, 1L));
+        List<Long> resultSizes = new ArrayList<>();
+        ILSMIndex index = mockIndex(sizes, resultSizes);
+        Mockito.when(index.getDiskComponents().get(2).getState()).thenReturn(ComponentState.READABLE_MERGING);
+        tieredMergePolicy().diskComponentAdded(index, false);
+        Assert.assertTrue(resultSizes.isEmpty());
+    }
+
+    @Test
+    public void testLeveledMerge() throws HyracksDataException {
+        List<Long> sizes = new ArrayList<>(Arrays.asList(1L, 2L, 4L, 20L));
+        List<Long> resultSizes = new ArrayList<>();
+        leveledMergePolicy().diskComponentAdded(mockIndex(sizes, resultSizes), false);
+        Assert.assertEquals(Arrays.asList(1L, 2L), resultSizes);
+        Assert.assertEquals(Arrays.asList(3L, 4L, 20L), sizes);
+
+        // the newest level grows into the next one, which grows into the last one
+        sizes = new ArrayList<>(Arrays.asList(1L, 3L, 12L, 16L, 128L));
+        resultSizes.clear();
+        leveledMergePolicy().diskComponentAdded(mockIndex(sizes, resultSizes), false);
+        Assert.assertEquals(Arrays.asList(1L, 3L, 12L, 16L), resultSizes);
+        Assert.assertEquals(Arrays.asList(32L, 128L), sizes);
+    }
+
+    @Test
+    public void testLevelsDoNotDependOnNewestComponent() throws HyracksDataException {
+        // the newest component comes from a merge. with levels sized after it, the merge of the first two components
+        // would end up in the level of the last one
+        List<Long> sizes = new ArrayList<>(Arrays.asList(40L, 50L, 200L));
+        List<Long> resultSizes = new ArrayList<>();
+        leveledMergePolicy().diskComponentAdded(mockIndex(sizes, resultSizes), false);
+        Assert.assertEquals(Arrays.asList(40L, 50L, 200L), resultSizes);
+        Assert.assertEquals(Arrays.asList(290L), sizes);
+    }
+
+    @Test
+    public void testWriteAmplification() throws HyracksDataException {
+        Simulation tiered = simulate(tieredMergePolicy());
+        Simulation leveled = simulate(leveledMergePolicy());
+        // a record is rewritten once per tier: log4(1024) = 5 times
+        Assert.assertTrue(tiered.mergedBytes <= 5L * NUM_FLUSHES);
+        Assert.assertTrue(tiered.maxNumComponents <= (FANOUT - 1) * 6 + 1);
+        // leveling rewrites records more often, but keeps one component per level
+        Assert.assertTrue(leveled.mergedBytes > tiered.mergedBytes);
+        Assert.assertTrue(leveled.maxNumComponents <= 7);
+        Assert.assertTrue(leveled.maxNumComponents < tiered.maxNumComponents);
+    }
+
+    private static Simulation simulate(ILSMMergePolicy policy) throws HyracksDataException {
+        Simulation simulation = new Simulation();
+        List<Long> sizes = new ArrayList<>();
+        List<Long> mergedSizes = new ArrayList<>();
+        for (int i = 0; i < NUM_FLUSHES; i++) {
+            sizes.add(0, 1L);
+            policy.diskComponentAdded(mockIndex(sizes, mergedSizes), false);
+            simulation.maxNumComponents = Math.max(simulation.maxNumComponents, sizes.size());
+        }
+        simulation.mergedBytes = mergedSizes.stream().mapToLong(Long::longValue).sum();
+        return simulation;
+    }
+
+    private static ILSMMergePolicy tieredMergePolicy() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(TieredMergePolicyFactory.FANOUT, String.valueOf(FANOUT));
+        properties.put(TieredMergePolicyFactory.MAX_TOLERANCE_COMPONENT_COUNT, String.valueOf(MAX_COMPONENT_COUNT));
+        ILSMMergePolicy policy = new TieredMergePolicy();
+        policy.configure(properties);
+        return policy;
+    }
+
+    private static ILSMMergePolicy leveledMergePolicy() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(LeveledMergePolicyFactory.SIZE_RATIO, String.valueOf(SIZE_RATIO));
+        properties.put(LeveledMergePolicyFactory.MAX_TOLERANCE_COMPONENT_COUNT, String.valueOf(MAX_COMPONENT_COUNT));
+        ILSMMergePolicy policy = new LeveledMergePolicy();
+        policy.configure(properties);
+        return policy;
+    }
+
+    /**
+     * Mock an index whose disk components have the given sizes, ordered from the newest to the oldest. A scheduled
+     * merge completes right away: the sizes of the merged components are added to mergedSizes and the component sizes
+     * are updated.
+     */
+    private static ILSMIndex mockIndex(List<Long> componentSizes, List<Long> mergedSizes) throws HyracksDataException {
+        List<ILSMDiskComponent> components = new ArrayList<>();
+        for (Long size : componentSizes) {
+            components.add(mockComponent(size));
+        }
+        ILSMIndex index = Mockito.mock(ILSMIndex.class);
+        Mockito.when(index.getDiskComponents()).thenReturn(components);
+        ILSMMemoryComponent memoryComponent = Mockito.mock(ILSMMemoryComponent.class);
+        Mockito.when(memoryComponent.getSize()).thenReturn(FLUSH_SIZE);
+        Mockito.when(index.getMemoryComponents()).thenReturn(Collections.singletonList(memoryComponent));
+        ILSMIndexAccessor accessor = Mockito.mock(ILSMIndexAccessor.class);
+        Mockito.doAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            List<ILSMDiskComponent> mergedComponents = invocation.getArgumentAt(1, List.class);
+            long sum = 0;
+            for (ILSMDiskComponent c : mergedComponents) {
+                mergedSizes.add(c.getComponentSize());
+                sum += c.getComponentSize();
+            }
+            int swapIndex = components.indexOf(mergedComponents.get(0));
+            components.removeAll(mergedComponents);
+            components.add(swapIndex, mockComponent(sum));
+            componentSizes.clear();
+            for (ILSMDiskComponent c : components) {
+                componentSizes.add(c.getComponentSize());
+            }
+            return null;
+        }).when(accessor).scheduleMerge(Mockito.any(ILSMIOOperationCallback.class),
+                Mockito.anyListOf(ILSMDiskComponent.class));
+        Mockito.when(index.createAccessor(Mockito.any(IIndexAccessParameters.class))).thenReturn(accessor);
+        return index;
+    }
+
+    private static ILSMDiskComponent mockComponent(long size) {
+        ILSMDiskComponent component = Mockito.mock(ILSMDiskComponent.class);
+        Mockito.when(component.getComponentSize()).thenReturn(size);
+        Mockito.when(component.getState()).thenReturn(ComponentState.READABLE_UNWRITABLE);
+        return component;
+    }
+
+    private static class Simulation {
+        private int maxNumComponents;
+        private long mergedBytes;
+    }
+}
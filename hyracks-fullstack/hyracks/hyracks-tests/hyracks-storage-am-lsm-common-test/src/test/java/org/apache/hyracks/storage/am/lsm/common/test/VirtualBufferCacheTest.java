@@ -20,10 +20,13 @@ package org.apache.hyracks.storage.am.lsm.common.test;
 
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
@@ -42,7 +45,6 @@ import org.junit.Test;
 public class VirtualBufferCacheTest {
     /*
      * Missing tests:
-     * 0. concurrent pinnings for a single file from multiple threads
      * 1. concurrent create file
      * 2. file deletes while pages are pinned? Note that currently, the vbc doesn't keep track of number of pinnings
      */
@@ -229,6 +231,73 @@ public class VirtualBufferCacheTest {
         vbc.close();
     }
 
+    /**
+     * Pins the same pages of a file from multiple threads while another thread keeps creating and deleting a second
+     * file, and checks that every thread gets the same cached page for a page id and that each page is only
+     * accounted once.
+     */
+    @Test
+    public void testConcurrentPinsSameFile() throws Exception {
+        final int pageSize = 256;
+        final int numPages = 1000;
+        final int numThreads = 4;
+        final int numRounds = 20;
+        VirtualBufferCache vbc = new VirtualBufferCache(new HeapBufferAllocator(), pageSize, numPages);
+        vbc.open();
+        FileState shared = new FileState(vbc, "shared");
+        ICachedPage[][] pinned = new ICachedPage[numThreads][numPages / 2];
+        AtomicBoolean done = new AtomicBoolean();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        Thread churn = new Thread(() -> {
+            try {
+                for (int i = 0; !done.get(); i++) {
+                    FileState other = new FileState(vbc, "other-" + i);
+                    for (int j = 0; j < 16; j++) {
+                        other.pin(1);
+                    }
+                    vbc.deleteFile(other.fileId);
+                }
+            } catch (Throwable th) {
+                failures.add(th);
+            }
+        });
+        Thread[] pinners = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            final ICachedPage[] pages = pinned[t];
+            pinners[t] = new Thread(() -> {
+                try {
+                    for (int round = 0; round < numRounds; round++) {
+                        for (int i = 0; i < pages.length; i++) {
+                            ICachedPage page = vbc.pin(BufferedFileHandle.getDiskPageId(shared.fileId, i), round == 0);
+                            if (pages[i] != null && pages[i] != page) {
+                                throw new IllegalStateException("Page " + i + " was pinned twice");
+                            }
+                            pages[i] = page;
+                        }
+                    }
+                } catch (Throwable th) {
+                    failures.add(th);
+                }
+            });
+        }
+        churn.start();
+        for (Thread pinner : pinners) {
+            pinner.start();
+        }
+        for (Thread pinner : pinners) {
+            pinner.join();
+        }
+        done.set(true);
+        churn.join();
+        Assert.assertTrue(failures.toString(), failures.isEmpty());
+        for (int t = 1; t < numThreads; t++) {
+            Assert.assertArrayEquals(pinned[0], pinned[t]);
+        }
+        vbc.deleteFile(shared.fileId);
+        Assert.assertEquals(0, vbc.getUsage());
+        vbc.close();
+    }
+
     private void shutdown(User[] users) throws HyracksDataException, InterruptedException {
         for (int i = 0; i < users.length; i++) {
             users[i].stop();
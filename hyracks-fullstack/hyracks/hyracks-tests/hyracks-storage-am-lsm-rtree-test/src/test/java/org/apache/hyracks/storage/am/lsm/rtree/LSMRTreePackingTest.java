@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.rtree;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.data.std.primitive.DoublePointable;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.DoubleSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.utils.SerdeUtils;
+import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+import org.apache.hyracks.storage.am.common.api.IPrimitiveValueProviderFactory;
+import org.apache.hyracks.storage.am.common.impls.NoOpIndexAccessParameters;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMDiskComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.impls.BlockingIOOperationCallbackWrapper;
+import org.apache.hyracks.storage.am.lsm.rtree.impls.LSMRTree;
+import org.apache.hyracks.storage.am.lsm.rtree.impls.RTreePackingPolicy;
+import org.apache.hyracks.storage.am.lsm.rtree.util.LSMRTreeTestHarness;
+import org.apache.hyracks.storage.am.lsm.rtree.utils.LSMRTreeUtils;
+import org.apache.hyracks.storage.am.rtree.frames.RTreePolicyType;
+import org.apache.hyracks.storage.am.rtree.impls.RTree;
+import org.apache.hyracks.storage.am.rtree.impls.RTreeSearchCursor;
+import org.apache.hyracks.storage.am.rtree.impls.SearchPredicate;
+import org.apache.hyracks.storage.am.rtree.util.RTreeUtils;
+import org.apache.hyracks.storage.common.IIndexAccessor;
+import org.apache.hyracks.storage.common.IIndexCursor;
+import org.apache.hyracks.storage.common.MultiComparator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Loads the same rectangles into LSM R-trees with different packing policies and counts the nodes that window
+ * queries visit in the flushed and merged disk components.
+ */
+@SuppressWarnings("rawtypes")
+public class LSMRTreePackingTest {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final long SEED = 17;
+    private static final int NUM_TUPLES = 5000;
+    private static final int NUM_QUERIES = 200;
+    private static final double SPACE_SIZE = 1000.0;
+    private static final double MAX_RECTANGLE_SIZE = 10.0;
+    private static final double QUERY_SIZE = 50.0;
+    private static final int NUM_KEY_FIELDS = 4;
+
+    private final LSMRTreeTestHarness harness = new LSMRTreeTestHarness();
+    private final ISerializerDeserializer[] fieldSerdes = { DoubleSerializerDeserializer.INSTANCE,
+            DoubleSerializerDeserializer.INSTANCE, DoubleSerializerDeserializer.INSTANCE,
+            DoubleSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE };
+    private final IBinaryComparatorFactory[] rtreeCmpFactories =
+            SerdeUtils.serdesToComparatorFactories(fieldSerdes, NUM_KEY_FIELDS);
+
+    @Before
+    public void setUp() throws Exception {
+        harness.setUp();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        harness.tearDown();
+    }
+
+    @Test
+    public void strPackingTest() throws Exception {
+        long[] linearizedVisits = loadAndQuery(RTreePackingPolicy.LINEARIZED);
+        long[] strVisits = loadAndQuery(RTreePackingPolicy.STR);
+        LOGGER.info("Nodes visited by " + NUM_QUERIES + " window queries after flushing: " + linearizedVisits[0]
+                + " (linearized), " + strVisits[0] + " (STR); after merging: " + linearizedVisits[1] + " (linearized), "
+                + strVisits[1] + " (STR)");
+        Assert.assertTrue(strVisits[0] < linearizedVisits[0]);
+        Assert.assertTrue(strVisits[1] < linearizedVisits[1]);
+    }
+
+    /**
+     * @return the number of nodes the queries visit in the disk components after flushing and after merging
+     */
+    private long[] loadAndQuery(RTreePackingPolicy packingPolicy) throws Exception {
+        ITypeTraits[] typeTraits = SerdeUtils.serdesToTypeTraits(fieldSerdes);
+        IBinaryComparatorFactory[] btreeCmpFactories = { SerdeUtils.serdesToComparatorFactories(
+                new ISerializerDeserializer[] { IntegerSerializerDeserializer.INSTANCE }, 1)[0] };
+        IPrimitiveValueProviderFactory[] valueProviderFactories =
+                RTreeUtils.createPrimitiveValueProviderFactories(NUM_KEY_FIELDS, DoublePointable.FACTORY);
+        LSMRTree lsmTree = LSMRTreeUtils.createLSMTree(harness.getIOManager(), harness.getVirtualBufferCaches(),
+                harness.getFileReference(), harness.getDiskBufferCache(), typeTraits, rtreeCmpFactories,
+                btreeCmpFactories, valueProviderFactories, RTreePolicyType.RTREE,
+                harness.getBoomFilterFalsePositiveRate(), harness.getMergePolicy(), harness.getOperationTracker(),
+                harness.getIOScheduler(), harness.getIOOperationCallbackFactory(),
+                LSMRTreeUtils.proposeBestLinearizer(typeTraits, NUM_KEY_FIELDS), null, new int[] { NUM_KEY_FIELDS },
+                null, null, null, true, false, harness.getMetadataPageManagerFactory(), packingPolicy);
+        lsmTree.create();
+        lsmTree.activate();
+        ILSMIndexAccessor accessor = lsmTree.createAccessor(NoOpIndexAccessParameters.INSTANCE);
+        BlockingIOOperationCallbackWrapper ioOpCallback =
+                new BlockingIOOperationCallbackWrapper(lsmTree.getIOOperationCallback());
+
+        Random rnd = new Random(SEED);
+        List<double[]> rectangles = new ArrayList<>();
+        for (int i = 0; i < NUM_TUPLES; i++) {
+            double x = rnd.nextDouble() * SPACE_SIZE;
+            double y = rnd.nextDouble() * SPACE_SIZE;
+            double[] rectangle =
+                    { x, y, x + rnd.nextDouble() * MAX_RECTANGLE_SIZE, y + rnd.nextDouble() * MAX_RECTANGLE_SIZE };
+            rectangles.add(rectangle);
+            accessor.insert(createTuple(rectangle, i));
+        }
+        accessor.scheduleFlush(ioOpCallback);
+        ioOpCallback.waitForIO();
+        List<double[]> queries = new ArrayList<>();
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            double x = rnd.nextDouble() * (SPACE_SIZE - QUERY_SIZE);
+            double y = rnd.nextDouble() * (SPACE_SIZE - QUERY_SIZE);
+            queries.add(new double[] { x, y, x + QUERY_SIZE, y + QUERY_SIZE });
+        }
+        Set<Integer> deleted = new HashSet<>();
+        assertQueries(accessor, rectangles, deleted, queries);
+        long flushedVisits = countVisitedNodes(lsmTree, queries);
+
+        // the deleted keys go to the buddy B-tree of a new component and are dropped by the merge
+        for (int i = 0; i < NUM_TUPLES; i += 7) {
+            accessor.delete(createTuple(rectangles.get(i), i));
+            deleted.add(i);
+        }
+        accessor.scheduleFlush(ioOpCallback);
+        ioOpCallback.waitForIO();
+        accessor.scheduleMerge(ioOpCallback, lsmTree.getDiskComponents());
+        ioOpCallback.waitForIO();
+        Assert.assertEquals(1, lsmTree.getDiskComponents().size());
+        assertQueries(accessor, rectangles, deleted, queries);
+        long mergedVisits = countVisitedNodes(lsmTree, queries);
+
+        lsmTree.deactivate();
+        lsmTree.destroy();
+        return new long[] { flushedVisits, mergedVisits };
+    }
+
+    private void assertQueries(IIndexAccessor accessor, List<double[]> rectangles, Set<Integer> deleted,
+            List<double[]> queries) throws Exception {
+        MultiComparator cmp = MultiComparator.create(rtreeCmpFactories);
+        for (double[] query : queries) {
+            Set<Integer> expected = new HashSet<>();
+            for (int i = 0; i < rectangles.size(); i++) {
+                if (!deleted.contains(i) && intersect(rectangles.get(i), query)) {
+                    expected.add(i);
+                }
+            }
+            Set<Integer> actual = new HashSet<>();
+            IIndexCursor cursor = accessor.createSearchCursor(false);
+            try {
+                accessor.search(cursor, new SearchPredicate(TupleUtils.createDoubleTuple(query), cmp));
+                while (cursor.hasNext()) {
+                    cursor.next();
+                    ITupleReference tuple = cursor.getTuple();
+                    actual.add(IntegerPointable.getInteger(tuple.getFieldData(NUM_KEY_FIELDS),
+                            tuple.getFieldStart(NUM_KEY_FIELDS)));
+                }
+            } finally {
+                cursor.close();
+                cursor.destroy();
+            }
+            Assert.assertEquals(expected, actual);
+        }
+    }
+
+    private long countVisitedNodes(LSMRTree lsmTree, List<double[]> queries) throws Exception {
+        MultiComparator cmp = MultiComparator.create(rtreeCmpFactories);
+        long visitedNodes = 0;
+        for (ILSMDiskComponent component : lsmTree.getDiskComponents()) {
+            RTree rtree = (RTree) component.getIndex();
+            IIndexAccessor accessor = rtree.createAccessor(NoOpIndexAccessParameters.INSTANCE);
+            for (double[] query : queries) {
+                RTreeSearchCursor cursor = (RTreeSearchCursor) accessor.createSearchCursor(false);
+                try {
+                    accessor.search(cursor, new SearchPredicate(TupleUtils.createDoubleTuple(query), cmp));
+                    while (cursor.hasNext()) {
+                        cursor.next();
+                    }
+                    visitedNodes += cursor.getNumVisitedPages();
+                } finally {
+                    cursor.close();
+                    cursor.destroy();
+                }
+            }
+        }
+        return visitedNodes;
+    }
+
+    private ITupleReference createTuple(double[] rectangle, int key) throws Exception {
+        return TupleUtils.createTuple(fieldSerdes, rectangle[0], rectangle[1], rectangle[2], rectangle[3], key);
+    }
+
+    private static boolean intersect(double[] rectangle, double[] query) {
+        return rectangle[0] <= query[2] && query[0] <= rectangle[2] && rectangle[1] <= query[3]
+                && query[1] <= rectangle[3];
+    }
+}
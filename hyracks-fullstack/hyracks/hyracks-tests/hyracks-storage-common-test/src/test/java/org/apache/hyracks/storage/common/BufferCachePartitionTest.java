@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.storage.common.buffercache.BufferCache;
+import org.apache.hyracks.storage.common.buffercache.BufferCachePartition;
+import org.apache.hyracks.storage.common.buffercache.ClockPageReplacementStrategy;
+import org.apache.hyracks.storage.common.buffercache.DelayPageCleanerPolicy;
+import org.apache.hyracks.storage.common.buffercache.HeapBufferAllocator;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachePartitionResolver;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.storage.common.file.FileMapManager;
+import org.apache.hyracks.test.support.TestStorageManagerComponentHolder;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BufferCachePartitionTest {
+    private static final int PAGE_SIZE = 256;
+    private static final int NUM_PAGES = 32;
+    private static final int MAX_OPEN_FILES = 10;
+    private static final int HOT_PAGES = 8;
+    private static final int SCAN_PAGES = 256;
+    private static final int ROUNDS = 4;
+
+    @Test
+    public void reservedPagesSurviveScan() throws Exception {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        IIOManager ioManager = TestStorageManagerComponentHolder.getIOManager();
+        FileReference hotFile = ioManager.resolve("partition-hot-" + System.nanoTime());
+        FileReference scanFile = ioManager.resolve("partition-scan-" + System.nanoTime());
+        BufferCachePartition partition = new BufferCachePartition("hot", HOT_PAGES);
+        BufferCache bufferCache = new BufferCache(ioManager,
+                new ClockPageReplacementStrategy(new HeapBufferAllocator(), PAGE_SIZE, NUM_PAGES),
+                new DelayPageCleanerPolicy(1000), new FileMapManager(), MAX_OPEN_FILES,
+                Executors.defaultThreadFactory());
+        bufferCache.setCachePartitionResolver(new ICachePartitionResolver() {
+            @Override
+            public BufferCachePartition getCachePartition(FileReference fileRef) {
+                return fileRef.equals(hotFile) ? partition : null;
+            }
+
+            @Override
+            public Collection<BufferCachePartition> getCachePartitions() {
+                return Collections.singletonList(partition);
+            }
+        });
+        int hotFileId = createFile(bufferCache, hotFile, HOT_PAGES);
+        int scanFileId = createFile(bufferCache, scanFile, SCAN_PAGES);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                read(bufferCache, hotFileId, HOT_PAGES);
+                read(bufferCache, scanFileId, SCAN_PAGES);
+            }
+            // only the first round reads the hot pages from disk
+            Assert.assertEquals(HOT_PAGES, partition.getMissCount());
+            Assert.assertEquals(HOT_PAGES * (ROUNDS - 1), partition.getHitCount());
+            Assert.assertEquals(0, partition.getEvictionCount());
+            Assert.assertEquals(HOT_PAGES, partition.getNumPages());
+            Assert.assertEquals(0, bufferCache.getDirtyPageCount(partition));
+        } finally {
+            bufferCache.closeFile(hotFileId);
+            bufferCache.deleteFile(hotFileId);
+            bufferCache.closeFile(scanFileId);
+            bufferCache.deleteFile(scanFileId);
+            bufferCache.close();
+        }
+    }
+
+    private static int createFile(IBufferCache bufferCache, FileReference file, int numPages)
+            throws HyracksDataException {
+        int fileId = bufferCache.createFile(file);
+        bufferCache.openFile(fileId);
+        for (int i = 0; i < numPages; i++) {
+            ICachedPage page = bufferCache.confiscatePage(BufferedFileHandle.getDiskPageId(fileId, i));
+            page.getBuffer().putInt(0, i);
+            bufferCache.createFIFOQueue().put(page);
+        }
+        bufferCache.finishQueue();
+        return fileId;
+    }
+
+    private static void read(IBufferCache bufferCache, int fileId, int numPages) throws HyracksDataException {
+        for (int i = 0; i < numPages; i++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), false);
+            try {
+                Assert.assertEquals(i, page.getBuffer().getInt(0));
+            } finally {
+                bufferCache.unpin(page);
+            }
+        }
+    }
+}
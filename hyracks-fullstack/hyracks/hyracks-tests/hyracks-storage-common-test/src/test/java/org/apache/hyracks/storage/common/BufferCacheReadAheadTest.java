@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.storage.common.buffercache.BufferCache;
+import org.apache.hyracks.storage.common.buffercache.CachedPage;
+import org.apache.hyracks.storage.common.buffercache.ClockPageReplacementStrategy;
+import org.apache.hyracks.storage.common.buffercache.DelayPageCleanerPolicy;
+import org.apache.hyracks.storage.common.buffercache.HeapBufferAllocator;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.buffercache.IReadAheadRequest;
+import org.apache.hyracks.storage.common.compression.ICompressorDecompressorFactory;
+import org.apache.hyracks.storage.common.compression.Lz4CompressorDecompressorFactory;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.storage.common.file.FileMapManager;
+import org.apache.hyracks.test.support.TestStorageManagerComponentHolder;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BufferCacheReadAheadTest {
+    private static final int PAGE_SIZE = 256;
+    private static final int NUM_PAGES = 64;
+    private static final int MAX_OPEN_FILES = 10;
+    private static final int FILE_PAGES = 48;
+    private static final int READ_AHEAD_PAGES = 32;
+
+    @Test
+    public void readAheadPagesAreHits() throws Exception {
+        runTest(null);
+    }
+
+    @Test
+    public void readAheadCompressedPagesAreHits() throws Exception {
+        runTest(Lz4CompressorDecompressorFactory.INSTANCE);
+    }
+
+    @Test
+    public void cancelledReadAheadHoldsNoPin() throws Exception {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        IIOManager ioManager = TestStorageManagerComponentHolder.getIOManager();
+        FileReference file = ioManager.resolve("readahead-cancel-" + System.nanoTime());
+        BufferCache bufferCache = createBufferCache(ioManager);
+        int fileId = bufferCache.createFile(file);
+        bufferCache.openFile(fileId);
+        for (int i = 0; i < FILE_PAGES; i++) {
+            ICachedPage page = bufferCache.confiscatePage(BufferedFileHandle.getDiskPageId(fileId, i));
+            page.getBuffer().putInt(0, i);
+            bufferCache.createFIFOQueue().put(page);
+        }
+        bufferCache.finishQueue();
+        bufferCache.closeFile(fileId);
+        bufferCache.close();
+        for (int round = 0; round < 50; round++) {
+            // start cold, so that every read-ahead has pages to read
+            ClockPageReplacementStrategy prs =
+                    new ClockPageReplacementStrategy(new HeapBufferAllocator(), PAGE_SIZE, NUM_PAGES);
+            bufferCache = createBufferCache(ioManager, prs);
+            fileId = bufferCache.openFile(file);
+            try {
+                IReadAheadRequest request = bufferCache.readAhead(fileId, 0, FILE_PAGES);
+                if (round % 2 == 1) {
+                    // let the read-ahead start, so that cancelling it must wait for it
+                    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+                    while (bufferCache.getReadAheadPageCount() == 0 && System.currentTimeMillis() < deadline) {
+                        Thread.yield();
+                    }
+                }
+                request.cancel();
+                // a cancelled read-ahead is either done or never ran, it must not pin pages any longer
+                for (int i = 0; i < prs.getNumPages(); i++) {
+                    Assert.assertEquals(0, ((CachedPage) bufferCache.getPage(i)).pinCount.get());
+                }
+            } finally {
+                bufferCache.closeFile(fileId);
+                if (round == 49) {
+                    bufferCache.deleteFile(fileId);
+                }
+                bufferCache.close();
+            }
+        }
+    }
+
+    private void runTest(ICompressorDecompressorFactory compressorDecompressorFactory) throws Exception {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        IIOManager ioManager = TestStorageManagerComponentHolder.getIOManager();
+        FileReference file = ioManager.resolve("readahead-" + System.nanoTime());
+        BufferCache bufferCache = createBufferCache(ioManager);
+        int fileId = bufferCache.createFile(file, compressorDecompressorFactory);
+        bufferCache.openFile(fileId);
+        for (int i = 0; i < FILE_PAGES; i++) {
+            ICachedPage page = bufferCache.confiscatePage(BufferedFileHandle.getDiskPageId(fileId, i));
+            page.getBuffer().putInt(0, i);
+            page.getBuffer().putInt(PAGE_SIZE - Integer.BYTES, -i);
+            bufferCache.createFIFOQueue().put(page);
+        }
+        bufferCache.finishQueue();
+        bufferCache.closeFile(fileId);
+        bufferCache.close();
+
+        // start cold
+        ClockPageReplacementStrategy prs =
+                new ClockPageReplacementStrategy(new HeapBufferAllocator(), PAGE_SIZE, NUM_PAGES);
+        bufferCache = createBufferCache(ioManager, prs);
+        fileId = bufferCache.openFile(file);
+        try {
+            int startPage = FILE_PAGES - READ_AHEAD_PAGES;
+            // the request goes past the end of the file and must be truncated
+            bufferCache.readAhead(fileId, startPage, READ_AHEAD_PAGES * 2);
+            waitForReadAhead(bufferCache, READ_AHEAD_PAGES);
+            for (int i = startPage; i < FILE_PAGES; i++) {
+                ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), false);
+                try {
+                    Assert.assertEquals(i, page.getBuffer().getInt(0));
+                    Assert.assertEquals(-i, page.getBuffer().getInt(PAGE_SIZE - Integer.BYTES));
+                } finally {
+                    bufferCache.unpin(page);
+                }
+            }
+            Assert.assertEquals(READ_AHEAD_PAGES, bufferCache.getReadAheadHitCount());
+            Assert.assertEquals(0, prs.getMissCount());
+            // cached pages are not read again
+            bufferCache.readAhead(fileId, startPage - 1, READ_AHEAD_PAGES);
+            waitForReadAhead(bufferCache, READ_AHEAD_PAGES + 1);
+        } finally {
+            bufferCache.closeFile(fileId);
+            bufferCache.deleteFile(fileId);
+            bufferCache.close();
+        }
+    }
+
+    private static void waitForReadAhead(BufferCache bufferCache, long expectedPages) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (bufferCache.getReadAheadPageCount() < expectedPages && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // give a faulty read-ahead the chance to read more than it should
+        Thread.sleep(100);
+        Assert.assertEquals(expectedPages, bufferCache.getReadAheadPageCount());
+    }
+
+    private static BufferCache createBufferCache(IIOManager ioManager) {
+        return createBufferCache(ioManager,
+                new ClockPageReplacementStrategy(new HeapBufferAllocator(), PAGE_SIZE, NUM_PAGES));
+    }
+
+    private static BufferCache createBufferCache(IIOManager ioManager, ClockPageReplacementStrategy prs) {
+        return new BufferCache(ioManager, prs, new DelayPageCleanerPolicy(1000), new FileMapManager(), MAX_OPEN_FILES,
+                Executors.defaultThreadFactory());
+    }
+}
@@ -42,6 +42,7 @@ import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.api.io.IIOManager;
 import org.apache.hyracks.storage.common.buffercache.CachedPage;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.IBufferCacheInternal;
 import org.apache.hyracks.storage.common.buffercache.ICachedPage;
 import org.apache.hyracks.storage.common.file.BufferedFileHandle;
 import org.apache.hyracks.test.support.TestStorageManagerComponentHolder;
@@ -443,6 +444,71 @@ public class BufferCacheTest {
         bufferCache.closeFile(fileId);
     }
 
+    @Test
+    public void concurrentPinUnpinTest() throws Exception {
+        /*
+         * Several threads pin and unpin random pages of a file that is four times larger than the buffer cache, so
+         * lock-free cache hits race with misses that re-purpose pages. Every pinned page must hold the requested
+         * page and stay pinned until it is unpinned, and no pin may be left behind once all threads are done.
+         */
+        final int bufferCacheNumPages = 32;
+        final int numPages = 4 * bufferCacheNumPages;
+        final int numThreads = 8;
+        final int pinsPerThread = 20000;
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, bufferCacheNumPages, MAX_OPEN_FILES);
+        IIOManager ioManager = TestStorageManagerComponentHolder.getIOManager();
+        IBufferCache bufferCache =
+                TestStorageManagerComponentHolder.getBufferCache(ctx.getJobletContext().getServiceContext());
+        final FileReference file = ioManager.resolve(getFileName());
+        final int fileId = bufferCache.createFile(file);
+        bufferCache.openFile(fileId);
+        for (int i = 0; i < numPages; i++) {
+            ICachedPage page = bufferCache.confiscatePage(BufferedFileHandle.getDiskPageId(fileId, i));
+            page.getBuffer().putInt(0, i);
+            bufferCache.createFIFOQueue().put(page);
+        }
+        bufferCache.finishQueue();
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < numThreads; i++) {
+                final Random threadRnd = new Random(i);
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < pinsPerThread; j++) {
+                        // half of the pins go to a small hot set so that threads share pinned pages
+                        int pageId = threadRnd.nextBoolean() ? threadRnd.nextInt(4) : threadRnd.nextInt(numPages);
+                        long dpid = BufferedFileHandle.getDiskPageId(fileId, pageId);
+                        ICachedPage page = bufferCache.pin(dpid, false);
+                        try {
+                            Assert.assertEquals(dpid, ((CachedPage) page).getDiskPageId());
+                            Assert.assertTrue(((CachedPage) page).pinCount.get() > 0);
+                            page.acquireReadLatch();
+                            try {
+                                Assert.assertEquals(pageId, page.getBuffer().getInt(0));
+                            } finally {
+                                page.releaseReadLatch();
+                            }
+                        } finally {
+                            bufferCache.unpin(page);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        for (int i = 0; i < bufferCache.getPageBudget(); i++) {
+            Assert.assertEquals(0, ((CachedPage) ((IBufferCacheInternal) bufferCache).getPage(i)).pinCount.get());
+        }
+        bufferCache.closeFile(fileId);
+        bufferCache.deleteFile(fileId);
+        bufferCache.close();
+    }
+
     @AfterClass
     public static void cleanup() throws Exception {
         for (String s : openedFiles) {
@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.io.IFileHandle;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.api.util.IoUtil;
+import org.apache.hyracks.storage.common.buffercache.BufferCache;
+import org.apache.hyracks.storage.common.buffercache.ClockPageReplacementStrategy;
+import org.apache.hyracks.storage.common.buffercache.DelayPageCleanerPolicy;
+import org.apache.hyracks.storage.common.buffercache.HeapBufferAllocator;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.compression.CompressedFileManager;
+import org.apache.hyracks.storage.common.compression.ICompressorDecompressor;
+import org.apache.hyracks.storage.common.compression.Lz4CompressorDecompressorFactory;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.storage.common.file.FileMapManager;
+import org.apache.hyracks.test.support.TestStorageManagerComponentHolder;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompressedFileTest {
+    private static final int PAGE_SIZE = 256;
+    private static final int NUM_PAGES = 16;
+    private static final int MAX_OPEN_FILES = 10;
+    private static final int FILE_PAGES = 64;
+    private static final int LARGE_PAGE_MULTIPLIER = 3;
+
+    @Test
+    public void codecRoundTrip() throws Exception {
+        ICompressorDecompressor codec = Lz4CompressorDecompressorFactory.INSTANCE.createInstance();
+        Random rnd = new Random(17);
+        for (int length : new int[] { 0, 1, 12, 13, 100, 4096, 65536 + 1000 }) {
+            byte[] runs = new byte[length];
+            for (int i = 0; i < length; i++) {
+                runs[i] = (byte) ((i / 7) % 5);
+            }
+            byte[] noise = new byte[length];
+            rnd.nextBytes(noise);
+            for (byte[] input : new byte[][] { runs, noise }) {
+                byte[] compressed = new byte[codec.computeCompressedBufferSize(length) + 3];
+                int compressedLength = codec.compress(input, 0, length, compressed, 3);
+                byte[] output = new byte[length];
+                Assert.assertEquals(length, codec.uncompress(compressed, 3, compressedLength, output, 0, length));
+                Assert.assertArrayEquals(input, output);
+            }
+        }
+    }
+
+    @Test
+    public void pagesSurviveReopen() throws Exception {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        IIOManager ioManager = TestStorageManagerComponentHolder.getIOManager();
+        FileReference file = ioManager.resolve("compressed-" + System.currentTimeMillis());
+        BufferCache bufferCache = createBufferCache(ioManager);
+        int fileId = bufferCache.createFile(file, Lz4CompressorDecompressorFactory.INSTANCE);
+        bufferCache.openFile(fileId);
+        // the last page is a large page whose extra pages follow it
+        for (int i = 0; i < FILE_PAGES; i++) {
+            ICachedPage page =
+                    i < FILE_PAGES - 1 ? bufferCache.confiscatePage(BufferedFileHandle.getDiskPageId(fileId, i))
+                            : bufferCache.confiscateLargePage(BufferedFileHandle.getDiskPageId(fileId, i),
+                                    LARGE_PAGE_MULTIPLIER, i + 1);
+            fill(page, i);
+            bufferCache.createFIFOQueue().put(page);
+        }
+        bufferCache.finishQueue();
+        bufferCache.force(fileId, true);
+        Assert.assertEquals(FILE_PAGES + LARGE_PAGE_MULTIPLIER - 1, bufferCache.getNumPagesOfFile(fileId));
+        Assert.assertTrue(file.getFile().length() < FILE_PAGES * PAGE_SIZE);
+        bufferCache.closeFile(fileId);
+        bufferCache.close();
+
+        bufferCache = createBufferCache(ioManager);
+        fileId = bufferCache.openFile(file);
+        try {
+            Assert.assertEquals(FILE_PAGES + LARGE_PAGE_MULTIPLIER - 1, bufferCache.getNumPagesOfFile(fileId));
+            for (int i = 0; i < FILE_PAGES; i++) {
+                ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), false);
+                try {
+                    check(page, i);
+                } finally {
+                    bufferCache.unpin(page);
+                }
+            }
+        } finally {
+            bufferCache.closeFile(fileId);
+            bufferCache.deleteFile(fileId);
+            bufferCache.close();
+        }
+        Assert.assertFalse(file.getFile().exists());
+        Assert.assertFalse(CompressedFileManager.getLookAsideFileReference(file).getFile().exists());
+    }
+
+    @Test
+    public void dataIsSyncedBeforeLookAsideFileOnClose() throws Exception {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        IIOManager delegate = TestStorageManagerComponentHolder.getIOManager();
+        List<File> syncedFiles = Collections.synchronizedList(new ArrayList<>());
+        IIOManager ioManager = (IIOManager) Proxy.newProxyInstance(IIOManager.class.getClassLoader(),
+                new Class<?>[] { IIOManager.class }, (proxy, method, args) -> {
+                    if ("sync".equals(method.getName())) {
+                        syncedFiles.add(((IFileHandle) args[0]).getFileReference().getFile());
+                    }
+                    try {
+                        return method.invoke(delegate, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        FileReference file = ioManager.resolve("compressed-close-" + System.currentTimeMillis());
+        FileReference lafFile = CompressedFileManager.getLookAsideFileReference(file);
+        BufferCache bufferCache = createBufferCache(ioManager);
+        int fileId = bufferCache.createFile(file, Lz4CompressorDecompressorFactory.INSTANCE);
+        bufferCache.openFile(fileId);
+        for (int i = 0; i < FILE_PAGES - 1; i++) {
+            ICachedPage page = bufferCache.confiscatePage(BufferedFileHandle.getDiskPageId(fileId, i));
+            fill(page, i);
+            bufferCache.createFIFOQueue().put(page);
+        }
+        bufferCache.finishQueue();
+        bufferCache.closeFile(fileId);
+        syncedFiles.clear();
+        // closing the buffer cache closes the file handle without a force from the caller
+        bufferCache.close();
+        try {
+            Assert.assertEquals(Arrays.asList(file.getFile(), lafFile.getFile()), syncedFiles);
+        } finally {
+            IoUtil.delete(file);
+            IoUtil.delete(lafFile);
+        }
+    }
+
+    @Test
+    public void rewrittenPagesReuseTheirSpace() throws Exception {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        IIOManager ioManager = TestStorageManagerComponentHolder.getIOManager();
+        FileReference file = ioManager.resolve("compressed-rewrite-" + System.currentTimeMillis());
+        IoUtil.create(file);
+        CompressedFileManager.create(ioManager, file, Lz4CompressorDecompressorFactory.INSTANCE);
+        FileReference laf = CompressedFileManager.getLookAsideFileReference(file);
+        long lafLength = laf.getFile().length();
+        CompressedFileManager manager = CompressedFileManager.open(ioManager, file);
+        IFileHandle handle = ioManager.open(file, IIOManager.FileReadWriteMode.READ_WRITE,
+                IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
+        try {
+            long[] fileLengths = new long[5];
+            for (int round = 0; round < fileLengths.length; round++) {
+                for (int i = 0; i < FILE_PAGES; i++) {
+                    manager.writePage(handle, i, 1, 0, createPage(i));
+                }
+                ioManager.sync(handle, true);
+                manager.force();
+                fileLengths[round] = file.getFile().length();
+            }
+            // the images replaced in a round are reused from the round after next on, so the file stops growing
+            Assert.assertEquals(2 * fileLengths[0], fileLengths[1]);
+            for (int round = 2; round < fileLengths.length; round++) {
+                Assert.assertEquals(fileLengths[1], fileLengths[round]);
+            }
+            long freeSpace = manager.getFreeSpace();
+            // the look-aside file holds one entry per page, however often the pages were rewritten
+            Assert.assertEquals(lafLength + FILE_PAGES * (Long.BYTES + Integer.BYTES), laf.getFile().length());
+
+            manager = CompressedFileManager.open(ioManager, file);
+            Assert.assertEquals(FILE_PAGES, manager.getNumPages());
+            Assert.assertEquals(freeSpace, manager.getFreeSpace());
+            for (int i = 0; i < FILE_PAGES; i++) {
+                ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+                manager.uncompress(manager.readPage(handle, i), page);
+                Assert.assertEquals(createPage(i), page.rewind());
+            }
+        } finally {
+            ioManager.close(handle);
+            CompressedFileManager.delete(file);
+            IoUtil.delete(file);
+        }
+    }
+
+    private static ByteBuffer createPage(int pageId) {
+        ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE / Integer.BYTES; i++) {
+            page.putInt(i * Integer.BYTES, pageId + i / 16);
+        }
+        return page;
+    }
+
+    private static BufferCache createBufferCache(IIOManager ioManager) {
+        return new BufferCache(ioManager,
+                new ClockPageReplacementStrategy(new HeapBufferAllocator(), PAGE_SIZE, NUM_PAGES),
+                new DelayPageCleanerPolicy(1000), new FileMapManager(), MAX_OPEN_FILES,
+                Executors.defaultThreadFactory());
+    }
+
+    private static void fill(ICachedPage page, int pageId) {
+        int length = page.getBuffer().capacity() / Integer.BYTES;
+        for (int i = 0; i < length; i++) {
+            page.getBuffer().putInt(i * Integer.BYTES, pageId + i / 16);
+        }
+    }
+
+    private static void check(ICachedPage page, int pageId) {
+        int length = page.getBuffer().capacity() / Integer.BYTES;
+        Assert.assertEquals(pageId == FILE_PAGES - 1 ? LARGE_PAGE_MULTIPLIER * PAGE_SIZE : PAGE_SIZE,
+                page.getBuffer().capacity());
+        int[] expected = new int[length];
+        int[] actual = new int[length];
+        for (int i = 0; i < length; i++) {
+            expected[i] = pageId + i / 16;
+            actual[i] = page.getBuffer().getInt(i * Integer.BYTES);
+        }
+        Assert.assertTrue(Arrays.equals(expected, actual));
+    }
+}
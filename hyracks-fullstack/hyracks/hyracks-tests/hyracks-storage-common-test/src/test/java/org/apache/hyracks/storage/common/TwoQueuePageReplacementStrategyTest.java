@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common;
+
+import java.util.concurrent.Executors;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.storage.common.buffercache.BufferCache;
+import org.apache.hyracks.storage.common.buffercache.DelayPageCleanerPolicy;
+import org.apache.hyracks.storage.common.buffercache.HeapBufferAllocator;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.buffercache.TwoQueuePageReplacementStrategy;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.storage.common.file.FileMapManager;
+import org.apache.hyracks.test.support.TestStorageManagerComponentHolder;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TwoQueuePageReplacementStrategyTest {
+    private static final int PAGE_SIZE = 256;
+    private static final int NUM_PAGES = 32;
+    private static final int MAX_OPEN_FILES = 10;
+    private static final int FILE_PAGES = 512;
+    private static final int HOT_PAGES = 8;
+    private static final int SCAN_PAGES_PER_ROUND = 16;
+    private static final int ROUNDS = 10;
+
+    @Test
+    public void hotPagesSurviveScan() throws Exception {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        IIOManager ioManager = TestStorageManagerComponentHolder.getIOManager();
+        TwoQueuePageReplacementStrategy prs =
+                new TwoQueuePageReplacementStrategy(new HeapBufferAllocator(), PAGE_SIZE, NUM_PAGES);
+        BufferCache bufferCache = new BufferCache(ioManager, prs, new DelayPageCleanerPolicy(1000),
+                new FileMapManager(), MAX_OPEN_FILES, Executors.defaultThreadFactory());
+        FileReference file = ioManager.resolve("2q-" + System.currentTimeMillis());
+        int fileId = bufferCache.createFile(file);
+        bufferCache.openFile(fileId);
+        try {
+            for (int i = 0; i < FILE_PAGES; i++) {
+                ICachedPage page = bufferCache.confiscatePage(BufferedFileHandle.getDiskPageId(fileId, i));
+                page.getBuffer().putInt(0, i);
+                bufferCache.createFIFOQueue().put(page);
+            }
+            bufferCache.finishQueue();
+            int scanPosition = HOT_PAGES;
+            // warm up: the hot pages get evicted once while cold and are promoted when re-read from the ghost queue
+            for (int round = 0; round < ROUNDS; round++) {
+                readHotPages(bufferCache, fileId);
+                scanPosition = scan(bufferCache, fileId, scanPosition);
+            }
+            Assert.assertEquals(HOT_PAGES, prs.getNumHotPages());
+            long missesOnHotPages = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long misses = prs.getMissCount();
+                readHotPages(bufferCache, fileId);
+                missesOnHotPages += prs.getMissCount() - misses;
+                scanPosition = scan(bufferCache, fileId, scanPosition);
+            }
+            Assert.assertEquals(0, missesOnHotPages);
+            Assert.assertTrue(prs.getHitCount() > 0);
+        } finally {
+            bufferCache.closeFile(fileId);
+            bufferCache.deleteFile(fileId);
+            bufferCache.close();
+        }
+    }
+
+    private static void readHotPages(IBufferCache bufferCache, int fileId) throws HyracksDataException {
+        for (int i = 0; i < HOT_PAGES; i++) {
+            read(bufferCache, fileId, i);
+        }
+    }
+
+    private static int scan(IBufferCache bufferCache, int fileId, int from) throws HyracksDataException {
+        for (int i = from; i < from + SCAN_PAGES_PER_ROUND; i++) {
+            read(bufferCache, fileId, i);
+        }
+        return from + SCAN_PAGES_PER_ROUND;
+    }
+
+    private static void read(IBufferCache bufferCache, int fileId, int pageId) throws HyracksDataException {
+        ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, pageId), false);
+        try {
+            Assert.assertEquals(pageId, page.getBuffer().getInt(0));
+        } finally {
+            bufferCache.unpin(page);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.file;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+
+import org.apache.hyracks.api.exceptions.ErrorCode;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.io.IFileHandle;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.storage.common.buffercache.BufferCache;
+import org.apache.hyracks.storage.common.buffercache.ClockPageReplacementStrategy;
+import org.apache.hyracks.storage.common.buffercache.DelayPageCleanerPolicy;
+import org.apache.hyracks.storage.common.buffercache.HeapBufferAllocator;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.buffercache.ICachedPageInternal;
+import org.apache.hyracks.test.support.TestStorageManagerComponentHolder;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MappedFileTest {
+    private static final int PAGE_SIZE = 256;
+    private static final int NUM_PAGES = 16;
+    private static final int MAX_OPEN_FILES = 10;
+    private static final int FILE_PAGES = 48;
+    private static final int LARGE_PAGE_MULTIPLIER = 3;
+
+    @Test
+    public void readsSpanRegions() throws Exception {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        IIOManager ioManager = TestStorageManagerComponentHolder.getIOManager();
+        FileReference file = ioManager.resolve("mapped-" + System.nanoTime());
+        Assert.assertTrue(file.getFile().createNewFile());
+        IFileHandle handle = ioManager.open(file, IIOManager.FileReadWriteMode.READ_WRITE,
+                IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
+        try {
+            ByteBuffer content = ByteBuffer.allocate(1000);
+            for (int i = 0; i < content.capacity(); i++) {
+                content.put(i, (byte) i);
+            }
+            content.limit(500);
+            ioManager.syncWrite(handle, 0, content);
+            MappedFile mappedFile = new MappedFile(ioManager, handle, 64);
+            Assert.assertEquals(500, mappedFile.getMappedSize());
+            ByteBuffer dest = ByteBuffer.allocate(200);
+            Assert.assertEquals(200, mappedFile.read(100, dest));
+            for (int i = 0; i < dest.capacity(); i++) {
+                Assert.assertEquals((byte) (100 + i), dest.get(i));
+            }
+            // the file grows after it was mapped
+            content.limit(content.capacity());
+            content.position(500);
+            ioManager.syncWrite(handle, 500, content);
+            dest.clear();
+            Assert.assertEquals(200, mappedFile.read(450, dest));
+            Assert.assertEquals(1000, mappedFile.getMappedSize());
+            for (int i = 0; i < dest.capacity(); i++) {
+                Assert.assertEquals((byte) (450 + i), dest.get(i));
+            }
+            // reads past the end behave like reads from the file channel
+            dest.clear();
+            Assert.assertEquals(100, mappedFile.read(900, dest));
+            dest.clear();
+            Assert.assertEquals(-1, mappedFile.read(1000, dest));
+        } finally {
+            ioManager.close(handle);
+            file.delete();
+        }
+    }
+
+    @Test
+    public void closeUnmapsRegions() throws Exception {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        IIOManager ioManager = TestStorageManagerComponentHolder.getIOManager();
+        FileReference file = ioManager.resolve("mapped-" + System.nanoTime());
+        Assert.assertTrue(file.getFile().createNewFile());
+        IFileHandle handle = ioManager.open(file, IIOManager.FileReadWriteMode.READ_WRITE,
+                IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
+        try {
+            ioManager.syncWrite(handle, 0, ByteBuffer.allocate(500));
+            MappedFile mappedFile = new MappedFile(ioManager, handle, 64);
+            ByteBuffer dest = ByteBuffer.allocate(200);
+            Assert.assertEquals(200, mappedFile.read(100, dest));
+            mappedFile.close();
+            Assert.assertEquals(0, mappedFile.getMappedSize());
+            dest.clear();
+            try {
+                mappedFile.read(100, dest);
+                Assert.fail("read from an unmapped file");
+            } catch (HyracksDataException e) {
+                Assert.assertEquals(ErrorCode.CANNOT_READ_CLOSED_FILE, e.getErrorCode());
+            }
+            // closing twice is harmless
+            mappedFile.close();
+        } finally {
+            ioManager.close(handle);
+            file.delete();
+        }
+    }
+
+    @Test
+    public void bufferCacheReadsThroughMapping() throws Exception {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        IIOManager ioManager = TestStorageManagerComponentHolder.getIOManager();
+        FileReference file = ioManager.resolve("mapped-" + System.nanoTime());
+        BufferCache bufferCache = createBufferCache(ioManager);
+        int fileId = bufferCache.createFile(file);
+        bufferCache.openFile(fileId);
+        write(bufferCache, fileId, 0, FILE_PAGES / 2);
+        bufferCache.closeFile(fileId);
+        bufferCache.close();
+
+        bufferCache = createBufferCache(ioManager);
+        fileId = bufferCache.openFile(file);
+        try {
+            // the cache is smaller than the file, so every pass misses
+            for (int pass = 0; pass < 2; pass++) {
+                read(bufferCache, fileId, 0, FILE_PAGES / 2);
+            }
+            // pages appended after the file was mapped, ending with a large page
+            write(bufferCache, fileId, FILE_PAGES / 2, FILE_PAGES);
+            read(bufferCache, fileId, 0, FILE_PAGES);
+        } finally {
+            bufferCache.closeFile(fileId);
+            bufferCache.deleteFile(fileId);
+            bufferCache.close();
+        }
+    }
+
+    @Test
+    public void unpinnedMappedPagesAreEvictedFirst() throws Exception {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        IIOManager ioManager = TestStorageManagerComponentHolder.getIOManager();
+        FileReference file = ioManager.resolve("mapped-" + System.nanoTime());
+        BufferCache bufferCache = createBufferCache(ioManager);
+        int fileId = bufferCache.createFile(file);
+        bufferCache.openFile(fileId);
+        write(bufferCache, fileId, 0, FILE_PAGES / 2);
+        bufferCache.closeFile(fileId);
+        bufferCache.close();
+
+        Set<ICachedPageInternal> advised = new HashSet<>();
+        bufferCache = createBufferCache(ioManager,
+                new ClockPageReplacementStrategy(new HeapBufferAllocator(), PAGE_SIZE, NUM_PAGES) {
+                    @Override
+                    public void adviseWontNeed(ICachedPageInternal cPage) {
+                        advised.add(cPage);
+                        super.adviseWontNeed(cPage);
+                    }
+                });
+        fileId = bufferCache.openFile(file);
+        try {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, 0), false);
+            ICachedPage again = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, 0), false);
+            bufferCache.unpin(again);
+            Assert.assertTrue("a pinned page was advised for eviction", advised.isEmpty());
+            bufferCache.unpin(page);
+            Assert.assertTrue(advised.contains(page));
+        } finally {
+            bufferCache.closeFile(fileId);
+            bufferCache.deleteFile(fileId);
+            bufferCache.close();
+        }
+    }
+
+    private static void write(BufferCache bufferCache, int fileId, int from, int to) throws Exception {
+        for (int i = from; i < to; i++) {
+            long dpid = BufferedFileHandle.getDiskPageId(fileId, i);
+            ICachedPage page = i < FILE_PAGES - 1 ? bufferCache.confiscatePage(dpid)
+                    : bufferCache.confiscateLargePage(dpid, LARGE_PAGE_MULTIPLIER, i + 1);
+            ByteBuffer buffer = page.getBuffer();
+            for (int j = 0; j < buffer.capacity(); j += Integer.BYTES) {
+                buffer.putInt(j, i + j);
+            }
+            bufferCache.createFIFOQueue().put(page);
+        }
+        bufferCache.finishQueue();
+    }
+
+    private static void read(BufferCache bufferCache, int fileId, int from, int to) throws Exception {
+        for (int i = from; i < to; i++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), false);
+            try {
+                ByteBuffer buffer = page.getBuffer();
+                Assert.assertEquals(i < FILE_PAGES - 1 ? PAGE_SIZE : PAGE_SIZE * LARGE_PAGE_MULTIPLIER,
+                        buffer.capacity());
+                for (int j = 0; j < buffer.capacity(); j += Integer.BYTES) {
+                    Assert.assertEquals(i + j, buffer.getInt(j));
+                }
+            } finally {
+                bufferCache.unpin(page);
+            }
+        }
+    }
+
+    private static BufferCache createBufferCache(IIOManager ioManager) {
+        return createBufferCache(ioManager,
+                new ClockPageReplacementStrategy(new HeapBufferAllocator(), PAGE_SIZE, NUM_PAGES));
+    }
+
+    private static BufferCache createBufferCache(IIOManager ioManager,
+            ClockPageReplacementStrategy pageReplacementStrategy) {
+        return new BufferCache(ioManager, pageReplacementStrategy, new DelayPageCleanerPolicy(1000),
+                new FileMapManager(), MAX_OPEN_FILES, Executors.defaultThreadFactory(), null, true);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.perf;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.test.support.TestStorageManagerComponentHolder;
+import org.apache.hyracks.test.support.TestUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Measures pin/unpin throughput of the buffer cache for a fully cached file as the number of threads grows.
+ * Every pin is a cache hit, so the numbers reflect the cost of the page lookup itself.
+ */
+public class BufferCachePinPerf {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final int PAGE_SIZE = 256;
+    private static final int NUM_PAGES = 4096;
+    private static final int FILE_PAGES = 1024;
+    private static final int MAX_OPEN_FILES = 10;
+    private static final long DURATION_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    private static final int[] THREAD_COUNTS = { 1, 2, 4, 8, 16, 32, 64 };
+
+    public static void main(String[] args) throws Exception {
+        IHyracksTaskContext ctx = TestUtils.create(PAGE_SIZE);
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        IIOManager ioManager = TestStorageManagerComponentHolder.getIOManager();
+        IBufferCache bufferCache =
+                TestStorageManagerComponentHolder.getBufferCache(ctx.getJobletContext().getServiceContext());
+        FileReference file = ioManager.resolve("pinperf-" + System.currentTimeMillis());
+        int fileId = bufferCache.createFile(file);
+        bufferCache.openFile(fileId);
+        try {
+            for (int i = 0; i < FILE_PAGES; i++) {
+                ICachedPage page = bufferCache.confiscatePage(BufferedFileHandle.getDiskPageId(fileId, i));
+                page.getBuffer().putInt(0, i);
+                bufferCache.createFIFOQueue().put(page);
+            }
+            bufferCache.finishQueue();
+            for (int numThreads : THREAD_COUNTS) {
+                // warm-up round, then the measured round
+                runExperiment(bufferCache, fileId, numThreads);
+                long ops = runExperiment(bufferCache, fileId, numThreads);
+                LOGGER.info("THREADS: " + numThreads + " PINS/SEC: " + (ops * 1000 / DURATION_MILLIS));
+            }
+        } finally {
+            bufferCache.closeFile(fileId);
+            bufferCache.deleteFile(fileId);
+            bufferCache.close();
+        }
+    }
+
+    private static long runExperiment(IBufferCache bufferCache, int fileId, int numThreads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            @SuppressWarnings("unchecked")
+            Future<Long>[] futures = new Future[numThreads];
+            final long end = System.currentTimeMillis() + DURATION_MILLIS;
+            for (int i = 0; i < numThreads; i++) {
+                final Random rnd = new Random(i);
+                futures[i] = executor.submit(() -> {
+                    long ops = 0;
+                    while (System.currentTimeMillis() < end) {
+                        // skew accesses towards a small hot set, as point lookups on an index root would
+                        int pageId = rnd.nextInt(4) == 0 ? rnd.nextInt(FILE_PAGES) : rnd.nextInt(16);
+                        ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, pageId), false);
+                        bufferCache.unpin(page);
+                        ops++;
+                    }
+                    return ops;
+                });
+            }
+            long total = 0;
+            for (Future<Long> future : futures) {
+                total += future.get();
+            }
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
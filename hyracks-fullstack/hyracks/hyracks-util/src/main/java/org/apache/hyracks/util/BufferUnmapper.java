@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Releases the memory of direct and mapped byte buffers without waiting for them to be garbage collected. The JDK has
+ * no public API for this, so the internal one of the running JDK is looked up reflectively: sun.misc.Unsafe
+ * .invokeCleaner on Java 9 and later, the cleaner of sun.nio.ch.DirectBuffer on Java 8. When neither is accessible,
+ * {@link #unmap(ByteBuffer)} does nothing and the buffer is released when it is garbage collected.
+ */
+public class BufferUnmapper {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final Unmapper UNMAPPER = lookup();
+
+    private BufferUnmapper() {
+    }
+
+    /**
+     * Release the memory of a direct buffer. The buffer, and every buffer sharing its content, must not be accessed
+     * anymore.
+     *
+     * @param buffer
+     *            the buffer to release
+     * @return whether the buffer was released, false if it is not direct or the JDK does not allow it
+     */
+    public static boolean unmap(ByteBuffer buffer) {
+        if (UNMAPPER == null || !buffer.isDirect()) {
+            return false;
+        }
+        try {
+            return UNMAPPER.unmap(buffer);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARN, "Unable to release a direct buffer, it is released when garbage collected", e);
+            return false;
+        }
+    }
+
+    public static boolean isSupported() {
+        return UNMAPPER != null;
+    }
+
+    private static Unmapper lookup() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Object unsafe = theUnsafe.get(null);
+            return buffer -> {
+                invokeCleaner.invoke(unsafe, buffer);
+                return true;
+            };
+        } catch (Exception e) {
+            // not Java 9 or later
+        }
+        try {
+            Method cleanerMethod = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            Method cleanMethod = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return buffer -> {
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner == null) {
+                    // a slice or a duplicate, the memory belongs to another buffer
+                    return false;
+                }
+                cleanMethod.invoke(cleaner);
+                return true;
+            };
+        } catch (Exception e) {
+            LOGGER.log(Level.INFO, "Direct buffers are released when garbage collected", e);
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Unmapper {
+        boolean unmap(ByteBuffer buffer) throws Exception;
+    }
+}